@@ -10,4 +10,586 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Thumb thumb = new Thumb();
+
+    private final Trending trending = new Trending();
+
+    private final Journal journal = new Journal();
+
+    private final Reconciliation reconciliation = new Reconciliation();
+
+    private final DictionaryImport dictionaryImport = new DictionaryImport();
+
+    private final Review review = new Review();
+
+    private final Snapshot snapshot = new Snapshot();
+
+    private final SearchOutbox searchOutbox = new SearchOutbox();
+
+    private final Reindex reindex = new Reindex();
+
+    private final Lucene lucene = new Lucene();
+
+    private final SearchCache searchCache = new SearchCache();
+
+    public Thumb getThumb() {
+        return thumb;
+    }
+
+    public Trending getTrending() {
+        return trending;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public Reconciliation getReconciliation() {
+        return reconciliation;
+    }
+
+    public DictionaryImport getDictionaryImport() {
+        return dictionaryImport;
+    }
+
+    public Review getReview() {
+        return review;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public SearchOutbox getSearchOutbox() {
+        return searchOutbox;
+    }
+
+    public Reindex getReindex() {
+        return reindex;
+    }
+
+    public Lucene getLucene() {
+        return lucene;
+    }
+
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    public static class Thumb {
+
+        /**
+         * Delay in milliseconds between two flushes of the pending thumb counters to the database.
+         */
+        private long flushDelayMs = 1000;
+
+        /**
+         * Where the thumbs of the wordThumbInfos are written.
+         */
+        private Storage storage = Storage.ROW;
+
+        /**
+         * Number of counter rows per wordThumbInfo, with the {@link Storage#SHARDED} storage.
+         */
+        private int shards = 8;
+
+        /**
+         * Delay in milliseconds between two compactions of the counter rows into their wordThumbInfo,
+         * with the {@link Storage#SHARDED} storage.
+         */
+        private long compactionDelayMs = 60000;
+
+        /**
+         * Time to live in seconds of the cached thumb totals of the wordThumbInfos, bounding how long an instance
+         * misses the thumbs flushed by another one.
+         */
+        private int totalsTimeToLiveSeconds = 5;
+
+        /**
+         * Number of best-voted pictures kept in memory for each wordInfo.
+         */
+        private int topPicturesSize = 20;
+
+        /**
+         * Number of lines of a bulk request written in the same transaction and Elasticsearch bulk request.
+         */
+        private int bulkChunkSize = 500;
+
+        /**
+         * Minimum delay in milliseconds between two pushes of the thumb counts of the same word over websocket.
+         */
+        private long pushIntervalMs = 1000;
+
+        public long getFlushDelayMs() {
+            return flushDelayMs;
+        }
+
+        public void setFlushDelayMs(long flushDelayMs) {
+            this.flushDelayMs = flushDelayMs;
+        }
+
+        public Storage getStorage() {
+            return storage;
+        }
+
+        public void setStorage(Storage storage) {
+            this.storage = storage;
+        }
+
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+
+        public long getCompactionDelayMs() {
+            return compactionDelayMs;
+        }
+
+        public void setCompactionDelayMs(long compactionDelayMs) {
+            this.compactionDelayMs = compactionDelayMs;
+        }
+
+        public int getTotalsTimeToLiveSeconds() {
+            return totalsTimeToLiveSeconds;
+        }
+
+        public void setTotalsTimeToLiveSeconds(int totalsTimeToLiveSeconds) {
+            this.totalsTimeToLiveSeconds = totalsTimeToLiveSeconds;
+        }
+
+        public int getTopPicturesSize() {
+            return topPicturesSize;
+        }
+
+        public void setTopPicturesSize(int topPicturesSize) {
+            this.topPicturesSize = topPicturesSize;
+        }
+
+        public int getBulkChunkSize() {
+            return bulkChunkSize;
+        }
+
+        public void setBulkChunkSize(int bulkChunkSize) {
+            this.bulkChunkSize = bulkChunkSize;
+        }
+
+        public long getPushIntervalMs() {
+            return pushIntervalMs;
+        }
+
+        public void setPushIntervalMs(long pushIntervalMs) {
+            this.pushIntervalMs = pushIntervalMs;
+        }
+
+        public enum Storage {
+            /**
+             * Thumbs are added to the {@code thumb_num} column of the wordThumbInfo.
+             */
+            ROW,
+            /**
+             * Thumbs are spread over several {@code word_thumb_shard} rows and summed on read.
+             */
+            SHARDED
+        }
+    }
+
+    public static class Trending {
+
+        /**
+         * Number of counters per row of the count-min sketches: the counts are over-estimated by about
+         * {@code 2.7 / sketch-width} of the thumbs of the window.
+         */
+        private int sketchWidth = 2048;
+
+        /**
+         * Number of rows of the count-min sketches, at most 8.
+         */
+        private int sketchDepth = 4;
+
+        /**
+         * Number of wordInfos remembered per window as candidates for the trending list.
+         */
+        private int candidates = 100;
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public int getCandidates() {
+            return candidates;
+        }
+
+        public void setCandidates(int candidates) {
+            this.candidates = candidates;
+        }
+    }
+
+    public static class Journal {
+
+        /**
+         * Whether every thumb is appended to the thumb journal.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the segment files of the thumb journal.
+         */
+        private String directory = "thumb-journal";
+
+        /**
+         * Size in bytes of a segment file, before rolling to a new one.
+         */
+        private long segmentSize = 64L * 1024 * 1024;
+
+        /**
+         * Number of segment files kept once all their thumbs are in the database, the older ones being deleted,
+         * or -1 to keep them all, so that {@code --replay-thumbs} can rebuild the thumb counts from scratch.
+         */
+        private int retainedSegments = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(long segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public int getRetainedSegments() {
+            return retainedSegments;
+        }
+
+        public void setRetainedSegments(int retainedSegments) {
+            this.retainedSegments = retainedSegments;
+        }
+    }
+
+    public static class Reconciliation {
+
+        /**
+         * When the thumb totals of the wordThumbInfos are reconciled with their userThumbInfos.
+         */
+        private String cron = "0 0 3 * * ?";
+
+        /**
+         * Number of wordThumbInfos read and corrected together.
+         */
+        private int pageSize = 1000;
+
+        /**
+         * Number of pages reconciled in parallel.
+         */
+        private int parallelism = 4;
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class DictionaryImport {
+
+        /**
+         * Number of rows of an imported file written in the same transaction.
+         */
+        private int chunkSize = 5000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Review {
+
+        /**
+         * When the reviews missed the day before lapse and their due dates roll over.
+         */
+        private String rollOverCron = "0 5 0 * * ?";
+
+        /**
+         * Number of users whose reviews roll over in the same transaction.
+         */
+        private int pageSize = 1000;
+
+        /**
+         * Number of pages rolled over in parallel.
+         */
+        private int parallelism = 4;
+
+        public String getRollOverCron() {
+            return rollOverCron;
+        }
+
+        public void setRollOverCron(String rollOverCron) {
+            this.rollOverCron = rollOverCron;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Snapshot {
+
+        /**
+         * Directory where the offline dictionary snapshots and their deltas are written.
+         */
+        private String directory = "snapshots";
+
+        /**
+         * Delay between the end of a snapshot build and the start of the next one, in milliseconds.
+         */
+        private long buildDelayMs = 600000;
+
+        /**
+         * Number of snapshot versions kept, the latest one included: a delta to the latest version is served from each.
+         */
+        private int retainedVersions = 10;
+
+        /**
+         * Number of best-voted pictures of each wordInfo in the snapshots.
+         */
+        private int picturesPerWord = 3;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getBuildDelayMs() {
+            return buildDelayMs;
+        }
+
+        public void setBuildDelayMs(long buildDelayMs) {
+            this.buildDelayMs = buildDelayMs;
+        }
+
+        public int getRetainedVersions() {
+            return retainedVersions;
+        }
+
+        public void setRetainedVersions(int retainedVersions) {
+            this.retainedVersions = retainedVersions;
+        }
+
+        public int getPicturesPerWord() {
+            return picturesPerWord;
+        }
+
+        public void setPicturesPerWord(int picturesPerWord) {
+            this.picturesPerWord = picturesPerWord;
+        }
+    }
+
+    public static class SearchOutbox {
+
+        /**
+         * Delay between the end of a drain of the search outbox and the start of the next one, in milliseconds.
+         */
+        private long drainDelayMs = 1000;
+
+        /**
+         * Number of outbox rows indexed in one transaction, with one bulk request per index.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Delay before the first retry of a document Elasticsearch failed to index, in milliseconds, doubled with each attempt.
+         */
+        private long retryDelayMs = 1000;
+
+        /**
+         * Maximum delay between two retries of a document, in milliseconds.
+         */
+        private long maxRetryDelayMs = 300000;
+
+        public long getDrainDelayMs() {
+            return drainDelayMs;
+        }
+
+        public void setDrainDelayMs(long drainDelayMs) {
+            this.drainDelayMs = drainDelayMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getRetryDelayMs() {
+            return retryDelayMs;
+        }
+
+        public void setRetryDelayMs(long retryDelayMs) {
+            this.retryDelayMs = retryDelayMs;
+        }
+
+        public long getMaxRetryDelayMs() {
+            return maxRetryDelayMs;
+        }
+
+        public void setMaxRetryDelayMs(long maxRetryDelayMs) {
+            this.maxRetryDelayMs = maxRetryDelayMs;
+        }
+    }
+
+    public static class Reindex {
+
+        /**
+         * Number of entities read from the database at once, and indexed with one bulk request.
+         */
+        private int pageSize = 1000;
+
+        /**
+         * Number of bulk requests sent in parallel, the reading waiting when as many more pages are queued.
+         */
+        private int parallelism = 4;
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Lucene {
+
+        /**
+         * Directory of the embedded Lucene indices searched with the "lucene" profile, one sub-directory per index.
+         */
+        private String directory = "search-index";
+
+        /**
+         * Maximum delay in milliseconds before a write becomes visible to the searches, like the Elasticsearch refresh interval.
+         */
+        private long refreshIntervalMs = 1000;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getRefreshIntervalMs() {
+            return refreshIntervalMs;
+        }
+
+        public void setRefreshIntervalMs(long refreshIntervalMs) {
+            this.refreshIntervalMs = refreshIntervalMs;
+        }
+    }
+
+    public static class SearchCache {
+
+        /**
+         * Maximum number of pages of hits cached per index, the least recently used being evicted first.
+         */
+        private int maxEntries = 1000;
+
+        /**
+         * Time to live in seconds of a cached page, bounding how long an instance serves the hits of an index written by another one.
+         */
+        private int timeToLiveSeconds = 60;
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+    }
 }
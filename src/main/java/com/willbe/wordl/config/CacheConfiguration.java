@@ -20,14 +20,18 @@ public class CacheConfiguration {
 
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    private final javax.cache.configuration.Configuration<Object, Object> thumbTotalsConfiguration;
+
+    private final javax.cache.configuration.Configuration<Object, Object> searchCacheConfiguration;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
 
-        jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                .build());
+        jcacheConfiguration = heapConfiguration(ehcache.getMaxEntries(), ehcache.getTimeToLiveSeconds());
+        thumbTotalsConfiguration = heapConfiguration(ehcache.getMaxEntries(),
+            applicationProperties.getThumb().getTotalsTimeToLiveSeconds());
+        ApplicationProperties.SearchCache searchCache = applicationProperties.getSearchCache();
+        searchCacheConfiguration = heapConfiguration(searchCache.getMaxEntries(), searchCache.getTimeToLiveSeconds());
     }
 
     @Bean
@@ -48,16 +52,35 @@ public class CacheConfiguration {
             createCache(cm, com.willbe.wordl.domain.CategoryWord.class.getName());
             createCache(cm, com.willbe.wordl.domain.WordThumbInfo.class.getName());
             createCache(cm, com.willbe.wordl.domain.WordInfo.class.getName());
+            createCache(cm, com.willbe.wordl.domain.WordInfo.class.getName() + "##NaturalId");
             createCache(cm, com.willbe.wordl.domain.UserThumbInfo.class.getName());
             createCache(cm, com.willbe.wordl.domain.Feedback.class.getName());
+            createCache(cm, com.willbe.wordl.repository.WordThumbInfoRepository.WORD_THUMB_INFO_IDS_BY_THUMB_LID_CACHE);
+            createCache(cm, com.willbe.wordl.repository.WordThumbShardRepository.THUMB_TOTALS_CACHE, thumbTotalsConfiguration);
+            createCache(cm, com.willbe.wordl.service.ThumbedPicturesService.THUMBED_PICTURES_CACHE);
+            com.willbe.wordl.service.SearchCacheService.SEARCH_RESULTS_CACHES.forEach(cacheName ->
+                createCache(cm, cacheName, searchCacheConfiguration));
             // jhipster-needle-ehcache-add-entry
         };
     }
 
+    private static javax.cache.configuration.Configuration<Object, Object> heapConfiguration(long maxEntries, long timeToLiveSeconds) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds)))
+                .build());
+    }
+
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName,
+                             javax.cache.configuration.Configuration<Object, Object> configuration) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache == null) {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, configuration);
         }
     }
 
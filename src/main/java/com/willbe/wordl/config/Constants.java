@@ -12,6 +12,9 @@ public final class Constants {
     public static final String DEFAULT_LANGUAGE = "zh-cn";
     public static final String ANONYMOUS_USER = "anonymoususer";
 
+    // Spring profile searching the embedded Lucene indices instead of Elasticsearch
+    public static final String SPRING_PROFILE_LUCENE = "lucene";
+
     private Constants() {
     }
 }
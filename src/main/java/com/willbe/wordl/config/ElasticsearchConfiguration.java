@@ -11,10 +11,12 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.EntityMapper;
 import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
 import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+import org.springframework.data.elasticsearch.repository.config.EnableElasticsearchRepositories;
 import org.springframework.data.mapping.MappingException;
 
 import java.io.IOException;
@@ -38,6 +40,7 @@ public class ElasticsearchConfiguration {
 
     @Bean
     @Primary
+    @Profile("!" + Constants.SPRING_PROFILE_LUCENE)
     public ElasticsearchOperations elasticsearchTemplate(final JestClient jestClient,
                                                          final ElasticsearchConverter elasticsearchConverter,
                                                          final SimpleElasticsearchMappingContext simpleElasticsearchMappingContext,
@@ -48,6 +51,17 @@ public class ElasticsearchConfiguration {
             new DefaultJestResultsMapper(simpleElasticsearchMappingContext, mapper));
     }
 
+    /**
+     * The search repositories are implemented with Elasticsearch, unless the embedded Lucene indices are searched.
+     *
+     * @see LuceneSearchConfiguration
+     */
+    @Configuration
+    @Profile("!" + Constants.SPRING_PROFILE_LUCENE)
+    @EnableElasticsearchRepositories("com.willbe.wordl.repository.search")
+    public static class ElasticsearchRepositoriesConfiguration {
+    }
+
     public class CustomEntityMapper implements EntityMapper {
 
         private ObjectMapper objectMapper;
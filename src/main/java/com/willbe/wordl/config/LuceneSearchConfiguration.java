@@ -0,0 +1,116 @@
+package com.willbe.wordl.config;
+
+import com.willbe.wordl.domain.*;
+import com.willbe.wordl.repository.search.*;
+import com.willbe.wordl.repository.search.lucene.LuceneIndex;
+import com.willbe.wordl.repository.search.lucene.LuceneSearchAfterOperations;
+import com.willbe.wordl.repository.search.lucene.LuceneSearchRepository;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Implement the search repositories with embedded Lucene indices instead of Elasticsearch, for the deployments running
+ * a single node.
+ * <p>
+ * Each index is stored in a sub-directory of {@code application.lucene.directory}, named after the index of the entity.
+ * The Elasticsearch auto-configurations are excluded in the {@code application-lucene.yml} file.
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_LUCENE)
+public class LuceneSearchConfiguration {
+
+    /**
+     * Like the Elasticsearch standard analyzer, which has no stop words.
+     */
+    private final Analyzer analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+
+    private final List<LuceneIndex> indices = new CopyOnWriteArrayList<>();
+
+    private final LuceneSearchAfterOperations searchAfterOperations = new LuceneSearchAfterOperations();
+
+    private final ApplicationProperties.Lucene luceneProperties;
+
+    private final EntityMapper entityMapper;
+
+    public LuceneSearchConfiguration(ApplicationProperties applicationProperties, EntityMapper entityMapper) {
+        this.luceneProperties = applicationProperties.getLucene();
+        this.entityMapper = entityMapper;
+    }
+
+    @Bean
+    public WordInfoSearchRepository wordInfoSearchRepository() throws IOException {
+        return createRepository(WordInfoSearchRepository.class, WordInfo.class, WordInfo::getId);
+    }
+
+    @Bean
+    public CategoryWordSearchRepository categoryWordSearchRepository() throws IOException {
+        return createRepository(CategoryWordSearchRepository.class, CategoryWord.class, CategoryWord::getId);
+    }
+
+    @Bean
+    public WordThumbInfoSearchRepository wordThumbInfoSearchRepository() throws IOException {
+        return createRepository(WordThumbInfoSearchRepository.class, WordThumbInfo.class, WordThumbInfo::getId);
+    }
+
+    @Bean
+    public UserThumbInfoSearchRepository userThumbInfoSearchRepository() throws IOException {
+        return createRepository(UserThumbInfoSearchRepository.class, UserThumbInfo.class, UserThumbInfo::getId);
+    }
+
+    @Bean
+    public FeedbackSearchRepository feedbackSearchRepository() throws IOException {
+        return createRepository(FeedbackSearchRepository.class, Feedback.class, Feedback::getId);
+    }
+
+    @Bean
+    public UserSearchRepository userSearchRepository() throws IOException {
+        return createRepository(UserSearchRepository.class, User.class, User::getId);
+    }
+
+    @Bean
+    public SearchAfterOperations searchAfterOperations() {
+        return searchAfterOperations;
+    }
+
+    @PreDestroy
+    public void closeIndices() throws IOException {
+        for (LuceneIndex index : indices) {
+            index.close();
+        }
+    }
+
+    /**
+     * Proxy the repository interface to a {@link LuceneSearchRepository}, as it declares no method of its own.
+     */
+    @SuppressWarnings("unchecked")
+    private <R extends ElasticsearchRepository<T, Long>, T> R createRepository(Class<R> repositoryInterface, Class<T> entityClass,
+                                                                             Function<T, Long> idGetter) throws IOException {
+        String indexName = AnnotationUtils.findAnnotation(entityClass, Document.class).indexName();
+        Path path = Paths.get(luceneProperties.getDirectory(), indexName);
+        LuceneIndex index = new LuceneIndex(indexName, path, analyzer, luceneProperties.getRefreshIntervalMs());
+        indices.add(index);
+        LuceneSearchRepository<T> repository = new LuceneSearchRepository<>(index, entityClass, idGetter, analyzer, entityMapper);
+        searchAfterOperations.register(entityClass, repository);
+        ProxyFactory proxyFactory = new ProxyFactory(repository);
+        proxyFactory.addInterface(repositoryInterface);
+        return (R) proxyFactory.getProxy();
+    }
+}
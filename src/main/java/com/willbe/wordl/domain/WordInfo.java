@@ -2,6 +2,8 @@ package com.willbe.wordl.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -12,6 +14,7 @@ import java.io.Serializable;
 @Entity
 @Table(name = "word_info")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@NaturalIdCache
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "wordinfo")
 public class WordInfo implements Serializable {
 
@@ -22,7 +25,8 @@ public class WordInfo implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
-    @Column(name = "word")
+    @NaturalId(mutable = true)
+    @Column(name = "word", unique = true)
     private String word;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
@@ -0,0 +1,8 @@
+package com.willbe.wordl.domain.enumeration;
+
+/**
+ * The Category enumeration.
+ */
+public enum Category {
+    ROOT, PREFIX, AFFIX, SUFFIX, SITUATION
+}
@@ -2,12 +2,30 @@ package com.willbe.wordl.repository;
 
 import com.willbe.wordl.domain.CategoryWord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Spring Data  repository for the CategoryWord entity.
  */
 @SuppressWarnings("unused")
 @Repository
 public interface CategoryWordRepository extends JpaRepository<CategoryWord, Long> {
+
+    List<CategoryWord> findAllByWordIn(Collection<String> words);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select categoryWord from CategoryWord categoryWord order by categoryWord.id")
+    Stream<CategoryWord> streamAllByOrderById();
 }
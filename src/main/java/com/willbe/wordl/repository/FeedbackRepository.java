@@ -3,9 +3,17 @@ package com.willbe.wordl.repository;
 import com.willbe.wordl.domain.Feedback;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Spring Data  repository for the Feedback entity.
@@ -16,4 +24,9 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 
     @Query("select feedback from Feedback feedback where feedback.creator.login = ?#{principal.username}")
     List<Feedback> findByCreatorIsCurrentUser();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select feedback from Feedback feedback left join fetch feedback.creator order by feedback.id")
+    Stream<Feedback> streamAllByOrderById();
 }
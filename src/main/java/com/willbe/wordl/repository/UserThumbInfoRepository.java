@@ -1,11 +1,22 @@
 package com.willbe.wordl.repository;
 
 import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.service.dto.UserThumbHistoryDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Spring Data  repository for the UserThumbInfo entity.
@@ -16,4 +27,24 @@ public interface UserThumbInfoRepository extends JpaRepository<UserThumbInfo, Lo
 
     @Query("select userThumbInfo from UserThumbInfo userThumbInfo where userThumbInfo.clicker.login = ?#{principal.username}")
     List<UserThumbInfo> findByClickerIsCurrentUser();
+
+    @Query("select userThumbInfo.clicker.id, userThumbInfo.thumbLid from UserThumbInfo userThumbInfo" +
+        " where userThumbInfo.clicker.id in ?1 and userThumbInfo.thumbLid in ?2")
+    List<Object[]> findClickerIdsAndThumbLidsByClickerIdInAndThumbLidIn(Collection<Long> clickerIds, Collection<String> thumbLids);
+
+    @Query("select userThumbInfo.thumbLid from UserThumbInfo userThumbInfo where userThumbInfo.clicker is null and userThumbInfo.thumbLid in ?1")
+    List<String> findThumbLidsByClickerIsNullAndThumbLidIn(Collection<String> thumbLids);
+
+    @Query("select new com.willbe.wordl.service.dto.UserThumbHistoryDTO(userThumbInfo.id, userThumbInfo.word, userThumbInfo.thumbNum, userThumbInfo.picUrl, userThumbInfo.thumbLid)" +
+        " from UserThumbInfo userThumbInfo where userThumbInfo.clicker.id = ?1 and userThumbInfo.id < ?2 order by userThumbInfo.id desc")
+    List<UserThumbHistoryDTO> findHistoryByClickerIdAndIdLessThan(Long clickerId, Long id, Pageable pageable);
+
+    @Query("select new com.willbe.wordl.service.dto.UserThumbHistoryDTO(userThumbInfo.id, userThumbInfo.word, userThumbInfo.thumbNum, userThumbInfo.picUrl, userThumbInfo.thumbLid)" +
+        " from UserThumbInfo userThumbInfo where userThumbInfo.clicker.login = ?1 and userThumbInfo.word in ?2 order by userThumbInfo.id desc")
+    List<UserThumbHistoryDTO> findHistoryByClickerLoginAndWordIn(String login, Collection<String> words);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select userThumbInfo from UserThumbInfo userThumbInfo left join fetch userThumbInfo.clicker order by userThumbInfo.id")
+    Stream<UserThumbInfo> streamAllByOrderById();
 }
@@ -0,0 +1,19 @@
+package com.willbe.wordl.repository;
+
+import com.willbe.wordl.domain.WordInfo;
+
+import java.util.Optional;
+
+/**
+ * Lookups of the WordInfo entity by its natural id, its word.
+ */
+public interface WordInfoNaturalIdRepository {
+
+    /**
+     * Find a wordInfo by its word, through the natural-id cache of Hibernate.
+     *
+     * @param word the word of the wordInfo.
+     * @return the wordInfo, if any.
+     */
+    Optional<WordInfo> findOneByWord(String word);
+}
@@ -0,0 +1,25 @@
+package com.willbe.wordl.repository;
+
+import com.willbe.wordl.domain.WordInfo;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link WordInfoNaturalIdRepository} with the natural-id API of Hibernate,
+ * which Spring Data queries do not use.
+ */
+public class WordInfoNaturalIdRepositoryImpl implements WordInfoNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<WordInfo> findOneByWord(String word) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(WordInfo.class).loadOptional(word);
+    }
+}
@@ -2,12 +2,26 @@ package com.willbe.wordl.repository;
 
 import com.willbe.wordl.domain.WordInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Spring Data  repository for the WordInfo entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface WordInfoRepository extends JpaRepository<WordInfo, Long> {
+public interface WordInfoRepository extends JpaRepository<WordInfo, Long>, WordInfoNaturalIdRepository {
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select wordInfo from WordInfo wordInfo order by wordInfo.id")
+    Stream<WordInfo> streamAllByOrderById();
 }
@@ -1,13 +1,40 @@
 package com.willbe.wordl.repository;
 
 import com.willbe.wordl.domain.WordThumbInfo;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Spring Data  repository for the WordThumbInfo entity.
  */
 @SuppressWarnings("unused")
 @Repository
 public interface WordThumbInfoRepository extends JpaRepository<WordThumbInfo, Long> {
+
+    String WORD_THUMB_INFO_IDS_BY_THUMB_LID_CACHE = "wordThumbInfoIdsByThumbLid";
+
+    @Cacheable(cacheNames = WORD_THUMB_INFO_IDS_BY_THUMB_LID_CACHE)
+    @Query("select wordThumbInfo.id from WordThumbInfo wordThumbInfo where wordThumbInfo.thumbLid = ?1 order by wordThumbInfo.id")
+    List<Long> findIdsByThumbLid(String thumbLid);
+
+    @Query("select wordThumbInfo from WordThumbInfo wordThumbInfo join fetch wordThumbInfo.word word where word.id in ?1")
+    List<WordThumbInfo> findAllWithWordByWordIdIn(Collection<Long> wordInfoIds);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select wordThumbInfo from WordThumbInfo wordThumbInfo left join fetch wordThumbInfo.word order by wordThumbInfo.id")
+    Stream<WordThumbInfo> streamAllByOrderById();
 }
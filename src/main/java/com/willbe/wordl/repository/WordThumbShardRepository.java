@@ -0,0 +1,155 @@
+package com.willbe.wordl.repository;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * JDBC repository for the sharded thumb counters of the WordThumbInfo entity.
+ * <p>
+ * The thumbs of a wordThumbInfo are spread over several {@code word_thumb_shard} rows, so that
+ * several application instances can add thumbs to the same picture without waiting on one row lock.
+ * The total of a wordThumbInfo is its own {@code thumb_num} plus the sum of its shards.
+ * <p>
+ * The totals are cached per instance and only evicted by the instance which wrote them, so an instance serves
+ * the totals of the thumbs flushed by the others after {@code application.thumb.totals-time-to-live-seconds}.
+ */
+@Repository
+public class WordThumbShardRepository {
+
+    public static final String THUMB_TOTALS_CACHE = "wordThumbTotals";
+
+    private static final String INCREMENT_SQL =
+        "update word_thumb_shard set thumb_num = thumb_num + ? where word_thumb_info_id = ? and shard = ?";
+
+    // selecting from word_thumb_info skips the wordThumbInfos deleted in the meantime
+    private static final String INSERT_SQL =
+        "insert into word_thumb_shard (word_thumb_info_id, shard, thumb_num) select id, ?, ? from word_thumb_info where id = ?";
+
+    private static final String DECREMENT_SQL =
+        "update word_thumb_shard set thumb_num = thumb_num - ? where word_thumb_info_id = ? and shard = ?";
+
+    // one statement, so that a compaction moving the thumbs from the shards to the row is seen entirely or not at all
+    private static final String TOTAL_SQL =
+        "select coalesce(w.thumb_num, 0) + coalesce((select sum(s.thumb_num) from word_thumb_shard s where s.word_thumb_info_id = w.id), 0) " +
+            "from word_thumb_info w where w.id = ?";
+
+    private static final String TOTALS_SQL =
+        "select w.id, coalesce(w.thumb_num, 0) + coalesce((select sum(s.thumb_num) from word_thumb_shard s where s.word_thumb_info_id = w.id), 0) " +
+            "from word_thumb_info w where w.id in (:ids)";
+
+    private static final String FIND_NOT_EMPTY_SQL =
+        "select word_thumb_info_id, shard, thumb_num from word_thumb_shard where thumb_num <> 0";
+
+    private static final String DELETE_ALL_SQL = "delete from word_thumb_shard";
+
+    private static final String WORD_THUMB_INFO_INCREMENT_SQL =
+        "update word_thumb_info set thumb_num = coalesce(thumb_num, 0) + ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public WordThumbShardRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Add thumbs to a randomly chosen shard of each wordThumbInfo, creating the shard when needed.
+     * <p>
+     * Must run in a transaction. Two instances creating the same shard at the same time make one of
+     * the transactions fail on the primary key, and its caller is expected to retry.
+     *
+     * @param deltas the number of thumbs to add, by wordThumbInfo id.
+     * @param shardCount the number of shards per wordThumbInfo.
+     */
+    public void addThumbs(Map<Long, Long> deltas, int shardCount) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> incrementArgs = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> incrementArgs.add(new Object[]{delta, id, ThreadLocalRandom.current().nextInt(shardCount)}));
+        int[] updateCounts = jdbcTemplate.batchUpdate(INCREMENT_SQL, incrementArgs);
+        List<Object[]> insertArgs = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                Object[] args = incrementArgs.get(i);
+                insertArgs.add(new Object[]{args[2], args[0], args[1]});
+            }
+        }
+        if (!insertArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, insertArgs);
+        }
+    }
+
+    /**
+     * Read the total of a wordThumbInfo from the database, rather than from its entity which may be cached by
+     * Hibernate since another instance flushed or compacted its thumbs.
+     *
+     * @param wordThumbInfoId the id of the wordThumbInfo.
+     * @return the number of thumbs stored in its row and its shards, {@code 0} if it does not exist.
+     */
+    @Cacheable(cacheNames = THUMB_TOTALS_CACHE)
+    public Long totalThumbNum(Long wordThumbInfoId) {
+        List<Long> totals = jdbcTemplate.queryForList(TOTAL_SQL, Long.class, wordThumbInfoId);
+        return totals.isEmpty() ? 0L : totals.get(0);
+    }
+
+    /**
+     * Read the totals of several wordThumbInfos from the database in one query, bypassing the cache of
+     * {@link #totalThumbNum(Long)}.
+     *
+     * @param wordThumbInfoIds the ids of the wordThumbInfos.
+     * @return the number of thumbs stored in their rows and shards, by id of the existing wordThumbInfos.
+     */
+    public Map<Long, Long> totalThumbNums(Collection<Long> wordThumbInfoIds) {
+        Map<Long, Long> totals = new HashMap<>();
+        if (!wordThumbInfoIds.isEmpty()) {
+            namedParameterJdbcTemplate.query(TOTALS_SQL, Collections.singletonMap("ids", wordThumbInfoIds), rs -> {
+                totals.put(rs.getLong(1), rs.getLong(2));
+            });
+        }
+        return totals;
+    }
+
+    /**
+     * Move the thumbs stored in the shards to their wordThumbInfo rows.
+     * <p>
+     * Must run in a transaction. Only relative updates are used, so thumbs added to the shards
+     * concurrently are kept for the next compaction.
+     *
+     * @return the ids of the wordThumbInfos which were updated.
+     */
+    public Set<Long> compact() {
+        Map<Long, Long> totals = new TreeMap<>();
+        List<Object[]> shardArgs = new ArrayList<>();
+        jdbcTemplate.query(FIND_NOT_EMPTY_SQL, rs -> {
+            long id = rs.getLong(1);
+            long thumbNum = rs.getLong(3);
+            totals.merge(id, thumbNum, Long::sum);
+            shardArgs.add(new Object[]{thumbNum, id, rs.getInt(2)});
+        });
+        if (totals.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Object[]> wordThumbInfoArgs = new ArrayList<>(totals.size());
+        totals.forEach((id, total) -> wordThumbInfoArgs.add(new Object[]{total, id}));
+        jdbcTemplate.batchUpdate(WORD_THUMB_INFO_INCREMENT_SQL, wordThumbInfoArgs);
+        jdbcTemplate.batchUpdate(DECREMENT_SQL, shardArgs);
+        return totals.keySet();
+    }
+
+    /**
+     * Drop the thumbs of all the shards, when the totals of the wordThumbInfos are rewritten in their rows.
+     * <p>
+     * Must run in a transaction.
+     */
+    public void deleteAll() {
+        jdbcTemplate.update(DELETE_ALL_SQL);
+    }
+}
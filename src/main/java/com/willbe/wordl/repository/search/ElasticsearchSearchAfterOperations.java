@@ -0,0 +1,85 @@
+package com.willbe.wordl.repository.search;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.willbe.wordl.config.Constants;
+
+import io.searchbox.client.JestClient;
+import io.searchbox.core.Search;
+import io.searchbox.core.SearchResult;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link SearchAfterOperations} sending the {@code search_after} searches to Elasticsearch with Jest.
+ */
+@Repository
+@Profile("!" + Constants.SPRING_PROFILE_LUCENE)
+public class ElasticsearchSearchAfterOperations implements SearchAfterOperations {
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final JestClient jestClient;
+
+    private final EntityMapper entityMapper;
+
+    public ElasticsearchSearchAfterOperations(ElasticsearchOperations elasticsearchOperations, JestClient jestClient,
+                                              EntityMapper entityMapper) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.jestClient = jestClient;
+        this.entityMapper = entityMapper;
+    }
+
+    @Override
+    public <T> SearchAfterPage<T> searchAfter(Class<T> entityClass, QueryBuilder query, int size, SearchCursor after) {
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchOperations.getPersistentEntityFor(entityClass);
+        SearchSourceBuilder source = new SearchSourceBuilder()
+            .query(query)
+            .size(size)
+            .sort(SortBuilders.scoreSort())
+            .sort(SortBuilders.fieldSort("id").order(SortOrder.ASC));
+        if (after != null) {
+            source.searchAfter(new Object[]{after.getScore(), after.getId()});
+        }
+        Search search = new Search.Builder(source.toString())
+            .addIndex(persistentEntity.getIndexName())
+            .addType(persistentEntity.getIndexType())
+            .build();
+        SearchResult result;
+        try {
+            result = jestClient.execute(search);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not search " + persistentEntity.getIndexName(), e);
+        }
+        if (!result.isSucceeded()) {
+            throw new ElasticsearchException("Could not search " + persistentEntity.getIndexName() + ": " + result.getErrorMessage());
+        }
+        List<T> content = new ArrayList<>();
+        SearchCursor last = null;
+        try {
+            for (JsonElement element : result.getJsonObject().getAsJsonObject("hits").getAsJsonArray("hits")) {
+                JsonObject hit = element.getAsJsonObject();
+                content.add(entityMapper.mapToObject(hit.get("_source").toString(), entityClass));
+                JsonArray sort = hit.getAsJsonArray("sort");
+                last = new SearchCursor(sort.get(0).getAsFloat(), sort.get(1).getAsLong());
+            }
+        } catch (IOException e) {
+            throw new ElasticsearchException("Could not map the hits of " + persistentEntity.getIndexName(), e);
+        }
+        return new SearchAfterPage<>(content, result.getTotal(), content.size() < size ? null : last);
+    }
+}
@@ -0,0 +1,33 @@
+package com.willbe.wordl.repository.search;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.util.StringUtils;
+
+/**
+ * Thrown when a search repository cannot run a search as requested, such as a query it cannot parse, or a sort or
+ * kind of query its backend does not support.
+ * <p>
+ * The search comes from the client, so it is answered with a {@code 400 (Bad Request)}.
+ */
+public class InvalidSearchException extends InvalidDataAccessApiUsageException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    public InvalidSearchException(Class<?> entityClass, String message) {
+        this(entityClass, message, null);
+    }
+
+    public InvalidSearchException(Class<?> entityClass, String message, Throwable cause) {
+        super(message, cause);
+        this.entityName = StringUtils.uncapitalize(entityClass.getSimpleName());
+    }
+
+    /**
+     * @return the name of the searched entity, like the {@code ENTITY_NAME} of its resource.
+     */
+    public String getEntityName() {
+        return entityName;
+    }
+}
@@ -0,0 +1,25 @@
+package com.willbe.wordl.repository.search;
+
+import org.elasticsearch.index.query.QueryBuilder;
+
+/**
+ * Deep paging of the searches of the search repositories, with {@code search_after}.
+ * <p>
+ * Unlike with a {@code from} offset, a page is searched after the sort values of the last hit of the previous page,
+ * so searching a page costs the same at any depth. The hits are sorted by relevance then by id, so that the order is
+ * stable between the pages.
+ */
+public interface SearchAfterOperations {
+
+    /**
+     * Search a page of the entities matching the query.
+     *
+     * @param entityClass the class of the entities, the type of a search repository.
+     * @param query the query.
+     * @param size the maximum number of hits of the page.
+     * @param after the cursor of the last hit of the previous page, {@code null} for the first page.
+     * @param <T> the type of the entities.
+     * @return the page of hits.
+     */
+    <T> SearchAfterPage<T> searchAfter(Class<T> entityClass, QueryBuilder query, int size, SearchCursor after);
+}
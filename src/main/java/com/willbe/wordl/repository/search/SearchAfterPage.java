@@ -0,0 +1,41 @@
+package com.willbe.wordl.repository.search;
+
+import java.util.List;
+
+/**
+ * A page of search hits sorted by relevance then by id, with the cursor of its last hit.
+ *
+ * @param <T> the type of the entities.
+ */
+public class SearchAfterPage<T> {
+
+    private final List<T> content;
+
+    private final long totalHits;
+
+    private final SearchCursor next;
+
+    public SearchAfterPage(List<T> content, long totalHits, SearchCursor next) {
+        this.content = content;
+        this.totalHits = totalHits;
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the number of hits of the search, in all pages.
+     */
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * @return the cursor to search the next page with, {@code null} if this page is the last one.
+     */
+    public SearchCursor getNext() {
+        return next;
+    }
+}
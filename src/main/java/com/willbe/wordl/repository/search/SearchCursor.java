@@ -0,0 +1,57 @@
+package com.willbe.wordl.repository.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The sort values of a search hit, sorted by relevance then by id: the next page is searched after them.
+ * <p>
+ * Encoded as an opaque URL-safe string for the clients.
+ */
+public final class SearchCursor {
+
+    private final float score;
+
+    private final long id;
+
+    public SearchCursor(float score, long id) {
+        this.score = score;
+        this.id = id;
+    }
+
+    /**
+     * Decode a cursor encoded with {@link #encode()}.
+     *
+     * @param encoded the encoded cursor.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the cursor is not valid.
+     */
+    public static SearchCursor decode(String encoded) {
+        String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid search cursor " + encoded);
+        }
+        return new SearchCursor(Float.parseFloat(decoded.substring(0, separator)), Long.parseLong(decoded.substring(separator + 1)));
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((score + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCursor{" +
+            "score=" + score +
+            ", id=" + id +
+            "}";
+    }
+}
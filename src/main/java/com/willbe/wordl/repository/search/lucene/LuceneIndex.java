@@ -0,0 +1,139 @@
+package com.willbe.wordl.repository.search.lucene;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * An embedded Lucene index, memory-mapped from a directory of the local disk.
+ * <p>
+ * The searches use near-real-time readers opened from the {@link IndexWriter}, without waiting for a commit: a write
+ * becomes visible to the searches when {@link #refresh()} is called, or at most {@code refreshIntervalMs} later, like
+ * with an Elasticsearch refresh. The writes are committed before returning, so they survive a restart.
+ */
+public class LuceneIndex implements Closeable {
+
+    /**
+     * Name of the field holding the id of the documents, indexed as a term and as a doc value to sort on.
+     */
+    public static final String ID_FIELD = "_id";
+
+    private final Logger log = LoggerFactory.getLogger(LuceneIndex.class);
+
+    private final String name;
+
+    private final Directory directory;
+
+    private final IndexWriter indexWriter;
+
+    private final SearcherManager searcherManager;
+
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    public LuceneIndex(String name, Path path, Analyzer analyzer, long refreshIntervalMs) throws IOException {
+        this.name = name;
+        this.directory = new MMapDirectory(Files.createDirectories(path));
+        this.indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+        double maxStaleSec = refreshIntervalMs / 1000d;
+        this.reopenThread = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, maxStaleSec, Math.min(0.025, maxStaleSec));
+        reopenThread.setName("lucene-refresh-" + name);
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        log.debug("Opened the Lucene index {} with {} documents in {}", name, indexWriter.getDocStats().numDocs, path);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Replace the documents with the same ids, and commit.
+     *
+     * @param documents the documents, each with an {@link #ID_FIELD} field.
+     * @throws IOException if the index could not be written.
+     */
+    public void update(Collection<Document> documents) throws IOException {
+        for (Document document : documents) {
+            indexWriter.updateDocument(new Term(ID_FIELD, document.get(ID_FIELD)), document);
+        }
+        indexWriter.commit();
+    }
+
+    /**
+     * Delete the documents, and commit.
+     *
+     * @param ids the ids of the documents.
+     * @throws IOException if the index could not be written.
+     */
+    public void delete(Collection<String> ids) throws IOException {
+        indexWriter.deleteDocuments(ids.stream().map(id -> new Term(ID_FIELD, id)).toArray(Term[]::new));
+        indexWriter.commit();
+    }
+
+    /**
+     * Delete all the documents, and commit.
+     *
+     * @throws IOException if the index could not be written.
+     */
+    public void deleteAll() throws IOException {
+        indexWriter.deleteAll();
+        indexWriter.commit();
+    }
+
+    /**
+     * Make the previous writes visible to the searches, without waiting for the next background refresh.
+     *
+     * @throws IOException if the reader could not be reopened.
+     */
+    public void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * Search with the latest refreshed reader.
+     *
+     * @param search the search, which must not keep the searcher.
+     * @param <R> the type of the result of the search.
+     * @return the result of the search.
+     * @throws IOException if the index could not be read.
+     */
+    public <R> R search(Search<R> search) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return search.apply(searcher);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.debug("Closing the Lucene index {}", name);
+        reopenThread.close();
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    @FunctionalInterface
+    public interface Search<R> {
+
+        R apply(IndexSearcher searcher) throws IOException;
+    }
+}
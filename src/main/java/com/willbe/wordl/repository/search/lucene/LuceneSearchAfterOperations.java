@@ -0,0 +1,32 @@
+package com.willbe.wordl.repository.search.lucene;
+
+import com.willbe.wordl.repository.search.SearchAfterOperations;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+
+import org.elasticsearch.index.query.QueryBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SearchAfterOperations} searching the {@link LuceneSearchRepository} of each entity.
+ */
+public class LuceneSearchAfterOperations implements SearchAfterOperations {
+
+    private final Map<Class<?>, LuceneSearchRepository<?>> repositories = new ConcurrentHashMap<>();
+
+    public <T> void register(Class<T> entityClass, LuceneSearchRepository<T> repository) {
+        repositories.put(entityClass, repository);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> SearchAfterPage<T> searchAfter(Class<T> entityClass, QueryBuilder query, int size, SearchCursor after) {
+        LuceneSearchRepository<T> repository = (LuceneSearchRepository<T>) repositories.get(entityClass);
+        if (repository == null) {
+            throw new IllegalArgumentException("No Lucene index for " + entityClass.getName());
+        }
+        return repository.searchAfter(query, size, after);
+    }
+}
@@ -0,0 +1,380 @@
+package com.willbe.wordl.repository.search.lucene;
+
+import com.willbe.wordl.repository.search.InvalidSearchException;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.query.MatchAllQueryBuilder;
+import org.elasticsearch.index.query.Operator;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryStringQueryBuilder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.query.SearchQuery;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * An {@link ElasticsearchRepository} searching an embedded {@link LuceneIndex} instead of Elasticsearch.
+ * <p>
+ * The entities are stored with the JSON source Elasticsearch would store, and each value of the source is indexed as
+ * a text field named after its path, like {@code word.word}, and in an {@code _all} field, so that the
+ * {@link QueryStringQueryBuilder query_string} queries of the {@code _search} endpoints match the same documents. The
+ * text is analyzed like with the Elasticsearch standard analyzer. Only the {@code query_string} and {@code match_all}
+ * queries are supported, and sorting on {@code id}: the other searches throw an {@link InvalidSearchException}.
+ * <p>
+ * Like with Elasticsearch, the entities saved and deleted are visible to the next search, except with
+ * {@link #indexWithoutRefresh(Object)}.
+ *
+ * @param <T> the type of the entities.
+ */
+public class LuceneSearchRepository<T> implements ElasticsearchRepository<T, Long> {
+
+    static final String SOURCE_FIELD = "_source";
+
+    static final String ALL_FIELD = "_all";
+
+    private static final Set<String> SOURCE_FIELDS = Collections.singleton(SOURCE_FIELD);
+
+    /**
+     * The highest {@code from + size} of a page, like the default {@code index.max_result_window} of Elasticsearch.
+     */
+    static final int MAX_RESULT_WINDOW = 10000;
+
+    private final LuceneIndex index;
+
+    private final Class<T> entityClass;
+
+    private final Function<T, Long> idGetter;
+
+    private final Analyzer analyzer;
+
+    private final EntityMapper entityMapper;
+
+    public LuceneSearchRepository(LuceneIndex index, Class<T> entityClass, Function<T, Long> idGetter, Analyzer analyzer,
+                                  EntityMapper entityMapper) {
+        this.index = index;
+        this.entityClass = entityClass;
+        this.idGetter = idGetter;
+        this.analyzer = analyzer;
+        this.entityMapper = entityMapper;
+    }
+
+    @Override
+    public <S extends T> S index(S entity) {
+        write(Collections.singletonList(entity), true);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> S indexWithoutRefresh(S entity) {
+        write(Collections.singletonList(entity), false);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        return index(entity);
+    }
+
+    @Override
+    public <S extends T> Iterable<S> saveAll(Iterable<S> entities) {
+        List<S> list = StreamSupport.stream(entities.spliterator(), false).collect(Collectors.toList());
+        write(list, true);
+        return list;
+    }
+
+    @Override
+    public Iterable<T> search(QueryBuilder query) {
+        return search(toQuery(query), Pageable.unpaged());
+    }
+
+    @Override
+    public Page<T> search(QueryBuilder query, Pageable pageable) {
+        return search(toQuery(query), pageable);
+    }
+
+    @Override
+    public Page<T> search(SearchQuery searchQuery) {
+        if (searchQuery.getFilter() != null || searchQuery.getElasticsearchSorts() != null || searchQuery.getAggregations() != null) {
+            throw new InvalidSearchException(entityClass, "Only the query and the pageable of a SearchQuery are supported by the Lucene indices");
+        }
+        return search(toQuery(searchQuery.getQuery()), searchQuery.getPageable());
+    }
+
+    /**
+     * Search a page of hits sorted by relevance then by id, after the hit of the cursor.
+     *
+     * @param query the query.
+     * @param size the maximum number of hits of the page.
+     * @param after the cursor of the last hit of the previous page, {@code null} for the first page.
+     * @return the page of hits.
+     * @see com.willbe.wordl.repository.search.SearchAfterOperations
+     */
+    public SearchAfterPage<T> searchAfter(QueryBuilder query, int size, SearchCursor after) {
+        Query luceneQuery = toQuery(query);
+        try {
+            return index.search(searcher -> {
+                // the hit of the cursor is excluded by its id, whatever its position in the reader
+                FieldDoc afterDoc = after == null ? null
+                    : new FieldDoc(searcher.getIndexReader().maxDoc() - 1, after.getScore(), new Object[]{after.getScore(), after.getId()});
+                TopFieldDocs topDocs = searcher.searchAfter(afterDoc, luceneQuery, size, toSort(Sort.unsorted()), true, false);
+                List<T> content = new ArrayList<>();
+                SearchCursor last = null;
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    content.add(toEntity(searcher, scoreDoc));
+                    Object[] fields = ((FieldDoc) scoreDoc).fields;
+                    last = new SearchCursor((Float) fields[0], (Long) fields[1]);
+                }
+                return new SearchAfterPage<>(content, topDocs.totalHits, content.size() < size ? null : last);
+            });
+        } catch (IOException e) {
+            throw failure("search", e);
+        }
+    }
+
+    @Override
+    public Page<T> searchSimilar(T entity, String[] fields, Pageable pageable) {
+        throw new InvalidSearchException(entityClass, "More like this searches are not supported by the Lucene indices");
+    }
+
+    @Override
+    public void refresh() {
+        try {
+            index.refresh();
+        } catch (IOException e) {
+            throw failure("refresh", e);
+        }
+    }
+
+    @Override
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    @Override
+    public Iterable<T> findAll(Sort sort) {
+        return search(new MatchAllDocsQuery(), Pageable.unpaged(), sort);
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return search(new MatchAllDocsQuery(), pageable);
+    }
+
+    @Override
+    public Iterable<T> findAll() {
+        return search(new MatchAllDocsQuery(), Pageable.unpaged());
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        return search(new TermQuery(new Term(LuceneIndex.ID_FIELD, id.toString())), Pageable.unpaged()).get().findFirst();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return count(new TermQuery(new Term(LuceneIndex.ID_FIELD, id.toString()))) > 0;
+    }
+
+    @Override
+    public Iterable<T> findAllById(Iterable<Long> ids) {
+        List<BytesRef> terms = StreamSupport.stream(ids.spliterator(), false)
+            .map(id -> new BytesRef(id.toString()))
+            .collect(Collectors.toList());
+        return search(new TermInSetQuery(LuceneIndex.ID_FIELD, terms), Pageable.unpaged());
+    }
+
+    @Override
+    public long count() {
+        return count(new MatchAllDocsQuery());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delete(Collections.singletonList(id.toString()));
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idGetter.apply(entity));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        delete(StreamSupport.stream(entities.spliterator(), false)
+            .map(entity -> idGetter.apply(entity).toString())
+            .collect(Collectors.toList()));
+    }
+
+    @Override
+    public void deleteAll() {
+        try {
+            index.deleteAll();
+            index.refresh();
+        } catch (IOException e) {
+            throw failure("delete the documents of", e);
+        }
+    }
+
+    private void write(List<? extends T> entities, boolean refresh) {
+        try {
+            List<Document> documents = new ArrayList<>(entities.size());
+            for (T entity : entities) {
+                documents.add(toDocument(entity));
+            }
+            index.update(documents);
+            if (refresh) {
+                index.refresh();
+            }
+        } catch (IOException e) {
+            throw failure("write", e);
+        }
+    }
+
+    private void delete(List<String> ids) {
+        try {
+            index.delete(ids);
+            index.refresh();
+        } catch (IOException e) {
+            throw failure("delete the documents of", e);
+        }
+    }
+
+    private Page<T> search(Query query, Pageable pageable) {
+        return search(query, pageable, pageable.getSort());
+    }
+
+    private Page<T> search(Query query, Pageable pageable, Sort sort) {
+        if (pageable.isPaged() && pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new InvalidSearchException(entityClass, "Result window is too large, from + size must be less than or equal to "
+                + MAX_RESULT_WINDOW + " but was " + (pageable.getOffset() + pageable.getPageSize()));
+        }
+        try {
+            return index.search(searcher -> {
+                int from = pageable.isPaged() ? (int) pageable.getOffset() : 0;
+                int size = pageable.isPaged() ? pageable.getPageSize() : searcher.getIndexReader().maxDoc();
+                org.apache.lucene.search.Sort luceneSort = toSort(sort);
+                TopFieldDocs topDocs = searcher.search(query, Math.max(1, from + size), luceneSort, luceneSort.needsScores(), false);
+                List<T> content = new ArrayList<>();
+                for (int i = from; i < topDocs.scoreDocs.length; i++) {
+                    content.add(toEntity(searcher, topDocs.scoreDocs[i]));
+                }
+                return new PageImpl<>(content, pageable, topDocs.totalHits);
+            });
+        } catch (IOException e) {
+            throw failure("search", e);
+        }
+    }
+
+    private long count(Query query) {
+        try {
+            return index.search(searcher -> (long) searcher.count(query));
+        } catch (IOException e) {
+            throw failure("search", e);
+        }
+    }
+
+    private Document toDocument(T entity) throws IOException {
+        String id = idGetter.apply(entity).toString();
+        String source = entityMapper.mapToString(entity);
+        Document document = new Document();
+        document.add(new StringField(LuceneIndex.ID_FIELD, id, Field.Store.NO));
+        document.add(new NumericDocValuesField(LuceneIndex.ID_FIELD, Long.parseLong(id)));
+        document.add(new StoredField(SOURCE_FIELD, source));
+        addFields(document, null, entityMapper.mapToObject(source, Map.class));
+        return document;
+    }
+
+    private void addFields(Document document, String path, Object value) {
+        if (value instanceof Map) {
+            ((Map<?, ?>) value).forEach((key, child) -> addFields(document, path == null ? key.toString() : path + "." + key, child));
+        } else if (value instanceof Collection) {
+            ((Collection<?>) value).forEach(child -> addFields(document, path, child));
+        } else if (value != null) {
+            document.add(new TextField(path, value.toString(), Field.Store.NO));
+            document.add(new TextField(ALL_FIELD, value.toString(), Field.Store.NO));
+        }
+    }
+
+    private T toEntity(IndexSearcher searcher, ScoreDoc scoreDoc) throws IOException {
+        return entityMapper.mapToObject(searcher.doc(scoreDoc.doc, SOURCE_FIELDS).get(SOURCE_FIELD), entityClass);
+    }
+
+    private Query toQuery(QueryBuilder query) {
+        if (query == null || query instanceof MatchAllQueryBuilder) {
+            return new MatchAllDocsQuery();
+        }
+        if (!(query instanceof QueryStringQueryBuilder)) {
+            throw new InvalidSearchException(entityClass, "Only the query_string queries are supported by the Lucene indices, not " + query.getName());
+        }
+        QueryStringQueryBuilder queryString = (QueryStringQueryBuilder) query;
+        QueryParser parser;
+        if (queryString.fields().isEmpty()) {
+            String defaultField = queryString.defaultField();
+            parser = new QueryParser(defaultField == null || "*".equals(defaultField) ? ALL_FIELD : defaultField, analyzer);
+        } else {
+            parser = new MultiFieldQueryParser(queryString.fields().keySet().toArray(new String[0]), analyzer, queryString.fields());
+        }
+        parser.setDefaultOperator(queryString.defaultOperator() == Operator.AND ? QueryParser.Operator.AND : QueryParser.Operator.OR);
+        parser.setAllowLeadingWildcard(queryString.allowLeadingWildcard() == null || queryString.allowLeadingWildcard());
+        parser.setPhraseSlop(queryString.phraseSlop());
+        try {
+            return parser.parse(queryString.queryString());
+        } catch (ParseException e) {
+            throw new InvalidSearchException(entityClass, "Invalid query " + queryString.queryString() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sort by id, or by relevance, then by id, so that the pages of a search are stable.
+     */
+    private org.apache.lucene.search.Sort toSort(Sort sort) {
+        List<SortField> sortFields = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!"id".equals(order.getProperty())) {
+                throw new InvalidSearchException(entityClass, "Only sorting on id is supported by the Lucene indices, not on " + order.getProperty());
+            }
+            sortFields.add(new SortField(LuceneIndex.ID_FIELD, SortField.Type.LONG, order.isDescending()));
+        }
+        if (sortFields.isEmpty()) {
+            sortFields.add(SortField.FIELD_SCORE);
+            sortFields.add(new SortField(LuceneIndex.ID_FIELD, SortField.Type.LONG));
+        }
+        return new org.apache.lucene.search.Sort(sortFields.toArray(new SortField[0]));
+    }
+
+    private DataAccessResourceFailureException failure(String action, IOException e) {
+        return new DataAccessResourceFailureException("Could not " + action + " the Lucene index " + index.getName(), e);
+    }
+}
@@ -0,0 +1,192 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.CategoryMatchesDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An inverted index from the morphemes of the words, such as {@code ROOT:struct}, to the wordInfos containing them.
+ * <p>
+ * Each wordInfo gets a dense ordinal, and each morpheme a {@link WordBitmap} of ordinals, so that queries are
+ * bitwise operations over a bitmap of every wordInfo. Ordinals of deleted wordInfos are not reused until the index is rebuilt.
+ * The words are kept along their morphemes, so that the ones containing a changed morpheme can be split again.
+ * Instances are not thread-safe.
+ */
+class CategoryIndex {
+
+    private static final String[] NO_KEYS = new String[0];
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private final Map<String, WordBitmap> postings = new HashMap<>();
+
+    private final WordBitmap live = new WordBitmap();
+
+    private long[] ids = new long[16];
+
+    private String[][] keys = new String[16][];
+
+    private String[] words = new String[16];
+
+    private int nextOrdinal;
+
+    /**
+     * Add a wordInfo, or replace its morphemes.
+     *
+     * @param id the id of the wordInfo.
+     * @param word the word of the wordInfo.
+     * @param wordKeys the morphemes of the wordInfo.
+     */
+    void put(long id, String word, Collection<String> wordKeys) {
+        int ordinal = ordinals.getOrDefault(id, -1);
+        if (ordinal < 0) {
+            ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ordinal * 2);
+                keys = Arrays.copyOf(keys, ordinal * 2);
+                words = Arrays.copyOf(words, ordinal * 2);
+            }
+            ordinals.put(id, ordinal);
+            ids[ordinal] = id;
+            live.add(ordinal);
+        } else {
+            unlink(ordinal);
+        }
+        words[ordinal] = word.toLowerCase(Locale.ROOT);
+        keys[ordinal] = wordKeys.stream().distinct().toArray(String[]::new);
+        for (String key : keys[ordinal]) {
+            postings.computeIfAbsent(key, k -> new WordBitmap()).add(ordinal);
+        }
+    }
+
+    /**
+     * @param id the id of the wordInfo to remove.
+     */
+    void remove(long id) {
+        int ordinal = ordinals.getOrDefault(id, -1);
+        if (ordinal >= 0) {
+            unlink(ordinal);
+            keys[ordinal] = null;
+            words[ordinal] = null;
+            live.remove(ordinal);
+            ordinals.remove(id);
+        }
+    }
+
+    int size() {
+        return live.cardinality();
+    }
+
+    /**
+     * @return the ids of the indexed wordInfos, in the order they were indexed, mapped to their word, lower case.
+     */
+    Map<Long, String> words() {
+        Map<Long, String> words = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (this.words[ordinal] != null) {
+                words.put(ids[ordinal], this.words[ordinal]);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @param morphemes some morphemes, lower case.
+     * @return the ids of the wordInfos whose word contains one of the morphemes, mapped to their word, lower case.
+     */
+    Map<Long, String> wordsContaining(Collection<String> morphemes) {
+        Map<Long, String> matches = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            String word = words[ordinal];
+            if (word != null) {
+                for (String morpheme : morphemes) {
+                    if (word.contains(morpheme)) {
+                        matches.put(ids[ordinal], word);
+                        break;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Find the wordInfos matching all of some morphemes, any of others, and none of the last ones.
+     *
+     * @param all the morphemes the wordInfos must all contain.
+     * @param any the morphemes the wordInfos must contain at least one of, unless empty.
+     * @param none the morphemes the wordInfos must not contain.
+     * @param limit the maximum number of ids to return.
+     * @return the number of matching wordInfos, and the ids of the first ones in the order they were indexed.
+     */
+    CategoryMatchesDTO query(Collection<String> all, Collection<String> any, Collection<String> none, int limit) {
+        int length = (nextOrdinal + 63) >>> 6;
+        long[] result = new long[length];
+        if (all.isEmpty() && any.isEmpty()) {
+            live.orInto(result);
+        } else if (!all.isEmpty()) {
+            boolean first = true;
+            for (String key : all) {
+                WordBitmap posting = postings.get(key);
+                if (posting == null) {
+                    return new CategoryMatchesDTO(0, new ArrayList<>());
+                }
+                if (first) {
+                    posting.orInto(result);
+                    first = false;
+                } else {
+                    posting.andInto(result);
+                }
+            }
+        }
+        if (!any.isEmpty()) {
+            long[] union = all.isEmpty() ? result : new long[length];
+            for (String key : any) {
+                WordBitmap posting = postings.get(key);
+                if (posting != null) {
+                    posting.orInto(union);
+                }
+            }
+            if (union != result) {
+                for (int i = 0; i < length; i++) {
+                    result[i] &= union[i];
+                }
+            }
+        }
+        for (String key : none) {
+            WordBitmap posting = postings.get(key);
+            if (posting != null) {
+                posting.andNotInto(result);
+            }
+        }
+
+        long total = 0;
+        List<Long> matches = new ArrayList<>(Math.min(limit, 64));
+        for (int i = 0; i < length; i++) {
+            long word = result[i];
+            total += Long.bitCount(word);
+            while (word != 0 && matches.size() < limit) {
+                matches.add(ids[(i << 6) + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+        return new CategoryMatchesDTO(total, matches);
+    }
+
+    private void unlink(int ordinal) {
+        for (String key : keys[ordinal] == null ? NO_KEYS : keys[ordinal]) {
+            WordBitmap posting = postings.get(key);
+            posting.remove(ordinal);
+            if (posting.cardinality() == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+}
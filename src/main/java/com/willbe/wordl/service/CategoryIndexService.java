@@ -0,0 +1,237 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.domain.enumeration.Category;
+import com.willbe.wordl.service.dto.CategoryMatchesDTO;
+import com.willbe.wordl.service.dto.MorphemeDTO;
+import com.willbe.wordl.service.event.MorphemesCompiledEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import static com.willbe.wordl.service.util.TransactionUtil.afterCommit;
+
+/**
+ * Service class finding the wordInfos by their morphemes, such as all the words with the root {@code struct}
+ * and without the prefix {@code re}.
+ * <p>
+ * The words are indexed in memory by a {@link CategoryIndex}, loaded at startup by the {@link WordInfoIndexLoader} once the
+ * morphemes are, and updated as wordInfos are written. When a categoryWord adds or removes a morpheme, only the indexed
+ * words containing it are split again; when all the morphemes are loaded again, every indexed word is.
+ */
+@Service
+public class CategoryIndexService implements WordInfoIndex {
+
+    private final Logger log = LoggerFactory.getLogger(CategoryIndexService.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final MorphemeService morphemeService;
+
+    private final WordInfoIndexWrites<CategoryIndex> writes = new WordInfoIndexWrites<>();
+
+    private CategoryIndex index = new CategoryIndex();
+
+    public CategoryIndexService(MorphemeService morphemeService) {
+        this.morphemeService = morphemeService;
+    }
+
+    /**
+     * Find the wordInfos by their morphemes, each one given as {@code CATEGORY:morpheme}, such as {@code ROOT:struct}.
+     *
+     * @param all the morphemes the wordInfos must all contain.
+     * @param any the morphemes the wordInfos must contain at least one of, unless empty.
+     * @param none the morphemes the wordInfos must not contain.
+     * @param limit the maximum number of ids to return.
+     * @return the number of matching wordInfos and the ids of the first ones,
+     * or an empty {@link Optional} if a morpheme is not a prefix, root, affix or suffix.
+     */
+    public Optional<CategoryMatchesDTO> query(List<String> all, List<String> any, List<String> none, int limit) {
+        List<String> allKeys = parse(all);
+        List<String> anyKeys = parse(any);
+        List<String> noneKeys = parse(none);
+        if (allKeys == null || anyKeys == null || noneKeys == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(index.query(allKeys, anyKeys, noneKeys, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index or index again a wordInfo, once the current transaction is committed.
+     *
+     * @param wordInfo the created or updated wordInfo.
+     */
+    public void putAfterCommit(WordInfo wordInfo) {
+        Long id = wordInfo.getId();
+        String word = wordInfo.getWord();
+        afterCommit(() -> put(id, word));
+    }
+
+    /**
+     * Remove a wordInfo from the index, once the current transaction is committed.
+     *
+     * @param id the id of the deleted wordInfo.
+     */
+    public void removeAfterCommit(Long id) {
+        afterCommit(() -> put(id, null));
+    }
+
+    @Override
+    public synchronized void startLoading() {
+        writes.start();
+    }
+
+    @Override
+    public synchronized void loadAll(long[] ids, String[] words) {
+        CategoryIndex loaded = new CategoryIndex();
+        for (int i = 0; i < ids.length; i++) {
+            loaded.put(ids[i], words[i], keys(words[i]));
+        }
+        writes.replay(loaded);
+        swap(loaded);
+        log.debug("Indexed the morphemes of {} wordInfos", loaded.size());
+    }
+
+    @Override
+    public synchronized void cancelLoading() {
+        writes.stop();
+    }
+
+    /**
+     * Split again the indexed words containing the changed morphemes, or every indexed word if all the morphemes
+     * were loaded again.
+     *
+     * @param event the event of the compilation of the morphemes.
+     */
+    @EventListener
+    public synchronized void onMorphemesCompiled(MorphemesCompiledEvent event) {
+        if (event.getChangedMorphemes() != null) {
+            update(event.getChangedMorphemes());
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Called with the lock of this service, so that no wordInfo is written between the scan and the update.
+     */
+    private void update(Collection<String> changedMorphemes) {
+        Map<Long, String> affected;
+        lock.readLock().lock();
+        try {
+            affected = index.wordsContaining(changedMorphemes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Long, List<String>> keys = new HashMap<>();
+        affected.forEach((id, word) -> keys.put(id, keys(word)));
+        lock.writeLock().lock();
+        try {
+            keys.forEach((id, wordKeys) -> index.put(id, affected.get(id), wordKeys));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Indexed again the morphemes of {} wordInfos containing {}", affected.size(), changedMorphemes);
+    }
+
+    /**
+     * Called with the lock of this service, as {@link #update(Collection)}.
+     */
+    private void rebuild() {
+        Map<Long, String> words;
+        lock.readLock().lock();
+        try {
+            words = index.words();
+        } finally {
+            lock.readLock().unlock();
+        }
+        CategoryIndex rebuilt = new CategoryIndex();
+        words.forEach((id, word) -> rebuilt.put(id, word, keys(word)));
+        swap(rebuilt);
+        log.debug("Indexed again the morphemes of {} wordInfos", rebuilt.size());
+    }
+
+    private void swap(CategoryIndex rebuilt) {
+        lock.writeLock().lock();
+        try {
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private synchronized void put(Long id, String word) {
+        List<String> keys = word == null ? null : keys(word);
+        lock.writeLock().lock();
+        try {
+            put(index, id, word, keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        writes.record(loaded -> put(loaded, id, word, keys));
+    }
+
+    private static void put(CategoryIndex index, Long id, String word, List<String> keys) {
+        if (keys == null) {
+            index.remove(id);
+        } else {
+            index.put(id, word, keys);
+        }
+    }
+
+    private List<String> keys(String word) {
+        List<String> keys = new ArrayList<>();
+        for (MorphemeDTO morpheme : morphemeService.decompose(word)) {
+            if (morpheme.getCategory() != null) {
+                keys.add(key(morpheme.getCategory(), morpheme.getText()));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return the keys of the morphemes, or {@code null} if one of them is invalid.
+     */
+    private static List<String> parse(List<String> morphemes) {
+        List<String> keys = new ArrayList<>(morphemes.size());
+        for (String morpheme : morphemes) {
+            int separator = morpheme.indexOf(':');
+            if (separator <= 0 || separator == morpheme.length() - 1) {
+                return null;
+            }
+            Category category;
+            try {
+                category = Category.valueOf(morpheme.substring(0, separator).toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (category == Category.SITUATION) {
+                return null;
+            }
+            keys.add(key(category, morpheme.substring(separator + 1)));
+        }
+        return keys.stream().distinct().collect(Collectors.toList());
+    }
+
+    private static String key(Category category, String text) {
+        return category.name() + ':' + text.toLowerCase(Locale.ROOT);
+    }
+}
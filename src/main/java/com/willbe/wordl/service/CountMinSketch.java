@@ -0,0 +1,57 @@
+package com.willbe.wordl.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A count-min sketch of {@code long} keys: estimates how many times each key was added in a fixed amount of memory,
+ * never under-estimating and over-estimating by a small fraction of the total count with a high probability.
+ * <p>
+ * Thread-safe without locking: every counter is incremented atomically, and an estimate made while keys are added
+ * may miss some of the concurrent additions.
+ */
+final class CountMinSketch {
+
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+        0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x85EBCA77C2B2AE63L
+    };
+
+    private final AtomicLongArray[] counts;
+
+    /**
+     * @param width the number of counters per row: the error is about {@code e / width} of the total count.
+     * @param depth the number of rows, at most 8: the error is exceeded with a probability of about {@code e^-depth}.
+     */
+    CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Invalid count-min sketch size: " + width + "x" + depth);
+        }
+        this.counts = new AtomicLongArray[depth];
+        for (int row = 0; row < depth; row++) {
+            counts[row] = new AtomicLongArray(width);
+        }
+    }
+
+    void add(long key, long count) {
+        for (int row = 0; row < counts.length; row++) {
+            counts[row].getAndAdd(index(key, row), count);
+        }
+    }
+
+    long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counts.length; row++) {
+            estimate = Math.min(estimate, counts[row].get(index(key, row)));
+        }
+        return estimate;
+    }
+
+    private int index(long key, int row) {
+        // the finalizer of SplitMix64, seeded differently for every row
+        long hash = key * SEEDS[row];
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        return (int) Long.remainderUnsigned(hash, counts[row].length());
+    }
+}
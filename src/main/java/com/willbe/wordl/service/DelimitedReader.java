@@ -0,0 +1,120 @@
+package com.willbe.wordl.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A reader of delimited text with a header line, such as the {@code config/liquibase/fake-data} files.
+ * <p>
+ * The delimiter is the first of {@code ;}, tab or {@code ,} found in the header. Fields may be quoted with {@code "},
+ * a quote being escaped by doubling it, and then hold delimiters and line breaks. An empty unquoted field is read as
+ * {@code null}, like Liquibase does, and blank lines are skipped. Records are read one at a time.
+ */
+class DelimitedReader {
+
+    private static final char QUOTE = '"';
+
+    private static final char[] DELIMITERS = {';', '\t', ','};
+
+    private final BufferedReader reader;
+
+    private final List<String> header;
+
+    private char delimiter = DELIMITERS[0];
+
+    DelimitedReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        // skip the byte order mark of files saved by spreadsheets
+        this.reader.mark(1);
+        if (this.reader.read() != '\uFEFF') {
+            this.reader.reset();
+        }
+        String firstLine = this.reader.readLine();
+        if (firstLine == null) {
+            header = Collections.emptyList();
+            return;
+        }
+        for (char candidate : DELIMITERS) {
+            if (firstLine.indexOf(candidate) >= 0) {
+                delimiter = candidate;
+                break;
+            }
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : firstLine.split(String.valueOf(delimiter), -1)) {
+            columns.add(column.trim());
+        }
+        header = Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * @return the names of the columns.
+     */
+    List<String> getHeader() {
+        return header;
+    }
+
+    /**
+     * @return the fields of the next non-blank record, padded with {@code null} up to the number of columns,
+     * or {@code null} at the end of the text.
+     * @throws IOException if the text cannot be read.
+     */
+    String[] next() throws IOException {
+        List<String> fields = new ArrayList<>(header.size());
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (inQuotes) {
+                if (c != QUOTE) {
+                    field.append((char) c);
+                } else {
+                    reader.mark(1);
+                    if (reader.read() == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        reader.reset();
+                        inQuotes = false;
+                    }
+                }
+            } else if (c == delimiter) {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (fields.isEmpty() && !quoted && field.toString().trim().isEmpty()) {
+                    field.setLength(0);
+                    continue;
+                }
+                break;
+            } else if (c == QUOTE && field.length() == 0 && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (c < 0 && fields.isEmpty() && !quoted && field.toString().trim().isEmpty()) {
+            return null;
+        }
+        fields.add(value(field, quoted));
+        String[] record = fields.toArray(new String[0]);
+        return record.length >= header.size() ? record : Arrays.copyOf(record, header.size());
+    }
+
+    private static String value(StringBuilder field, boolean quoted) {
+        return field.length() == 0 && !quoted ? null : field.toString();
+    }
+}
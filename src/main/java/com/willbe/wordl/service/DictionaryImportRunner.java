@@ -0,0 +1,58 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.DictionaryImportDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Imports the dictionary files given with {@code --import=<file>} on the command line, then stops the application.
+ * <p>
+ * For instance {@code ./gradlew bootRun --args='--import=word_info.csv --import=word_thumb_info.csv'}: the files are
+ * imported in order, so the wordInfos exist when the wordThumbInfos referencing them are imported.
+ * See {@link DictionaryImportService#importFile(java.nio.file.Path)}.
+ */
+@Component
+public class DictionaryImportRunner implements ApplicationRunner {
+
+    public static final String IMPORT_OPTION = "import";
+
+    private final Logger log = LoggerFactory.getLogger(DictionaryImportRunner.class);
+
+    private final DictionaryImportService dictionaryImportService;
+
+    private final ConfigurableApplicationContext applicationContext;
+
+    public DictionaryImportRunner(DictionaryImportService dictionaryImportService, ConfigurableApplicationContext applicationContext) {
+        this.dictionaryImportService = dictionaryImportService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(IMPORT_OPTION)) {
+            return;
+        }
+        int exitCode = 0;
+        for (String file : args.getOptionValues(IMPORT_OPTION)) {
+            try {
+                DictionaryImportDTO result = dictionaryImportService.importFile(Paths.get(file));
+                log.info("Imported {}: {}", file, result);
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Could not import {}: {}", file, e.getMessage());
+                exitCode = 1;
+                break;
+            }
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+}
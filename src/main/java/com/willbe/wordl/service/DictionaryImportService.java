@@ -0,0 +1,451 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.service.dto.DictionaryImportDTO;
+import com.willbe.wordl.service.dto.TopPictureDTO;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Service class importing dictionaries and lesson packs: files of wordInfos or wordThumbInfos, in the format of the
+ * {@code config/liquibase/fake-data} files.
+ * <p>
+ * The rows are read one by one and written in chunks of {@code application.dictionary-import.chunk-size}, each in its own
+ * transaction, with {@code COPY} on PostgreSQL and JDBC batches on other databases. The {@code id} column is ignored: ids
+ * are taken from the sequence of the entities, in the same blocks as Hibernate. The ids of a chunk are added to the
+ * search outbox in its transaction, so its rows are indexed by the drains of the {@link SearchOutboxService} once it
+ * commits, even if Elasticsearch is down meanwhile. Only the chunk being written is kept in memory.
+ * <p>
+ * A chunk which cannot be written is rolled back, with its outbox rows, and its rows are counted as failed, apart from
+ * the rows skipped on purpose; the next chunks are still imported.
+ */
+@Service
+public class DictionaryImportService {
+
+    /**
+     * The allocation size of the {@code sequenceGenerator} of the entities.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String POSTGRESQL_NEXT_IDS_SQL = "select nextval('sequence_generator') from generate_series(1, ?)";
+
+    private static final String NEXT_IDS_SQL = "select next value for sequence_generator from system_range(1, ?)";
+
+    private static final String FIND_WORD_IDS_SQL = "select id, word from word_info where word in (:words)";
+
+    private static final String FIND_WORDS_SQL = "select id, word from word_info where id in (:ids)";
+
+    private static final String[] WORD_INFO_COLUMNS = {"id", "word"};
+
+    private static final String[] WORD_THUMB_INFO_COLUMNS = {"id", "thumb_num", "pic_url", "thumb_lid", "word_id"};
+
+    private final Logger log = LoggerFactory.getLogger(DictionaryImportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final SearchOutboxService searchOutboxService;
+
+    private final WordCompletionService wordCompletionService;
+
+    private final CategoryIndexService categoryIndexService;
+
+    private final WordSuggestionService wordSuggestionService;
+
+    private final TopPicturesService topPicturesService;
+
+    private final ThumbCounterService thumbCounterService;
+
+    private final ApplicationProperties.DictionaryImport importProperties;
+
+    private volatile Boolean postgresql;
+
+    public DictionaryImportService(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                   PlatformTransactionManager transactionManager, SearchOutboxService searchOutboxService,
+                                   WordCompletionService wordCompletionService, CategoryIndexService categoryIndexService,
+                                   WordSuggestionService wordSuggestionService, TopPicturesService topPicturesService,
+                                   ThumbCounterService thumbCounterService, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.searchOutboxService = searchOutboxService;
+        this.wordCompletionService = wordCompletionService;
+        this.categoryIndexService = categoryIndexService;
+        this.wordSuggestionService = wordSuggestionService;
+        this.topPicturesService = topPicturesService;
+        this.thumbCounterService = thumbCounterService;
+        this.importProperties = applicationProperties.getDictionaryImport();
+    }
+
+    /**
+     * Import a file of wordInfos or wordThumbInfos, depending on whether its name starts with {@code word_info}
+     * or {@code word_thumb_info}.
+     *
+     * @param file the file, encoded in UTF-8.
+     * @return the outcome of the import.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the name of the file or its columns do not match an entity.
+     */
+    public DictionaryImportDTO importFile(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (name.startsWith("word_thumb_info")) {
+                return importWordThumbInfos(reader);
+            }
+            if (name.startsWith("word_info")) {
+                return importWordInfos(reader);
+            }
+        }
+        throw new IllegalArgumentException("Cannot tell the entity of " + name + ", expected a word_info or word_thumb_info file");
+    }
+
+    /**
+     * Import the wordInfos of a delimited text with a {@code word} column.
+     * <p>
+     * The rows without word, and those of words which already exist in the database or earlier in the text, are skipped.
+     *
+     * @param text the text.
+     * @return the outcome of the import.
+     * @throws IOException if the text cannot be read.
+     * @throws IllegalArgumentException if the text has no {@code word} column.
+     */
+    public synchronized DictionaryImportDTO importWordInfos(Reader text) throws IOException {
+        DelimitedReader reader = new DelimitedReader(text);
+        int wordColumn = column(reader, "word", true);
+        Counts counts = new Counts();
+        List<String> chunk = new ArrayList<>(importProperties.getChunkSize());
+        String[] record;
+        while ((record = reader.next()) != null) {
+            counts.read++;
+            String word = field(record, wordColumn);
+            if (word == null || word.trim().isEmpty()) {
+                counts.skipped++;
+                continue;
+            }
+            chunk.add(word);
+            if (chunk.size() == importProperties.getChunkSize()) {
+                writeWordInfos(chunk, counts);
+                chunk.clear();
+            }
+        }
+        writeWordInfos(chunk, counts);
+        log.info("Imported {} wordInfos of {} rows, {} failed", counts.imported, counts.read, counts.failed);
+        return counts.toDTO();
+    }
+
+    /**
+     * Import the wordThumbInfos of a delimited text with {@code thumb_num}, {@code pic_url} and {@code thumb_lid} columns,
+     * such as the fake data, and optionally a {@code word_id} column holding the id of the wordInfo of the wordThumbInfo,
+     * or a {@code word} column holding its word.
+     * <p>
+     * The rows with an invalid {@code thumb_num} or {@code word_id}, and those of a wordInfo which does not exist, are
+     * skipped. The rows without wordInfo are imported without wordInfo.
+     *
+     * @param text the text.
+     * @return the outcome of the import.
+     * @throws IOException if the text cannot be read.
+     * @throws IllegalArgumentException if the text has none of these columns.
+     */
+    public synchronized DictionaryImportDTO importWordThumbInfos(Reader text) throws IOException {
+        DelimitedReader reader = new DelimitedReader(text);
+        int thumbNumColumn = column(reader, "thumb_num", false);
+        int picUrlColumn = column(reader, "pic_url", false);
+        int thumbLidColumn = column(reader, "thumb_lid", false);
+        int wordIdColumn = column(reader, "word_id", false);
+        int wordColumn = column(reader, "word", false);
+        if (thumbNumColumn < 0 && picUrlColumn < 0 && thumbLidColumn < 0 && wordIdColumn < 0 && wordColumn < 0) {
+            throw new IllegalArgumentException("The thumb_num, pic_url, thumb_lid, word_id and word columns are all missing");
+        }
+        Counts counts = new Counts();
+        try {
+            List<WordThumbInfoRow> chunk = new ArrayList<>(importProperties.getChunkSize());
+            String[] record;
+            while ((record = reader.next()) != null) {
+                counts.read++;
+                WordThumbInfoRow row = new WordThumbInfoRow();
+                try {
+                    String thumbNum = field(record, thumbNumColumn);
+                    row.thumbNum = thumbNum == null ? null : Integer.valueOf(thumbNum.trim());
+                    String wordId = field(record, wordIdColumn);
+                    row.wordId = wordId == null || wordId.trim().isEmpty() ? null : Long.valueOf(wordId.trim());
+                } catch (NumberFormatException e) {
+                    counts.skipped++;
+                    continue;
+                }
+                row.picUrl = field(record, picUrlColumn);
+                row.thumbLid = field(record, thumbLidColumn);
+                row.word = field(record, wordColumn);
+                chunk.add(row);
+                if (chunk.size() == importProperties.getChunkSize()) {
+                    writeWordThumbInfos(chunk, counts);
+                    chunk.clear();
+                }
+            }
+            writeWordThumbInfos(chunk, counts);
+        } finally {
+            thumbCounterService.clearThumbLidCacheAfterCommit();
+        }
+        log.info("Imported {} wordThumbInfos of {} rows, {} failed", counts.imported, counts.read, counts.failed);
+        return counts.toDTO();
+    }
+
+    private void writeWordInfos(List<String> words, Counts counts) {
+        if (words.isEmpty()) {
+            return;
+        }
+        List<WordInfo> created;
+        try {
+            created = transactionTemplate.execute(status -> {
+                // the words of the previous chunks are committed, so they are found in the database too
+                Set<String> existingWords = findWordIds(words).keySet();
+                Set<String> chunkWords = new HashSet<>();
+                List<WordInfo> wordInfos = new ArrayList<>(words.size());
+                for (String word : words) {
+                    if (!existingWords.contains(word) && chunkWords.add(word)) {
+                        wordInfos.add(new WordInfo().word(word));
+                    }
+                }
+                long[] ids = nextIds(wordInfos.size());
+                List<Object[]> rows = new ArrayList<>(wordInfos.size());
+                for (int i = 0; i < wordInfos.size(); i++) {
+                    WordInfo wordInfo = wordInfos.get(i);
+                    wordInfo.setId(ids[i]);
+                    rows.add(new Object[]{wordInfo.getId(), wordInfo.getWord()});
+                    wordCompletionService.putAfterCommit(wordInfo);
+                    categoryIndexService.putAfterCommit(wordInfo);
+                    wordSuggestionService.putAfterCommit(wordInfo);
+                }
+                write("word_info", WORD_INFO_COLUMNS, rows);
+                searchOutboxService.enqueueAll(WordInfo.class, wordInfos.stream().map(WordInfo::getId).collect(Collectors.toList()));
+                return wordInfos;
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not import a chunk of {} wordInfos", words.size(), e);
+            counts.failed += words.size();
+            return;
+        }
+        counts.imported += created.size();
+        counts.skipped += words.size() - created.size();
+    }
+
+    private void writeWordThumbInfos(List<WordThumbInfoRow> chunk, Counts counts) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<WordThumbInfo> created;
+        try {
+            created = transactionTemplate.execute(status -> {
+                Set<String> words = new HashSet<>();
+                Set<Long> wordInfoIds = new HashSet<>();
+                for (WordThumbInfoRow row : chunk) {
+                    if (row.wordId != null) {
+                        wordInfoIds.add(row.wordId);
+                    } else if (row.word != null) {
+                        words.add(row.word);
+                    }
+                }
+                Map<String, Long> wordIds = findWordIds(words);
+                Map<Long, String> wordsById = findWords(wordInfoIds);
+                List<WordThumbInfo> wordThumbInfos = new ArrayList<>(chunk.size());
+                for (WordThumbInfoRow row : chunk) {
+                    WordInfo wordInfo = null;
+                    if (row.wordId != null) {
+                        if (!wordsById.containsKey(row.wordId)) {
+                            continue;
+                        }
+                        wordInfo = new WordInfo().word(wordsById.get(row.wordId));
+                        wordInfo.setId(row.wordId);
+                    } else if (row.word != null) {
+                        if (!wordIds.containsKey(row.word)) {
+                            continue;
+                        }
+                        wordInfo = new WordInfo().word(row.word);
+                        wordInfo.setId(wordIds.get(row.word));
+                    }
+                    wordThumbInfos.add(new WordThumbInfo().thumbNum(row.thumbNum).picUrl(row.picUrl).thumbLid(row.thumbLid).word(wordInfo));
+                }
+                long[] ids = nextIds(wordThumbInfos.size());
+                List<Object[]> rows = new ArrayList<>(wordThumbInfos.size());
+                Map<Long, List<TopPictureDTO>> pictures = new HashMap<>();
+                for (int i = 0; i < wordThumbInfos.size(); i++) {
+                    WordThumbInfo wordThumbInfo = wordThumbInfos.get(i);
+                    wordThumbInfo.setId(ids[i]);
+                    Long wordId = wordThumbInfo.getWord() == null ? null : wordThumbInfo.getWord().getId();
+                    rows.add(new Object[]{wordThumbInfo.getId(), wordThumbInfo.getThumbNum(), wordThumbInfo.getPicUrl(),
+                        wordThumbInfo.getThumbLid(), wordId});
+                    if (wordId != null) {
+                        long thumbNum = wordThumbInfo.getThumbNum() == null ? 0 : wordThumbInfo.getThumbNum();
+                        pictures.computeIfAbsent(wordId, id -> new ArrayList<>())
+                            .add(new TopPictureDTO(wordThumbInfo.getId(), wordThumbInfo.getPicUrl(), thumbNum));
+                    }
+                }
+                write("word_thumb_info", WORD_THUMB_INFO_COLUMNS, rows);
+                searchOutboxService.enqueueAll(WordThumbInfo.class,
+                    wordThumbInfos.stream().map(WordThumbInfo::getId).collect(Collectors.toList()));
+                pictures.forEach((wordId, wordPictures) -> {
+                    topPicturesService.offerAfterCommit(wordId, wordPictures);
+                    wordCompletionService.addThumbsAfterCommit(wordId, wordPictures.stream().mapToLong(TopPictureDTO::getThumbNum).sum());
+                });
+                return wordThumbInfos;
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not import a chunk of {} wordThumbInfos", chunk.size(), e);
+            counts.failed += chunk.size();
+            return;
+        }
+        counts.imported += created.size();
+        counts.skipped += chunk.size() - created.size();
+    }
+
+    private Map<String, Long> findWordIds(Collection<String> words) {
+        if (words.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> wordIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(FIND_WORD_IDS_SQL, new MapSqlParameterSource("words", words), rs -> {
+            wordIds.put(rs.getString(2), rs.getLong(1));
+        });
+        return wordIds;
+    }
+
+    private Map<Long, String> findWords(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> words = new HashMap<>();
+        namedParameterJdbcTemplate.query(FIND_WORDS_SQL, new MapSqlParameterSource("ids", ids), rs -> {
+            words.put(rs.getLong(1), rs.getString(2));
+        });
+        return words;
+    }
+
+    /**
+     * Take ids from the sequence like Hibernate's pooled optimizer does, each value ending a block of ids,
+     * so that they never collide with the ids of the entities saved meanwhile.
+     */
+    private long[] nextIds(int count) {
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+        List<Long> blockEnds = jdbcTemplate.queryForList(isPostgresql() ? POSTGRESQL_NEXT_IDS_SQL : NEXT_IDS_SQL, Long.class,
+            (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+        int i = 0;
+        for (long blockEnd : blockEnds) {
+            for (long id = blockEnd - ID_BLOCK_SIZE + 1; id <= blockEnd && i < count; id++) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private void write(String table, String[] columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (isPostgresql()) {
+            String sql = "copy " + table + " (" + String.join(", ", columns) + ") from stdin with (format csv)";
+            jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+                try {
+                    return con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(toCsv(rows)));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } else {
+            String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values (" +
+                String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private boolean isPostgresql() {
+        if (postgresql == null) {
+            postgresql = jdbcTemplate.execute((ConnectionCallback<Boolean>) con ->
+                "PostgreSQL".equals(con.getMetaData().getDatabaseProductName()));
+        }
+        return postgresql;
+    }
+
+    private static String toCsv(List<Object[]> rows) {
+        StringBuilder csv = new StringBuilder();
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    csv.append(',');
+                }
+                if (row[i] instanceof String) {
+                    csv.append('"').append(((String) row[i]).replace("\"", "\"\"")).append('"');
+                } else if (row[i] != null) {
+                    csv.append(row[i]);
+                }
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static int column(DelimitedReader reader, String name, boolean required) {
+        int column = reader.getHeader().indexOf(name);
+        if (column < 0 && required) {
+            throw new IllegalArgumentException("The " + name + " column is missing");
+        }
+        return column;
+    }
+
+    private static String field(String[] record, int column) {
+        return column < 0 ? null : record[column];
+    }
+
+    private static class WordThumbInfoRow {
+
+        private Integer thumbNum;
+
+        private String picUrl;
+
+        private String thumbLid;
+
+        private Long wordId;
+
+        private String word;
+    }
+
+    private static class Counts {
+
+        private long read;
+
+        private long imported;
+
+        private long skipped;
+
+        private long failed;
+
+        private DictionaryImportDTO toDTO() {
+            return new DictionaryImportDTO(read, imported, skipped, failed);
+        }
+    }
+}
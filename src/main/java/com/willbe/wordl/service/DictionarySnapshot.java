@@ -0,0 +1,351 @@
+package com.willbe.wordl.service;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content of the dictionary downloaded by the offline clients: the wordInfos, the categoryWords and the best-voted
+ * pictures of each wordInfo, with its binary format.
+ * <p>
+ * A file holds the changes from one version of the dictionary to another, a full snapshot being the changes from the
+ * empty dictionary, version {@code 0}. It is gzip-compressed and made of:
+ * <pre>
+ * header        := "WDLS" format:u8 fromVersion:i64 toVersion:i64
+ * strings       := count (length utf8Bytes)*, sorted and distinct
+ * words         := removedIds count (idDelta word:string)*
+ * categoryWords := removedIds count (idDelta category:string word:string)*
+ * pictures      := count (wordInfoIdDelta count (pictureId picUrl:string)*)*, an empty list removing the pictures
+ * removedIds    := count idDelta*
+ * string        := 0 for null, or 1 + the index of the string in strings
+ * </pre>
+ * All the numbers but the header ones are unsigned variable-length integers, 7 bits per byte, and ids are sorted and
+ * written as the difference with the previous id of their list.
+ * <p>
+ * The version of a content is a hash of its full snapshot, so that the same content gets the same version wherever it
+ * is built. The thumb counts of the pictures are left out, as they change with every thumb: only the order of the
+ * pictures follows them.
+ * <p>
+ * Instances are not thread-safe.
+ */
+final class DictionarySnapshot {
+
+    private static final int MAGIC = 0x57444C53;
+
+    private static final int FORMAT = 2;
+
+    private final NavigableMap<Long, String> words = new TreeMap<>();
+
+    private final NavigableMap<Long, List<String>> categoryWords = new TreeMap<>();
+
+    private final NavigableMap<Long, List<Picture>> pictures = new TreeMap<>();
+
+    void putWord(long id, String word) {
+        words.put(id, word);
+    }
+
+    void putCategoryWord(long id, String category, String word) {
+        categoryWords.put(id, Arrays.asList(category, word));
+    }
+
+    /**
+     * @param wordInfoId the id of the wordInfo.
+     * @param wordPictures the best-voted pictures of the wordInfo, best first, not empty.
+     */
+    void putPictures(long wordInfoId, List<Picture> wordPictures) {
+        pictures.put(wordInfoId, new ArrayList<>(wordPictures));
+    }
+
+    NavigableMap<Long, String> getWords() {
+        return Collections.unmodifiableNavigableMap(words);
+    }
+
+    NavigableMap<Long, List<String>> getCategoryWords() {
+        return Collections.unmodifiableNavigableMap(categoryWords);
+    }
+
+    NavigableMap<Long, List<Picture>> getPictures() {
+        return Collections.unmodifiableNavigableMap(pictures);
+    }
+
+    /**
+     * @return the version of this content, positive.
+     */
+    long version() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        OutputStream discarded = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        };
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new DigestOutputStream(discarded, digest)))) {
+            writeChanges(data, new DictionarySnapshot(), 0, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long version = ByteBuffer.wrap(digest.digest()).getLong() & Long.MAX_VALUE;
+        return version == 0 ? 1 : version;
+    }
+
+    /**
+     * Write the changes from a previous content to this one.
+     *
+     * @param out the stream to write the gzip-compressed file to, closed when done.
+     * @param from the previous content, or {@code null} to write a full snapshot.
+     * @param fromVersion the version of the previous content, {@code 0} for a full snapshot.
+     * @param toVersion the version of this content.
+     * @throws IOException if the file cannot be written.
+     */
+    void writeChanges(OutputStream out, DictionarySnapshot from, long fromVersion, long toVersion) throws IOException {
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out, 8192)))) {
+            writeChanges(data, from == null ? new DictionarySnapshot() : from, fromVersion, toVersion);
+        }
+    }
+
+    private void writeChanges(DataOutputStream data, DictionarySnapshot base, long fromVersion, long toVersion) throws IOException {
+        NavigableMap<Long, String> changedWords = changed(base.words, words);
+        NavigableMap<Long, List<String>> changedCategoryWords = changed(base.categoryWords, categoryWords);
+        NavigableMap<Long, List<Picture>> changedPictures = changed(base.pictures, pictures);
+        base.pictures.keySet().stream()
+            .filter(id -> !pictures.containsKey(id))
+            .forEach(id -> changedPictures.put(id, Collections.emptyList()));
+
+        SortedSet<String> strings = new TreeSet<>();
+        changedWords.values().stream().filter(Objects::nonNull).forEach(strings::add);
+        changedCategoryWords.values().forEach(entry -> entry.stream().filter(Objects::nonNull).forEach(strings::add));
+        changedPictures.values().forEach(list -> list.stream().map(Picture::getPicUrl).filter(Objects::nonNull).forEach(strings::add));
+        Map<String, Integer> stringRefs = new HashMap<>();
+
+        data.writeInt(MAGIC);
+        data.writeByte(FORMAT);
+        data.writeLong(fromVersion);
+        data.writeLong(toVersion);
+
+        writeVarLong(data, strings.size());
+        for (String string : strings) {
+            stringRefs.put(string, stringRefs.size() + 1);
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(data, bytes.length);
+            data.write(bytes);
+        }
+
+        writeRemovedIds(data, base.words.keySet(), words.keySet());
+        writeVarLong(data, changedWords.size());
+        long previous = 0;
+        for (Map.Entry<Long, String> entry : changedWords.entrySet()) {
+            previous = writeIdDelta(data, previous, entry.getKey());
+            writeString(data, stringRefs, entry.getValue());
+        }
+
+        writeRemovedIds(data, base.categoryWords.keySet(), categoryWords.keySet());
+        writeVarLong(data, changedCategoryWords.size());
+        previous = 0;
+        for (Map.Entry<Long, List<String>> entry : changedCategoryWords.entrySet()) {
+            previous = writeIdDelta(data, previous, entry.getKey());
+            writeString(data, stringRefs, entry.getValue().get(0));
+            writeString(data, stringRefs, entry.getValue().get(1));
+        }
+
+        writeVarLong(data, changedPictures.size());
+        previous = 0;
+        for (Map.Entry<Long, List<Picture>> entry : changedPictures.entrySet()) {
+            previous = writeIdDelta(data, previous, entry.getKey());
+            writeVarLong(data, entry.getValue().size());
+            for (Picture picture : entry.getValue()) {
+                writeVarLong(data, picture.getId());
+                writeString(data, stringRefs, picture.getPicUrl());
+            }
+        }
+    }
+
+    /**
+     * Apply the changes of a file to this content.
+     *
+     * @param in the gzip-compressed file.
+     * @param version the version of this content, {@code 0} if it is empty.
+     * @return the version of the content after the changes.
+     * @throws IOException if the file cannot be read, is not a dictionary file, or does not apply to this version.
+     */
+    long readChanges(InputStream in, long version) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+        if (data.readInt() != MAGIC || data.readUnsignedByte() != FORMAT) {
+            throw new IOException("Not a dictionary snapshot");
+        }
+        long fromVersion = data.readLong();
+        long toVersion = data.readLong();
+        if (fromVersion != version) {
+            throw new IOException("The changes apply to version " + fromVersion + ", not " + version);
+        }
+
+        String[] strings = new String[(int) readVarLong(data)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[(int) readVarLong(data)];
+            data.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        readRemovedIds(data, words);
+        long previous = 0;
+        for (long count = readVarLong(data); count > 0; count--) {
+            previous += readVarLong(data);
+            words.put(previous, readString(data, strings));
+        }
+
+        readRemovedIds(data, categoryWords);
+        previous = 0;
+        for (long count = readVarLong(data); count > 0; count--) {
+            previous += readVarLong(data);
+            categoryWords.put(previous, Arrays.asList(readString(data, strings), readString(data, strings)));
+        }
+
+        previous = 0;
+        for (long count = readVarLong(data); count > 0; count--) {
+            previous += readVarLong(data);
+            int size = (int) readVarLong(data);
+            if (size == 0) {
+                pictures.remove(previous);
+                continue;
+            }
+            List<Picture> wordPictures = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                wordPictures.add(new Picture(readVarLong(data), readString(data, strings)));
+            }
+            pictures.put(previous, wordPictures);
+        }
+        return toVersion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DictionarySnapshot)) {
+            return false;
+        }
+        DictionarySnapshot other = (DictionarySnapshot) o;
+        return words.equals(other.words) && categoryWords.equals(other.categoryWords) && pictures.equals(other.pictures);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(words, categoryWords, pictures);
+    }
+
+    private static <T> NavigableMap<Long, T> changed(Map<Long, T> from, NavigableMap<Long, T> to) {
+        NavigableMap<Long, T> changed = new TreeMap<>();
+        to.forEach((id, value) -> {
+            if (!from.containsKey(id) || !Objects.equals(from.get(id), value)) {
+                changed.put(id, value);
+            }
+        });
+        return changed;
+    }
+
+    private static void writeRemovedIds(DataOutput data, Set<Long> from, Set<Long> to) throws IOException {
+        List<Long> removed = new ArrayList<>();
+        for (Long id : from) {
+            if (!to.contains(id)) {
+                removed.add(id);
+            }
+        }
+        writeVarLong(data, removed.size());
+        long previous = 0;
+        for (Long id : removed) {
+            previous = writeIdDelta(data, previous, id);
+        }
+    }
+
+    private static void readRemovedIds(DataInput data, Map<Long, ?> content) throws IOException {
+        long previous = 0;
+        for (long count = readVarLong(data); count > 0; count--) {
+            previous += readVarLong(data);
+            content.remove(previous);
+        }
+    }
+
+    private static long writeIdDelta(DataOutput data, long previous, long id) throws IOException {
+        writeVarLong(data, id - previous);
+        return id;
+    }
+
+    private static void writeString(DataOutput data, Map<String, Integer> stringRefs, String string) throws IOException {
+        writeVarLong(data, string == null ? 0 : stringRefs.get(string));
+    }
+
+    private static String readString(DataInput data, String[] strings) throws IOException {
+        int ref = (int) readVarLong(data);
+        return ref == 0 ? null : strings[ref - 1];
+    }
+
+    static void writeVarLong(DataOutput data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * A best-voted picture of a wordInfo.
+     */
+    static final class Picture {
+
+        private final long id;
+
+        private final String picUrl;
+
+        Picture(long id, String picUrl) {
+            this.id = id;
+            this.picUrl = picUrl;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        String getPicUrl() {
+            return picUrl;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Picture)) {
+                return false;
+            }
+            Picture other = (Picture) o;
+            return id == other.id && Objects.equals(picUrl, other.picUrl);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, picUrl);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.service.dto.TopPictureDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service class building the offline dictionary downloaded by the mobile clients, see {@link DictionarySnapshot} for its format.
+ * <p>
+ * Each build reads the wordInfos and categoryWords from the database and the best-voted pictures from the
+ * {@link TopPicturesService}, and only writes a new version if the dictionary changed since the previous one: the full
+ * snapshot of the new version, then the delta from each retained version to the new one, so a client up to date with
+ * any retained version downloads a single small file. The files are written to {@code application.snapshot.directory}
+ * and never modified afterwards, so they can be sent straight from the disk.
+ * <p>
+ * A version is derived from the content of the dictionary, so that the nodes building from the same database serve
+ * the same versions, and a client switching nodes gets a delta rather than the full snapshot again. The retained
+ * versions of a node are listed in the {@code versions} file of its directory, latest first.
+ */
+@Service
+public class DictionarySnapshotService {
+
+    private static final String FIND_WORD_INFOS_SQL = "select id, word from word_info";
+
+    private static final String FIND_CATEGORY_WORDS_SQL = "select id, category, word from category_word";
+
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.bin\\.gz");
+
+    private static final Pattern DELTA_FILE = Pattern.compile("delta-(\\d+)-(\\d+)\\.bin\\.gz");
+
+    private static final String VERSIONS_FILE = "versions";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(DictionarySnapshotService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TopPicturesService topPicturesService;
+
+    private final ApplicationProperties.Snapshot snapshotProperties;
+
+    private final Path directory;
+
+    /**
+     * The content of the latest version, only used by the builds.
+     */
+    private DictionarySnapshot latestContent;
+
+    private volatile Published published = new Published(0, null, Collections.emptyMap());
+
+    public DictionarySnapshotService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     TopPicturesService topPicturesService, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.topPicturesService = topPicturesService;
+        this.snapshotProperties = applicationProperties.getSnapshot();
+        this.directory = Paths.get(snapshotProperties.getDirectory());
+    }
+
+    /**
+     * @return the file of the latest snapshot, if one was built.
+     */
+    public Optional<SnapshotFile> getSnapshot() {
+        Published current = published;
+        return current.snapshot == null ? Optional.empty() : Optional.of(new SnapshotFile(current.version, current.snapshot));
+    }
+
+    /**
+     * @param fromVersion the version the client is up to date with.
+     * @return the file of the changes from that version to the latest one, if that version is retained.
+     */
+    public Optional<SnapshotFile> getDelta(long fromVersion) {
+        Published current = published;
+        Path delta = current.deltas.get(fromVersion);
+        return delta == null ? Optional.empty() : Optional.of(new SnapshotFile(current.version, delta));
+    }
+
+    /**
+     * Find the latest snapshot written before the application started, so that the next build writes the deltas from it,
+     * or build one at once if there is none, rather than serving nothing until the first scheduled build.
+     * <p>
+     * Runs after the other listeners of the startup, which load the best-voted pictures.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order
+    public synchronized void loadLatest() {
+        if (!loadPublished()) {
+            scheduledBuild();
+        }
+    }
+
+    /**
+     * @return whether the latest snapshot on the disk is published.
+     */
+    private boolean loadPublished() {
+        List<Long> versions;
+        try {
+            versions = listVersions();
+        } catch (IOException e) {
+            log.warn("Could not list the dictionary snapshots in {}: {}", directory, e.getMessage());
+            return false;
+        }
+        if (versions.isEmpty()) {
+            return false;
+        }
+        long version = versions.get(0);
+        try {
+            latestContent = read(version);
+        } catch (IOException e) {
+            log.warn("Could not read the dictionary snapshot {}, building it again: {}", version, e.getMessage());
+            return false;
+        }
+        Map<Long, Path> deltas = new HashMap<>();
+        for (Long fromVersion : versions.subList(1, versions.size())) {
+            Path delta = deltaPath(fromVersion, version);
+            if (Files.exists(delta)) {
+                deltas.put(fromVersion, delta);
+            }
+        }
+        published = new Published(version, snapshotPath(version), deltas);
+        log.info("Serving the dictionary snapshot {} with {} deltas", version, deltas.size());
+        return true;
+    }
+
+    /**
+     * Build a new snapshot if the dictionary changed.
+     * <p>
+     * This is scheduled to get fired {@code application.snapshot.build-delay-ms} after the end of the previous build.
+     */
+    @Scheduled(fixedDelayString = "${application.snapshot.build-delay-ms:600000}", initialDelayString = "${application.snapshot.build-delay-ms:600000}")
+    public void scheduledBuild() {
+        try {
+            build();
+        } catch (IOException e) {
+            log.error("Could not build the dictionary snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Build a new snapshot if the dictionary changed since the latest one, with the deltas from the retained versions.
+     *
+     * @return the version of the latest snapshot.
+     * @throws IOException if the files cannot be written.
+     */
+    public synchronized long build() throws IOException {
+        DictionarySnapshot content = readDictionary();
+        long version = content.version();
+        Published previous = published;
+        if (version == previous.version) {
+            log.debug("The dictionary did not change since the snapshot {}", previous.version);
+            return previous.version;
+        }
+        Files.createDirectories(directory);
+        // a dictionary changed back to a retained version gets that version again, as the latest one
+        List<Long> versions = listVersions().stream().filter(retainedVersion -> retainedVersion != version).collect(Collectors.toList());
+        write(snapshotPath(version), out -> content.writeChanges(out, null, 0, version));
+
+        Map<Long, Path> deltas = new HashMap<>();
+        List<Long> retained = versions.subList(0, Math.min(versions.size(), Math.max(snapshotProperties.getRetainedVersions() - 1, 0)));
+        for (Long fromVersion : retained) {
+            DictionarySnapshot from;
+            try {
+                from = fromVersion == previous.version && latestContent != null ? latestContent : read(fromVersion);
+            } catch (IOException e) {
+                log.warn("Could not read the dictionary snapshot {}, no delta is written from it: {}", fromVersion, e.getMessage());
+                continue;
+            }
+            Path delta = deltaPath(fromVersion, version);
+            write(delta, out -> content.writeChanges(out, from, fromVersion, version));
+            deltas.put(fromVersion, delta);
+        }
+        List<Long> latestVersions = new ArrayList<>();
+        latestVersions.add(version);
+        latestVersions.addAll(retained);
+        write(directory.resolve(VERSIONS_FILE), out -> out.write(latestVersions.stream().map(String::valueOf)
+            .collect(Collectors.joining("\n", "", "\n")).getBytes(StandardCharsets.UTF_8)));
+        latestContent = content;
+        published = new Published(version, snapshotPath(version), deltas);
+        deleteObsoleteFiles(version, retained);
+        log.info("Built the dictionary snapshot {} of {} wordInfos, {} bytes, with {} deltas", version, content.getWords().size(),
+            Files.size(snapshotPath(version)), deltas.size());
+        return version;
+    }
+
+    private DictionarySnapshot readDictionary() {
+        DictionarySnapshot content = new DictionarySnapshot();
+        transactionTemplate.execute(status -> {
+            query(FIND_WORD_INFOS_SQL, rs -> content.putWord(rs.getLong(1), rs.getString(2)));
+            query(FIND_CATEGORY_WORDS_SQL, rs -> content.putCategoryWord(rs.getLong(1), rs.getString(2), rs.getString(3)));
+            return null;
+        });
+        for (Long wordInfoId : content.getWords().keySet()) {
+            List<TopPictureDTO> pictures = topPicturesService.getTopPictures(wordInfoId, snapshotProperties.getPicturesPerWord());
+            if (!pictures.isEmpty()) {
+                content.putPictures(wordInfoId, pictures.stream()
+                    .map(picture -> new DictionarySnapshot.Picture(picture.getId(), picture.getPicUrl()))
+                    .collect(Collectors.toList()));
+            }
+        }
+        return content;
+    }
+
+    private void query(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, handler);
+    }
+
+    private DictionarySnapshot read(long version) throws IOException {
+        DictionarySnapshot content = new DictionarySnapshot();
+        try (InputStream in = Files.newInputStream(snapshotPath(version))) {
+            content.readChanges(in, 0);
+        }
+        return content;
+    }
+
+    /**
+     * Write a file under a temporary name, then rename it, so that it is never served half-written.
+     */
+    private void write(Path path, FileWriter writer) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            writer.write(out);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Delete the snapshots which are not retained anymore, and the deltas to the previous versions.
+     */
+    private void deleteObsoleteFiles(long version, List<Long> retained) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                Matcher snapshot = SNAPSHOT_FILE.matcher(name);
+                Matcher delta = DELTA_FILE.matcher(name);
+                boolean obsolete = snapshot.matches() && Long.parseLong(snapshot.group(1)) != version
+                    && !retained.contains(Long.parseLong(snapshot.group(1)))
+                    || delta.matches() && Long.parseLong(delta.group(2)) != version;
+                if (obsolete) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the retained versions whose snapshot is in the directory, latest first.
+     */
+    private List<Long> listVersions() throws IOException {
+        Path versions = directory.resolve(VERSIONS_FILE);
+        if (!Files.isRegularFile(versions)) {
+            return Collections.emptyList();
+        }
+        try (Stream<String> lines = Files.lines(versions, StandardCharsets.UTF_8)) {
+            return lines.map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .map(Long::valueOf)
+                .filter(version -> Files.exists(snapshotPath(version)))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private Path snapshotPath(long version) {
+        return directory.resolve("snapshot-" + version + ".bin.gz");
+    }
+
+    private Path deltaPath(long fromVersion, long toVersion) {
+        return directory.resolve("delta-" + fromVersion + "-" + toVersion + ".bin.gz");
+    }
+
+    /**
+     * A snapshot or delta file, with the version of the dictionary it leads to.
+     */
+    public static class SnapshotFile {
+
+        private final long version;
+
+        private final Path path;
+
+        private SnapshotFile(long version, Path path) {
+            this.version = version;
+            this.path = path;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileWriter {
+
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * The files of the latest version, replaced at once when a version is built.
+     */
+    private static class Published {
+
+        private final long version;
+
+        private final Path snapshot;
+
+        private final Map<Long, Path> deltas;
+
+        private Published(long version, Path snapshot, Map<Long, Path> deltas) {
+            this.version = version;
+            this.snapshot = snapshot;
+            this.deltas = deltas;
+        }
+    }
+}
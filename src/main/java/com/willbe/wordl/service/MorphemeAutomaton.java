@@ -0,0 +1,281 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.enumeration.Category;
+import com.willbe.wordl.service.dto.MorphemeDTO;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton over the prefixes, roots, affixes and suffixes of the categoryWords, splitting words into them.
+ * <p>
+ * One pass over a word finds every morpheme it contains, then the word is split into the sequence of prefixes, roots or affixes,
+ * and suffixes, in this order, covering the most letters with the fewest morphemes. The letters covered by no morpheme are
+ * returned as parts without category.
+ * <p>
+ * Instances are immutable, so they can be shared between threads and replaced as a whole.
+ */
+class MorphemeAutomaton {
+
+    private static final int[] NO_OUTPUTS = new int[0];
+
+    private final String[] morphemes;
+
+    private final Category[] categories;
+
+    /**
+     * The characters of the transitions of each state, sorted.
+     */
+    private final char[][] labels;
+
+    /**
+     * The target states of the transitions of each state, in the order of their characters.
+     */
+    private final int[][] targets;
+
+    private final int[] failures;
+
+    /**
+     * The morphemes ending at each state, not counting those of its failure states.
+     */
+    private final int[][] outputs;
+
+    /**
+     * The nearest failure state of each state with outputs, {@code -1} if there is none.
+     */
+    private final int[] outputLinks;
+
+    /**
+     * @param entries the morphemes by category, the words with another category or without a category are ignored.
+     */
+    MorphemeAutomaton(Map<Category, ? extends Iterable<String>> entries) {
+        Set<Map.Entry<String, Category>> patterns = new LinkedHashSet<>();
+        entries.forEach((category, words) -> {
+            if (phase(category) >= 0) {
+                for (String word : words) {
+                    if (word != null && !word.isEmpty()) {
+                        patterns.add(new AbstractMap.SimpleImmutableEntry<>(key(word), category));
+                    }
+                }
+            }
+        });
+        morphemes = new String[patterns.size()];
+        categories = new Category[patterns.size()];
+        List<TreeMap<Character, Integer>> transitions = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        transitions.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+        int index = 0;
+        for (Map.Entry<String, Category> pattern : patterns) {
+            morphemes[index] = pattern.getKey();
+            categories[index] = pattern.getValue();
+            int state = 0;
+            for (char c : pattern.getKey().toCharArray()) {
+                Integer next = transitions.get(state).get(c);
+                if (next == null) {
+                    next = transitions.size();
+                    transitions.add(new TreeMap<>());
+                    ends.add(new ArrayList<>());
+                    transitions.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ends.get(state).add(index++);
+        }
+
+        int size = transitions.size();
+        labels = new char[size][];
+        targets = new int[size][];
+        outputs = new int[size][];
+        for (int state = 0; state < size; state++) {
+            TreeMap<Character, Integer> transition = transitions.get(state);
+            labels[state] = new char[transition.size()];
+            targets[state] = new int[transition.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> entry : transition.entrySet()) {
+                labels[state][i] = entry.getKey();
+                targets[state][i++] = entry.getValue();
+            }
+            outputs[state] = ends.get(state).isEmpty() ? NO_OUTPUTS : ends.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        failures = new int[size];
+        outputLinks = new int[size];
+        outputLinks[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            outputLinks[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < labels[state].length; i++) {
+                int child = targets[state][i];
+                int failure = failures[state];
+                int next;
+                while ((next = transition(failure, labels[state][i])) < 0 && failure != 0) {
+                    failure = failures[failure];
+                }
+                failures[child] = next < 0 ? 0 : next;
+                outputLinks[child] = outputs[failures[child]].length > 0 ? failures[child] : outputLinks[failures[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * @return the number of distinct morphemes of the automaton.
+     */
+    int size() {
+        return morphemes.length;
+    }
+
+    /**
+     * Split a word into its morphemes.
+     *
+     * @param word the word to split, case insensitive.
+     * @return the parts of the word, in order, which together make the whole word.
+     */
+    List<MorphemeDTO> decompose(String word) {
+        if (word == null || word.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String key = key(word);
+        String text = key.length() == word.length() ? word : key;
+        int length = key.length();
+
+        // the morphemes starting at each position
+        List<List<Integer>> starts = new ArrayList<>(Collections.nCopies(length, null));
+        int state = 0;
+        for (int end = 0; end < length; end++) {
+            char c = key.charAt(end);
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) {
+                state = failures[state];
+            }
+            state = next < 0 ? 0 : next;
+            for (int output = outputs[state].length > 0 ? state : outputLinks[state]; output >= 0; output = outputLinks[output]) {
+                for (int morpheme : outputs[output]) {
+                    int start = end + 1 - morphemes[morpheme].length();
+                    if (starts.get(start) == null) {
+                        starts.set(start, new ArrayList<>(2));
+                    }
+                    starts.get(start).add(morpheme);
+                }
+            }
+        }
+
+        // the best split of the first letters of the word ending in each phase, by covered letters then by fewest morphemes
+        int[][] covered = new int[length + 1][3];
+        int[][] parts = new int[length + 1][3];
+        int[][] previous = new int[length + 1][3];
+        int[][] morpheme = new int[length + 1][3];
+        for (int[] row : covered) {
+            Arrays.fill(row, -1);
+        }
+        covered[0][0] = 0;
+        for (int start = 0; start < length; start++) {
+            for (int phase = 0; phase < 3; phase++) {
+                if (covered[start][phase] < 0) {
+                    continue;
+                }
+                // a letter without morpheme belongs to the root
+                relax(covered, parts, previous, morpheme, start, phase, start + 1, Math.max(phase, 1), 0, -1);
+                if (starts.get(start) != null) {
+                    for (int candidate : starts.get(start)) {
+                        int nextPhase = phase(categories[candidate]);
+                        if (nextPhase >= phase) {
+                            relax(covered, parts, previous, morpheme, start, phase, start + morphemes[candidate].length(), nextPhase,
+                                morphemes[candidate].length(), candidate);
+                        }
+                    }
+                }
+            }
+        }
+
+        int phase = 0;
+        for (int other = 1; other < 3; other++) {
+            if (better(covered[length][other], parts[length][other], covered[length][phase], parts[length][phase])) {
+                phase = other;
+            }
+        }
+        Deque<MorphemeDTO> result = new ArrayDeque<>();
+        int end = length;
+        int unknownEnd = -1;
+        while (end > 0) {
+            int candidate = morpheme[end][phase];
+            int start = end - (candidate < 0 ? 1 : morphemes[candidate].length());
+            if (candidate < 0) {
+                unknownEnd = unknownEnd < 0 ? end : unknownEnd;
+            } else {
+                if (unknownEnd >= 0) {
+                    result.push(new MorphemeDTO(text.substring(end, unknownEnd), null, end));
+                    unknownEnd = -1;
+                }
+                result.push(new MorphemeDTO(text.substring(start, end), categories[candidate], start));
+            }
+            phase = previous[end][phase];
+            end = start;
+        }
+        if (unknownEnd >= 0) {
+            result.push(new MorphemeDTO(text.substring(0, unknownEnd), null, 0));
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static void relax(int[][] covered, int[][] parts, int[][] previous, int[][] morpheme,
+                              int start, int phase, int end, int nextPhase, int letters, int candidate) {
+        int nextCovered = covered[start][phase] + letters;
+        int nextParts = parts[start][phase] + (candidate < 0 ? 0 : 1);
+        if (better(nextCovered, nextParts, covered[end][nextPhase], parts[end][nextPhase])) {
+            covered[end][nextPhase] = nextCovered;
+            parts[end][nextPhase] = nextParts;
+            previous[end][nextPhase] = phase;
+            morpheme[end][nextPhase] = candidate;
+        }
+    }
+
+    private static boolean better(int covered, int parts, int otherCovered, int otherParts) {
+        return covered > otherCovered || (covered == otherCovered && covered >= 0 && parts < otherParts);
+    }
+
+    private int transition(int state, char c) {
+        int index = Arrays.binarySearch(labels[state], c);
+        return index < 0 ? -1 : targets[state][index];
+    }
+
+    /**
+     * @return the position of the morphemes of a category in a word: prefixes first, then roots and affixes, then suffixes,
+     * or {@code -1} for a category which is not a morpheme.
+     */
+    private static int phase(Category category) {
+        if (category == null) {
+            return -1;
+        }
+        switch (category) {
+            case PREFIX:
+                return 0;
+            case ROOT:
+            case AFFIX:
+                return 1;
+            case SUFFIX:
+                return 2;
+            default:
+                return -1;
+        }
+    }
+
+    private static String key(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+}
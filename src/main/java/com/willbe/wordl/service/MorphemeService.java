@@ -0,0 +1,200 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.CategoryWord;
+import com.willbe.wordl.domain.enumeration.Category;
+import com.willbe.wordl.service.dto.MorphemeDTO;
+import com.willbe.wordl.service.event.MorphemesCompiledEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.willbe.wordl.service.util.TransactionUtil.afterCommit;
+
+/**
+ * Service class splitting words into the prefixes, roots, affixes and suffixes of the categoryWords.
+ * <p>
+ * The categoryWords are compiled into a {@link MorphemeAutomaton}, which is rebuilt as a whole and swapped when they change,
+ * so splits never wait for a rebuild and never see a half-built automaton. The morphemes are kept in memory, so that a
+ * written categoryWord only compiles them again if it adds or removes one, without reading the others from the database.
+ * A {@link MorphemesCompiledEvent} is published after each compilation.
+ */
+@Service
+public class MorphemeService {
+
+    private static final String FIND_MORPHEMES_SQL = "select c.id, c.category, c.word from category_word c" +
+        " where c.category in ('PREFIX', 'ROOT', 'AFFIX', 'SUFFIX') and c.word is not null";
+
+    private final Logger log = LoggerFactory.getLogger(MorphemeService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private volatile MorphemeAutomaton automaton = new MorphemeAutomaton(Collections.emptyMap());
+
+    /**
+     * The morpheme of each categoryWord which has one.
+     */
+    private Map<Long, Morpheme> morphemes = new HashMap<>();
+
+    /**
+     * The number of categoryWords of each compiled morpheme.
+     */
+    private Map<Morpheme, Integer> counts = new HashMap<>();
+
+    public MorphemeService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher applicationEventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    /**
+     * Split a word into its morphemes.
+     *
+     * @param word the word to split, case insensitive.
+     * @return the parts of the word, in order, which together make the whole word.
+     */
+    public List<MorphemeDTO> decompose(String word) {
+        return automaton.decompose(word);
+    }
+
+    /**
+     * Compile the morpheme of a categoryWord, once the current transaction is committed.
+     *
+     * @param categoryWord the created or updated categoryWord.
+     */
+    public void putAfterCommit(CategoryWord categoryWord) {
+        Long id = categoryWord.getId();
+        Morpheme morpheme = Morpheme.of(categoryWord.getCategory(), categoryWord.getWord());
+        afterCommit(() -> apply(id, morpheme));
+    }
+
+    /**
+     * Remove the morpheme of a categoryWord, once the current transaction is committed.
+     *
+     * @param id the id of the deleted categoryWord.
+     */
+    public void removeAfterCommit(Long id) {
+        afterCommit(() -> apply(id, null));
+    }
+
+    /**
+     * Rebuild the automaton from the categoryWords of the database.
+     * <p>
+     * Called at startup by the {@link WordInfoIndexLoader}, before it loads the indices splitting words.
+     */
+    public synchronized void rebuild() {
+        Map<Long, Morpheme> loaded = new HashMap<>();
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.query(FIND_MORPHEMES_SQL, rs -> {
+                Morpheme morpheme = Morpheme.of(rs.getString(2), rs.getString(3));
+                if (morpheme != null) {
+                    loaded.put(rs.getLong(1), morpheme);
+                }
+            });
+            return null;
+        });
+        morphemes = loaded;
+        counts = new HashMap<>();
+        loaded.values().forEach(morpheme -> counts.merge(morpheme, 1, Integer::sum));
+        compile(null);
+    }
+
+    private synchronized void apply(Long id, Morpheme morpheme) {
+        Morpheme previous = morpheme == null ? morphemes.remove(id) : morphemes.put(id, morpheme);
+        if (Objects.equals(previous, morpheme)) {
+            return;
+        }
+        Set<String> changed = new HashSet<>();
+        if (previous != null && counts.merge(previous, -1, Integer::sum) == 0) {
+            counts.remove(previous);
+            changed.add(previous.word);
+        }
+        if (morpheme != null && counts.merge(morpheme, 1, Integer::sum) == 1) {
+            changed.add(morpheme.word);
+        }
+        // another categoryWord has the same morpheme, so the words split the same way
+        if (!changed.isEmpty()) {
+            compile(changed);
+        }
+    }
+
+    /**
+     * @param changed the morphemes added or removed, {@code null} if all of them were loaded again.
+     */
+    private void compile(Set<String> changed) {
+        Map<Category, List<String>> byCategory = new EnumMap<>(Category.class);
+        counts.keySet().forEach(morpheme -> byCategory.computeIfAbsent(morpheme.category, category -> new ArrayList<>()).add(morpheme.word));
+        automaton = new MorphemeAutomaton(byCategory);
+        log.debug("Compiled {} morphemes", automaton.size());
+        applicationEventPublisher.publishEvent(new MorphemesCompiledEvent(automaton.size(), changed));
+    }
+
+    /**
+     * A morpheme of a categoryWord, compared without case as the automaton does.
+     */
+    private static final class Morpheme {
+
+        private final Category category;
+
+        private final String word;
+
+        private Morpheme(Category category, String word) {
+            this.category = category;
+            this.word = word;
+        }
+
+        /**
+         * @return the morpheme, or {@code null} if the category is not a prefix, root, affix or suffix, or the word is empty.
+         */
+        private static Morpheme of(String category, String word) {
+            if (category == null || word == null || word.isEmpty()) {
+                return null;
+            }
+            Category parsed;
+            try {
+                parsed = Category.valueOf(category);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            return parsed == Category.SITUATION ? null : new Morpheme(parsed, word.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Morpheme)) {
+                return false;
+            }
+            Morpheme other = (Morpheme) o;
+            return category == other.category && word.equals(other.word);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(category, word);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.service.dto.ReviewItemDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Service class scheduling the reviews of the words of each user, so that they are asked again just before being
+ * forgotten.
+ * <p>
+ * Creating a userThumbInfo counts as a review of its word by its clicker. Following the SM-2 algorithm, a word
+ * reviewed on time is due again after 1 day, then 6 days, then an interval growing by its ease each time, and a word
+ * reviewed before its due date keeps its schedule. Every night, the words whose due date passed without a review lapse:
+ * they start again from a 1 day interval, with a lower ease, and are due from that day.
+ * <p>
+ * The schedule is stored in the {@code review_item} table, one row per user and wordInfo, indexed by user and due date,
+ * so the queue of a user is read from the index whatever the number of users and words. A first review inserts its row
+ * only if it is still missing, and the next ones update it under a row lock, so that concurrent reviews of a word by
+ * the same user neither fail on its key nor overwrite each other.
+ */
+@Service
+public class ReviewQueueService {
+
+    /**
+     * The ease of a new word, in thousandths: its interval is multiplied by 2.5 after each review.
+     */
+    static final int INITIAL_EASE = 2500;
+
+    static final int MIN_EASE = 1300;
+
+    static final int LAPSE_EASE_PENALTY = 200;
+
+    private static final int SECOND_INTERVAL_DAYS = 6;
+
+    private static final int MAX_INTERVAL_DAYS = 36500;
+
+    private static final String FIND_WORD_INFOS_SQL = "select id, word from word_info where word in (:words)";
+
+    private static final String LOCK_ITEMS_SQL = "select word_info_id, due_day, interval_days, ease, repetitions" +
+        " from review_item where user_id = :userId and word_info_id in (:wordInfoIds) order by word_info_id for update";
+
+    private static final String UPDATE_SQL = "update review_item set due_day = ?, interval_days = ?, ease = ?, repetitions = ?" +
+        " where user_id = ? and word_info_id = ?";
+
+    private static final String INSERT_SQL = "insert into review_item (due_day, interval_days, ease, repetitions, user_id, word_info_id)" +
+        " values (?, ?, ?, ?, ?, ?) on conflict (user_id, word_info_id) do nothing";
+
+    /**
+     * {@link #INSERT_SQL} for the databases without {@code on conflict}, such as H2.
+     */
+    private static final String MERGE_SQL = "merge into review_item r using (select cast(? as integer) due_day," +
+        " cast(? as integer) interval_days, cast(? as integer) ease, cast(? as integer) repetitions," +
+        " cast(? as bigint) user_id, cast(? as bigint) word_info_id) n on (r.user_id = n.user_id and r.word_info_id = n.word_info_id)" +
+        " when not matched then insert (due_day, interval_days, ease, repetitions, user_id, word_info_id)" +
+        " values (n.due_day, n.interval_days, n.ease, n.repetitions, n.user_id, n.word_info_id)";
+
+    private static final String FIND_DUE_SQL = "select r.word_info_id, i.word, r.due_day, r.interval_days, r.repetitions" +
+        " from review_item r join word_info i on i.id = r.word_info_id where r.user_id = ? and r.due_day <= ?" +
+        " order by r.due_day, r.word_info_id limit ?";
+
+    private static final String PAGE_END_SQL =
+        "select max(id) from (select id from jhi_user where id > ? order by id limit ?) page";
+
+    private static final String ROLL_OVER_SQL = "update review_item set due_day = ?, interval_days = 1, repetitions = 0," +
+        " ease = greatest(ease - " + LAPSE_EASE_PENALTY + ", " + MIN_EASE + ")" +
+        " where user_id > ? and user_id <= ? and repetitions > 0 and due_day < ?";
+
+    private final Logger log = LoggerFactory.getLogger(ReviewQueueService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate writeTemplate;
+
+    private final ApplicationProperties.Review reviewProperties;
+
+    private final String insertSql;
+
+    public ReviewQueueService(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                              PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.reviewProperties = applicationProperties.getReview();
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        this.insertSql = "PostgreSQL".equals(database) ? INSERT_SQL : MERGE_SQL;
+    }
+
+    /**
+     * Get the words a user should review, most overdue first.
+     *
+     * @param userId the id of the user.
+     * @param today the current day.
+     * @param limit the maximum number of words to return.
+     * @return the words due for review on that day.
+     */
+    public List<ReviewItemDTO> findDue(Long userId, LocalDate today, int limit) {
+        return jdbcTemplate.query(FIND_DUE_SQL, (rs, rowNum) -> new ReviewItemDTO(rs.getLong(1), rs.getString(2),
+            LocalDate.ofEpochDay(rs.getInt(3)), rs.getInt(4), rs.getInt(5)), userId, (int) today.toEpochDay(), limit);
+    }
+
+    /**
+     * Schedule the next reviews of the words of new userThumbInfos, ignoring those without a clicker or without a wordInfo.
+     * <p>
+     * Joins the transaction creating the userThumbInfos, if any.
+     *
+     * @param userThumbInfos the created userThumbInfos.
+     * @param today the current day.
+     */
+    @Transactional
+    public void recordReviews(Collection<UserThumbInfo> userThumbInfos, LocalDate today) {
+        Map<Long, Set<String>> wordsByUserId = new HashMap<>();
+        for (UserThumbInfo userThumbInfo : userThumbInfos) {
+            if (userThumbInfo.getClicker() != null && userThumbInfo.getClicker().getId() != null && userThumbInfo.getWord() != null) {
+                wordsByUserId.computeIfAbsent(userThumbInfo.getClicker().getId(), id -> new HashSet<>()).add(userThumbInfo.getWord());
+            }
+        }
+        if (wordsByUserId.isEmpty()) {
+            return;
+        }
+        Set<String> words = new HashSet<>();
+        wordsByUserId.values().forEach(words::addAll);
+        Map<String, Long> wordInfoIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(FIND_WORD_INFOS_SQL, new MapSqlParameterSource("words", words),
+            rs -> {
+                wordInfoIds.put(rs.getString(2), rs.getLong(1));
+            });
+        int day = (int) today.toEpochDay();
+        // the rows are written in the order of their keys, so that concurrent reviews of the same words do not deadlock
+        SortedMap<Long, SortedSet<Long>> reviewedByUserId = new TreeMap<>();
+        List<Object[]> inserts = new ArrayList<>();
+        wordsByUserId.forEach((userId, userWords) -> userWords.stream().map(wordInfoIds::get).filter(Objects::nonNull)
+            .forEach(wordInfoId -> reviewedByUserId.computeIfAbsent(userId, id -> new TreeSet<>()).add(wordInfoId)));
+        reviewedByUserId.forEach((userId, reviewed) ->
+            reviewed.forEach(wordInfoId -> inserts.add(review(day, 0, INITIAL_EASE, 0, userId, wordInfoId))));
+        if (inserts.isEmpty()) {
+            return;
+        }
+        // first reviews insert their row, unless a concurrent transaction did
+        int[] inserted = jdbcTemplate.batchUpdate(insertSql, inserts);
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] == 1) {
+                Object[] insert = inserts.get(i);
+                reviewedByUserId.get((Long) insert[4]).remove((Long) insert[5]);
+            }
+        }
+        // the other reviews update their row, locked so that concurrent reviews are applied one after the other
+        List<Object[]> updates = new ArrayList<>();
+        reviewedByUserId.forEach((userId, reviewed) -> {
+            if (reviewed.isEmpty()) {
+                return;
+            }
+            MapSqlParameterSource parameters = new MapSqlParameterSource("userId", userId).addValue("wordInfoIds", reviewed);
+            namedParameterJdbcTemplate.query(LOCK_ITEMS_SQL, parameters, rs -> {
+                if (rs.getInt(2) <= day) {
+                    updates.add(review(day, rs.getInt(3), rs.getInt(4), rs.getInt(5), userId, rs.getLong(1)));
+                }
+            });
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+    }
+
+    /**
+     * Schedule the next reviews of the words of new userThumbInfos, today.
+     *
+     * @param userThumbInfos the created userThumbInfos.
+     * @see #recordReviews(Collection, LocalDate)
+     */
+    @Transactional
+    public void recordReviews(Collection<UserThumbInfo> userThumbInfos) {
+        recordReviews(userThumbInfos, LocalDate.now());
+    }
+
+    /**
+     * Make the words missed the day before lapse.
+     * <p>
+     * This is scheduled to get fired at {@code application.review.roll-over-cron}, everyday at 00:05 (am) by default.
+     */
+    @Scheduled(cron = "${application.review.roll-over-cron:0 5 0 * * ?}")
+    public void scheduledRollOver() {
+        rollOver(LocalDate.now());
+    }
+
+    /**
+     * Make the words whose due date is before a day, and which did not lapse already, lapse: they are due from that day,
+     * in 1 day intervals, with a lower ease.
+     * <p>
+     * The users are walked by pages of increasing ids, and the words of each page are updated in one statement
+     * and transaction, several pages in parallel.
+     *
+     * @param today the current day.
+     * @return the number of words which lapsed.
+     */
+    public synchronized long rollOver(LocalDate today) {
+        int day = (int) today.toEpochDay();
+        ForkJoinPool pool = new ForkJoinPool(reviewProperties.getParallelism());
+        try {
+            List<ForkJoinTask<Integer>> pages = new ArrayList<>();
+            long after = Long.MIN_VALUE;
+            Long last;
+            while ((last = jdbcTemplate.queryForObject(PAGE_END_SQL, Long.class, after, reviewProperties.getPageSize())) != null) {
+                long first = after;
+                long end = last;
+                pages.add(pool.submit(() -> writeTemplate.execute(status -> jdbcTemplate.update(ROLL_OVER_SQL, day, first, end, day))));
+                after = last;
+            }
+            long lapsed = 0;
+            for (ForkJoinTask<Integer> page : pages) {
+                lapsed += page.join();
+            }
+            log.info("Rolled over the reviews of {} pages of users, {} words lapsed", pages.size(), lapsed);
+            return lapsed;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the arguments of {@link #UPDATE_SQL}, {@link #INSERT_SQL} or {@link #MERGE_SQL} for a word reviewed on time.
+     */
+    private static Object[] review(int day, int intervalDays, int ease, int repetitions, long userId, long wordInfoId) {
+        int nextRepetitions = repetitions + 1;
+        int nextInterval;
+        if (nextRepetitions == 1) {
+            nextInterval = 1;
+        } else if (nextRepetitions == 2) {
+            nextInterval = SECOND_INTERVAL_DAYS;
+        } else {
+            nextInterval = (int) Math.min(MAX_INTERVAL_DAYS, Math.max(intervalDays + 1, Math.round(intervalDays * ease / 1000.0)));
+        }
+        return new Object[]{day + nextInterval, nextInterval, ease, nextRepetitions, userId, wordInfoId};
+    }
+}
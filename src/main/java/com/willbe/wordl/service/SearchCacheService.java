@@ -0,0 +1,196 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.*;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Service class caching the pages of hits of the search endpoints, in a bounded cache per index.
+ * <p>
+ * A page is cached under its normalized query, its page and the generation of its index. Each write to an index bumps
+ * its generation, so that the pages cached before are never read again, and are evicted as the cache fills up or as
+ * they expire, without scanning the cache.
+ * <p>
+ * The generations are kept by each instance: the pages cached by an instance which did not write to an index are
+ * stale until they expire, after {@code application.search-cache.time-to-live-seconds}.
+ */
+@Service
+public class SearchCacheService {
+
+    public static final String SEARCH_RESULTS_CACHE = "searchResults";
+
+    /**
+     * The entities of the search repositories.
+     */
+    private static final List<Class<?>> INDEXED_ENTITIES = Collections.unmodifiableList(Arrays.asList(
+        WordInfo.class, CategoryWord.class, WordThumbInfo.class, UserThumbInfo.class, Feedback.class, User.class));
+
+    /**
+     * The names of the caches, one per index.
+     */
+    public static final List<String> SEARCH_RESULTS_CACHES = Collections.unmodifiableList(INDEXED_ENTITIES.stream()
+        .map(entityClass -> cacheName(indexName(entityClass)))
+        .collect(Collectors.toList()));
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, IndexCache> indexCaches = new HashMap<>();
+
+    public SearchCacheService(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        INDEXED_ENTITIES.forEach(entityClass -> {
+            String indexName = indexName(entityClass);
+            indexCaches.put(indexName, new IndexCache(cacheManager.getCache(cacheName(indexName)), indexName, meterRegistry));
+        });
+    }
+
+    /**
+     * Get a page of hits, searching it only if it is not cached.
+     *
+     * @param entityClass the class of the searched entities.
+     * @param query the query string.
+     * @param pageable the pagination information.
+     * @param search the search of the page.
+     * @param <T> the type of the entities.
+     * @return the page of hits.
+     */
+    public <T> Page<T> search(Class<T> entityClass, String query, Pageable pageable, Supplier<Page<T>> search) {
+        String page = pageable.getPageNumber() + "," + pageable.getPageSize() + "," + pageable.getSort();
+        return indexCache(entityClass).get(query, page, search);
+    }
+
+    /**
+     * Get a page of hits after a cursor, searching it only if it is not cached.
+     *
+     * @param entityClass the class of the searched entities.
+     * @param query the query string.
+     * @param size the maximum number of hits of the page.
+     * @param searchAfter the encoded cursor of the last hit of the previous page, empty for the first page.
+     * @param search the search of the page.
+     * @param <T> the type of the entities.
+     * @return the page of hits.
+     */
+    public <T> SearchAfterPage<T> searchAfter(Class<T> entityClass, String query, int size, String searchAfter,
+                                              Supplier<SearchAfterPage<T>> search) {
+        return indexCache(entityClass).get(query, size + "," + searchAfter, search);
+    }
+
+    /**
+     * Drop the cached pages of an index, after writing to it.
+     *
+     * @param entityClass the class of the entities of the index.
+     */
+    public void invalidate(Class<?> entityClass) {
+        indexCache(entityClass).generation.incrementAndGet();
+    }
+
+    /**
+     * Drop the cached pages of an index, after writing to it.
+     *
+     * @param indexName the name of the index, or of its alias.
+     */
+    public void invalidate(String indexName) {
+        IndexCache indexCache = indexCaches.get(indexName);
+        if (indexCache != null) {
+            indexCache.generation.incrementAndGet();
+        }
+    }
+
+    private IndexCache indexCache(Class<?> entityClass) {
+        IndexCache indexCache = indexCaches.get(indexName(entityClass));
+        if (indexCache == null) {
+            throw new IllegalArgumentException("No search repository for " + entityClass.getName());
+        }
+        return indexCache;
+    }
+
+    private static String indexName(Class<?> entityClass) {
+        return AnnotationUtils.findAnnotation(entityClass, Document.class).indexName();
+    }
+
+    private static String cacheName(String indexName) {
+        return SEARCH_RESULTS_CACHE + "." + indexName;
+    }
+
+    /**
+     * The cache of an index, with its generation and its meters.
+     */
+    private static class IndexCache {
+
+        private final Cache cache;
+
+        private final AtomicLong generation = new AtomicLong();
+
+        private final Counter hitCounter;
+
+        private final Counter missCounter;
+
+        /**
+         * Records, on each hit, how long the search of the page took when it was cached.
+         */
+        private final Timer savedTimer;
+
+        private IndexCache(Cache cache, String indexName, MeterRegistry meterRegistry) {
+            this.cache = cache;
+            this.hitCounter = meterRegistry.counter("search.cache.gets", "index", indexName, "result", "hit");
+            this.missCounter = meterRegistry.counter("search.cache.gets", "index", indexName, "result", "miss");
+            this.savedTimer = meterRegistry.timer("search.cache.latency.saved", "index", indexName);
+            Gauge.builder("search.cache.hit.ratio", this, IndexCache::hitRatio)
+                .tag("index", indexName)
+                .register(meterRegistry);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <R> R get(String query, String page, Supplier<R> search) {
+            // read the generation before searching, so that a page searched during a write is cached as stale
+            String key = generation.get() + ":" + page + ":" + WHITESPACE.matcher(query.trim()).replaceAll(" ");
+            Cache.ValueWrapper cached = cache.get(key);
+            if (cached != null) {
+                Entry entry = (Entry) cached.get();
+                hitCounter.increment();
+                savedTimer.record(entry.searchNanos, TimeUnit.NANOSECONDS);
+                return (R) entry.result;
+            }
+            missCounter.increment();
+            long start = System.nanoTime();
+            R result = search.get();
+            cache.put(key, new Entry(result, System.nanoTime() - start));
+            return result;
+        }
+
+        private double hitRatio() {
+            double hits = hitCounter.count();
+            double gets = hits + missCounter.count();
+            return gets == 0 ? Double.NaN : hits / gets;
+        }
+    }
+
+    private static class Entry {
+
+        private final Object result;
+
+        private final long searchNanos;
+
+        private Entry(Object result, long searchNanos) {
+            this.result = result;
+            this.searchNanos = searchNanos;
+        }
+    }
+}
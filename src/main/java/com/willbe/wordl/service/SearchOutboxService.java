@@ -0,0 +1,343 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.domain.*;
+import com.willbe.wordl.repository.*;
+import com.willbe.wordl.repository.search.*;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Service class keeping the Elasticsearch indices up to date with the database, without making the writes wait for
+ * Elasticsearch.
+ * <p>
+ * The transactions changing an indexed entity add its id to the {@code search_outbox} table, so the document is indexed
+ * again if and only if they commit. The outbox is drained in id order, by batches of
+ * {@code application.search-outbox.batch-size} rows: the documents of a batch are read from the database in their
+ * latest state, then indexed with one bulk request per index, and those whose entity was deleted are removed. The rows
+ * of an index Elasticsearch failed on are retried later, with an exponential backoff.
+ * <p>
+ * A batch is drained in one transaction locking its rows, so only one node drains them at a time and a document is
+ * never indexed in an older state than the one it was last indexed in. The rows of an index being rebuilt are held
+ * back, and drained into the new index once it replaces the previous one.
+ */
+@Service
+public class SearchOutboxService {
+
+    private static final String INSERT_SQL = "insert into search_outbox (index_name, document_id, created_date, available_date)" +
+        " values (?, ?, ?, ?)";
+
+    private static final String FIND_BATCH_SQL = "select o.id, o.index_name, o.document_id, o.created_date, o.attempts" +
+        " from search_outbox o where o.available_date <= ? and not exists (select 1 from search_outbox_hold h" +
+        " where h.index_name = o.index_name and h.held_until > ?) order by o.id limit ? for update";
+
+    private static final String DELETE_SQL = "delete from search_outbox where id = ?";
+
+    private static final String RETRY_SQL = "update search_outbox set attempts = attempts + 1, available_date = ? where id = ?";
+
+    private static final String FIND_LAG_SQL = "select count(*), min(created_date) from search_outbox";
+
+    private static final String UPDATE_HOLD_SQL = "update search_outbox_hold set held_until = ? where index_name = ?";
+
+    private static final String INSERT_HOLD_SQL = "insert into search_outbox_hold (held_until, index_name) values (?, ?)";
+
+    private static final String DELETE_HOLD_SQL = "delete from search_outbox_hold where index_name = ?";
+
+    /**
+     * How long a hold lasts if it is not renewed.
+     */
+    public static final Duration HOLD_DURATION = Duration.ofMinutes(10);
+
+    private final Logger log = LoggerFactory.getLogger(SearchOutboxService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate writeTemplate;
+
+    private final ApplicationProperties.SearchOutbox outboxProperties;
+
+    private final SearchCacheService searchCacheService;
+
+    private final Map<Class<?>, String> indexNames = new HashMap<>();
+
+    private final Map<String, Target<?>> targets = new HashMap<>();
+
+    private final Counter indexedCounter;
+
+    private final Counter deletedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer latencyTimer;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    /**
+     * The creation time of the oldest row of the outbox, in milliseconds, or {@code 0} if it is empty.
+     */
+    private final AtomicLong oldestPending = new AtomicLong();
+
+    public SearchOutboxService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               WordInfoRepository wordInfoRepository, WordInfoSearchRepository wordInfoSearchRepository,
+                               CategoryWordRepository categoryWordRepository, CategoryWordSearchRepository categoryWordSearchRepository,
+                               WordThumbInfoRepository wordThumbInfoRepository, WordThumbInfoSearchRepository wordThumbInfoSearchRepository,
+                               UserThumbInfoRepository userThumbInfoRepository, UserThumbInfoSearchRepository userThumbInfoSearchRepository,
+                               FeedbackRepository feedbackRepository, FeedbackSearchRepository feedbackSearchRepository,
+                               UserRepository userRepository, UserSearchRepository userSearchRepository,
+                               SearchCacheService searchCacheService, ApplicationProperties applicationProperties,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.outboxProperties = applicationProperties.getSearchOutbox();
+        this.searchCacheService = searchCacheService;
+        register(WordInfo.class, wordInfoRepository, wordInfoSearchRepository, WordInfo::getId);
+        register(CategoryWord.class, categoryWordRepository, categoryWordSearchRepository, CategoryWord::getId);
+        register(WordThumbInfo.class, wordThumbInfoRepository, wordThumbInfoSearchRepository, WordThumbInfo::getId);
+        register(UserThumbInfo.class, userThumbInfoRepository, userThumbInfoSearchRepository, UserThumbInfo::getId);
+        register(Feedback.class, feedbackRepository, feedbackSearchRepository, Feedback::getId);
+        register(User.class, userRepository, userSearchRepository, User::getId);
+        this.indexedCounter = meterRegistry.counter("search.outbox.indexed");
+        this.deletedCounter = meterRegistry.counter("search.outbox.deleted");
+        this.failedCounter = meterRegistry.counter("search.outbox.failed");
+        this.latencyTimer = meterRegistry.timer("search.outbox.latency");
+        meterRegistry.gauge("search.outbox.pending", pending);
+        TimeGauge.builder("search.outbox.lag", oldestPending, TimeUnit.MILLISECONDS,
+            oldest -> oldest.get() == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest.get()))
+            .register(meterRegistry);
+    }
+
+    private <T> void register(Class<T> entityClass, JpaRepository<T, Long> repository,
+                              ElasticsearchRepository<T, Long> searchRepository, Function<T, Long> idGetter) {
+        String indexName = AnnotationUtils.findAnnotation(entityClass, Document.class).indexName();
+        indexNames.put(entityClass, indexName);
+        targets.put(indexName, new Target<>(repository, searchRepository, idGetter));
+    }
+
+    /**
+     * Index an entity again once the current transaction commits.
+     *
+     * @param entityClass the class of the entity, one of the indexed entities.
+     * @param id the id of the entity, created, updated or deleted.
+     */
+    @Transactional
+    public void enqueue(Class<?> entityClass, Long id) {
+        enqueueAll(entityClass, Collections.singletonList(id));
+    }
+
+    /**
+     * Index entities again once the current transaction commits.
+     * <p>
+     * Joins the transaction writing the entities, if any.
+     *
+     * @param entityClass the class of the entities, one of the indexed entities.
+     * @param ids the ids of the entities, created, updated or deleted.
+     */
+    @Transactional
+    public void enqueueAll(Class<?> entityClass, Collection<Long> ids) {
+        String indexName = indexNames.get(entityClass);
+        if (indexName == null) {
+            throw new IllegalArgumentException(entityClass.getSimpleName() + " is not indexed");
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[]{indexName, id, now, now});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    /**
+     * Hold back the rows of an index on every node, until {@link #release(String)} is called or for
+     * {@link #HOLD_DURATION} if the hold is not renewed, so that the documents changed meanwhile are indexed later.
+     * <p>
+     * Commits at once, unless a transaction is running.
+     *
+     * @param indexName the name of the index.
+     */
+    public void hold(String indexName) {
+        Timestamp heldUntil = Timestamp.from(Instant.now().plus(HOLD_DURATION));
+        writeTemplate.execute(status -> {
+            if (jdbcTemplate.update(UPDATE_HOLD_SQL, heldUntil, indexName) == 0) {
+                jdbcTemplate.update(INSERT_HOLD_SQL, heldUntil, indexName);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Drain the rows of an index again.
+     *
+     * @param indexName the name of the index.
+     */
+    public void release(String indexName) {
+        writeTemplate.execute(status -> jdbcTemplate.update(DELETE_HOLD_SQL, indexName));
+    }
+
+    /**
+     * Drain the outbox.
+     * <p>
+     * This is scheduled to get fired {@code application.search-outbox.drain-delay-ms} after the end of the previous drain.
+     */
+    @Scheduled(fixedDelayString = "${application.search-outbox.drain-delay-ms:1000}", initialDelayString = "${application.search-outbox.drain-delay-ms:1000}")
+    public void scheduledDrain() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("Could not drain the search outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Index the documents of the outbox rows available for indexing, batch after batch, until none is left.
+     *
+     * @return the number of rows processed, retried ones included.
+     */
+    public synchronized long drain() {
+        long processed = 0;
+        int batch;
+        do {
+            batch = writeTemplate.execute(status -> drainBatch());
+            processed += batch;
+        } while (batch == outboxProperties.getBatchSize());
+        jdbcTemplate.query(FIND_LAG_SQL, rs -> {
+            pending.set(rs.getLong(1));
+            Timestamp oldest = rs.getTimestamp(2);
+            oldestPending.set(oldest == null ? 0 : oldest.getTime());
+        });
+        return processed;
+    }
+
+    private int drainBatch() {
+        Instant now = Instant.now();
+        List<Row> rows = jdbcTemplate.query(FIND_BATCH_SQL, (rs, rowNum) -> new Row(rs.getLong(1), rs.getString(2),
+            rs.getLong(3), rs.getTimestamp(4).toInstant(), rs.getInt(5)), Timestamp.from(now), Timestamp.from(now),
+            outboxProperties.getBatchSize());
+        Map<String, List<Row>> rowsByIndex = new LinkedHashMap<>();
+        rows.forEach(row -> rowsByIndex.computeIfAbsent(row.indexName, indexName -> new ArrayList<>()).add(row));
+
+        List<Object[]> done = new ArrayList<>();
+        List<Object[]> retried = new ArrayList<>();
+        rowsByIndex.forEach((indexName, indexRows) -> {
+            Target<?> target = targets.get(indexName);
+            if (target == null) {
+                log.warn("Dropping {} search outbox rows of the unknown index {}", indexRows.size(), indexName);
+                indexRows.forEach(row -> done.add(new Object[]{row.id}));
+                return;
+            }
+            // several rows of a document are indexed once, in the latest state of its entity
+            Set<Long> documentIds = new LinkedHashSet<>();
+            indexRows.forEach(row -> documentIds.add(row.documentId));
+            try {
+                int deleted = target.index(documentIds);
+                indexedCounter.increment(documentIds.size() - deleted);
+                deletedCounter.increment(deleted);
+                Instant indexed = Instant.now();
+                indexRows.forEach(row -> {
+                    done.add(new Object[]{row.id});
+                    latencyTimer.record(Duration.between(row.createdDate, indexed));
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not index {} documents of {}, retrying later: {}", documentIds.size(), indexName, e.getMessage());
+                failedCounter.increment(documentIds.size());
+                indexRows.forEach(row -> retried.add(new Object[]{Timestamp.from(now.plus(retryDelay(row.attempts))), row.id}));
+            }
+            // even a failed batch may have written some of its documents
+            searchCacheService.invalidate(indexName);
+        });
+        if (!done.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, done);
+        }
+        if (!retried.isEmpty()) {
+            jdbcTemplate.batchUpdate(RETRY_SQL, retried);
+        }
+        return rows.size();
+    }
+
+    /**
+     * @return the delay before retrying a row which failed after some attempts, doubling with each attempt.
+     */
+    private Duration retryDelay(int attempts) {
+        long delay = outboxProperties.getRetryDelayMs() << Math.min(attempts, 30);
+        return Duration.ofMillis(Math.min(delay, outboxProperties.getMaxRetryDelayMs()));
+    }
+
+    /**
+     * The entities of an index, with the repositories reading them and indexing them.
+     */
+    private static class Target<T> {
+
+        private final JpaRepository<T, Long> repository;
+
+        private final ElasticsearchRepository<T, Long> searchRepository;
+
+        private final Function<T, Long> idGetter;
+
+        private Target(JpaRepository<T, Long> repository, ElasticsearchRepository<T, Long> searchRepository, Function<T, Long> idGetter) {
+            this.repository = repository;
+            this.searchRepository = searchRepository;
+            this.idGetter = idGetter;
+        }
+
+        /**
+         * Index the documents of existing entities and remove the others.
+         *
+         * @return the number of removed documents.
+         */
+        private int index(Set<Long> ids) {
+            List<T> entities = repository.findAllById(ids);
+            Set<Long> removed = new LinkedHashSet<>(ids);
+            entities.forEach(entity -> removed.remove(idGetter.apply(entity)));
+            if (!entities.isEmpty()) {
+                searchRepository.saveAll(entities);
+            }
+            removed.forEach(searchRepository::deleteById);
+            return removed.size();
+        }
+    }
+
+    private static class Row {
+
+        private final long id;
+
+        private final String indexName;
+
+        private final long documentId;
+
+        private final Instant createdDate;
+
+        private final int attempts;
+
+        private Row(long id, String indexName, long documentId, Instant createdDate, int attempts) {
+            this.id = id;
+            this.indexName = indexName;
+            this.documentId = documentId;
+            this.createdDate = createdDate;
+            this.attempts = attempts;
+        }
+    }
+}
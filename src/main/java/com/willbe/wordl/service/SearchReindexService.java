@@ -0,0 +1,426 @@
+package com.willbe.wordl.service;
+
+import com.google.gson.JsonObject;
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.config.Constants;
+import com.willbe.wordl.domain.*;
+import com.willbe.wordl.service.dto.ReindexProgressDTO;
+import com.willbe.wordl.service.dto.ReindexProgressDTO.Status;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.searchbox.action.Action;
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResult;
+import io.searchbox.indices.aliases.AddAliasMapping;
+import io.searchbox.indices.aliases.AliasMapping;
+import io.searchbox.indices.aliases.GetAliases;
+import io.searchbox.indices.aliases.ModifyAliases;
+import io.searchbox.indices.settings.UpdateSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Service class rebuilding the Elasticsearch indices from the database, while the searches keep being served.
+ * <p>
+ * The searches and writes use an alias named after the index of each entity. A rebuild writes a new index, named after
+ * the alias and the time it started, then atomically moves the alias to it and deletes the previous index. The entities
+ * are read by pages of {@code application.reindex.page-size} entities of increasing ids, each page is sent with one
+ * bulk request, and {@code application.reindex.parallelism} requests are sent in parallel, the reading waiting while as
+ * many more pages are queued. The new index is only refreshed and replicated once it is complete.
+ * <p>
+ * The search outbox rows of the index are held back during the rebuild, so the entities changed after their page was
+ * read are indexed into the new index once the alias was moved.
+ * <p>
+ * Not available with the embedded Lucene indices of the {@code lucene} profile, which have no aliases.
+ */
+@Service
+@Profile("!" + Constants.SPRING_PROFILE_LUCENE)
+public class SearchReindexService {
+
+    private static final List<Class<?>> INDEXED_ENTITIES = Arrays.asList(WordInfo.class, CategoryWord.class,
+        WordThumbInfo.class, UserThumbInfo.class, Feedback.class, User.class);
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final JestClient jestClient;
+
+    private final EntityMapper entityMapper;
+
+    private final EntityManager entityManager;
+
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    private final TransactionTemplate readTemplate;
+
+    private final SearchOutboxService searchOutboxService;
+
+    private final SearchCacheService searchCacheService;
+
+    private final ApplicationProperties.Reindex reindexProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Class<?>> entityClasses = new LinkedHashMap<>();
+
+    /**
+     * The progress of the latest rebuild, by alias.
+     */
+    private volatile Map<String, Progress> progress = Collections.emptyMap();
+
+    private boolean running;
+
+    public SearchReindexService(ElasticsearchOperations elasticsearchOperations, JestClient jestClient, EntityMapper entityMapper,
+                                EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                SearchOutboxService searchOutboxService, SearchCacheService searchCacheService,
+                                ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.jestClient = jestClient;
+        this.entityMapper = entityMapper;
+        this.entityManager = entityManager;
+        this.persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.searchOutboxService = searchOutboxService;
+        this.searchCacheService = searchCacheService;
+        this.reindexProperties = applicationProperties.getReindex();
+        this.meterRegistry = meterRegistry;
+        for (Class<?> entityClass : INDEXED_ENTITIES) {
+            entityClasses.put(elasticsearchOperations.getPersistentEntityFor(entityClass).getIndexName(), entityClass);
+        }
+    }
+
+    /**
+     * @return the names of the aliases which can be rebuilt.
+     */
+    public Set<String> getIndexNames() {
+        return Collections.unmodifiableSet(entityClasses.keySet());
+    }
+
+    /**
+     * @return the progress of the rebuild of each index of the latest rebuild.
+     */
+    public List<ReindexProgressDTO> getProgress() {
+        return progress.values().stream().map(Progress::toDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * Rebuild indices in the background, one after the other.
+     *
+     * @param indexNames the names of the aliases to rebuild, all of them if empty.
+     * @return {@code false} if a rebuild is already running, in which case nothing is done.
+     * @throws IllegalArgumentException if an index cannot be rebuilt.
+     */
+    public boolean start(Collection<String> indexNames) {
+        List<Progress> planned = begin(indexNames);
+        if (planned == null) {
+            return false;
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("search-reindex-"));
+        executor.execute(() -> rebuildAll(planned));
+        executor.shutdown();
+        return true;
+    }
+
+    /**
+     * Rebuild indices, one after the other.
+     *
+     * @param indexNames the names of the aliases to rebuild, all of them if empty.
+     * @return the progress of the rebuild of each index, or {@code null} if a rebuild is already running.
+     * @throws IllegalArgumentException if an index cannot be rebuilt.
+     */
+    public List<ReindexProgressDTO> reindex(Collection<String> indexNames) {
+        List<Progress> planned = begin(indexNames);
+        if (planned == null) {
+            return null;
+        }
+        rebuildAll(planned);
+        return planned.stream().map(Progress::toDTO).collect(Collectors.toList());
+    }
+
+    private synchronized List<Progress> begin(Collection<String> indexNames) {
+        for (String indexName : indexNames) {
+            if (!entityClasses.containsKey(indexName)) {
+                throw new IllegalArgumentException("Unknown index " + indexName);
+            }
+        }
+        if (running) {
+            return null;
+        }
+        running = true;
+        Map<String, Progress> planned = new LinkedHashMap<>();
+        entityClasses.forEach((indexName, entityClass) -> {
+            if (indexNames.isEmpty() || indexNames.contains(indexName)) {
+                planned.put(indexName, new Progress(indexName, entityClass));
+            }
+        });
+        progress = planned;
+        return new ArrayList<>(planned.values());
+    }
+
+    private void rebuildAll(List<Progress> planned) {
+        try {
+            planned.forEach(this::rebuild);
+        } finally {
+            synchronized (this) {
+                running = false;
+            }
+        }
+    }
+
+    private void rebuild(Progress progress) {
+        String alias = progress.indexName;
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchOperations.getPersistentEntityFor(progress.entityClass);
+        String target = alias + "-" + System.currentTimeMillis();
+        searchOutboxService.hold(alias);
+        try {
+            progress.start(target, readTemplate.execute(status -> count(progress.entityClass)));
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("index.number_of_shards", persistentEntity.getShards());
+            settings.put("index.number_of_replicas", 0);
+            settings.put("index.refresh_interval", "-1");
+            elasticsearchOperations.createIndex(target, settings);
+            elasticsearchOperations.putMapping(target, persistentEntity.getIndexType(), progress.entityClass);
+
+            copy(progress, persistentEntity.getIndexType());
+            if (progress.failed.get() > 0) {
+                throw new IOException(progress.failed.get() + " documents could not be indexed");
+            }
+
+            JsonObject indexSettings = new JsonObject();
+            indexSettings.addProperty("number_of_replicas", persistentEntity.getReplicas());
+            indexSettings.addProperty("refresh_interval", persistentEntity.getRefreshInterval());
+            JsonObject update = new JsonObject();
+            update.add("index", indexSettings);
+            execute(new UpdateSettings.Builder(update.toString()).addIndex(target).build());
+            elasticsearchOperations.refresh(target);
+            moveAlias(alias, target);
+            searchCacheService.invalidate(alias);
+            progress.complete();
+            log.info("Rebuilt the index {} into {} with {} documents, {} per second", alias, target,
+                progress.indexed.get(), Math.round(progress.documentsPerSecond()));
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not rebuild the index {}, it is left unchanged: {}", alias, e.getMessage());
+            progress.fail(e.getMessage());
+            if (elasticsearchOperations.indexExists(target)) {
+                elasticsearchOperations.deleteIndex(target);
+            }
+        } finally {
+            searchOutboxService.release(alias);
+        }
+    }
+
+    private void copy(Progress progress, String type) throws InterruptedIOException {
+        int parallelism = reindexProperties.getParallelism();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("search-reindex-bulk-"));
+        Semaphore permits = new Semaphore(2 * parallelism);
+        Counter indexedCounter = meterRegistry.counter("search.reindex.indexed", "index", progress.indexName);
+        Instant held = Instant.now();
+        try {
+            long after = Long.MIN_VALUE;
+            while (progress.failed.get() == 0) {
+                long first = after;
+                Page page = readTemplate.execute(status -> readPage(progress, type, first));
+                if (page.queries.isEmpty()) {
+                    break;
+                }
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while rebuilding the index " + progress.indexName);
+                }
+                workers.execute(() -> {
+                    try {
+                        elasticsearchOperations.bulkIndex(page.queries);
+                        progress.indexed.addAndGet(page.queries.size());
+                        indexedCounter.increment(page.queries.size());
+                    } catch (RuntimeException e) {
+                        log.warn("Could not index {} documents into {}: {}", page.queries.size(), progress.targetIndex, e.getMessage());
+                        progress.failed.addAndGet(page.queries.size());
+                    } finally {
+                        permits.release();
+                    }
+                });
+                after = page.lastId;
+                if (Duration.between(held, Instant.now()).compareTo(SearchOutboxService.HOLD_DURATION.dividedBy(2)) > 0) {
+                    searchOutboxService.hold(progress.indexName);
+                    held = Instant.now();
+                }
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rebuilding the index " + progress.indexName);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private long count(Class<?> entityClass) {
+        return entityManager.createQuery("select count(e) from " + entityName(entityClass) + " e", Long.class).getSingleResult();
+    }
+
+    private Page readPage(Progress progress, String type, long after) {
+        List<?> entities = entityManager
+            .createQuery("select e from " + entityName(progress.entityClass) + " e where e.id > :after order by e.id", progress.entityClass)
+            .setParameter("after", after)
+            .setMaxResults(reindexProperties.getPageSize())
+            .getResultList();
+        Page page = new Page();
+        for (Object entity : entities) {
+            Long id = (Long) persistenceUnitUtil.getIdentifier(entity);
+            IndexQuery query = new IndexQuery();
+            query.setId(id.toString());
+            query.setIndexName(progress.targetIndex);
+            query.setType(type);
+            try {
+                // serialized here, where the lazy associations can be loaded
+                query.setSource(entityMapper.mapToString(entity));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            page.queries.add(query);
+            page.lastId = id;
+        }
+        return page;
+    }
+
+    private String entityName(Class<?> entityClass) {
+        return entityManager.getMetamodel().entity(entityClass).getName();
+    }
+
+    /**
+     * Move an alias to an index, and delete the indices it pointed to, or the index named like it, at once.
+     */
+    private void moveAlias(String alias, String target) throws IOException {
+        List<AliasMapping> mappings = new ArrayList<>();
+        mappings.add(new AddAliasMapping.Builder(target, alias).build());
+        JestResult previous = jestClient.execute(new GetAliases.Builder().addIndex(alias).build());
+        if (previous.isSucceeded()) {
+            previous.getJsonObject().keySet().forEach(index -> mappings.add(new RemoveIndexMapping(index)));
+        }
+        execute(new ModifyAliases.Builder(mappings).build());
+    }
+
+    private void execute(Action<? extends JestResult> action) throws IOException {
+        JestResult result = jestClient.execute(action);
+        if (!result.isSucceeded()) {
+            throw new IOException(result.getErrorMessage());
+        }
+    }
+
+    /**
+     * The removal of an index, in the same request as the moves of the aliases.
+     */
+    private static class RemoveIndexMapping extends AliasMapping {
+
+        private RemoveIndexMapping(String index) {
+            this.indices = Collections.singletonList(index);
+        }
+
+        @Override
+        public String getType() {
+            return "remove_index";
+        }
+
+        @Override
+        public List<Map<String, Object>> getData() {
+            return Collections.singletonList(Collections.singletonMap(getType(), Collections.singletonMap("index", indices.get(0))));
+        }
+    }
+
+    private static class Page {
+
+        private final List<IndexQuery> queries = new ArrayList<>();
+
+        private long lastId;
+    }
+
+    private static class Progress {
+
+        private final String indexName;
+
+        private final Class<?> entityClass;
+
+        private final AtomicLong indexed = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private volatile Status status = Status.PENDING;
+
+        private volatile String targetIndex;
+
+        private volatile long total;
+
+        private volatile Instant startDate;
+
+        private volatile Instant endDate;
+
+        private volatile String error;
+
+        private Progress(String indexName, Class<?> entityClass) {
+            this.indexName = indexName;
+            this.entityClass = entityClass;
+        }
+
+        private void start(String targetIndex, long total) {
+            this.targetIndex = targetIndex;
+            this.total = total;
+            this.startDate = Instant.now();
+            this.status = Status.RUNNING;
+        }
+
+        private void complete() {
+            this.endDate = Instant.now();
+            this.status = Status.COMPLETED;
+        }
+
+        private void fail(String error) {
+            this.error = error;
+            this.endDate = Instant.now();
+            this.status = Status.FAILED;
+        }
+
+        private double documentsPerSecond() {
+            Instant start = startDate;
+            if (start == null) {
+                return 0;
+            }
+            long millis = Duration.between(start, endDate == null ? Instant.now() : endDate).toMillis();
+            return millis == 0 ? 0 : indexed.get() * 1000.0 / millis;
+        }
+
+        private ReindexProgressDTO toDTO() {
+            return new ReindexProgressDTO(indexName, targetIndex, status, total, indexed.get(), failed.get(), startDate,
+                endDate, documentsPerSecond(), error);
+        }
+    }
+}
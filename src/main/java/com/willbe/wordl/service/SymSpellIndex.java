@@ -0,0 +1,209 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.WordSuggestionDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A symmetric-delete spelling index over the words of the wordInfos, finding the words within a small edit distance
+ * of a misspelled one.
+ * <p>
+ * Every word is indexed under the strings obtained by deleting up to {@code maxDistance} letters from its first
+ * {@code prefixLength} letters, and a query looks up the deletes of its own prefix, so finding the candidates takes a few
+ * hash lookups whatever the number of words. The candidates are then checked with the optimal string alignment distance,
+ * which counts a transposition of two adjacent letters as one edit. Words are compared case insensitively.
+ * <p>
+ * Instances are not thread-safe.
+ */
+class SymSpellIndex {
+
+    private static final String[] NO_KEYS = new String[0];
+
+    private static final Comparator<WordSuggestionDTO> CLOSEST_FIRST = Comparator.comparingInt(WordSuggestionDTO::getDistance)
+        .thenComparing(suggestion -> key(suggestion.getWord()))
+        .thenComparing(WordSuggestionDTO::getId);
+
+    private final int maxDistance;
+
+    private final int prefixLength;
+
+    /**
+     * The keys of the words indexed under each delete.
+     */
+    private final Map<String, String[]> deletes = new HashMap<>();
+
+    /**
+     * The ids of the wordInfos of each key, usually one.
+     */
+    private final Map<String, long[]> idsByKey = new HashMap<>();
+
+    private final Map<Long, String> words = new HashMap<>();
+
+    /**
+     * @param maxDistance the maximum edit distance of a suggestion.
+     * @param prefixLength the number of first letters of the words which are indexed, at least {@code maxDistance + 1}.
+     */
+    SymSpellIndex(int maxDistance, int prefixLength) {
+        this.maxDistance = maxDistance;
+        this.prefixLength = Math.max(prefixLength, maxDistance + 1);
+    }
+
+    /**
+     * Add a wordInfo, or replace its word.
+     *
+     * @param id the id of the wordInfo.
+     * @param word the word of the wordInfo.
+     */
+    void put(long id, String word) {
+        remove(id);
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        String key = key(word);
+        long[] ids = idsByKey.get(key);
+        if (ids == null) {
+            for (String delete : deletesOf(key)) {
+                String[] keys = deletes.getOrDefault(delete, NO_KEYS);
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                keys[keys.length - 1] = key;
+                deletes.put(delete, keys);
+            }
+            ids = new long[]{id};
+        } else {
+            ids = Arrays.copyOf(ids, ids.length + 1);
+            ids[ids.length - 1] = id;
+        }
+        idsByKey.put(key, ids);
+        words.put(id, word);
+    }
+
+    /**
+     * @param id the id of the wordInfo to remove.
+     */
+    void remove(long id) {
+        String word = words.remove(id);
+        if (word == null) {
+            return;
+        }
+        String key = key(word);
+        long[] ids = Arrays.stream(idsByKey.get(key)).filter(other -> other != id).toArray();
+        if (ids.length > 0) {
+            idsByKey.put(key, ids);
+            return;
+        }
+        idsByKey.remove(key);
+        for (String delete : deletesOf(key)) {
+            String[] keys = Arrays.stream(deletes.get(delete)).filter(other -> !other.equals(key)).toArray(String[]::new);
+            if (keys.length > 0) {
+                deletes.put(delete, keys);
+            } else {
+                deletes.remove(delete);
+            }
+        }
+    }
+
+    int size() {
+        return words.size();
+    }
+
+    /**
+     * Find the words closest to a possibly misspelled one.
+     *
+     * @param query the word to correct, case insensitive.
+     * @param limit the maximum number of suggestions to return.
+     * @return the wordInfos of the words within the maximum edit distance of the query, closest first,
+     * then in alphabetical order.
+     */
+    List<WordSuggestionDTO> suggest(String query, int limit) {
+        List<WordSuggestionDTO> suggestions = new ArrayList<>();
+        if (query == null || query.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        String queryKey = key(query);
+        Set<String> checked = new HashSet<>();
+        for (String delete : deletesOf(queryKey)) {
+            for (String key : deletes.getOrDefault(delete, NO_KEYS)) {
+                if (!checked.add(key) || Math.abs(key.length() - queryKey.length()) > maxDistance) {
+                    continue;
+                }
+                int distance = distance(queryKey, key, maxDistance);
+                if (distance <= maxDistance) {
+                    for (long id : idsByKey.get(key)) {
+                        suggestions.add(new WordSuggestionDTO(id, words.get(id), distance));
+                    }
+                }
+            }
+        }
+        suggestions.sort(CLOSEST_FIRST);
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    /**
+     * @return the strings obtained by deleting up to {@code maxDistance} letters from the prefix of a key, the prefix included.
+     */
+    private Set<String> deletesOf(String key) {
+        Set<String> result = new HashSet<>();
+        String prefix = key.length() > prefixLength ? key.substring(0, prefixLength) : key;
+        result.add(prefix);
+        List<String> current = new ArrayList<>();
+        current.add(prefix);
+        for (int distance = 1; distance <= maxDistance; distance++) {
+            List<String> next = new ArrayList<>();
+            for (String text : current) {
+                for (int i = 0; i < text.length(); i++) {
+                    String delete = text.substring(0, i) + text.substring(i + 1);
+                    if (result.add(delete)) {
+                        next.add(delete);
+                    }
+                }
+            }
+            current = next;
+        }
+        return result;
+    }
+
+    /**
+     * The optimal string alignment distance of two strings, or {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static String key(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,508 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.UserThumbInfoRepository;
+import com.willbe.wordl.repository.WordThumbInfoRepository;
+import com.willbe.wordl.repository.WordThumbShardRepository;
+import com.willbe.wordl.service.dto.ThumbCountDTO;
+import com.willbe.wordl.service.dto.ThumbRebuildDTO;
+import com.willbe.wordl.service.event.WordThumbEvent;
+import com.willbe.wordl.service.journal.ThumbJournal;
+import com.willbe.wordl.service.journal.ThumbJournalReplayer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.willbe.wordl.service.util.TransactionUtil.afterCommit;
+
+/**
+ * Service class counting thumbs in memory and writing them behind to the database.
+ * <p>
+ * Each thumb only increments a striped {@link LongAdder}, so concurrent clicks on the same picture
+ * never contend on a lock. The pending deltas are periodically flushed with batched relative
+ * {@code UPDATE ... SET thumb_num = thumb_num + ?} statements, which are safe to run from several
+ * application instances at once. With the {@code sharded} storage, the thumbs of the wordThumbInfos
+ * go to {@link WordThumbShardRepository} instead, and are compacted back into their rows periodically.
+ * <p>
+ * Every thumb is appended to the {@link ThumbJournal}, and every thumb added to a wordThumbInfo publishes a
+ * {@link WordThumbEvent}. The thumbs are counted per flush generation of the journal, and a flush writes those of
+ * the generations it closed along with the checkpoint of the journal, so that the first flush after a crash adds
+ * the thumbs of the journal past the checkpoint exactly once.
+ * <p>
+ * The flushes and compactions changing the {@code thumb_num} of the rows enqueue them in the {@link SearchOutboxService}
+ * in the same transaction, so that their documents are indexed again with their new counts.
+ * <p>
+ * The counts can also be rebuilt from scratch from the journals, see {@link #rebuild(Collection)}.
+ */
+@Service
+public class ThumbCounterService {
+
+    private static final String WORD_THUMB_INFO_INCREMENT_SQL =
+        "update word_thumb_info set thumb_num = coalesce(thumb_num, 0) + ? where id = ?";
+
+    private static final String USER_THUMB_INFO_INCREMENT_SQL =
+        "update user_thumb_info set thumb_num = coalesce(thumb_num, 0) + ? where id = ?";
+
+    private static final String FIND_CHECKPOINT_SQL = "select generation from thumb_journal_checkpoint where journal_id = ?";
+
+    private static final String UPDATE_CHECKPOINT_SQL =
+        "update thumb_journal_checkpoint set generation = ? where journal_id = ? and generation < ?";
+
+    private static final String INSERT_CHECKPOINT_SQL = "insert into thumb_journal_checkpoint (generation, journal_id) values (?, ?)";
+
+    private static final String FIND_THUMBED_WORD_THUMB_INFOS_SQL = "select id from word_thumb_info w where coalesce(thumb_num, 0) <> 0" +
+        " or exists (select 1 from word_thumb_shard s where s.word_thumb_info_id = w.id)";
+
+    private static final String FIND_THUMBED_USER_THUMB_INFOS_SQL = "select id from user_thumb_info where coalesce(thumb_num, 0) <> 0";
+
+    private static final String WORD_THUMB_INFO_SET_SQL = "update word_thumb_info set thumb_num = ? where id = ?";
+
+    private static final String USER_THUMB_INFO_SET_SQL = "update user_thumb_info set thumb_num = ? where id = ?";
+
+    private final Logger log = LoggerFactory.getLogger(ThumbCounterService.class);
+
+    private final ConcurrentMap<Long, PendingCount> wordThumbCounts = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, PendingCount> userThumbCounts = new ConcurrentHashMap<>();
+
+    private final WordThumbInfoRepository wordThumbInfoRepository;
+
+    private final UserThumbInfoRepository userThumbInfoRepository;
+
+    private final WordThumbShardRepository wordThumbShardRepository;
+
+    private final ApplicationProperties.Thumb thumbProperties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheManager cacheManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ThumbJournal thumbJournal;
+
+    private final SearchOutboxService searchOutboxService;
+
+    private boolean recovered;
+
+    public ThumbCounterService(WordThumbInfoRepository wordThumbInfoRepository, UserThumbInfoRepository userThumbInfoRepository,
+                               WordThumbShardRepository wordThumbShardRepository, ApplicationProperties applicationProperties,
+                               JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               EntityManagerFactory entityManagerFactory, CacheManager cacheManager,
+                               ApplicationEventPublisher eventPublisher, ThumbJournal thumbJournal,
+                               SearchOutboxService searchOutboxService) {
+        this.wordThumbInfoRepository = wordThumbInfoRepository;
+        this.userThumbInfoRepository = userThumbInfoRepository;
+        this.wordThumbShardRepository = wordThumbShardRepository;
+        this.thumbProperties = applicationProperties.getThumb();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.thumbJournal = thumbJournal;
+        this.searchOutboxService = searchOutboxService;
+    }
+
+    /**
+     * Add one thumb to a wordThumbInfo.
+     *
+     * @param id the id of the wordThumbInfo.
+     * @return the thumb count of the wordThumbInfo, or an empty {@link Optional} if it does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ThumbCountDTO> thumbWordThumbInfo(Long id) {
+        return wordThumbInfoRepository.findById(id).map(this::thumb);
+    }
+
+    /**
+     * Add one thumb to a userThumbInfo, and to the wordThumbInfo sharing its {@code thumbLid}.
+     *
+     * @param id the id of the userThumbInfo.
+     * @return the thumb count of the userThumbInfo, or an empty {@link Optional} if it does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ThumbCountDTO> thumbUserThumbInfo(Long id) {
+        return userThumbInfoRepository.findById(id)
+            .map(userThumbInfo -> {
+                if (userThumbInfo.getThumbLid() != null) {
+                    wordThumbInfoRepository.findIdsByThumbLid(userThumbInfo.getThumbLid()).stream()
+                        .findFirst()
+                        .flatMap(wordThumbInfoRepository::findById)
+                        .ifPresent(this::thumb);
+                }
+                return new ThumbCountDTO(id, toLong(userThumbInfo.getThumbNum())
+                    + increment(userThumbCounts, ThumbJournal.Target.USER_THUMB_INFO, id));
+            });
+    }
+
+    /**
+     * Get the thumb counts of several wordThumbInfos, including the thumbs not flushed yet.
+     * <p>
+     * The flushed thumbs missing from the cache of {@link WordThumbShardRepository#totalThumbNum(Long)} are read
+     * with one query for all the wordThumbInfos.
+     *
+     * @param ids the ids of the wordThumbInfos.
+     * @return the thumb counts, by id of the wordThumbInfos.
+     */
+    public Map<Long, Long> getThumbNums(Collection<Long> ids) {
+        Cache cache = totalsCache();
+        Map<Long, Long> thumbNums = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : ids) {
+            Long total = cache.get(id, Long.class);
+            if (total == null) {
+                uncached.add(id);
+            } else {
+                thumbNums.put(id, total);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            Map<Long, Long> totals = wordThumbShardRepository.totalThumbNums(uncached);
+            uncached.forEach(id -> {
+                Long total = totals.getOrDefault(id, 0L);
+                cache.put(id, total);
+                thumbNums.put(id, total);
+            });
+        }
+        thumbNums.replaceAll((id, total) -> total + getPendingWordThumbs(id));
+        return thumbNums;
+    }
+
+    /**
+     * Get the number of thumbs of a wordThumbInfo which are not written to the database yet.
+     *
+     * @param id the id of the wordThumbInfo.
+     * @return the number of pending thumbs.
+     */
+    public long getPendingWordThumbs(Long id) {
+        PendingCount pendingCount = wordThumbCounts.get(id);
+        return pendingCount == null ? 0 : pendingCount.pending();
+    }
+
+    /**
+     * Get the number of thumbs of a userThumbInfo which are not written to the database yet.
+     *
+     * @param id the id of the userThumbInfo.
+     * @return the number of pending thumbs.
+     */
+    public long getPendingUserThumbs(Long id) {
+        PendingCount pendingCount = userThumbCounts.get(id);
+        return pendingCount == null ? 0 : pendingCount.pending();
+    }
+
+    /**
+     * Forget the cached {@code thumbLid} lookups once the current transaction is committed, to be called when
+     * wordThumbInfos are created, updated or deleted: cleared before, they could be read again from the rows not yet
+     * committed.
+     */
+    public void clearThumbLidCacheAfterCommit() {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(WordThumbInfoRepository.WORD_THUMB_INFO_IDS_BY_THUMB_LID_CACHE));
+        afterCommit(cache::clear);
+    }
+
+    /**
+     * Write the pending thumbs to the database.
+     * <p>
+     * This is scheduled to get fired every {@code application.thumb.flush-delay-ms} milliseconds.
+     * The deltas are only acknowledged once the batch is committed, so a failed flush is retried by the next one.
+     * The first flush also adds the thumbs recovered from the journal.
+     */
+    @Scheduled(fixedDelayString = "${application.thumb.flush-delay-ms:1000}", initialDelayString = "${application.thumb.flush-delay-ms:1000}")
+    public synchronized void flush() {
+        flushGenerations();
+    }
+
+    /**
+     * Recompute the thumb counts of all the wordThumbInfos and userThumbInfos from the thumb journals, and replace
+     * those of the database with them.
+     * <p>
+     * The journals must hold every thumb since the counts were zero: they must have been enabled since then with
+     * {@code application.journal.retained-segments} set to {@code -1}. The journals of the other instances must be
+     * given too, and those instances stopped. The thumbs counted by this instance are flushed first and replayed
+     * with the others, and those counted meanwhile are flushed over the rebuilt counts. The checkpoints of the
+     * journals are moved past their replayed thumbs, so that they are not recovered again.
+     *
+     * @param directories the directories of the journals.
+     * @return what was rebuilt.
+     * @throws IOException if a journal cannot be read.
+     */
+    public synchronized ThumbRebuildDTO rebuild(Collection<Path> directories) throws IOException {
+        long flushedGeneration = flushGenerations();
+        Map<String, Long> checkpoints = new HashMap<>();
+        Map<Long, Long> wordCounts = new HashMap<>();
+        Map<Long, Long> userCounts = new HashMap<>();
+        long records = 0;
+        long corruptRecords = 0;
+        for (Path directory : directories) {
+            String journalId = ThumbJournal.readId(directory);
+            // the thumbs of this instance after the flushed generation are still pending, and flushed later
+            long beforeGeneration = journalId.equals(thumbJournal.getId()) ? flushedGeneration + 1 : Long.MAX_VALUE;
+            ThumbJournalReplayer.ThumbCounts counts = ThumbJournalReplayer.replay(directory, Long.MIN_VALUE, beforeGeneration);
+            counts.get(ThumbJournal.Target.WORD_THUMB_INFO).forEach((id, count) -> wordCounts.merge(id, count, Long::sum));
+            counts.get(ThumbJournal.Target.USER_THUMB_INFO).forEach((id, count) -> userCounts.merge(id, count, Long::sum));
+            checkpoints.merge(journalId, counts.getLastGeneration(), Math::max);
+            records += counts.getRecords();
+            corruptRecords += counts.getCorruptRecords();
+        }
+        long replayedRecords = records;
+        long skippedRecords = corruptRecords;
+        ThumbRebuildDTO result = transactionTemplate.execute(status -> {
+            checkpoints.forEach((journalId, generation) -> {
+                if (generation != Long.MIN_VALUE) {
+                    advanceCheckpoint(journalId, generation);
+                }
+            });
+            Set<Long> wordIds = new TreeSet<>(jdbcTemplate.queryForList(FIND_THUMBED_WORD_THUMB_INFOS_SQL, Long.class));
+            wordIds.addAll(wordCounts.keySet());
+            Set<Long> userIds = new TreeSet<>(jdbcTemplate.queryForList(FIND_THUMBED_USER_THUMB_INFOS_SQL, Long.class));
+            userIds.addAll(userCounts.keySet());
+            // the shards are part of the totals being rewritten
+            wordThumbShardRepository.deleteAll();
+            long wordThumbInfos = batchSet(WORD_THUMB_INFO_SET_SQL, wordIds, wordCounts);
+            long userThumbInfos = batchSet(USER_THUMB_INFO_SET_SQL, userIds, userCounts);
+            searchOutboxService.enqueueAll(WordThumbInfo.class, wordIds);
+            searchOutboxService.enqueueAll(UserThumbInfo.class, userIds);
+            return new ThumbRebuildDTO(directories.size(), replayedRecords, skippedRecords, wordThumbInfos, userThumbInfos);
+        });
+        entityManagerFactory.getCache().evict(WordThumbInfo.class);
+        entityManagerFactory.getCache().evict(UserThumbInfo.class);
+        totalsCache().clear();
+        return result;
+    }
+
+    /**
+     * Move the thumbs of the counter rows to their wordThumbInfo, with the {@code sharded} storage.
+     * <p>
+     * This is scheduled to get fired every {@code application.thumb.compaction-delay-ms} milliseconds, so that
+     * the wordThumbInfo rows are only locked once per compaction instead of once per flush.
+     */
+    @Scheduled(fixedDelayString = "${application.thumb.compaction-delay-ms:60000}", initialDelayString = "${application.thumb.compaction-delay-ms:60000}")
+    public void compactShards() {
+        if (!isSharded()) {
+            return;
+        }
+        Set<Long> ids = transactionTemplate.execute(status -> {
+            Set<Long> compacted = wordThumbShardRepository.compact();
+            searchOutboxService.enqueueAll(WordThumbInfo.class, compacted);
+            return compacted;
+        });
+        ids.forEach(id -> entityManagerFactory.getCache().evict(WordThumbInfo.class, id));
+        evictTotals(ids);
+        log.debug("Compacted the thumb shards of {} wordThumbInfos", ids.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not flush the pending thumbs on shutdown", e);
+        }
+    }
+
+    private ThumbCountDTO thumb(WordThumbInfo wordThumbInfo) {
+        Long id = wordThumbInfo.getId();
+        long thumbNum = persistedCount(wordThumbInfo) + increment(wordThumbCounts, ThumbJournal.Target.WORD_THUMB_INFO, id);
+        Long wordInfoId = wordThumbInfo.getWord() == null ? null : wordThumbInfo.getWord().getId();
+        eventPublisher.publishEvent(new WordThumbEvent(id, wordInfoId, wordThumbInfo.getPicUrl(), thumbNum));
+        return new ThumbCountDTO(id, thumbNum);
+    }
+
+    private boolean isSharded() {
+        return thumbProperties.getStorage() == ApplicationProperties.Thumb.Storage.SHARDED;
+    }
+
+    private long persistedCount(WordThumbInfo wordThumbInfo) {
+        return wordThumbShardRepository.totalThumbNum(wordThumbInfo.getId());
+    }
+
+    private void evictTotals(Collection<Long> ids) {
+        Cache cache = totalsCache();
+        ids.forEach(cache::evict);
+    }
+
+    private Cache totalsCache() {
+        return Objects.requireNonNull(cacheManager.getCache(WordThumbShardRepository.THUMB_TOTALS_CACHE));
+    }
+
+    private static long toLong(Integer thumbNum) {
+        return thumbNum == null ? 0 : thumbNum;
+    }
+
+    private long increment(ConcurrentMap<Long, PendingCount> counts, ThumbJournal.Target target, Long id) {
+        PendingCount pendingCount = counts.computeIfAbsent(id, key -> new PendingCount());
+        long generation = thumbJournal.enter();
+        try {
+            thumbJournal.append(target, id, generation);
+            pendingCount.counts[(int) (generation & 1)].increment();
+        } finally {
+            thumbJournal.exit(generation);
+        }
+        return pendingCount.pending();
+    }
+
+    /**
+     * Move the thumbs of a closed generation to the counts to flush.
+     */
+    private static Map<Long, Long> collectDeltas(ConcurrentMap<Long, PendingCount> counts, long generation) {
+        // sorted by id, so that concurrent flushes from several instances lock the rows in the same order
+        Map<Long, Long> deltas = new TreeMap<>();
+        counts.forEach((id, pendingCount) -> {
+            LongAdder closed = pendingCount.counts[(int) (generation & 1)];
+            long sum = closed.sum();
+            // added to the unflushed thumbs before being removed from the generation, so that they are never missed
+            pendingCount.unflushed += sum;
+            closed.add(-sum);
+            if (pendingCount.unflushed > 0) {
+                deltas.put(id, pendingCount.unflushed);
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * @return the last generation whose thumbs are all in the database.
+     */
+    private long flushGenerations() {
+        if (!recovered) {
+            recover();
+        }
+        long generation = thumbJournal.nextGeneration();
+        Map<Long, Long> wordDeltas = collectDeltas(wordThumbCounts, generation);
+        Map<Long, Long> userDeltas = collectDeltas(userThumbCounts, generation);
+        if (wordDeltas.isEmpty() && userDeltas.isEmpty()) {
+            return generation;
+        }
+        // the thumbs are durable in the journal before they are in the database
+        thumbJournal.force();
+        transactionTemplate.execute(status -> {
+            if (isSharded()) {
+                // the rows only change when the shards are compacted
+                wordThumbShardRepository.addThumbs(wordDeltas, thumbProperties.getShards());
+            } else {
+                batchIncrement(WORD_THUMB_INFO_INCREMENT_SQL, wordDeltas);
+                searchOutboxService.enqueueAll(WordThumbInfo.class, wordDeltas.keySet());
+            }
+            batchIncrement(USER_THUMB_INFO_INCREMENT_SQL, userDeltas);
+            searchOutboxService.enqueueAll(UserThumbInfo.class, userDeltas.keySet());
+            if (thumbJournal.isEnabled()) {
+                advanceCheckpoint(thumbJournal.getId(), generation);
+            }
+            return null;
+        });
+        evictTotals(wordDeltas.keySet());
+        acknowledge(wordThumbCounts, wordDeltas, WordThumbInfo.class);
+        acknowledge(userThumbCounts, userDeltas, UserThumbInfo.class);
+        thumbJournal.checkpoint(generation);
+        log.debug("Flushed thumbs of {} wordThumbInfos and {} userThumbInfos", wordDeltas.size(), userDeltas.size());
+        return generation;
+    }
+
+    /**
+     * Count the thumbs of the journal which were not written to the database before this instance started.
+     */
+    private void recover() {
+        if (thumbJournal.isEnabled()) {
+            List<Long> checkpoints = jdbcTemplate.queryForList(FIND_CHECKPOINT_SQL, Long.class, thumbJournal.getId());
+            long checkpoint = checkpoints.isEmpty() ? Long.MIN_VALUE : checkpoints.get(0);
+            ThumbJournalReplayer.ThumbCounts counts;
+            try {
+                counts = ThumbJournalReplayer.replay(thumbJournal.getDirectory(), checkpoint, thumbJournal.getStartGeneration());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not replay the thumb journal", e);
+            }
+            counts.get(ThumbJournal.Target.WORD_THUMB_INFO).forEach((id, count) ->
+                wordThumbCounts.computeIfAbsent(id, key -> new PendingCount()).unflushed += count);
+            counts.get(ThumbJournal.Target.USER_THUMB_INFO).forEach((id, count) ->
+                userThumbCounts.computeIfAbsent(id, key -> new PendingCount()).unflushed += count);
+            log.info("Recovered the thumbs of {} wordThumbInfos and {} userThumbInfos from the journal after generation {}, " +
+                    "skipping {} corrupt records", counts.get(ThumbJournal.Target.WORD_THUMB_INFO).size(),
+                counts.get(ThumbJournal.Target.USER_THUMB_INFO).size(), checkpoint, counts.getCorruptRecords());
+        }
+        recovered = true;
+    }
+
+    private void advanceCheckpoint(String journalId, long generation) {
+        if (jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, generation, journalId, generation) == 0 &&
+            jdbcTemplate.queryForList(FIND_CHECKPOINT_SQL, Long.class, journalId).isEmpty()) {
+            jdbcTemplate.update(INSERT_CHECKPOINT_SQL, generation, journalId);
+        }
+    }
+
+    private void batchIncrement(String sql, Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> batchArgs.add(new Object[]{delta, id}));
+        jdbcTemplate.batchUpdate(sql, batchArgs);
+    }
+
+    /**
+     * Set the counts of some rows, to zero for those without a count.
+     *
+     * @return the number of rows updated.
+     */
+    private long batchSet(String sql, Set<Long> ids, Map<Long, Long> counts) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(ids.size());
+        ids.forEach(id -> batchArgs.add(new Object[]{counts.getOrDefault(id, 0L), id}));
+        return Arrays.stream(jdbcTemplate.batchUpdate(sql, batchArgs)).filter(updated -> updated > 0).count();
+    }
+
+    private void acknowledge(ConcurrentMap<Long, PendingCount> counts, Map<Long, Long> deltas, Class<?> entityClass) {
+        deltas.forEach((id, delta) -> {
+            // the rows were updated behind Hibernate's back
+            entityManagerFactory.getCache().evict(entityClass, id);
+            counts.get(id).unflushed -= delta;
+        });
+    }
+
+    /**
+     * Thumbs of one record which are not in the database yet.
+     * <p>
+     * The thumbs are counted in the counter of the parity of their generation, and moved to the unflushed ones by
+     * the flush which closed the generation, when no more thumbs are counted there.
+     */
+    private static class PendingCount {
+
+        private final LongAdder[] counts = {new LongAdder(), new LongAdder()};
+
+        /**
+         * Only written by the flushes, which are not concurrent.
+         */
+        private volatile long unflushed;
+
+        private long pending() {
+            return unflushed + counts[0].sum() + counts[1].sum();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.service.dto.ThumbReconciliationDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class reconciling the thumb total of each wordThumbInfo with the thumbs of the userThumbInfos sharing its
+ * {@code thumbLid}.
+ * <p>
+ * The wordThumbInfos are walked by pages of increasing ids, and the pages are reconciled in parallel: each page
+ * is read in one repeatable-read transaction, then its corrections are written in one batch of conditional updates.
+ * Only the page being reconciled is held in memory.
+ * <p>
+ * Only the first wordThumbInfo of a {@code thumbLid}, the one thumbed with the userThumbInfos, is reconciled, and only
+ * if it has userThumbInfos. As the wordThumbInfos are also thumbed on their own, their total can only be known to be
+ * short of the thumbs of their userThumbInfos: a higher total is left as it is.
+ * <p>
+ * A correction is only written if neither the total nor the thumbs of the userThumbInfos changed since the page was
+ * read, so that a wordThumbInfo is never corrected twice, whether by a thumb flushed meanwhile or by the reconciliation
+ * of another instance, and the skipped ones are corrected by the next reconciliation. The corrected wordThumbInfos are
+ * enqueued in the {@link SearchOutboxService} along their corrections.
+ */
+@Service
+public class ThumbReconciliationService {
+
+    private static final String PAGE_END_SQL =
+        "select max(id) from (select id from word_thumb_info where id > ? order by id limit ?) page";
+
+    private static final String FIND_PAGE_SQL = "select w.id, w.word_id, w.thumb_lid, coalesce(w.thumb_num, 0)" +
+        " + (select coalesce(sum(s.thumb_num), 0) from word_thumb_shard s where s.word_thumb_info_id = w.id)" +
+        " from word_thumb_info w where w.id > ? and w.id <= ? and w.thumb_lid is not null" +
+        " and not exists (select 1 from word_thumb_info f where f.thumb_lid = w.thumb_lid and f.id < w.id)";
+
+    private static final String SUM_USER_THUMBS_SQL = "select thumb_lid, coalesce(sum(thumb_num), 0) from user_thumb_info" +
+        " where thumb_lid in (:thumbLids) group by thumb_lid";
+
+    private static final String WORD_THUMB_INFO_CORRECT_SQL =
+        "update word_thumb_info w set thumb_num = coalesce(thumb_num, 0) + ? where id = ? and coalesce(thumb_num, 0)" +
+        " + (select coalesce(sum(s.thumb_num), 0) from word_thumb_shard s where s.word_thumb_info_id = w.id) = ?" +
+        " and (select coalesce(sum(u.thumb_num), 0) from user_thumb_info u where u.thumb_lid = ?) = ?";
+
+    private final Logger log = LoggerFactory.getLogger(ThumbReconciliationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate readTemplate;
+
+    private final TransactionTemplate writeTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TopPicturesService topPicturesService;
+
+    private final SearchOutboxService searchOutboxService;
+
+    private final ApplicationProperties.Reconciliation reconciliationProperties;
+
+    private final Timer timer;
+
+    private final Counter correctedCounter;
+
+    private final Counter driftCounter;
+
+    private final AtomicLong lastDrift = new AtomicLong();
+
+    public ThumbReconciliationService(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                      PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                                      TopPicturesService topPicturesService, SearchOutboxService searchOutboxService,
+                                      ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.topPicturesService = topPicturesService;
+        this.searchOutboxService = searchOutboxService;
+        this.reconciliationProperties = applicationProperties.getReconciliation();
+        this.timer = meterRegistry.timer("thumb.reconciliation");
+        this.correctedCounter = meterRegistry.counter("thumb.reconciliation.corrected");
+        this.driftCounter = meterRegistry.counter("thumb.reconciliation.drift");
+        meterRegistry.gauge("thumb.reconciliation.last.drift", lastDrift);
+    }
+
+    /**
+     * Reconcile all the wordThumbInfos.
+     * <p>
+     * This is scheduled to get fired at {@code application.reconciliation.cron}, everyday at 03:00 (am) by default,
+     * on every instance: the conditional corrections keep the concurrent reconciliations from adding up.
+     */
+    @Scheduled(cron = "${application.reconciliation.cron:0 0 3 * * ?}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Reconcile all the wordThumbInfos, waiting for a running reconciliation to end first.
+     *
+     * @return what was reconciled.
+     */
+    public synchronized ThumbReconciliationDTO reconcile() {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(reconciliationProperties.getParallelism());
+        try {
+            List<ForkJoinTask<PageResult>> pages = new ArrayList<>();
+            long after = Long.MIN_VALUE;
+            Long last;
+            while ((last = jdbcTemplate.queryForObject(PAGE_END_SQL, Long.class, after, reconciliationProperties.getPageSize())) != null) {
+                long first = after;
+                long end = last;
+                pages.add(pool.submit(() -> reconcilePage(first, end)));
+                after = last;
+            }
+            PageResult total = new PageResult();
+            pages.forEach(page -> total.add(page.join()));
+            total.wordInfoIds.forEach(topPicturesService::reload);
+
+            correctedCounter.increment(total.corrected);
+            driftCounter.increment(total.drift);
+            lastDrift.set(total.drift);
+            log.info("Reconciled the thumbs of {} wordThumbInfos, corrected {} of them by {} thumbs in total",
+                total.checked, total.corrected, total.drift);
+            return new ThumbReconciliationDTO(total.checked, total.corrected, total.drift);
+        } finally {
+            pool.shutdown();
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private PageResult reconcilePage(long after, long last) {
+        Page page = readTemplate.execute(status -> readPage(after, last));
+        PageResult result = new PageResult();
+        List<Object[]> corrections = new ArrayList<>();
+        List<Integer> corrected = new ArrayList<>();
+        for (int i = 0; i < page.size; i++) {
+            if (!page.hasUserThumbs[i]) {
+                continue;
+            }
+            result.checked++;
+            long delta = page.userThumbs[i] - page.thumbNums[i];
+            if (delta > 0) {
+                corrections.add(new Object[]{delta, page.ids[i], page.thumbNums[i], page.thumbLids[i], page.userThumbs[i]});
+                corrected.add(i);
+            }
+        }
+        if (corrections.isEmpty()) {
+            return result;
+        }
+        int[] updated = writeTemplate.execute(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(WORD_THUMB_INFO_CORRECT_SQL, corrections);
+            List<Long> correctedIds = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    correctedIds.add((Long) corrections.get(i)[1]);
+                }
+            }
+            searchOutboxService.enqueueAll(WordThumbInfo.class, correctedIds);
+            return counts;
+        });
+        for (int i = 0; i < corrections.size(); i++) {
+            Object[] correction = corrections.get(i);
+            if (updated[i] == 0) {
+                log.debug("Skipped the correction of WordThumbInfo {}, whose thumbs changed meanwhile", correction[1]);
+                continue;
+            }
+            log.debug("Corrected the thumbs of WordThumbInfo {} by {}", correction[1], correction[0]);
+            result.corrected++;
+            result.drift += (Long) correction[0];
+            // the row was updated behind Hibernate's back
+            entityManagerFactory.getCache().evict(WordThumbInfo.class, correction[1]);
+            Long wordInfoId = page.wordInfoIds[corrected.get(i)];
+            if (wordInfoId != null) {
+                result.wordInfoIds.add(wordInfoId);
+            }
+        }
+        return result;
+    }
+
+    private Page readPage(long after, long last) {
+        Page page = new Page(reconciliationProperties.getPageSize());
+        Map<String, Integer> indexByThumbLid = new HashMap<>();
+        jdbcTemplate.query(FIND_PAGE_SQL, rs -> {
+            int i = page.size++;
+            page.ids[i] = rs.getLong(1);
+            page.wordInfoIds[i] = rs.getObject(2) == null ? null : rs.getLong(2);
+            page.thumbLids[i] = rs.getString(3);
+            indexByThumbLid.put(page.thumbLids[i], i);
+            page.thumbNums[i] = rs.getLong(4);
+        }, after, last);
+        if (page.size == 0) {
+            return page;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource("thumbLids", new ArrayList<>(indexByThumbLid.keySet()));
+        namedParameterJdbcTemplate.query(SUM_USER_THUMBS_SQL, parameters, rs -> {
+            int i = indexByThumbLid.get(rs.getString(1));
+            page.userThumbs[i] = rs.getLong(2);
+            page.hasUserThumbs[i] = true;
+        });
+        return page;
+    }
+
+    /**
+     * The wordThumbInfos of a page, in primitive arrays indexed alike.
+     */
+    private static class Page {
+
+        private final long[] ids;
+
+        private final Long[] wordInfoIds;
+
+        private final String[] thumbLids;
+
+        private final long[] thumbNums;
+
+        private final long[] userThumbs;
+
+        private final boolean[] hasUserThumbs;
+
+        private int size;
+
+        private Page(int capacity) {
+            ids = new long[capacity];
+            wordInfoIds = new Long[capacity];
+            thumbLids = new String[capacity];
+            thumbNums = new long[capacity];
+            userThumbs = new long[capacity];
+            hasUserThumbs = new boolean[capacity];
+        }
+    }
+
+    /**
+     * What was reconciled in one or several pages.
+     */
+    private static class PageResult {
+
+        private final Set<Long> wordInfoIds = new HashSet<>();
+
+        private long checked;
+
+        private long corrected;
+
+        private long drift;
+
+        private void add(PageResult other) {
+            wordInfoIds.addAll(other.wordInfoIds);
+            checked += other.checked;
+            corrected += other.corrected;
+            drift += other.drift;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.ThumbRebuildDTO;
+import com.willbe.wordl.service.journal.ThumbJournal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the thumb counts from the thumb journals when {@code --replay-thumbs} is given on the command line, then
+ * stops the application.
+ * <p>
+ * For instance {@code ./gradlew bootRun --args='--replay-thumbs'} replays the journal of this instance, and
+ * {@code --replay-thumbs=<directory>} options replay the journals of the given directories instead, such as those
+ * of all the instances. See {@link ThumbCounterService#rebuild(java.util.Collection)}: the journals must have kept
+ * all their segments, with {@code application.journal.retained-segments} set to {@code -1}.
+ */
+@Component
+public class ThumbReplayRunner implements ApplicationRunner {
+
+    public static final String REPLAY_OPTION = "replay-thumbs";
+
+    private final Logger log = LoggerFactory.getLogger(ThumbReplayRunner.class);
+
+    private final ThumbCounterService thumbCounterService;
+
+    private final ThumbJournal thumbJournal;
+
+    private final ConfigurableApplicationContext applicationContext;
+
+    public ThumbReplayRunner(ThumbCounterService thumbCounterService, ThumbJournal thumbJournal,
+                             ConfigurableApplicationContext applicationContext) {
+        this.thumbCounterService = thumbCounterService;
+        this.thumbJournal = thumbJournal;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REPLAY_OPTION)) {
+            return;
+        }
+        List<Path> directories = args.getOptionValues(REPLAY_OPTION).isEmpty() ?
+            Collections.singletonList(thumbJournal.getDirectory()) :
+            args.getOptionValues(REPLAY_OPTION).stream().map(Paths::get).collect(Collectors.toList());
+        int exitCode = 0;
+        try {
+            ThumbRebuildDTO result = thumbCounterService.rebuild(directories);
+            log.info("Rebuilt the thumb counts from {}: {}", directories, result);
+        } catch (IOException e) {
+            log.error("Could not rebuild the thumb counts from {}: {}", directories, e.getMessage());
+            exitCode = 1;
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+}
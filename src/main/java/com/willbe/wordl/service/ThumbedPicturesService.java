@@ -0,0 +1,141 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.repository.WordThumbInfoRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static com.willbe.wordl.service.util.TransactionUtil.afterCommit;
+
+/**
+ * Service class answering whether users already thumbed some pictures.
+ * <p>
+ * A user thumbed a wordThumbInfo when one of their userThumbInfos shares its {@code thumbLid}. The ids of the
+ * thumbed wordThumbInfos of each user are loaded once into a compact {@link ThumbedPictures} set, kept in the
+ * {@link #THUMBED_PICTURES_CACHE} cache and maintained when userThumbInfos and wordThumbInfos are written.
+ */
+@Service
+public class ThumbedPicturesService {
+
+    public static final String THUMBED_PICTURES_CACHE = "thumbedPicturesByUser";
+
+    private static final String FIND_THUMBED_PICTURES_SQL = "select distinct w.id from user_thumb_info u" +
+        " join word_thumb_info w on w.thumb_lid = u.thumb_lid where u.clicker_id = ?";
+
+    private final Logger log = LoggerFactory.getLogger(ThumbedPicturesService.class);
+
+    private final WordThumbInfoRepository wordThumbInfoRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CacheManager cacheManager;
+
+    public ThumbedPicturesService(WordThumbInfoRepository wordThumbInfoRepository, JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        this.wordThumbInfoRepository = wordThumbInfoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Check whether a user thumbed a picture.
+     *
+     * @param userId the id of the user.
+     * @param wordThumbInfoId the id of the wordThumbInfo.
+     * @return {@code true} if the user has a userThumbInfo for the picture.
+     */
+    public boolean hasThumbed(Long userId, Long wordThumbInfoId) {
+        return thumbedPictures(userId).contains(wordThumbInfoId);
+    }
+
+    /**
+     * Find which of some pictures a user thumbed.
+     *
+     * @param userId the id of the user.
+     * @param wordThumbInfoIds the ids of the wordThumbInfos.
+     * @return the ids of the thumbed wordThumbInfos, in the order of {@code wordThumbInfoIds}.
+     */
+    public List<Long> findThumbed(Long userId, Collection<Long> wordThumbInfoIds) {
+        return thumbedPictures(userId).retain(wordThumbInfoIds);
+    }
+
+    /**
+     * Add the picture of a new userThumbInfo to the set of its clicker, once the current transaction is committed.
+     *
+     * @param userThumbInfo the created userThumbInfo.
+     */
+    public void addAfterCommit(UserThumbInfo userThumbInfo) {
+        Long userId = userThumbInfo.getClicker() == null ? null : userThumbInfo.getClicker().getId();
+        if (userId == null || userThumbInfo.getThumbLid() == null) {
+            return;
+        }
+        List<Long> wordThumbInfoIds = wordThumbInfoRepository.findIdsByThumbLid(userThumbInfo.getThumbLid());
+        if (wordThumbInfoIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> add(userId, wordThumbInfoIds));
+    }
+
+    /**
+     * Forget the sets of some users once the current transaction is committed, to be called when userThumbInfos
+     * are updated or deleted. Their sets are reloaded on the next read.
+     *
+     * @param userIds the ids of the clickers, before and after the change, {@code null} ids are ignored.
+     */
+    public void evictAfterCommit(Long... userIds) {
+        Cache cache = cache();
+        Stream.of(userIds).filter(Objects::nonNull).distinct().forEach(userId -> afterCommit(() -> cache.evict(userId)));
+    }
+
+    /**
+     * Forget the sets of all the users once the current transaction is committed, to be called when
+     * wordThumbInfos are created, updated or deleted.
+     */
+    public void clearAfterCommit() {
+        Cache cache = cache();
+        afterCommit(cache::clear);
+    }
+
+    private ThumbedPictures thumbedPictures(Long userId) {
+        return cache().get(userId, () -> load(userId));
+    }
+
+    private ThumbedPictures load(Long userId) {
+        List<Long> ids = jdbcTemplate.queryForList(FIND_THUMBED_PICTURES_SQL, Long.class, userId);
+        if (ids.isEmpty()) {
+            return ThumbedPictures.EMPTY;
+        }
+        log.debug("Loaded {} thumbed pictures of user {}", ids.size(), userId);
+        return ThumbedPictures.of(ids.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void add(Long userId, List<Long> wordThumbInfoIds) {
+        javax.cache.Cache<Object, Object> nativeCache = (javax.cache.Cache<Object, Object>) cache().getNativeCache();
+        // compare-and-set, so that two concurrent additions for the same user never lose each other
+        while (true) {
+            ThumbedPictures current = (ThumbedPictures) nativeCache.get(userId);
+            if (current == null) {
+                // not loaded yet, the next read will load the picture from the database
+                return;
+            }
+            ThumbedPictures updated = current.with(wordThumbInfoIds);
+            if (updated == current || nativeCache.replace(userId, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(THUMBED_PICTURES_CACHE));
+    }
+}
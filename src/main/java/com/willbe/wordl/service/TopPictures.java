@@ -0,0 +1,91 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.TopPictureDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The best-voted pictures of one wordInfo, bounded to a fixed capacity and sorted by descending thumb count.
+ * <p>
+ * Writers copy the small array under the lock of this object, readers only dereference the current array.
+ */
+class TopPictures {
+
+    static final Comparator<TopPictureDTO> BEST_FIRST = Comparator.comparingLong(TopPictureDTO::getThumbNum).reversed()
+        .thenComparing(TopPictureDTO::getId);
+
+    private final int capacity;
+
+    private volatile TopPictureDTO[] pictures = new TopPictureDTO[0];
+
+    TopPictures(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param k the maximum number of pictures to return.
+     * @return the {@code k} best pictures, best first.
+     */
+    List<TopPictureDTO> get(int k) {
+        TopPictureDTO[] current = pictures;
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(current, Math.max(0, Math.min(k, current.length)))));
+    }
+
+    /**
+     * Record a new thumb count for a picture. As thumb counts only grow, a lower count than the known one is ignored.
+     *
+     * @param picture the picture with its new thumb count.
+     */
+    synchronized void offer(TopPictureDTO picture) {
+        TopPictureDTO[] current = pictures;
+        int index = indexOf(current, picture.getId());
+        TopPictureDTO[] updated;
+        if (index >= 0) {
+            if (current[index].getThumbNum() >= picture.getThumbNum()) {
+                return;
+            }
+            updated = current.clone();
+        } else if (current.length < capacity) {
+            updated = Arrays.copyOf(current, current.length + 1);
+            index = current.length;
+        } else if (capacity > 0 && BEST_FIRST.compare(picture, current[current.length - 1]) < 0) {
+            updated = current.clone();
+            index = current.length - 1;
+        } else {
+            return;
+        }
+        updated[index] = picture;
+        // only this picture moved up, one insertion pass puts it back in place
+        while (index > 0 && BEST_FIRST.compare(updated[index], updated[index - 1]) < 0) {
+            TopPictureDTO previous = updated[index - 1];
+            updated[index - 1] = updated[index];
+            updated[index] = previous;
+            index--;
+        }
+        pictures = updated;
+    }
+
+    /**
+     * Replace all the pictures, for instance after reloading them from the database.
+     *
+     * @param candidates the pictures, in any order.
+     */
+    synchronized void replaceAll(List<TopPictureDTO> candidates) {
+        pictures = candidates.stream()
+            .sorted(BEST_FIRST)
+            .limit(capacity)
+            .toArray(TopPictureDTO[]::new);
+    }
+
+    private static int indexOf(TopPictureDTO[] pictures, Long id) {
+        for (int i = 0; i < pictures.length; i++) {
+            if (pictures[i].getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,151 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.service.dto.TopPictureDTO;
+import com.willbe.wordl.service.event.WordThumbEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.willbe.wordl.service.util.TransactionUtil.afterCommit;
+
+/**
+ * Service class keeping the best-voted pictures of each wordInfo in memory.
+ * <p>
+ * The boards are loaded from the database at startup, then updated by every {@link WordThumbEvent},
+ * so reading them never touches the database.
+ */
+@Service
+public class TopPicturesService {
+
+    private static final String PICTURE_COLUMNS = "select w.id, w.word_id, w.pic_url, coalesce(w.thumb_num, 0)" +
+        " + (select coalesce(sum(s.thumb_num), 0) from word_thumb_shard s where s.word_thumb_info_id = w.id) as total" +
+        " from word_thumb_info w";
+
+    private static final String FIND_ALL_SQL = PICTURE_COLUMNS + " where w.word_id is not null";
+
+    private static final String FIND_BEST_BY_WORD_SQL = PICTURE_COLUMNS + " where w.word_id = ? order by total desc, w.id limit ?";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(TopPicturesService.class);
+
+    private final ConcurrentMap<Long, TopPictures> boards = new ConcurrentHashMap<>();
+
+    private final ThumbCounterService thumbCounterService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int capacity;
+
+    public TopPicturesService(ThumbCounterService thumbCounterService, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties) {
+        this.thumbCounterService = thumbCounterService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.capacity = applicationProperties.getThumb().getTopPicturesSize();
+    }
+
+    /**
+     * Get the best-voted pictures of a wordInfo.
+     *
+     * @param wordInfoId the id of the wordInfo.
+     * @param k the maximum number of pictures to return, capped by {@code application.thumb.top-pictures-size}.
+     * @return the pictures, best first.
+     */
+    public List<TopPictureDTO> getTopPictures(Long wordInfoId, int k) {
+        TopPictures board = boards.get(wordInfoId);
+        return board == null ? Collections.emptyList() : board.get(k);
+    }
+
+    @EventListener
+    public void onWordThumb(WordThumbEvent event) {
+        if (event.getWordInfoId() != null) {
+            board(event.getWordInfoId()).offer(new TopPictureDTO(event.getWordThumbInfoId(), event.getPicUrl(), event.getThumbNum()));
+        }
+    }
+
+    /**
+     * Add new pictures to the board of a wordInfo, once the current transaction is committed.
+     *
+     * @param wordInfoId the id of the wordInfo.
+     * @param pictures the created wordThumbInfos of the wordInfo, with their thumb counts.
+     */
+    public void offerAfterCommit(Long wordInfoId, List<TopPictureDTO> pictures) {
+        afterCommit(() -> pictures.forEach(board(wordInfoId)::offer));
+    }
+
+    /**
+     * Reload the boards of some wordInfos from the database, once the current transaction is committed.
+     * <p>
+     * To be called when wordThumbInfos are created, updated or deleted.
+     *
+     * @param wordInfoIds the ids of the wordInfos, {@code null} ids are ignored.
+     */
+    public void reloadAfterCommit(Long... wordInfoIds) {
+        List<Long> ids = Stream.of(wordInfoIds).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        afterCommit(() -> ids.forEach(this::reload));
+    }
+
+    /**
+     * Reload the board of a wordInfo from the database.
+     *
+     * @param wordInfoId the id of the wordInfo.
+     */
+    public void reload(Long wordInfoId) {
+        List<TopPictureDTO> pictures = transactionTemplate.execute(status ->
+            jdbcTemplate.query(FIND_BEST_BY_WORD_SQL, pictureMapper(), wordInfoId, capacity));
+        board(wordInfoId).replaceAll(pictures);
+    }
+
+    /**
+     * Load all the boards from the database, streaming the wordThumbInfos so that only the best ones stay in memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadAll() {
+        log.debug("Loading the best-voted pictures of every wordInfo");
+        RowMapper<TopPictureDTO> pictureMapper = pictureMapper();
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(FIND_ALL_SQL);
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, rs -> {
+                board(rs.getLong(2)).offer(pictureMapper.mapRow(rs, 0));
+            });
+            return null;
+        });
+        log.debug("Loaded the best-voted pictures of {} wordInfos", boards.size());
+    }
+
+    private TopPictures board(Long wordInfoId) {
+        return boards.computeIfAbsent(wordInfoId, id -> new TopPictures(capacity));
+    }
+
+    private RowMapper<TopPictureDTO> pictureMapper() {
+        return (rs, rowNum) -> {
+            Long id = rs.getLong(1);
+            // the thumbs not flushed yet are not in the database
+            return new TopPictureDTO(id, rs.getString(3), rs.getLong(4) + thumbCounterService.getPendingWordThumbs(id));
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.repository.WordInfoRepository;
+import com.willbe.wordl.service.dto.TrendingWordDTO;
+import com.willbe.wordl.service.event.WordThumbEvent;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class ranking the wordInfos by their thumbs over the last hour and the last day.
+ * <p>
+ * The thumbs are counted in memory as {@link WordThumbEvent}s are published, by a {@link TrendingWindow} per window,
+ * so the memory used does not depend on the number of wordInfos. The counts are approximate and local to this
+ * application instance, and start from zero at startup.
+ */
+@Service
+public class TrendingService {
+
+    private final Map<String, TrendingWindow> windows = new LinkedHashMap<>();
+
+    private final WordInfoRepository wordInfoRepository;
+
+    public TrendingService(WordInfoRepository wordInfoRepository, ApplicationProperties applicationProperties) {
+        this.wordInfoRepository = wordInfoRepository;
+        ApplicationProperties.Trending trending = applicationProperties.getTrending();
+        windows.put("1h", new TrendingWindow(TimeUnit.HOURS.toMillis(1), 12,
+            trending.getSketchWidth(), trending.getSketchDepth(), trending.getCandidates()));
+        windows.put("1d", new TrendingWindow(TimeUnit.DAYS.toMillis(1), 24,
+            trending.getSketchWidth(), trending.getSketchDepth(), trending.getCandidates()));
+    }
+
+    /**
+     * @return the names of the supported windows, such as {@code 1h}.
+     */
+    public Set<String> getWindows() {
+        return Collections.unmodifiableSet(windows.keySet());
+    }
+
+    /**
+     * Get the wordInfos with the most thumbs in a window.
+     *
+     * @param window the name of the window, one of {@link #getWindows()}.
+     * @param k the maximum number of wordInfos to return.
+     * @return the wordInfos, most thumbed first, or an empty {@link Optional} if the window is not supported.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<TrendingWordDTO>> getTrending(String window, int k) {
+        TrendingWindow trendingWindow = windows.get(window);
+        if (trendingWindow == null) {
+            return Optional.empty();
+        }
+        Map<Long, Long> top = trendingWindow.top(k, System.currentTimeMillis());
+        Map<Long, WordInfo> wordInfos = wordInfoRepository.findAllById(top.keySet()).stream()
+            .collect(Collectors.toMap(WordInfo::getId, Function.identity()));
+        return Optional.of(top.entrySet().stream()
+            // a wordInfo deleted since its thumbs is skipped
+            .filter(entry -> wordInfos.containsKey(entry.getKey()))
+            .map(entry -> new TrendingWordDTO(entry.getKey(), wordInfos.get(entry.getKey()).getWord(), entry.getValue()))
+            .collect(Collectors.toList()));
+    }
+
+    @EventListener
+    public void onWordThumb(WordThumbEvent event) {
+        if (event.getWordInfoId() != null) {
+            long now = System.currentTimeMillis();
+            windows.values().forEach(window -> window.add(event.getWordInfoId(), now));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.willbe.wordl.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Thumb counts of the wordInfos over a sliding time window, in a bounded amount of memory.
+ * <p>
+ * The window is split into buckets, each counting its thumbs in a {@link CountMinSketch}; a bucket is replaced when
+ * the window slides past it, so the thumbs older than the window are forgotten bucket by bucket. Only the wordInfos
+ * with the highest counts are remembered as candidates for the trending list.
+ * <p>
+ * Counting a thumb takes no lock: the sketches count atomically, and the candidates are only ranked and trimmed
+ * by {@link #top(int, long)}, or by the thumb which doubles their number.
+ */
+class TrendingWindow {
+
+    private final long bucketMillis;
+
+    private final int sketchWidth;
+
+    private final int sketchDepth;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    private final int maxCandidates;
+
+    private final Set<Long> candidates = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock trimLock = new ReentrantLock();
+
+    /**
+     * @param windowMillis the length of the window.
+     * @param bucketCount the number of buckets of the window: the counts are accurate to {@code windowMillis / bucketCount}.
+     * @param sketchWidth the width of the sketch of every bucket.
+     * @param sketchDepth the depth of the sketch of every bucket.
+     * @param maxCandidates the number of wordInfos remembered as candidates for the trending list.
+     */
+    TrendingWindow(long windowMillis, int bucketCount, int sketchWidth, int sketchDepth, int maxCandidates) {
+        this.bucketMillis = windowMillis / bucketCount;
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.set(i, new Bucket(-1, new CountMinSketch(sketchWidth, sketchDepth)));
+        }
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Count one thumb of a wordInfo.
+     *
+     * @param wordInfoId the id of the wordInfo.
+     * @param nowMillis the time of the thumb.
+     */
+    void add(long wordInfoId, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        bucket(epoch).sketch.add(wordInfoId, 1);
+        // the candidates are trimmed once per maxCandidates new ones, so that a thumb does not rank them all
+        if (candidates.add(wordInfoId) && candidates.size() > 2 * maxCandidates && trimLock.tryLock()) {
+            try {
+                rank(epoch);
+            } finally {
+                trimLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @param k the maximum number of wordInfos to return.
+     * @param nowMillis the current time.
+     * @return the ids of the wordInfos with the most thumbs in the window, mapped to their estimated thumb count,
+     * most thumbed first.
+     */
+    LinkedHashMap<Long, Long> top(int k, long nowMillis) {
+        trimLock.lock();
+        try {
+            return rank(nowMillis / bucketMillis).entrySet().stream()
+                .limit(Math.max(0, k))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    /**
+     * Get the bucket of an epoch, replacing the bucket of an older epoch in its slot.
+     * <p>
+     * The thumbs added to the older bucket by threads racing with its replacement are lost, within the accuracy
+     * of the window.
+     */
+    private Bucket bucket(long epoch) {
+        int index = (int) (epoch % buckets.length());
+        Bucket bucket = buckets.get(index);
+        while (bucket.epoch < epoch) {
+            Bucket next = new Bucket(epoch, new CountMinSketch(sketchWidth, sketchDepth));
+            if (buckets.compareAndSet(index, bucket, next)) {
+                return next;
+            }
+            bucket = buckets.get(index);
+        }
+        return bucket;
+    }
+
+    /**
+     * Estimate the counts of the candidates, and forget all but the {@code maxCandidates} highest ones.
+     *
+     * @return the remaining candidates mapped to their counts, highest first.
+     */
+    private LinkedHashMap<Long, Long> rank(long epoch) {
+        LinkedHashMap<Long, Long> ranked = new LinkedHashMap<>();
+        candidates.stream()
+            .collect(Collectors.toMap(wordInfoId -> wordInfoId, wordInfoId -> estimate(wordInfoId, epoch)))
+            .entrySet().stream()
+            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> {
+                if (entry.getValue() > 0 && ranked.size() < maxCandidates) {
+                    ranked.put(entry.getKey(), entry.getValue());
+                } else {
+                    candidates.remove(entry.getKey());
+                }
+            });
+        return ranked;
+    }
+
+    private long estimate(long wordInfoId, long epoch) {
+        long estimate = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.epoch > epoch - buckets.length() && bucket.epoch <= epoch) {
+                estimate += bucket.sketch.estimate(wordInfoId);
+            }
+        }
+        return estimate;
+    }
+
+    private static class Bucket {
+
+        private final long epoch;
+
+        private final CountMinSketch sketch;
+
+        private Bucket(long epoch, CountMinSketch sketch) {
+            this.epoch = epoch;
+            this.sketch = sketch;
+        }
+    }
+}
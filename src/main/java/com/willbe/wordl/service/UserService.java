@@ -6,7 +6,6 @@ import com.willbe.wordl.domain.User;
 import com.willbe.wordl.repository.AuthorityRepository;
 import com.willbe.wordl.repository.PersistentTokenRepository;
 import com.willbe.wordl.repository.UserRepository;
-import com.willbe.wordl.repository.search.UserSearchRepository;
 import com.willbe.wordl.security.AuthoritiesConstants;
 import com.willbe.wordl.security.SecurityUtils;
 import com.willbe.wordl.service.dto.UserDTO;
@@ -42,7 +41,7 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final UserSearchRepository userSearchRepository;
+    private final SearchOutboxService searchOutboxService;
 
     private final PersistentTokenRepository persistentTokenRepository;
 
@@ -50,10 +49,10 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserSearchRepository userSearchRepository, PersistentTokenRepository persistentTokenRepository, AuthorityRepository authorityRepository, CacheManager cacheManager) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, SearchOutboxService searchOutboxService, PersistentTokenRepository persistentTokenRepository, AuthorityRepository authorityRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.userSearchRepository = userSearchRepository;
+        this.searchOutboxService = searchOutboxService;
         this.persistentTokenRepository = persistentTokenRepository;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
@@ -66,7 +65,7 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
-                userSearchRepository.save(user);
+                searchOutboxService.enqueue(User.class, user.getId());
                 this.clearUserCaches(user);
                 log.debug("Activated user: {}", user);
                 return user;
@@ -130,7 +129,7 @@ public class UserService {
         authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
-        userSearchRepository.save(newUser);
+        searchOutboxService.enqueue(User.class, newUser.getId());
         this.clearUserCaches(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
@@ -142,6 +141,7 @@ public class UserService {
         }
         userRepository.delete(existingUser);
         userRepository.flush();
+        searchOutboxService.enqueue(User.class, existingUser.getId());
         this.clearUserCaches(existingUser);
         return true;
     }
@@ -174,7 +174,7 @@ public class UserService {
             user.setAuthorities(authorities);
         }
         userRepository.save(user);
-        userSearchRepository.save(user);
+        searchOutboxService.enqueue(User.class, user.getId());
         this.clearUserCaches(user);
         log.debug("Created Information for User: {}", user);
         return user;
@@ -200,7 +200,7 @@ public class UserService {
                 }
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
-                userSearchRepository.save(user);
+                searchOutboxService.enqueue(User.class, user.getId());
                 this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
             });
@@ -235,7 +235,7 @@ public class UserService {
                     .filter(Optional::isPresent)
                     .map(Optional::get)
                     .forEach(managedAuthorities::add);
-                userSearchRepository.save(user);
+                searchOutboxService.enqueue(User.class, user.getId());
                 this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
                 return user;
@@ -246,7 +246,7 @@ public class UserService {
     public void deleteUser(String login) {
         userRepository.findOneByLogin(login).ifPresent(user -> {
             userRepository.delete(user);
-            userSearchRepository.delete(user);
+            searchOutboxService.enqueue(User.class, user.getId());
             this.clearUserCaches(user);
             log.debug("Deleted User: {}", user);
         });
@@ -316,7 +316,7 @@ public class UserService {
             .forEach(user -> {
                 log.debug("Deleting not activated user {}", user.getLogin());
                 userRepository.delete(user);
-                userSearchRepository.delete(user);
+                searchOutboxService.enqueue(User.class, user.getId());
                 this.clearUserCaches(user);
             });
     }
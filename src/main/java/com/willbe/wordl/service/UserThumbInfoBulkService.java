@@ -0,0 +1,219 @@
+package com.willbe.wordl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.repository.UserThumbInfoRepository;
+import com.willbe.wordl.service.dto.BulkItemResultDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Service class creating many userThumbInfos from a newline-delimited JSON stream.
+ * <p>
+ * The lines are read one by one and written in chunks of {@code application.thumb.bulk-chunk-size}: each chunk
+ * is inserted in its own transaction, so that Hibernate groups the inserts in JDBC batches, along with its rows
+ * of the search outbox. Only the current chunk is kept in memory.
+ */
+@Service
+public class UserThumbInfoBulkService {
+
+    private final Logger log = LoggerFactory.getLogger(UserThumbInfoBulkService.class);
+
+    private final UserThumbInfoRepository userThumbInfoRepository;
+
+    private final SearchOutboxService searchOutboxService;
+
+    private final ThumbedPicturesService thumbedPicturesService;
+
+    private final ReviewQueueService reviewQueueService;
+
+    private final ObjectReader userThumbInfoReader;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    public UserThumbInfoBulkService(UserThumbInfoRepository userThumbInfoRepository, SearchOutboxService searchOutboxService,
+                                    ThumbedPicturesService thumbedPicturesService, ReviewQueueService reviewQueueService,
+                                    ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                    ApplicationProperties applicationProperties) {
+        this.userThumbInfoRepository = userThumbInfoRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.thumbedPicturesService = thumbedPicturesService;
+        this.reviewQueueService = reviewQueueService;
+        this.userThumbInfoReader = objectMapper.readerFor(UserThumbInfo.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = applicationProperties.getThumb().getBulkChunkSize();
+    }
+
+    /**
+     * Create the userThumbInfos of a newline-delimited JSON stream, one userThumbInfo per line.
+     * <p>
+     * A line is rejected if it is not a valid userThumbInfo, if it has an id, or if a userThumbInfo with the same
+     * clicker and {@code thumbLid} already exists, in the database or earlier in the stream. Blank lines are ignored.
+     *
+     * @param ndjson the stream.
+     * @param results receives the result of every non-blank line, in the order of the lines.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void createAll(Reader ndjson, Consumer<BulkItemResultDTO> results) throws IOException {
+        BufferedReader reader = new BufferedReader(ndjson);
+        List<Line> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+            if (text.trim().isEmpty()) {
+                continue;
+            }
+            chunk.add(parse(lineNumber, text));
+            if (chunk.size() == chunkSize) {
+                write(chunk, results);
+                chunk.clear();
+            }
+        }
+        write(chunk, results);
+    }
+
+    private Line parse(long lineNumber, String text) {
+        try {
+            UserThumbInfo userThumbInfo = userThumbInfoReader.readValue(text);
+            if (userThumbInfo == null) {
+                return Line.rejected(lineNumber, HttpStatus.BAD_REQUEST, "A userThumbInfo is expected");
+            }
+            if (userThumbInfo.getId() != null) {
+                return Line.rejected(lineNumber, HttpStatus.BAD_REQUEST, "A new userThumbInfo cannot already have an ID");
+            }
+            return new Line(lineNumber, userThumbInfo);
+        } catch (JsonProcessingException e) {
+            return Line.rejected(lineNumber, HttpStatus.BAD_REQUEST, e.getOriginalMessage());
+        }
+    }
+
+    private void write(List<Line> chunk, Consumer<BulkItemResultDTO> results) {
+        List<Line> accepted = chunk.stream().filter(line -> line.userThumbInfo != null).collect(Collectors.toList());
+        if (!accepted.isEmpty()) {
+            try {
+                transactionTemplate.execute(status -> insert(accepted));
+            } catch (RuntimeException e) {
+                log.warn("Could not create a chunk of {} userThumbInfos: {}", accepted.size(), e.getMessage());
+                accepted.stream()
+                    .filter(line -> line.userThumbInfo != null)
+                    .forEach(line -> line.reject(HttpStatus.INTERNAL_SERVER_ERROR, "The userThumbInfo could not be created"));
+            }
+        }
+        chunk.forEach(line -> results.accept(line.toResult()));
+    }
+
+    private List<UserThumbInfo> insert(List<Line> lines) {
+        // the lines of the previous chunks are committed, so they are found in the database too
+        Set<Map.Entry<Long, String>> existingKeys = findExistingKeys(lines);
+        List<UserThumbInfo> created = new ArrayList<>(lines.size());
+        Set<Map.Entry<Long, String>> chunkKeys = new HashSet<>();
+        for (Line line : lines) {
+            Map.Entry<Long, String> key = key(line.userThumbInfo);
+            if (key != null && (existingKeys.contains(key) || !chunkKeys.add(key))) {
+                line.reject(HttpStatus.CONFLICT, "The userThumbInfo already exists");
+            } else {
+                created.add(line.userThumbInfo);
+            }
+        }
+        if (created.isEmpty()) {
+            return created;
+        }
+        userThumbInfoRepository.saveAll(created);
+        userThumbInfoRepository.flush();
+        searchOutboxService.enqueueAll(UserThumbInfo.class, created.stream().map(UserThumbInfo::getId).collect(Collectors.toList()));
+        thumbedPicturesService.evictAfterCommit(created.stream().map(UserThumbInfoBulkService::clickerId).toArray(Long[]::new));
+        reviewQueueService.recordReviews(created);
+        return created;
+    }
+
+    /**
+     * Find the keys of the chunk already in the database, only reading the userThumbInfos of its clickers.
+     */
+    private Set<Map.Entry<Long, String>> findExistingKeys(List<Line> lines) {
+        Set<Long> clickerIds = new HashSet<>();
+        Set<String> thumbLids = new HashSet<>();
+        Set<String> thumbLidsWithoutClicker = new HashSet<>();
+        lines.stream().map(line -> key(line.userThumbInfo)).filter(Objects::nonNull).forEach(key -> {
+            if (key.getKey() == null) {
+                thumbLidsWithoutClicker.add(key.getValue());
+            } else {
+                clickerIds.add(key.getKey());
+                thumbLids.add(key.getValue());
+            }
+        });
+        Set<Map.Entry<Long, String>> existingKeys = new HashSet<>();
+        if (!clickerIds.isEmpty()) {
+            userThumbInfoRepository.findClickerIdsAndThumbLidsByClickerIdInAndThumbLidIn(clickerIds, thumbLids)
+                .forEach(row -> existingKeys.add(new AbstractMap.SimpleImmutableEntry<>((Long) row[0], (String) row[1])));
+        }
+        if (!thumbLidsWithoutClicker.isEmpty()) {
+            userThumbInfoRepository.findThumbLidsByClickerIsNullAndThumbLidIn(thumbLidsWithoutClicker)
+                .forEach(thumbLid -> existingKeys.add(new AbstractMap.SimpleImmutableEntry<>(null, thumbLid)));
+        }
+        return existingKeys;
+    }
+
+    private static Map.Entry<Long, String> key(UserThumbInfo userThumbInfo) {
+        if (userThumbInfo.getThumbLid() == null) {
+            return null;
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(clickerId(userThumbInfo), userThumbInfo.getThumbLid());
+    }
+
+    private static Long clickerId(UserThumbInfo userThumbInfo) {
+        return userThumbInfo.getClicker() == null ? null : userThumbInfo.getClicker().getId();
+    }
+
+    /**
+     * A non-blank line of the stream, with the userThumbInfo it holds until it is rejected.
+     */
+    private static class Line {
+
+        private final long number;
+
+        private UserThumbInfo userThumbInfo;
+
+        private HttpStatus status = HttpStatus.CREATED;
+
+        private String error;
+
+        private Line(long number, UserThumbInfo userThumbInfo) {
+            this.number = number;
+            this.userThumbInfo = userThumbInfo;
+        }
+
+        private static Line rejected(long number, HttpStatus status, String error) {
+            Line line = new Line(number, null);
+            line.reject(status, error);
+            return line;
+        }
+
+        private void reject(HttpStatus status, String error) {
+            this.userThumbInfo = null;
+            this.status = status;
+            this.error = error;
+        }
+
+        private BulkItemResultDTO toResult() {
+            return new BulkItemResultDTO(number, status.value(), userThumbInfo == null ? null : userThumbInfo.getId(), error);
+        }
+    }
+}
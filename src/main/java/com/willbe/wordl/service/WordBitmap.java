@@ -0,0 +1,143 @@
+package com.willbe.wordl.service;
+
+import java.util.Arrays;
+
+/**
+ * A set of word ordinals, stored as a sorted array while it is sparse, and as a bitmap once the bitmap is smaller.
+ * <p>
+ * Set operations write into a plain bitmap of {@code long} words, shared by the operands of a query.
+ * Instances are not thread-safe.
+ */
+class WordBitmap {
+
+    private static final int[] NO_ORDINALS = new int[0];
+
+    private static final int MIN_BITMAP_CARDINALITY = 64;
+
+    private int[] ordinals = NO_ORDINALS;
+
+    /**
+     * The bits of the ordinals, {@code null} while they are stored in {@link #ordinals}.
+     */
+    private long[] words;
+
+    private int cardinality;
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean contains(int ordinal) {
+        if (words != null) {
+            int index = ordinal >>> 6;
+            return index < words.length && (words[index] & (1L << ordinal)) != 0;
+        }
+        return Arrays.binarySearch(ordinals, 0, cardinality, ordinal) >= 0;
+    }
+
+    void add(int ordinal) {
+        if (words != null) {
+            int index = ordinal >>> 6;
+            if (index >= words.length) {
+                words = Arrays.copyOf(words, Math.max(index + 1, words.length + (words.length >> 1)));
+            }
+            if ((words[index] & (1L << ordinal)) == 0) {
+                words[index] |= 1L << ordinal;
+                cardinality++;
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(ordinals, 0, cardinality, ordinal);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        if (cardinality == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, Math.max(4, cardinality + (cardinality >> 1)));
+        }
+        System.arraycopy(ordinals, index, ordinals, index + 1, cardinality - index);
+        ordinals[index] = ordinal;
+        cardinality++;
+        // an int per ordinal takes as much room as 32 bits of the bitmap
+        int maxOrdinal = ordinals[cardinality - 1];
+        if (cardinality >= MIN_BITMAP_CARDINALITY && (long) cardinality * 32 > maxOrdinal) {
+            long[] bits = new long[(maxOrdinal >>> 6) + 1];
+            for (int i = 0; i < cardinality; i++) {
+                bits[ordinals[i] >>> 6] |= 1L << ordinals[i];
+            }
+            words = bits;
+            ordinals = NO_ORDINALS;
+        }
+    }
+
+    void remove(int ordinal) {
+        if (words != null) {
+            int index = ordinal >>> 6;
+            if (index < words.length && (words[index] & (1L << ordinal)) != 0) {
+                words[index] &= ~(1L << ordinal);
+                cardinality--;
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(ordinals, 0, cardinality, ordinal);
+        if (index >= 0) {
+            System.arraycopy(ordinals, index + 1, ordinals, index, cardinality - index - 1);
+            cardinality--;
+        }
+    }
+
+    /**
+     * {@code target |= this}
+     */
+    void orInto(long[] target) {
+        if (words != null) {
+            for (int i = 0, length = Math.min(words.length, target.length); i < length; i++) {
+                target[i] |= words[i];
+            }
+            return;
+        }
+        for (int i = 0; i < cardinality; i++) {
+            int index = ordinals[i] >>> 6;
+            if (index < target.length) {
+                target[index] |= 1L << ordinals[i];
+            }
+        }
+    }
+
+    /**
+     * {@code target &= this}
+     */
+    void andInto(long[] target) {
+        if (words != null) {
+            int length = Math.min(words.length, target.length);
+            for (int i = 0; i < length; i++) {
+                target[i] &= words[i];
+            }
+            Arrays.fill(target, length, target.length, 0L);
+            return;
+        }
+        long[] mask = new long[target.length];
+        orInto(mask);
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= mask[i];
+        }
+    }
+
+    /**
+     * {@code target &= ~this}
+     */
+    void andNotInto(long[] target) {
+        if (words != null) {
+            for (int i = 0, length = Math.min(words.length, target.length); i < length; i++) {
+                target[i] &= ~words[i];
+            }
+            return;
+        }
+        for (int i = 0; i < cardinality; i++) {
+            int index = ordinals[i] >>> 6;
+            if (index < target.length) {
+                target[index] &= ~(1L << ordinals[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.service.dto.WordCompletionDTO;
+import com.willbe.wordl.service.event.WordThumbEvent;
+
+import static com.willbe.wordl.service.util.TransactionUtil.afterCommit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Service class completing the words of the wordInfos, most thumbed first.
+ * <p>
+ * The words are held in memory by a {@link WordTrie}, loaded at startup by the {@link WordInfoIndexLoader} along their thumb counts, then updated as wordInfos
+ * are written and {@link WordThumbEvent}s are published, so completing a prefix never leaves the application.
+ */
+@Service
+public class WordCompletionService implements WordInfoIndex {
+
+    private static final String SUM_THUMBS_SQL = "select w.word_id, sum(coalesce(w.thumb_num, 0)) from word_thumb_info w" +
+        " where w.word_id is not null group by w.word_id";
+
+    private static final String SUM_SHARD_THUMBS_SQL = "select w.word_id, sum(s.thumb_num) from word_thumb_shard s" +
+        " join word_thumb_info w on w.id = s.word_thumb_info_id where w.word_id is not null group by w.word_id";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(WordCompletionService.class);
+
+    private final WordInfoIndexWrites<WordTrie> writes = new WordInfoIndexWrites<>();
+
+    private volatile WordTrie trie = new WordTrie();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public WordCompletionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Get the words starting with a prefix.
+     *
+     * @param prefix the prefix, case insensitive.
+     * @param limit the maximum number of words to return.
+     * @return the wordInfos of the words, most thumbed first, then in alphabetical order.
+     */
+    public List<WordCompletionDTO> complete(String prefix, int limit) {
+        return trie.complete(prefix, limit);
+    }
+
+    /**
+     * Add or rename the word of a wordInfo, once the current transaction is committed.
+     *
+     * @param wordInfo the created or updated wordInfo.
+     */
+    public void putAfterCommit(WordInfo wordInfo) {
+        Long id = wordInfo.getId();
+        String word = wordInfo.getWord();
+        afterCommit(() -> write(loaded -> loaded.put(id, word)));
+    }
+
+    /**
+     * Remove the word of a wordInfo, once the current transaction is committed.
+     *
+     * @param id the id of the deleted wordInfo.
+     */
+    public void removeAfterCommit(Long id) {
+        afterCommit(() -> write(loaded -> loaded.remove(id)));
+    }
+
+    /**
+     * Add thumbs to a wordInfo, once the current transaction is committed.
+     * <p>
+     * To be called when wordThumbInfos are created with thumbs.
+     *
+     * @param id the id of the wordInfo.
+     * @param thumbs the number of thumbs of its new wordThumbInfos.
+     */
+    public void addThumbsAfterCommit(Long id, long thumbs) {
+        afterCommit(() -> write(loaded -> loaded.addThumbs(id, thumbs)));
+    }
+
+    @EventListener
+    public void onWordThumb(WordThumbEvent event) {
+        Long id = event.getWordInfoId();
+        if (id != null) {
+            write(loaded -> loaded.addThumbs(id, 1));
+        }
+    }
+
+    @Override
+    public synchronized void startLoading() {
+        writes.start();
+    }
+
+    /**
+     * Add the words, then their thumb counts from the database.
+     * <p>
+     * The words are loaded without the lock of this service, so that the thumbs are not held back meanwhile.
+     */
+    @Override
+    public void loadAll(long[] ids, String[] words) {
+        WordTrie loaded = new WordTrie();
+        for (int i = 0; i < ids.length; i++) {
+            loaded.put(ids[i], words[i]);
+        }
+        transactionTemplate.execute(status -> {
+            query(SUM_THUMBS_SQL, rs -> loaded.addThumbs(rs.getLong(1), rs.getLong(2)));
+            query(SUM_SHARD_THUMBS_SQL, rs -> loaded.addThumbs(rs.getLong(1), rs.getLong(2)));
+            return null;
+        });
+        synchronized (this) {
+            writes.replay(loaded);
+            trie = loaded;
+        }
+        log.debug("Loaded the thumb counts of {} words", loaded.size());
+    }
+
+    @Override
+    public synchronized void cancelLoading() {
+        writes.stop();
+    }
+
+    private synchronized void write(Consumer<WordTrie> write) {
+        write.accept(trie);
+        writes.record(write);
+    }
+
+    private void query(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, handler);
+    }
+}
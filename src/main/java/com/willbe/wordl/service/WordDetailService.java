@@ -0,0 +1,129 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.CategoryWord;
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.CategoryWordRepository;
+import com.willbe.wordl.repository.UserThumbInfoRepository;
+import com.willbe.wordl.repository.WordInfoRepository;
+import com.willbe.wordl.repository.WordThumbInfoRepository;
+import com.willbe.wordl.security.SecurityUtils;
+import com.willbe.wordl.service.dto.TopPictureDTO;
+import com.willbe.wordl.service.dto.UserThumbHistoryDTO;
+import com.willbe.wordl.service.dto.WordDetailDTO;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class gathering the cards of wordInfos: their pictures, categoryWords, morphemes and the thumbs of the current user.
+ * <p>
+ * Each kind of data is read with one query for all the wordInfos of a request, so the number of queries does not depend
+ * on the number of wordInfos or pictures.
+ */
+@Service
+@Transactional(readOnly = true)
+public class WordDetailService {
+
+    private static final Comparator<TopPictureDTO> BEST_FIRST =
+        Comparator.comparingLong(TopPictureDTO::getThumbNum).reversed().thenComparing(TopPictureDTO::getId);
+
+    private final WordInfoRepository wordInfoRepository;
+
+    private final WordThumbInfoRepository wordThumbInfoRepository;
+
+    private final CategoryWordRepository categoryWordRepository;
+
+    private final UserThumbInfoRepository userThumbInfoRepository;
+
+    private final ThumbCounterService thumbCounterService;
+
+    private final MorphemeService morphemeService;
+
+    public WordDetailService(WordInfoRepository wordInfoRepository, WordThumbInfoRepository wordThumbInfoRepository,
+                             CategoryWordRepository categoryWordRepository, UserThumbInfoRepository userThumbInfoRepository,
+                             ThumbCounterService thumbCounterService, MorphemeService morphemeService) {
+        this.wordInfoRepository = wordInfoRepository;
+        this.wordThumbInfoRepository = wordThumbInfoRepository;
+        this.categoryWordRepository = categoryWordRepository;
+        this.userThumbInfoRepository = userThumbInfoRepository;
+        this.thumbCounterService = thumbCounterService;
+        this.morphemeService = morphemeService;
+    }
+
+    /**
+     * Get the card of a wordInfo.
+     *
+     * @param id the id of the wordInfo.
+     * @return the card, or an empty {@link Optional} if the wordInfo does not exist.
+     */
+    public Optional<WordDetailDTO> getDetail(Long id) {
+        return getDetails(Collections.singletonList(id)).stream().findFirst();
+    }
+
+    /**
+     * Get the cards of some wordInfos.
+     *
+     * @param ids the ids of the wordInfos.
+     * @return the cards of the existing wordInfos, in the order of their ids.
+     */
+    public List<WordDetailDTO> getDetails(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, WordInfo> wordInfos = wordInfoRepository.findAllById(distinctIds).stream()
+            .collect(Collectors.toMap(WordInfo::getId, wordInfo -> wordInfo));
+        if (wordInfos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> words = wordInfos.values().stream().map(WordInfo::getWord).filter(Objects::nonNull).collect(Collectors.toSet());
+
+        List<WordThumbInfo> wordThumbInfos = wordThumbInfoRepository.findAllWithWordByWordIdIn(wordInfos.keySet());
+        Map<Long, Long> thumbNums = thumbCounterService.getThumbNums(
+            wordThumbInfos.stream().map(WordThumbInfo::getId).collect(Collectors.toList()));
+        Map<Long, List<TopPictureDTO>> pictures = new HashMap<>();
+        for (WordThumbInfo wordThumbInfo : wordThumbInfos) {
+            pictures.computeIfAbsent(wordThumbInfo.getWord().getId(), wordInfoId -> new ArrayList<>())
+                .add(new TopPictureDTO(wordThumbInfo.getId(), wordThumbInfo.getPicUrl(), thumbNums.get(wordThumbInfo.getId())));
+        }
+        pictures.values().forEach(list -> list.sort(BEST_FIRST));
+
+        Map<String, List<CategoryWord>> categoryWords = words.isEmpty() ? Collections.emptyMap() :
+            categoryWordRepository.findAllByWordIn(words).stream()
+                .sorted(Comparator.comparing(CategoryWord::getId))
+                .collect(Collectors.groupingBy(CategoryWord::getWord));
+
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        Map<String, List<UserThumbHistoryDTO>> userThumbInfos = words.isEmpty() || !login.isPresent() ? Collections.emptyMap() :
+            userThumbInfoRepository.findHistoryByClickerLoginAndWordIn(login.get(), words).stream()
+                .collect(Collectors.groupingBy(UserThumbHistoryDTO::getWord));
+
+        List<WordDetailDTO> details = new ArrayList<>(wordInfos.size());
+        for (Long id : distinctIds) {
+            WordInfo wordInfo = wordInfos.get(id);
+            if (wordInfo != null) {
+                String word = wordInfo.getWord();
+                details.add(new WordDetailDTO(id, word,
+                    pictures.getOrDefault(id, Collections.emptyList()),
+                    word == null ? Collections.emptyList() : categoryWords.getOrDefault(word, Collections.emptyList()),
+                    morphemeService.decompose(word),
+                    word == null ? Collections.emptyList() : userThumbInfos.getOrDefault(word, Collections.emptyList())));
+            }
+        }
+        return details;
+    }
+}
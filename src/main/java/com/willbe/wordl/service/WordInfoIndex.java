@@ -0,0 +1,29 @@
+package com.willbe.wordl.service;
+
+/**
+ * An in-memory index of the words of the wordInfos, loaded at startup by the {@link WordInfoIndexLoader}.
+ * <p>
+ * The wordInfos written between {@link #startLoading()} and {@link #loadAll(long[], String[])} may be missing from
+ * the loaded words, or be stale there: their writes are recorded, and applied again to the loaded words before
+ * they replace the indexed ones.
+ */
+public interface WordInfoIndex {
+
+    /**
+     * Start recording the writes to the index, before the words of the wordInfos are read.
+     */
+    void startLoading();
+
+    /**
+     * Replace the indexed words by those of all the wordInfos, with the writes recorded since {@link #startLoading()}.
+     *
+     * @param ids the ids of the wordInfos.
+     * @param words the words of the wordInfos, in the order of their ids, never {@code null}.
+     */
+    void loadAll(long[] ids, String[] words);
+
+    /**
+     * Stop recording the writes to the index, if its words could not be loaded. Does nothing once they are.
+     */
+    void cancelLoading();
+}
@@ -0,0 +1,98 @@
+package com.willbe.wordl.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service class loading the {@link WordInfoIndex}es at startup.
+ * <p>
+ * The words of the wordInfos are read from the database in a single pass, then handed to every index in turn. The
+ * morphemes are loaded first, as the {@link CategoryIndexService} splits the words into them. The indices record
+ * their writes from before the words are read, so that none is lost by the loaded words.
+ */
+@Service
+public class WordInfoIndexLoader {
+
+    private static final String FIND_WORDS_SQL = "select i.id, i.word from word_info i where i.word is not null order by i.id";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(WordInfoIndexLoader.class);
+
+    private final MorphemeService morphemeService;
+
+    private final List<WordInfoIndex> indices;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public WordInfoIndexLoader(MorphemeService morphemeService, List<WordInfoIndex> indices, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager) {
+        this.morphemeService = morphemeService;
+        this.indices = indices;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Load the morphemes, then every index from the wordInfos of the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadAll() {
+        morphemeService.rebuild();
+        log.debug("Loading the words of every wordInfo");
+        Words words = new Words();
+        indices.forEach(WordInfoIndex::startLoading);
+        try {
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(FIND_WORDS_SQL);
+                    ps.setFetchSize(FETCH_SIZE);
+                    return ps;
+                }, rs -> {
+                    words.add(rs.getLong(1), rs.getString(2));
+                });
+                return null;
+            });
+            long[] ids = Arrays.copyOf(words.ids, words.size);
+            String[] texts = Arrays.copyOf(words.words, words.size);
+            for (WordInfoIndex index : indices) {
+                index.loadAll(ids, texts);
+            }
+        } finally {
+            // the indices which were not loaded stop recording their writes
+            indices.forEach(WordInfoIndex::cancelLoading);
+        }
+        log.debug("Loaded the words of {} wordInfos into {} indices", words.size, indices.size());
+    }
+
+    private static class Words {
+
+        private long[] ids = new long[FETCH_SIZE];
+
+        private String[] words = new String[FETCH_SIZE];
+
+        private int size;
+
+        private void add(long id, String word) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                words = Arrays.copyOf(words, size * 2);
+            }
+            ids[size] = id;
+            words[size++] = word;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.willbe.wordl.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The writes to a {@link WordInfoIndex} made while its words are loaded, replayed on the loaded index before it
+ * replaces the current one.
+ * <p>
+ * Not thread-safe: to be used with the lock of the index.
+ *
+ * @param <I> the type of the index.
+ */
+class WordInfoIndexWrites<I> {
+
+    private List<Consumer<I>> writes;
+
+    /**
+     * Start recording the writes, before the words are read.
+     */
+    void start() {
+        writes = new ArrayList<>();
+    }
+
+    /**
+     * Record a write, if the words are being loaded.
+     *
+     * @param write the write, already applied to the current index.
+     */
+    void record(Consumer<I> write) {
+        if (writes != null) {
+            writes.add(write);
+        }
+    }
+
+    /**
+     * Apply the recorded writes to the loaded index, in order, and stop recording.
+     *
+     * @param index the loaded index.
+     */
+    void replay(I index) {
+        if (writes != null) {
+            writes.forEach(write -> write.accept(index));
+        }
+        writes = null;
+    }
+
+    /**
+     * Stop recording, when the words could not be loaded.
+     */
+    void stop() {
+        writes = null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.service.dto.WordSuggestionDTO;
+
+import static com.willbe.wordl.service.util.TransactionUtil.afterCommit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service class suggesting the words of the wordInfos closest to a misspelled word, such as {@code receive} for {@code recieve}.
+ * <p>
+ * The words are indexed in memory by a {@link SymSpellIndex}, loaded at startup by the {@link WordInfoIndexLoader}, then updated as wordInfos
+ * are written, so correcting a word needs neither a query nor Elasticsearch.
+ */
+@Service
+public class WordSuggestionService implements WordInfoIndex {
+
+    /**
+     * The maximum number of letters to insert, delete, replace or swap to go from a misspelled word to a suggestion.
+     */
+    public static final int MAX_DISTANCE = 2;
+
+    /**
+     * The number of first letters of the words which are indexed: longer words are only found by their first letters,
+     * which keeps the index small at the cost of missing some suggestions with several errors in those letters.
+     */
+    private static final int PREFIX_LENGTH = 7;
+
+    private final Logger log = LoggerFactory.getLogger(WordSuggestionService.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final WordInfoIndexWrites<SymSpellIndex> writes = new WordInfoIndexWrites<>();
+
+    private SymSpellIndex index = new SymSpellIndex(MAX_DISTANCE, PREFIX_LENGTH);
+
+    /**
+     * Get the words closest to a possibly misspelled one.
+     *
+     * @param query the word to correct, case insensitive.
+     * @param limit the maximum number of words to return.
+     * @return the wordInfos of the words within {@value #MAX_DISTANCE} edits of the query, closest first,
+     * then in alphabetical order.
+     */
+    public List<WordSuggestionDTO> suggest(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.suggest(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index or index again the word of a wordInfo, once the current transaction is committed.
+     *
+     * @param wordInfo the created or updated wordInfo.
+     */
+    public void putAfterCommit(WordInfo wordInfo) {
+        Long id = wordInfo.getId();
+        String word = wordInfo.getWord();
+        afterCommit(() -> put(id, word));
+    }
+
+    /**
+     * Remove the word of a wordInfo from the index, once the current transaction is committed.
+     *
+     * @param id the id of the deleted wordInfo.
+     */
+    public void removeAfterCommit(Long id) {
+        afterCommit(() -> put(id, null));
+    }
+
+    @Override
+    public synchronized void startLoading() {
+        writes.start();
+    }
+
+    @Override
+    public synchronized void loadAll(long[] ids, String[] words) {
+        SymSpellIndex loaded = new SymSpellIndex(MAX_DISTANCE, PREFIX_LENGTH);
+        for (int i = 0; i < ids.length; i++) {
+            loaded.put(ids[i], words[i]);
+        }
+        writes.replay(loaded);
+        lock.writeLock().lock();
+        try {
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Indexed the words of {} wordInfos for suggestions", loaded.size());
+    }
+
+    @Override
+    public synchronized void cancelLoading() {
+        writes.stop();
+    }
+
+    private synchronized void put(Long id, String word) {
+        lock.writeLock().lock();
+        try {
+            index.put(id, word);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        writes.record(loaded -> loaded.put(id, word));
+    }
+}
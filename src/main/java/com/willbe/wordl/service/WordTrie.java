@@ -0,0 +1,284 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.WordCompletionDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The words of the wordInfos in a prefix trie, completing a prefix with its most thumbed words first.
+ * <p>
+ * Every node remembers the highest thumb count below it, so a completion only visits the branches holding its results
+ * instead of the whole subtree of the prefix. The children of a node are a small array sorted by character rather than a map.
+ * <p>
+ * Writers copy the arrays of the nodes they change under the lock of this object, readers only dereference the current arrays.
+ */
+class WordTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.<Candidate>comparingLong(candidate -> candidate.thumbs).reversed()
+        .thenComparing(candidate -> candidate.key)
+        .thenComparingLong(candidate -> candidate.completion == null ? Long.MIN_VALUE : candidate.completion.id);
+
+    private final Node root = new Node('\0');
+
+    private final Map<Long, Completion> completions = new HashMap<>();
+
+    /**
+     * @param prefix the prefix to complete, case insensitive.
+     * @param limit the maximum number of words to return.
+     * @return the words starting with the prefix, most thumbed first, then in alphabetical order.
+     */
+    List<WordCompletionDTO> complete(String prefix, int limit) {
+        String key = key(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<WordCompletionDTO> result = new ArrayList<>(Math.min(limit, 16));
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BEST_FIRST);
+        candidates.add(new Candidate(node.best, key, node, null));
+        while (result.size() < limit && !candidates.isEmpty()) {
+            Candidate candidate = candidates.poll();
+            if (candidate.completion != null) {
+                result.add(new WordCompletionDTO(candidate.completion.id, candidate.completion.word, candidate.thumbs));
+                continue;
+            }
+            for (Completion completion : candidate.node.completions) {
+                candidates.add(new Candidate(completion.thumbs, candidate.key, null, completion));
+            }
+            for (Node child : candidate.node.children) {
+                long best = child.best;
+                if (best >= 0) {
+                    candidates.add(new Candidate(best, candidate.key + child.label, child, null));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add or rename the word of a wordInfo, keeping its thumb count.
+     *
+     * @param id the id of the wordInfo.
+     * @param word the word of the wordInfo, {@code null} to remove the wordInfo.
+     */
+    synchronized void put(Long id, String word) {
+        Completion previous = completions.get(id);
+        if (previous != null && previous.word.equals(word)) {
+            return;
+        }
+        long thumbs = 0;
+        if (previous != null) {
+            thumbs = previous.thumbs;
+            unlink(previous);
+            completions.remove(id);
+        }
+        if (word != null) {
+            Completion completion = new Completion(id, word, thumbs);
+            completions.put(id, completion);
+            link(completion);
+        }
+    }
+
+    /**
+     * @param id the id of the wordInfo to remove.
+     */
+    synchronized void remove(Long id) {
+        Completion previous = completions.remove(id);
+        if (previous != null) {
+            unlink(previous);
+        }
+    }
+
+    /**
+     * @param id the id of the wordInfo, ignored if its word is unknown.
+     * @param thumbs the number of thumbs to add to the wordInfo.
+     */
+    synchronized void addThumbs(Long id, long thumbs) {
+        Completion completion = completions.get(id);
+        if (completion == null) {
+            return;
+        }
+        completion.thumbs += thumbs;
+        for (Node node : path(key(completion.word))) {
+            node.best = Math.max(node.best, completion.thumbs);
+        }
+    }
+
+    synchronized int size() {
+        return completions.size();
+    }
+
+    private void link(Completion completion) {
+        String key = key(completion.word);
+        Node node = root;
+        node.best = Math.max(node.best, completion.thumbs);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.charAt(i));
+                node.addChild(child);
+            }
+            node = child;
+            node.best = Math.max(node.best, completion.thumbs);
+        }
+        Completion[] current = node.completions;
+        Completion[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = completion;
+        node.completions = updated;
+    }
+
+    private void unlink(Completion completion) {
+        List<Node> path = path(key(completion.word));
+        Node node = path.get(path.size() - 1);
+        node.completions = Arrays.stream(node.completions).filter(other -> other != completion).toArray(Completion[]::new);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            node = path.get(i);
+            if (i > 0 && node.completions.length == 0 && node.children.length == 0) {
+                path.get(i - 1).removeChild(node);
+            }
+            long best = -1;
+            for (Completion other : node.completions) {
+                best = Math.max(best, other.thumbs);
+            }
+            for (Node child : node.children) {
+                best = Math.max(best, child.best);
+            }
+            node.best = best;
+        }
+    }
+
+    /**
+     * @return the nodes from the root to the node of the key, which must be linked.
+     */
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static String key(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+
+        private final char label;
+
+        /**
+         * The children, sorted by label.
+         */
+        private volatile Node[] children = NO_CHILDREN;
+
+        /**
+         * The words ending at this node, several ones only when they differ by their case.
+         */
+        private volatile Completion[] completions = NO_COMPLETIONS;
+
+        /**
+         * The highest thumb count of the words below this node, {@code -1} if there is none.
+         */
+        private volatile long best = -1;
+
+        private Node(char label) {
+            this.label = label;
+        }
+
+        private Node child(char label) {
+            Node[] current = children;
+            int index = indexOf(current, label);
+            return index < 0 ? null : current[index];
+        }
+
+        private void addChild(Node child) {
+            Node[] current = children;
+            int index = -indexOf(current, child.label) - 1;
+            Node[] updated = new Node[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            updated[index] = child;
+            System.arraycopy(current, index, updated, index + 1, current.length - index);
+            children = updated;
+        }
+
+        private void removeChild(Node child) {
+            Node[] current = children;
+            int index = indexOf(current, child.label);
+            Node[] updated = new Node[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            children = updated;
+        }
+
+        private static int indexOf(Node[] nodes, char label) {
+            int low = 0;
+            int high = nodes.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char other = nodes[middle].label;
+                if (other < label) {
+                    low = middle + 1;
+                } else if (other > label) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    private static final class Completion {
+
+        private final Long id;
+
+        private final String word;
+
+        private volatile long thumbs;
+
+        private Completion(Long id, String word, long thumbs) {
+            this.id = id;
+            this.word = word;
+            this.thumbs = thumbs;
+        }
+    }
+
+    /**
+     * A node or a word waiting to be visited by a completion, with the thumb count it was queued with.
+     */
+    private static final class Candidate {
+
+        private final long thumbs;
+
+        private final String key;
+
+        private final Node node;
+
+        private final Completion completion;
+
+        private Candidate(long thumbs, String key, Node node, Completion completion) {
+            this.thumbs = thumbs;
+            this.key = key;
+            this.node = node;
+            this.completion = completion;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * The result of one line of a bulk request.
+ */
+public class BulkItemResultDTO {
+
+    private final long line;
+
+    private final int status;
+
+    private final Long id;
+
+    private final String error;
+
+    public BulkItemResultDTO(long line, int status, Long id, String error) {
+        this.line = line;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    /**
+     * @return the number of the line in the request, starting at 1.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * @return the HTTP status the line would have got as a single request.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the id of the created record, if any.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the reason why the line was rejected, if any.
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkItemResultDTO{" +
+            "line=" + line +
+            ", status=" + status +
+            ", id=" + id +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,37 @@
+package com.willbe.wordl.service.dto;
+
+import java.util.List;
+
+/**
+ * A DTO representing the wordInfos matching a query over their morphemes.
+ */
+public class CategoryMatchesDTO {
+
+    private final long total;
+
+    private final List<Long> wordInfoIds;
+
+    public CategoryMatchesDTO(long total, List<Long> wordInfoIds) {
+        this.total = total;
+        this.wordInfoIds = wordInfoIds;
+    }
+
+    /**
+     * @return the number of matching wordInfos, which may be more than the returned ids.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public List<Long> getWordInfoIds() {
+        return wordInfoIds;
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryMatchesDTO{" +
+            "total=" + total +
+            ", wordInfoIds=" + wordInfoIds +
+            "}";
+    }
+}
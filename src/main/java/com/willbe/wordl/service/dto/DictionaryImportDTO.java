@@ -0,0 +1,57 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * A DTO representing the outcome of the import of a dictionary file.
+ */
+public class DictionaryImportDTO {
+
+    private final long read;
+
+    private final long imported;
+
+    private final long skipped;
+
+    private final long failed;
+
+    public DictionaryImportDTO(long read, long imported, long skipped, long failed) {
+        this.read = read;
+        this.imported = imported;
+        this.skipped = skipped;
+        this.failed = failed;
+    }
+
+    /**
+     * @return the number of non-blank rows of the file.
+     */
+    public long getRead() {
+        return read;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * @return the number of rows not imported, because they were invalid, already existed, or referenced an unknown word.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return the number of rows not imported because the database rejected their chunk.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return "DictionaryImportDTO{" +
+            "read=" + read +
+            ", imported=" + imported +
+            ", skipped=" + skipped +
+            ", failed=" + failed +
+            "}";
+    }
+}
@@ -0,0 +1,48 @@
+package com.willbe.wordl.service.dto;
+
+import com.willbe.wordl.domain.enumeration.Category;
+
+/**
+ * A DTO representing a part of a word, such as its prefix.
+ */
+public class MorphemeDTO {
+
+    private final String text;
+
+    private final Category category;
+
+    private final int start;
+
+    public MorphemeDTO(String text, Category category, int start) {
+        this.text = text;
+        this.category = category;
+        this.start = start;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the category of the morpheme, or {@code null} if the part matches no categoryWord.
+     */
+    public Category getCategory() {
+        return category;
+    }
+
+    /**
+     * @return the index of the first letter of the part in the word.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    @Override
+    public String toString() {
+        return "MorphemeDTO{" +
+            "text='" + text + "'" +
+            ", category=" + category +
+            ", start=" + start +
+            "}";
+    }
+}
@@ -0,0 +1,131 @@
+package com.willbe.wordl.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A DTO representing the progress of the rebuild of an Elasticsearch index.
+ */
+public class ReindexProgressDTO {
+
+    private final String indexName;
+
+    private final String targetIndex;
+
+    private final Status status;
+
+    private final long total;
+
+    private final long indexed;
+
+    private final long failed;
+
+    private final Instant startDate;
+
+    private final Instant endDate;
+
+    private final double documentsPerSecond;
+
+    private final String error;
+
+    public ReindexProgressDTO(String indexName, String targetIndex, Status status, long total, long indexed, long failed,
+                              Instant startDate, Instant endDate, double documentsPerSecond, String error) {
+        this.indexName = indexName;
+        this.targetIndex = targetIndex;
+        this.status = status;
+        this.total = total;
+        this.indexed = indexed;
+        this.failed = failed;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.documentsPerSecond = documentsPerSecond;
+        this.error = error;
+    }
+
+    /**
+     * @return the name of the alias the searches use.
+     */
+    public String getIndexName() {
+        return indexName;
+    }
+
+    /**
+     * @return the name of the versioned index being written, {@code null} until the rebuild starts.
+     */
+    public String getTargetIndex() {
+        return targetIndex;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the number of entities in the database when the rebuild started.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getIndexed() {
+        return indexed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * @return the number of documents indexed per second since the rebuild started, until it ended.
+     */
+    public double getDocumentsPerSecond() {
+        return documentsPerSecond;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "ReindexProgressDTO{" +
+            "indexName='" + indexName + "'" +
+            ", targetIndex='" + targetIndex + "'" +
+            ", status=" + status +
+            ", total=" + total +
+            ", indexed=" + indexed +
+            ", failed=" + failed +
+            ", startDate=" + startDate +
+            ", endDate=" + endDate +
+            ", documentsPerSecond=" + documentsPerSecond +
+            ", error='" + error + "'" +
+            "}";
+    }
+
+    public enum Status {
+
+        /**
+         * Waiting for the rebuild of the previous indices.
+         */
+        PENDING,
+
+        RUNNING,
+
+        /**
+         * The alias was moved to the new index.
+         */
+        COMPLETED,
+
+        /**
+         * The new index was deleted, the alias still points to the previous one.
+         */
+        FAILED
+    }
+}
@@ -0,0 +1,67 @@
+package com.willbe.wordl.service.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A DTO representing a word of the review queue of a user.
+ */
+public class ReviewItemDTO {
+
+    private final Long wordInfoId;
+
+    private final String word;
+
+    private final LocalDate dueDate;
+
+    private final int intervalDays;
+
+    private final int repetitions;
+
+    public ReviewItemDTO(Long wordInfoId, String word, LocalDate dueDate, int intervalDays, int repetitions) {
+        this.wordInfoId = wordInfoId;
+        this.word = word;
+        this.dueDate = dueDate;
+        this.intervalDays = intervalDays;
+        this.repetitions = repetitions;
+    }
+
+    public Long getWordInfoId() {
+        return wordInfoId;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * @return the day from which the word is due for review.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * @return the number of days between the last review and the due date.
+     */
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    /**
+     * @return the number of reviews in a row made on time, since the first one or the last lapse.
+     */
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewItemDTO{" +
+            "wordInfoId=" + wordInfoId +
+            ", word='" + word + "'" +
+            ", dueDate=" + dueDate +
+            ", intervalDays=" + intervalDays +
+            ", repetitions=" + repetitions +
+            "}";
+    }
+}
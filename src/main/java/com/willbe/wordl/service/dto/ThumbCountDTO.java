@@ -0,0 +1,44 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * A DTO representing the current thumb count of a thumb record, including the thumbs not flushed yet.
+ */
+public class ThumbCountDTO {
+
+    private Long id;
+
+    private long thumbNum;
+
+    public ThumbCountDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ThumbCountDTO(Long id, long thumbNum) {
+        this.id = id;
+        this.thumbNum = thumbNum;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getThumbNum() {
+        return thumbNum;
+    }
+
+    public void setThumbNum(long thumbNum) {
+        this.thumbNum = thumbNum;
+    }
+
+    @Override
+    public String toString() {
+        return "ThumbCountDTO{" +
+            "id=" + id +
+            ", thumbNum=" + thumbNum +
+            "}";
+    }
+}
@@ -0,0 +1,71 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * A DTO representing the outcome of a rebuild of the thumb counts from the thumb journals.
+ */
+public class ThumbRebuildDTO {
+
+    private final int journals;
+
+    private final long records;
+
+    private final long corruptRecords;
+
+    private final long wordThumbInfos;
+
+    private final long userThumbInfos;
+
+    public ThumbRebuildDTO(int journals, long records, long corruptRecords, long wordThumbInfos, long userThumbInfos) {
+        this.journals = journals;
+        this.records = records;
+        this.corruptRecords = corruptRecords;
+        this.wordThumbInfos = wordThumbInfos;
+        this.userThumbInfos = userThumbInfos;
+    }
+
+    /**
+     * @return the number of journals replayed.
+     */
+    public int getJournals() {
+        return journals;
+    }
+
+    /**
+     * @return the number of valid records read from the journals.
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return the number of records which did not match their checksum, and were skipped.
+     */
+    public long getCorruptRecords() {
+        return corruptRecords;
+    }
+
+    /**
+     * @return the number of wordThumbInfos whose count was rewritten.
+     */
+    public long getWordThumbInfos() {
+        return wordThumbInfos;
+    }
+
+    /**
+     * @return the number of userThumbInfos whose count was rewritten.
+     */
+    public long getUserThumbInfos() {
+        return userThumbInfos;
+    }
+
+    @Override
+    public String toString() {
+        return "ThumbRebuildDTO{" +
+            "journals=" + journals +
+            ", records=" + records +
+            ", corruptRecords=" + corruptRecords +
+            ", wordThumbInfos=" + wordThumbInfos +
+            ", userThumbInfos=" + userThumbInfos +
+            "}";
+    }
+}
@@ -0,0 +1,49 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * A DTO representing the outcome of a reconciliation of the wordThumbInfo thumb totals with their userThumbInfos.
+ */
+public class ThumbReconciliationDTO {
+
+    private final long checkedWordThumbInfos;
+
+    private final long correctedWordThumbInfos;
+
+    private final long drift;
+
+    public ThumbReconciliationDTO(long checkedWordThumbInfos, long correctedWordThumbInfos, long drift) {
+        this.checkedWordThumbInfos = checkedWordThumbInfos;
+        this.correctedWordThumbInfos = correctedWordThumbInfos;
+        this.drift = drift;
+    }
+
+    /**
+     * @return the number of wordThumbInfos compared with their userThumbInfos.
+     */
+    public long getCheckedWordThumbInfos() {
+        return checkedWordThumbInfos;
+    }
+
+    /**
+     * @return the number of wordThumbInfos whose total was corrected.
+     */
+    public long getCorrectedWordThumbInfos() {
+        return correctedWordThumbInfos;
+    }
+
+    /**
+     * @return the sum of the absolute corrections.
+     */
+    public long getDrift() {
+        return drift;
+    }
+
+    @Override
+    public String toString() {
+        return "ThumbReconciliationDTO{" +
+            "checkedWordThumbInfos=" + checkedWordThumbInfos +
+            ", correctedWordThumbInfos=" + correctedWordThumbInfos +
+            ", drift=" + drift +
+            "}";
+    }
+}
@@ -0,0 +1,43 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * A DTO representing one of the best-voted pictures of a wordInfo.
+ */
+public class TopPictureDTO {
+
+    private final Long id;
+
+    private final String picUrl;
+
+    private final long thumbNum;
+
+    public TopPictureDTO(Long id, String picUrl, long thumbNum) {
+        this.id = id;
+        this.picUrl = picUrl;
+        this.thumbNum = thumbNum;
+    }
+
+    /**
+     * @return the id of the wordThumbInfo.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public String getPicUrl() {
+        return picUrl;
+    }
+
+    public long getThumbNum() {
+        return thumbNum;
+    }
+
+    @Override
+    public String toString() {
+        return "TopPictureDTO{" +
+            "id=" + id +
+            ", picUrl='" + picUrl + "'" +
+            ", thumbNum=" + thumbNum +
+            "}";
+    }
+}
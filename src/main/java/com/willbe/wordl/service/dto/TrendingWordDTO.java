@@ -0,0 +1,40 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * A DTO representing a wordInfo of the trending list, with its estimated number of thumbs in the window.
+ */
+public class TrendingWordDTO {
+
+    private final Long id;
+
+    private final String word;
+
+    private final long thumbs;
+
+    public TrendingWordDTO(Long id, String word, long thumbs) {
+        this.id = id;
+        this.word = word;
+        this.thumbs = thumbs;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public long getThumbs() {
+        return thumbs;
+    }
+
+    @Override
+    public String toString() {
+        return "TrendingWordDTO{" +
+            "id=" + id +
+            ", word='" + word + "'" +
+            ", thumbs=" + thumbs +
+            "}";
+    }
+}
@@ -0,0 +1,59 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * A DTO representing a userThumbInfo in the thumb history of its clicker.
+ */
+public class UserThumbHistoryDTO {
+
+    private final Long id;
+
+    private final String word;
+
+    private final Integer thumbNum;
+
+    private final String picUrl;
+
+    private final String thumbLid;
+
+    public UserThumbHistoryDTO(Long id, String word, Integer thumbNum, String picUrl, String thumbLid) {
+        this.id = id;
+        this.word = word;
+        this.thumbNum = thumbNum;
+        this.picUrl = picUrl;
+        this.thumbLid = thumbLid;
+    }
+
+    /**
+     * @return the id of the userThumbInfo, also the cursor of the next page of the history.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public Integer getThumbNum() {
+        return thumbNum;
+    }
+
+    public String getPicUrl() {
+        return picUrl;
+    }
+
+    public String getThumbLid() {
+        return thumbLid;
+    }
+
+    @Override
+    public String toString() {
+        return "UserThumbHistoryDTO{" +
+            "id=" + id +
+            ", word='" + word + "'" +
+            ", thumbNum=" + thumbNum +
+            ", picUrl='" + picUrl + "'" +
+            ", thumbLid='" + thumbLid + "'" +
+            "}";
+    }
+}
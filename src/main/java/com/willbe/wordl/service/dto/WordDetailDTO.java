@@ -0,0 +1,78 @@
+package com.willbe.wordl.service.dto;
+
+import com.willbe.wordl.domain.CategoryWord;
+
+import java.util.List;
+
+/**
+ * A DTO representing everything shown on the card of a wordInfo.
+ */
+public class WordDetailDTO {
+
+    private final Long id;
+
+    private final String word;
+
+    private final List<TopPictureDTO> pictures;
+
+    private final List<CategoryWord> categoryWords;
+
+    private final List<MorphemeDTO> morphemes;
+
+    private final List<UserThumbHistoryDTO> userThumbInfos;
+
+    public WordDetailDTO(Long id, String word, List<TopPictureDTO> pictures, List<CategoryWord> categoryWords,
+                         List<MorphemeDTO> morphemes, List<UserThumbHistoryDTO> userThumbInfos) {
+        this.id = id;
+        this.word = word;
+        this.pictures = pictures;
+        this.categoryWords = categoryWords;
+        this.morphemes = morphemes;
+        this.userThumbInfos = userThumbInfos;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * @return the wordThumbInfos of the wordInfo, best-voted first.
+     */
+    public List<TopPictureDTO> getPictures() {
+        return pictures;
+    }
+
+    /**
+     * @return the categoryWords of the same word.
+     */
+    public List<CategoryWord> getCategoryWords() {
+        return categoryWords;
+    }
+
+    public List<MorphemeDTO> getMorphemes() {
+        return morphemes;
+    }
+
+    /**
+     * @return the userThumbInfos of the current user on the word, most recent first.
+     */
+    public List<UserThumbHistoryDTO> getUserThumbInfos() {
+        return userThumbInfos;
+    }
+
+    @Override
+    public String toString() {
+        return "WordDetailDTO{" +
+            "id=" + id +
+            ", word='" + word + "'" +
+            ", pictures=" + pictures +
+            ", categoryWords=" + categoryWords +
+            ", morphemes=" + morphemes +
+            ", userThumbInfos=" + userThumbInfos +
+            "}";
+    }
+}
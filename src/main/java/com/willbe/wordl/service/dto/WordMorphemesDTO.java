@@ -0,0 +1,42 @@
+package com.willbe.wordl.service.dto;
+
+import java.util.List;
+
+/**
+ * A DTO representing a wordInfo split into its morphemes.
+ */
+public class WordMorphemesDTO {
+
+    private final Long id;
+
+    private final String word;
+
+    private final List<MorphemeDTO> morphemes;
+
+    public WordMorphemesDTO(Long id, String word, List<MorphemeDTO> morphemes) {
+        this.id = id;
+        this.word = word;
+        this.morphemes = morphemes;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public List<MorphemeDTO> getMorphemes() {
+        return morphemes;
+    }
+
+    @Override
+    public String toString() {
+        return "WordMorphemesDTO{" +
+            "id=" + id +
+            ", word='" + word + "'" +
+            ", morphemes=" + morphemes +
+            "}";
+    }
+}
@@ -0,0 +1,43 @@
+package com.willbe.wordl.service.dto;
+
+/**
+ * A DTO representing a wordInfo suggested as the correction of a misspelled word.
+ */
+public class WordSuggestionDTO {
+
+    private final Long id;
+
+    private final String word;
+
+    private final int distance;
+
+    public WordSuggestionDTO(Long id, String word, int distance) {
+        this.id = id;
+        this.word = word;
+        this.distance = distance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * @return the number of letters to insert, delete, replace or swap to go from the misspelled word to this one.
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "WordSuggestionDTO{" +
+            "id=" + id +
+            ", word='" + word + "'" +
+            ", distance=" + distance +
+            "}";
+    }
+}
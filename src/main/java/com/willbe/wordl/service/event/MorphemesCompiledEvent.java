@@ -0,0 +1,46 @@
+package com.willbe.wordl.service.event;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Published when the morphemes of the categoryWords are compiled again, so that words may split differently.
+ */
+public class MorphemesCompiledEvent {
+
+    private final int morphemes;
+
+    private final Set<String> changedMorphemes;
+
+    /**
+     * @param morphemes the number of distinct morphemes compiled.
+     * @param changedMorphemes the morphemes added or removed, lower case, {@code null} if all of them were loaded again.
+     */
+    public MorphemesCompiledEvent(int morphemes, Set<String> changedMorphemes) {
+        this.morphemes = morphemes;
+        this.changedMorphemes = changedMorphemes == null ? null : Collections.unmodifiableSet(changedMorphemes);
+    }
+
+    /**
+     * @return the number of distinct morphemes compiled.
+     */
+    public int getMorphemes() {
+        return morphemes;
+    }
+
+    /**
+     * @return the morphemes added or removed, lower case: only the words containing one of them may split differently.
+     * {@code null} if all of them were loaded again, so that any word may split differently.
+     */
+    public Set<String> getChangedMorphemes() {
+        return changedMorphemes;
+    }
+
+    @Override
+    public String toString() {
+        return "MorphemesCompiledEvent{" +
+            "morphemes=" + morphemes +
+            ", changedMorphemes=" + changedMorphemes +
+            "}";
+    }
+}
@@ -0,0 +1,55 @@
+package com.willbe.wordl.service.event;
+
+/**
+ * Published when a thumb is added to a wordThumbInfo.
+ * <p>
+ * Listeners run on the thumbing request thread, so they must stay cheap.
+ */
+public class WordThumbEvent {
+
+    private final Long wordThumbInfoId;
+
+    private final Long wordInfoId;
+
+    private final String picUrl;
+
+    private final long thumbNum;
+
+    public WordThumbEvent(Long wordThumbInfoId, Long wordInfoId, String picUrl, long thumbNum) {
+        this.wordThumbInfoId = wordThumbInfoId;
+        this.wordInfoId = wordInfoId;
+        this.picUrl = picUrl;
+        this.thumbNum = thumbNum;
+    }
+
+    public Long getWordThumbInfoId() {
+        return wordThumbInfoId;
+    }
+
+    /**
+     * @return the id of the wordInfo of the wordThumbInfo, or {@code null} if it has none.
+     */
+    public Long getWordInfoId() {
+        return wordInfoId;
+    }
+
+    public String getPicUrl() {
+        return picUrl;
+    }
+
+    /**
+     * @return the thumb count of the wordThumbInfo after this thumb, including the thumbs not flushed yet.
+     */
+    public long getThumbNum() {
+        return thumbNum;
+    }
+
+    @Override
+    public String toString() {
+        return "WordThumbEvent{" +
+            "wordThumbInfoId=" + wordThumbInfoId +
+            ", wordInfoId=" + wordInfoId +
+            ", thumbNum=" + thumbNum +
+            "}";
+    }
+}
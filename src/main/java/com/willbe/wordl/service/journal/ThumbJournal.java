@@ -0,0 +1,410 @@
+package com.willbe.wordl.service.journal;
+
+import com.willbe.wordl.config.ApplicationProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of every thumb, written to memory-mapped segment files.
+ * <p>
+ * Each thumb is a fixed-size record written to a slot reserved atomically, so that concurrent thumbs never wait
+ * on each other; a segment is rolled to a new file once all its slots are reserved. A record is:
+ * <pre>
+ * offset  0: long timestamp, in milliseconds since the epoch
+ * offset  8: long id of the thumbed record
+ * offset 16: long flush generation of the thumb
+ * offset 24: int  {@link Target} of the thumb
+ * offset 28: int  CRC32 of the 28 previous bytes
+ * </pre>
+ * Every thumb is counted in a flush generation, entered with {@link #enter()} before it is appended and counted
+ * in memory. The counters of a generation are written to the database once {@link #nextGeneration()} returned it,
+ * along with the generation as the checkpoint of the journal, so that on recovery the records of the later
+ * generations are known to be missing from the database. The generations follow the clock, so that those of a
+ * restarted application are higher than those written before.
+ * <p>
+ * The records reach the file system as soon as they are written, and the disk when {@link #force()} is called. A
+ * record torn by a crash fails its checksum, and a slot reserved but never written stays empty: both are skipped
+ * by {@link ThumbJournalReplayer}. Once all its records are in the database, a segment is deleted by
+ * {@link #checkpoint(long)}, except the last {@code application.journal.retained-segments} ones, or all of them if
+ * it is {@code -1}: only a journal which kept all its segments can rebuild the counts from scratch.
+ * <p>
+ * When the journal is disabled, nothing is written but the flush generations are still counted.
+ */
+@Service
+public class ThumbJournal {
+
+    static final int RECORD_SIZE = 32;
+
+    static final String SEGMENT_PREFIX = "thumbs-";
+
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final String ID_FILE = "journal.id";
+
+    private final Logger log = LoggerFactory.getLogger(ThumbJournal.class);
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final int segmentRecords;
+
+    private final int retainedSegments;
+
+    private final LongAdder[] inFlight = {new LongAdder(), new LongAdder()};
+
+    private volatile long generation = System.currentTimeMillis();
+
+    private final long startGeneration = generation;
+
+    /**
+     * The index of the next record, counted from the first record of the first segment opened by this instance.
+     */
+    private final AtomicLong nextRecord = new AtomicLong();
+
+    private final ConcurrentMap<Long, Segment> segments = new ConcurrentHashMap<>();
+
+    /**
+     * The segments no longer written, mapped to the highest generation of their records.
+     */
+    private final NavigableMap<Long, Long> closedSegments = new TreeMap<>();
+
+    private long firstSequence;
+
+    private String id;
+
+    @Autowired
+    public ThumbJournal(ApplicationProperties applicationProperties) {
+        this(applicationProperties.getJournal().isEnabled(), Paths.get(applicationProperties.getJournal().getDirectory()),
+            applicationProperties.getJournal().getSegmentSize(), applicationProperties.getJournal().getRetainedSegments());
+    }
+
+    ThumbJournal(boolean enabled, Path directory, long segmentSize, int retainedSegments) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentRecords = (int) Math.min(segmentSize / RECORD_SIZE, Integer.MAX_VALUE / RECORD_SIZE);
+        this.retainedSegments = retainedSegments;
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("The journal segments must hold at least one record: " + segmentSize);
+        }
+    }
+
+    /**
+     * What a thumb was added to.
+     */
+    public enum Target {
+        WORD_THUMB_INFO(1),
+        USER_THUMB_INFO(2);
+
+        private final int code;
+
+        Target(int code) {
+            this.code = code;
+        }
+
+        int getCode() {
+            return code;
+        }
+
+        static Target of(int code) {
+            for (Target target : values()) {
+                if (target.code == code) {
+                    return target;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Open a new segment after the existing ones, which are left to the recovery.
+     *
+     * @throws IOException if the journal cannot be opened.
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Path idFile = directory.resolve(ID_FILE);
+        if (!Files.exists(idFile)) {
+            Files.write(idFile, UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW);
+        }
+        id = readId(directory);
+        List<Path> existing = ThumbJournalReplayer.listSegments(directory);
+        // the records written before have lower generations than this instance
+        existing.forEach(segment -> closedSegments.put(sequenceOf(segment), startGeneration - 1));
+        firstSequence = existing.isEmpty() ? 0 : sequenceOf(existing.get(existing.size() - 1)) + 1;
+        segment(firstSequence);
+        log.info("Appending thumbs to the journal {} in {}, after {} segments to recover", id, segmentPath(firstSequence), existing.size());
+    }
+
+    /**
+     * Read the identifier of a journal, kept in its directory.
+     *
+     * @param directory the directory of the journal.
+     * @return the identifier.
+     * @throws IOException if the directory holds no journal.
+     */
+    public static String readId(Path directory) throws IOException {
+        return new String(Files.readAllBytes(directory.resolve(ID_FILE)), StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * @return whether the thumbs are written to the journal.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the identifier of the journal, kept in its directory, {@code null} if it is disabled.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the directory of the segment files.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the first generation of this instance: the records of the lower ones were written before it started.
+     */
+    public long getStartGeneration() {
+        return startGeneration;
+    }
+
+    /**
+     * Enter the current flush generation, before appending a thumb and counting it in the memory of that generation.
+     *
+     * @return the generation, to be passed to {@link #append(Target, long, long)} and {@link #exit(long)}.
+     */
+    public long enter() {
+        while (true) {
+            long current = generation;
+            LongAdder adder = inFlight[parity(current)];
+            adder.increment();
+            // the generation did not move before the thumb was registered, so its flush waits for it
+            if (generation == current) {
+                return current;
+            }
+            adder.decrement();
+        }
+    }
+
+    /**
+     * Exit a generation once its thumb is appended and counted.
+     *
+     * @param generation the generation returned by {@link #enter()}.
+     */
+    public void exit(long generation) {
+        inFlight[parity(generation)].decrement();
+    }
+
+    /**
+     * Start a new flush generation, and wait for the thumbs of the previous one to be counted.
+     * <p>
+     * The new generation has another parity than the previous one, so that the counters of the two can be kept apart.
+     * Must not be called concurrently.
+     *
+     * @return the previous generation, whose thumbs are all counted.
+     */
+    public long nextGeneration() {
+        long previous = generation;
+        long next = Math.max(previous + 1, System.currentTimeMillis());
+        generation = parity(next) == parity(previous) ? next + 1 : next;
+        while (inFlight[parity(previous)].sum() != 0) {
+            Thread.yield();
+        }
+        return previous;
+    }
+
+    /**
+     * Append a thumb to the journal. Does nothing if the journal is disabled.
+     *
+     * @param target what the thumb was added to.
+     * @param id the id of the thumbed record.
+     * @param generation the generation returned by {@link #enter()}.
+     */
+    public void append(Target target, long id, long generation) {
+        if (!enabled) {
+            return;
+        }
+        long index = nextRecord.getAndIncrement();
+        MappedByteBuffer buffer = segment(firstSequence + index / segmentRecords).buffer;
+        int offset = (int) (index % segmentRecords) * RECORD_SIZE;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(System.currentTimeMillis()).putLong(id).putLong(generation).putInt(target.getCode());
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, RECORD_SIZE - Integer.BYTES);
+        record.putInt((int) crc.getValue());
+        // absolute writes, as other threads are writing the other slots of the segment
+        buffer.putLong(offset, record.getLong(0));
+        buffer.putLong(offset + 8, record.getLong(8));
+        buffer.putLong(offset + 16, record.getLong(16));
+        buffer.putInt(offset + 24, record.getInt(24));
+        // the checksum last, so that a record torn by a crash is never valid
+        buffer.putInt(offset + 28, record.getInt(28));
+    }
+
+    /**
+     * Write the appended records to the disk.
+     */
+    public void force() {
+        segments.values().forEach(segment -> segment.buffer.force());
+    }
+
+    /**
+     * Delete the segments whose records are all in the database, keeping the last
+     * {@code application.journal.retained-segments} of them, or all of them if it is {@code -1}.
+     *
+     * @param flushedGeneration the last generation written to the database.
+     */
+    public synchronized void checkpoint(long flushedGeneration) {
+        List<Long> applied = new ArrayList<>();
+        for (Map.Entry<Long, Long> closedSegment : closedSegments.entrySet()) {
+            if (closedSegment.getValue() > flushedGeneration) {
+                break;
+            }
+            applied.add(closedSegment.getKey());
+        }
+        int deleted = retainedSegments < 0 ? 0 : Math.max(0, applied.size() - retainedSegments);
+        for (Long sequence : applied.subList(0, deleted)) {
+            try {
+                Files.deleteIfExists(segmentPath(sequence));
+            } catch (IOException e) {
+                log.warn("Could not delete the thumb journal segment {}: {}", segmentPath(sequence), e.getMessage());
+                continue;
+            }
+            closedSegments.remove(sequence);
+            Segment segment = segments.remove(sequence);
+            if (segment != null) {
+                closeQuietly(segment);
+            }
+        }
+        // the retained segments are no longer written, only read again by a replay
+        for (Long sequence : applied.subList(deleted, applied.size())) {
+            Segment segment = segments.remove(sequence);
+            if (segment != null) {
+                closeQuietly(segment);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        force();
+        segments.values().forEach(this::closeQuietly);
+        segments.clear();
+    }
+
+    private Segment segment(long sequence) {
+        Segment segment = segments.get(sequence);
+        return segment != null ? segment : roll(sequence);
+    }
+
+    private synchronized Segment roll(long sequence) {
+        Segment segment = segments.get(sequence);
+        if (segment != null) {
+            return segment;
+        }
+        try {
+            FileChannel channel = FileChannel.open(segmentPath(sequence), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            segment = new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll the thumb journal", e);
+        }
+        segments.put(sequence, segment);
+        if (sequence > firstSequence) {
+            // the records of the previous segment reserved their slot after entering their generation, before this one
+            closedSegments.put(sequence - 1, generation);
+            log.debug("Rolled the thumb journal to {}", segmentPath(sequence));
+        }
+        return segment;
+    }
+
+    private void closeQuietly(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close a thumb journal segment: {}", e.getMessage());
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    private static int parity(long generation) {
+        return (int) (generation & 1);
+    }
+
+    static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * @param record the bytes of a record.
+     * @return {@code true} if no record was ever written there: a crashed write leaves non-zero bytes.
+     */
+    static boolean isEmpty(byte[] record) {
+        for (byte b : record) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param record the bytes of a record.
+     * @param crc the checksum to compute with.
+     * @return {@code true} if the record matches its checksum.
+     */
+    static boolean isValid(byte[] record, CRC32 crc) {
+        crc.reset();
+        crc.update(record, 0, RECORD_SIZE - Integer.BYTES);
+        return (int) crc.getValue() == ByteBuffer.wrap(record).getInt(RECORD_SIZE - Integer.BYTES);
+    }
+
+    private static class Segment {
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.willbe.wordl.service.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Recomputes the thumb counts of some flush generations from the segments of a {@link ThumbJournal}, reading the
+ * segments in parallel, to recover the thumbs which were not written to the database or to rebuild all the counts.
+ */
+public final class ThumbJournalReplayer {
+
+    private ThumbJournalReplayer() {
+    }
+
+    /**
+     * Count the thumbs of all the segments of a journal, between two flush generations.
+     * <p>
+     * The empty and corrupt records are skipped, and the records after them are still counted.
+     *
+     * @param directory the directory of the journal.
+     * @param afterGeneration only the thumbs of the higher generations are counted: the checkpoint of the journal.
+     * @param beforeGeneration only the thumbs of the lower generations are counted.
+     * @return the counts.
+     * @throws IOException if the segments cannot be listed.
+     */
+    public static ThumbCounts replay(Path directory, long afterGeneration, long beforeGeneration) throws IOException {
+        List<ThumbCounts> segmentCounts;
+        try {
+            segmentCounts = listSegments(directory).parallelStream()
+                .map(segment -> replaySegment(segment, afterGeneration, beforeGeneration))
+                .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        ThumbCounts counts = new ThumbCounts();
+        segmentCounts.forEach(counts::add);
+        return counts;
+    }
+
+    static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> {
+                    String name = file.getFileName().toString();
+                    return name.startsWith(ThumbJournal.SEGMENT_PREFIX) && name.endsWith(ThumbJournal.SEGMENT_SUFFIX);
+                })
+                .sorted(Comparator.comparingLong(ThumbJournal::sequenceOf))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static ThumbCounts replaySegment(Path segment, long afterGeneration, long beforeGeneration) {
+        ThumbCounts counts = new ThumbCounts();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] bytes = new byte[ThumbJournal.RECORD_SIZE];
+            ByteBuffer record = ByteBuffer.wrap(bytes);
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= ThumbJournal.RECORD_SIZE) {
+                buffer.get(bytes);
+                if (ThumbJournal.isEmpty(bytes)) {
+                    // a slot reserved but never written, or the end of the segment
+                    continue;
+                }
+                ThumbJournal.Target target = ThumbJournal.Target.of(record.getInt(24));
+                if (!ThumbJournal.isValid(bytes, crc) || target == null) {
+                    counts.corruptRecords++;
+                } else {
+                    counts.records++;
+                    long generation = record.getLong(16);
+                    if (generation > afterGeneration && generation < beforeGeneration) {
+                        counts.get(target).merge(record.getLong(8), 1L, Long::sum);
+                        counts.lastGeneration = Math.max(counts.lastGeneration, generation);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay the thumb journal segment " + segment, e);
+        }
+        return counts;
+    }
+
+    /**
+     * The thumb counts of a journal, per thumbed record.
+     */
+    public static final class ThumbCounts {
+
+        private final Map<ThumbJournal.Target, Map<Long, Long>> counts = new EnumMap<>(ThumbJournal.Target.class);
+
+        private long records;
+
+        private long corruptRecords;
+
+        private long lastGeneration = Long.MIN_VALUE;
+
+        private ThumbCounts() {
+            for (ThumbJournal.Target target : ThumbJournal.Target.values()) {
+                counts.put(target, new HashMap<>());
+            }
+        }
+
+        /**
+         * @param target what the thumbs were added to.
+         * @return the number of thumbs, by id of the thumbed record.
+         */
+        public Map<Long, Long> get(ThumbJournal.Target target) {
+            return counts.get(target);
+        }
+
+        /**
+         * @return the number of valid records read, including those of the generations which were not counted.
+         */
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * @return the number of records which did not match their checksum.
+         */
+        public long getCorruptRecords() {
+            return corruptRecords;
+        }
+
+        /**
+         * @return the highest generation of the counted thumbs, {@link Long#MIN_VALUE} if none was counted.
+         */
+        public long getLastGeneration() {
+            return lastGeneration;
+        }
+
+        private void add(ThumbCounts other) {
+            other.counts.forEach((target, ids) -> ids.forEach((id, count) -> get(target).merge(id, count, Long::sum)));
+            records += other.records;
+            corruptRecords += other.corruptRecords;
+            lastGeneration = Math.max(lastGeneration, other.lastGeneration);
+        }
+    }
+}
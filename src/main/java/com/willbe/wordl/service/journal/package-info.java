@@ -0,0 +1,4 @@
+/**
+ * Append-only journal of the thumbs, and its replay recovering the thumbs missing from the database.
+ */
+package com.willbe.wordl.service.journal;
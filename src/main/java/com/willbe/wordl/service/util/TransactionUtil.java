@@ -0,0 +1,33 @@
+package com.willbe.wordl.service.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for the in-memory state which follows the database, such as the indices of the words.
+ */
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * Run an action once the current transaction is committed, or right away if there is no transaction.
+     * <p>
+     * The action is not run if the transaction is rolled back, so that the in-memory state never shows rolled back writes.
+     *
+     * @param action the action to run.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
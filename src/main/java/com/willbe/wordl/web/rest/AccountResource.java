@@ -6,8 +6,10 @@ import com.willbe.wordl.domain.User;
 import com.willbe.wordl.repository.UserRepository;
 import com.willbe.wordl.security.SecurityUtils;
 import com.willbe.wordl.service.MailService;
+import com.willbe.wordl.service.ReviewQueueService;
 import com.willbe.wordl.service.UserService;
 import com.willbe.wordl.service.dto.PasswordChangeDTO;
+import com.willbe.wordl.service.dto.ReviewItemDTO;
 import com.willbe.wordl.service.dto.UserDTO;
 import com.willbe.wordl.web.rest.errors.*;
 import com.willbe.wordl.web.rest.vm.KeyAndPasswordVM;
@@ -23,6 +25,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
@@ -38,6 +41,8 @@ public class AccountResource {
         }
     }
 
+    private static final int MAX_REVIEW_QUEUE_LIMIT = 100;
+
     private final Logger log = LoggerFactory.getLogger(AccountResource.class);
 
     private final UserRepository userRepository;
@@ -48,12 +53,16 @@ public class AccountResource {
 
     private final PersistentTokenRepository persistentTokenRepository;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService, PersistentTokenRepository persistentTokenRepository) {
+    private final ReviewQueueService reviewQueueService;
+
+    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService, PersistentTokenRepository persistentTokenRepository,
+                           ReviewQueueService reviewQueueService) {
 
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
         this.persistentTokenRepository = persistentTokenRepository;
+        this.reviewQueueService = reviewQueueService;
     }
 
     /**
@@ -164,6 +173,25 @@ public class AccountResource {
         );
     }
 
+    /**
+     * {@code GET  /account/review-queue?limit=:limit} : get the words the current user should review today.
+     *
+     * @param limit the maximum number of words to return, capped at {@value #MAX_REVIEW_QUEUE_LIMIT}.
+     * @return the words due for review, most overdue first.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the limit is not positive.
+     * @throws RuntimeException {@code 500 (Internal Server Error)} if the user couldn't be found.
+     */
+    @GetMapping("/account/review-queue")
+    public List<ReviewItemDTO> getReviewQueue(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1) {
+            throw new BadRequestAlertException("Invalid limit", "reviewItem", "limitinvalid");
+        }
+        User user = userRepository.findOneByLogin(SecurityUtils.getCurrentUserLogin()
+            .orElseThrow(() -> new AccountResourceException("Current user login not found")))
+                .orElseThrow(() -> new AccountResourceException("User could not be found"));
+        return reviewQueueService.findDue(user.getId(), LocalDate.now(), Math.min(limit, MAX_REVIEW_QUEUE_LIMIT));
+    }
+
     /**
      * {@code DELETE  /account/sessions?series={series}} : invalidate an existing session.
      *
@@ -1,24 +1,42 @@
 package com.willbe.wordl.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.willbe.wordl.domain.CategoryWord;
 import com.willbe.wordl.repository.CategoryWordRepository;
 import com.willbe.wordl.repository.search.CategoryWordSearchRepository;
+import com.willbe.wordl.repository.search.SearchAfterOperations;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+import com.willbe.wordl.service.SearchCacheService;
+import com.willbe.wordl.service.SearchOutboxService;
+import com.willbe.wordl.service.MorphemeService;
 import com.willbe.wordl.web.rest.errors.BadRequestAlertException;
+import com.willbe.wordl.web.rest.util.NdjsonUtil;
+import com.willbe.wordl.web.rest.util.PageRequestUtil;
+import com.willbe.wordl.web.rest.util.SearchAfterUtil;
 import io.github.jhipster.web.util.HeaderUtil;
+import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
@@ -41,9 +59,30 @@ public class CategoryWordResource {
 
     private final CategoryWordSearchRepository categoryWordSearchRepository;
 
-    public CategoryWordResource(CategoryWordRepository categoryWordRepository, CategoryWordSearchRepository categoryWordSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final SearchAfterOperations searchAfterOperations;
+
+    private final SearchCacheService searchCacheService;
+
+    private final MorphemeService morphemeService;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    public CategoryWordResource(CategoryWordRepository categoryWordRepository, CategoryWordSearchRepository categoryWordSearchRepository,
+                                SearchOutboxService searchOutboxService, SearchAfterOperations searchAfterOperations, SearchCacheService searchCacheService,
+                                MorphemeService morphemeService,
+                                ObjectMapper objectMapper, EntityManager entityManager) {
         this.categoryWordRepository = categoryWordRepository;
         this.categoryWordSearchRepository = categoryWordSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.searchAfterOperations = searchAfterOperations;
+        this.searchCacheService = searchCacheService;
+        this.morphemeService = morphemeService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -60,7 +99,8 @@ public class CategoryWordResource {
             throw new BadRequestAlertException("A new categoryWord cannot already have an ID", ENTITY_NAME, "idexists");
         }
         CategoryWord result = categoryWordRepository.save(categoryWord);
-        categoryWordSearchRepository.save(result);
+        searchOutboxService.enqueue(CategoryWord.class, result.getId());
+        morphemeService.putAfterCommit(result);
         return ResponseEntity.created(new URI("/api/category-words/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
@@ -82,21 +122,47 @@ public class CategoryWordResource {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
         CategoryWord result = categoryWordRepository.save(categoryWord);
-        categoryWordSearchRepository.save(result);
+        searchOutboxService.enqueue(CategoryWord.class, result.getId());
+        morphemeService.putAfterCommit(result);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, categoryWord.getId().toString()))
             .body(result);
     }
 
     /**
-     * {@code GET  /category-words} : get all the categoryWords.
+     * {@code GET  /category-words} : get all the categoryWords, or a page of them if a {@code page} or a {@code size} is requested.
      *
+     * @param pageable the pagination information.
+     * @param request the request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categoryWords in body.
      */
     @GetMapping("/category-words")
-    public List<CategoryWord> getAllCategoryWords() {
-        log.debug("REST request to get all CategoryWords");
-        return categoryWordRepository.findAll();
+    public ResponseEntity<List<CategoryWord>> getAllCategoryWords(Pageable pageable, HttpServletRequest request) {
+        if (!PageRequestUtil.isPageRequested(request)) {
+            log.debug("REST request to get all CategoryWords");
+            return ResponseEntity.ok(categoryWordRepository.findAll(pageable.getSort()));
+        }
+        log.debug("REST request to get a page of CategoryWords");
+        Page<CategoryWord> page = categoryWordRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /category-words/_stream} : get all the categoryWords, one per line of newline-delimited JSON.
+     * <p>
+     * The categoryWords are written as they are read from the database, so that the memory used does not depend on their number.
+     *
+     * @param response the response, with status {@code 200 (OK)} and with the categoryWords in body, ordered by id.
+     * @throws IOException if the categoryWords cannot be written.
+     */
+    @GetMapping(value = "/category-words/_stream", produces = NdjsonUtil.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAllCategoryWords(HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream all CategoryWords");
+        try (Stream<CategoryWord> categoryWords = categoryWordRepository.streamAllByOrderById()) {
+            NdjsonUtil.writeEntities(categoryWords, response, objectMapper, entityManager);
+        }
     }
 
     /**
@@ -122,22 +188,37 @@ public class CategoryWordResource {
     public ResponseEntity<Void> deleteCategoryWord(@PathVariable Long id) {
         log.debug("REST request to delete CategoryWord : {}", id);
         categoryWordRepository.deleteById(id);
-        categoryWordSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(CategoryWord.class, id);
+        morphemeService.removeAfterCommit(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString())).build();
     }
 
     /**
      * {@code SEARCH  /_search/category-words?query=:query} : search for the categoryWord corresponding
      * to the query.
+     * <p>
+     * With a {@code searchAfter} cursor, the pages are sorted by relevance then by id, and each one is searched after the
+     * last hit of the previous one, at the same cost at any depth: see {@link SearchAfterUtil}.
      *
      * @param query the query of the categoryWord search.
-     * @return the result of the search.
+     * @param searchAfter the cursor of the last hit of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the size of the page with a {@code searchAfter} cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categoryWords in body.
      */
     @GetMapping("/_search/category-words")
-    public List<CategoryWord> searchCategoryWords(@RequestParam String query) {
-        log.debug("REST request to search CategoryWords for query {}", query);
-        return StreamSupport
-            .stream(categoryWordSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<CategoryWord>> searchCategoryWords(@RequestParam String query, @RequestParam(required = false) String searchAfter,
+                                                                  Pageable pageable) {
+        log.debug("REST request to search for a page of CategoryWords for query {}", query);
+        if (searchAfter != null) {
+            SearchCursor after = SearchAfterUtil.parseCursor(searchAfter, ENTITY_NAME);
+            SearchAfterPage<CategoryWord> page = searchCacheService.searchAfter(CategoryWord.class, query, pageable.getPageSize(), searchAfter,
+                () -> searchAfterOperations.searchAfter(CategoryWord.class, queryStringQuery(query), pageable.getPageSize(), after));
+            HttpHeaders headers = SearchAfterUtil.generateSearchAfterHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        Page<CategoryWord> page = searchCacheService.search(CategoryWord.class, query, pageable,
+            () -> categoryWordSearchRepository.search(queryStringQuery(query), pageable));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 }
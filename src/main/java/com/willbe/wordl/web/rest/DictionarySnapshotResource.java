@@ -0,0 +1,115 @@
+package com.willbe.wordl.web.rest;
+
+import com.willbe.wordl.service.DictionarySnapshotService;
+import com.willbe.wordl.service.DictionarySnapshotService.SnapshotFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * REST controller serving the offline dictionary of the mobile clients.
+ * <p>
+ * The files are gzip-compressed {@code com.willbe.wordl.service.DictionarySnapshot}s, identified by the {@code ETag}
+ * of the version of the dictionary they lead to, and sent from the disk by a {@link FileChannel}.
+ */
+@RestController
+@RequestMapping("/api")
+public class DictionarySnapshotResource {
+
+    private final Logger log = LoggerFactory.getLogger(DictionarySnapshotResource.class);
+
+    private final DictionarySnapshotService dictionarySnapshotService;
+
+    public DictionarySnapshotResource(DictionarySnapshotService dictionarySnapshotService) {
+        this.dictionarySnapshotService = dictionarySnapshotService;
+    }
+
+    /**
+     * {@code GET  /dictionary-snapshot} : get the latest snapshot of the dictionary.
+     *
+     * @param request the request, with the {@code ETag} of the snapshot the client has in its {@code If-None-Match} header, if any.
+     * @param response the response, with status {@code 200 (OK)} and the snapshot in body, with status {@code 304 (Not Modified)}
+     * if the client has the latest snapshot, or with status {@code 404 (Not Found)} if no snapshot was built yet.
+     * @throws IOException if the snapshot cannot be sent.
+     */
+    @GetMapping("/dictionary-snapshot")
+    public void getDictionarySnapshot(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to get the dictionary snapshot");
+        send(dictionarySnapshotService.getSnapshot(), request, response);
+    }
+
+    /**
+     * {@code GET  /dictionary-snapshot/delta?from=:from} : get the changes from a version of the dictionary to the latest one.
+     *
+     * @param from the version the client is up to date with.
+     * @param request the request.
+     * @param response the response, with status {@code 200 (OK)} and the changes in body, with status {@code 304 (Not Modified)}
+     * if the version is the latest one, or with status {@code 404 (Not Found)} if the version is not retained anymore,
+     * in which case the client downloads the full snapshot.
+     * @throws IOException if the changes cannot be sent.
+     */
+    @GetMapping("/dictionary-snapshot/delta")
+    public void getDictionarySnapshotDelta(@RequestParam long from, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to get the dictionary snapshot delta from : {}", from);
+        Optional<SnapshotFile> snapshot = dictionarySnapshotService.getSnapshot();
+        if (snapshot.isPresent() && snapshot.get().getVersion() == from) {
+            response.setHeader(HttpHeaders.ETAG, etag(from));
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        send(dictionarySnapshotService.getDelta(from), request, response);
+    }
+
+    private void send(Optional<SnapshotFile> file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!file.isPresent()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = etag(file.get().getVersion());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file.get().getPath(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // replaced by a new version meanwhile
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        try {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            long size = channel.size();
+            response.setContentLengthLong(size);
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = 0; position < size; ) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+}
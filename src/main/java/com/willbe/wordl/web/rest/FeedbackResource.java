@@ -1,24 +1,41 @@
 package com.willbe.wordl.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.willbe.wordl.domain.Feedback;
 import com.willbe.wordl.repository.FeedbackRepository;
 import com.willbe.wordl.repository.search.FeedbackSearchRepository;
+import com.willbe.wordl.repository.search.SearchAfterOperations;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+import com.willbe.wordl.service.SearchCacheService;
+import com.willbe.wordl.service.SearchOutboxService;
 import com.willbe.wordl.web.rest.errors.BadRequestAlertException;
+import com.willbe.wordl.web.rest.util.NdjsonUtil;
+import com.willbe.wordl.web.rest.util.PageRequestUtil;
+import com.willbe.wordl.web.rest.util.SearchAfterUtil;
 import io.github.jhipster.web.util.HeaderUtil;
+import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
@@ -41,9 +58,26 @@ public class FeedbackResource {
 
     private final FeedbackSearchRepository feedbackSearchRepository;
 
-    public FeedbackResource(FeedbackRepository feedbackRepository, FeedbackSearchRepository feedbackSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final SearchAfterOperations searchAfterOperations;
+
+    private final SearchCacheService searchCacheService;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    public FeedbackResource(FeedbackRepository feedbackRepository, FeedbackSearchRepository feedbackSearchRepository,
+                            SearchOutboxService searchOutboxService, SearchAfterOperations searchAfterOperations, SearchCacheService searchCacheService,
+                            ObjectMapper objectMapper, EntityManager entityManager) {
         this.feedbackRepository = feedbackRepository;
         this.feedbackSearchRepository = feedbackSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.searchAfterOperations = searchAfterOperations;
+        this.searchCacheService = searchCacheService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -60,7 +94,7 @@ public class FeedbackResource {
             throw new BadRequestAlertException("A new feedback cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Feedback result = feedbackRepository.save(feedback);
-        feedbackSearchRepository.save(result);
+        searchOutboxService.enqueue(Feedback.class, result.getId());
         return ResponseEntity.created(new URI("/api/feedbacks/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
@@ -82,21 +116,46 @@ public class FeedbackResource {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
         Feedback result = feedbackRepository.save(feedback);
-        feedbackSearchRepository.save(result);
+        searchOutboxService.enqueue(Feedback.class, result.getId());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, feedback.getId().toString()))
             .body(result);
     }
 
     /**
-     * {@code GET  /feedbacks} : get all the feedbacks.
+     * {@code GET  /feedbacks} : get all the feedbacks, or a page of them if a {@code page} or a {@code size} is requested.
      *
+     * @param pageable the pagination information.
+     * @param request the request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of feedbacks in body.
      */
     @GetMapping("/feedbacks")
-    public List<Feedback> getAllFeedbacks() {
-        log.debug("REST request to get all Feedbacks");
-        return feedbackRepository.findAll();
+    public ResponseEntity<List<Feedback>> getAllFeedbacks(Pageable pageable, HttpServletRequest request) {
+        if (!PageRequestUtil.isPageRequested(request)) {
+            log.debug("REST request to get all Feedbacks");
+            return ResponseEntity.ok(feedbackRepository.findAll(pageable.getSort()));
+        }
+        log.debug("REST request to get a page of Feedbacks");
+        Page<Feedback> page = feedbackRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /feedbacks/_stream} : get all the feedbacks, one per line of newline-delimited JSON.
+     * <p>
+     * The feedbacks are written as they are read from the database, so that the memory used does not depend on their number.
+     *
+     * @param response the response, with status {@code 200 (OK)} and with the feedbacks in body, ordered by id.
+     * @throws IOException if the feedbacks cannot be written.
+     */
+    @GetMapping(value = "/feedbacks/_stream", produces = NdjsonUtil.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAllFeedbacks(HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream all Feedbacks");
+        try (Stream<Feedback> feedbacks = feedbackRepository.streamAllByOrderById()) {
+            NdjsonUtil.writeEntities(feedbacks, response, objectMapper, entityManager);
+        }
     }
 
     /**
@@ -122,22 +181,36 @@ public class FeedbackResource {
     public ResponseEntity<Void> deleteFeedback(@PathVariable Long id) {
         log.debug("REST request to delete Feedback : {}", id);
         feedbackRepository.deleteById(id);
-        feedbackSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(Feedback.class, id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString())).build();
     }
 
     /**
      * {@code SEARCH  /_search/feedbacks?query=:query} : search for the feedback corresponding
      * to the query.
+     * <p>
+     * With a {@code searchAfter} cursor, the pages are sorted by relevance then by id, and each one is searched after the
+     * last hit of the previous one, at the same cost at any depth: see {@link SearchAfterUtil}.
      *
      * @param query the query of the feedback search.
-     * @return the result of the search.
+     * @param searchAfter the cursor of the last hit of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the size of the page with a {@code searchAfter} cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of feedbacks in body.
      */
     @GetMapping("/_search/feedbacks")
-    public List<Feedback> searchFeedbacks(@RequestParam String query) {
-        log.debug("REST request to search Feedbacks for query {}", query);
-        return StreamSupport
-            .stream(feedbackSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<Feedback>> searchFeedbacks(@RequestParam String query, @RequestParam(required = false) String searchAfter,
+                                                          Pageable pageable) {
+        log.debug("REST request to search for a page of Feedbacks for query {}", query);
+        if (searchAfter != null) {
+            SearchCursor after = SearchAfterUtil.parseCursor(searchAfter, ENTITY_NAME);
+            SearchAfterPage<Feedback> page = searchCacheService.searchAfter(Feedback.class, query, pageable.getPageSize(), searchAfter,
+                () -> searchAfterOperations.searchAfter(Feedback.class, queryStringQuery(query), pageable.getPageSize(), after));
+            HttpHeaders headers = SearchAfterUtil.generateSearchAfterHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        Page<Feedback> page = searchCacheService.search(Feedback.class, query, pageable,
+            () -> feedbackSearchRepository.search(queryStringQuery(query), pageable));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 }
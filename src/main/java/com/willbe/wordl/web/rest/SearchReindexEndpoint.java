@@ -0,0 +1,69 @@
+package com.willbe.wordl.web.rest;
+
+import com.willbe.wordl.config.Constants;
+import com.willbe.wordl.service.SearchReindexService;
+import com.willbe.wordl.service.dto.ReindexProgressDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Management endpoint rebuilding the Elasticsearch indices, see {@link SearchReindexService}.
+ * <p>
+ * Exposed at {@code /management/reindex}, for the administrators only.
+ */
+@Component
+@Profile("!" + Constants.SPRING_PROFILE_LUCENE)
+@WebEndpoint(id = "reindex")
+public class SearchReindexEndpoint {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexEndpoint.class);
+
+    private final SearchReindexService searchReindexService;
+
+    public SearchReindexEndpoint(SearchReindexService searchReindexService) {
+        this.searchReindexService = searchReindexService;
+    }
+
+    /**
+     * {@code GET  /management/reindex} : get the progress of the latest rebuild.
+     *
+     * @return the progress of the rebuild of each index, with the number of documents indexed per second.
+     */
+    @ReadOperation
+    public List<ReindexProgressDTO> getProgress() {
+        return searchReindexService.getProgress();
+    }
+
+    /**
+     * {@code POST  /management/reindex} : rebuild indices in the background.
+     *
+     * @param indices the comma-separated names of the indices to rebuild, all of them if empty.
+     * @return the {@link WebEndpointResponse} with status {@code 202 (Accepted)} and with body the progress of the
+     * rebuild, with status {@code 400 (Bad Request)} if an index is unknown, or with status {@code 409 (Conflict)} if a
+     * rebuild is already running.
+     */
+    @WriteOperation
+    public WebEndpointResponse<List<ReindexProgressDTO>> reindex(@Nullable String indices) {
+        log.debug("Management request to rebuild the indices : {}", indices);
+        Set<String> indexNames = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(indices));
+        if (!searchReindexService.getIndexNames().containsAll(indexNames)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!searchReindexService.start(indexNames)) {
+            return new WebEndpointResponse<>(searchReindexService.getProgress(), 409);
+        }
+        return new WebEndpointResponse<>(searchReindexService.getProgress(), 202);
+    }
+}
@@ -3,14 +3,19 @@ package com.willbe.wordl.web.rest;
 import com.willbe.wordl.config.Constants;
 import com.willbe.wordl.domain.User;
 import com.willbe.wordl.repository.UserRepository;
+import com.willbe.wordl.repository.search.SearchAfterOperations;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
 import com.willbe.wordl.repository.search.UserSearchRepository;
 import com.willbe.wordl.security.AuthoritiesConstants;
 import com.willbe.wordl.service.MailService;
+import com.willbe.wordl.service.SearchCacheService;
 import com.willbe.wordl.service.UserService;
 import com.willbe.wordl.service.dto.UserDTO;
 import com.willbe.wordl.web.rest.errors.BadRequestAlertException;
 import com.willbe.wordl.web.rest.errors.EmailAlreadyUsedException;
 import com.willbe.wordl.web.rest.errors.LoginAlreadyUsedException;
+import com.willbe.wordl.web.rest.util.SearchAfterUtil;
 
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.PaginationUtil;
@@ -32,8 +37,6 @@ import javax.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
@@ -78,11 +81,18 @@ public class UserResource {
 
     private final UserSearchRepository userSearchRepository;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService, UserSearchRepository userSearchRepository) {
+    private final SearchAfterOperations searchAfterOperations;
+
+    private final SearchCacheService searchCacheService;
+
+    public UserResource(UserService userService, UserRepository userRepository, MailService mailService, UserSearchRepository userSearchRepository,
+                        SearchAfterOperations searchAfterOperations, SearchCacheService searchCacheService) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
         this.userSearchRepository = userSearchRepository;
+        this.searchAfterOperations = searchAfterOperations;
+        this.searchCacheService = searchCacheService;
     }
 
     /**
@@ -197,14 +207,27 @@ public class UserResource {
 
     /**
      * {@code SEARCH /_search/users/:query} : search for the User corresponding to the query.
+     * <p>
+     * With a {@code searchAfter} cursor, the pages are sorted by relevance then by id, and each one is searched after the
+     * last hit of the previous one, at the same cost at any depth: see {@link SearchAfterUtil}.
      *
      * @param query the query to search.
-     * @return the result of the search.
+     * @param searchAfter the cursor of the last hit of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the size of the page with a {@code searchAfter} cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of users in body.
      */
     @GetMapping("/_search/users/{query}")
-    public List<User> search(@PathVariable String query) {
-        return StreamSupport
-            .stream(userSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<User>> search(@PathVariable String query, @RequestParam(required = false) String searchAfter, Pageable pageable) {
+        if (searchAfter != null) {
+            SearchCursor after = SearchAfterUtil.parseCursor(searchAfter, "userManagement");
+            SearchAfterPage<User> page = searchCacheService.searchAfter(User.class, query, pageable.getPageSize(), searchAfter,
+                () -> searchAfterOperations.searchAfter(User.class, queryStringQuery(query), pageable.getPageSize(), after));
+            HttpHeaders headers = SearchAfterUtil.generateSearchAfterHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        Page<User> page = searchCacheService.search(User.class, query, pageable,
+            () -> userSearchRepository.search(queryStringQuery(query), pageable));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 }
@@ -1,24 +1,57 @@
 package com.willbe.wordl.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.willbe.wordl.domain.User;
 import com.willbe.wordl.domain.UserThumbInfo;
 import com.willbe.wordl.repository.UserThumbInfoRepository;
 import com.willbe.wordl.repository.search.UserThumbInfoSearchRepository;
+import com.willbe.wordl.repository.search.SearchAfterOperations;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+import com.willbe.wordl.service.SearchCacheService;
+import com.willbe.wordl.service.SearchOutboxService;
+import com.willbe.wordl.service.ReviewQueueService;
+import com.willbe.wordl.service.ThumbCounterService;
+import com.willbe.wordl.service.ThumbedPicturesService;
+import com.willbe.wordl.service.UserThumbInfoBulkService;
+import com.willbe.wordl.service.UserService;
+import com.willbe.wordl.service.dto.ThumbCountDTO;
+import com.willbe.wordl.service.dto.UserThumbHistoryDTO;
 import com.willbe.wordl.web.rest.errors.BadRequestAlertException;
+import com.willbe.wordl.web.rest.util.NdjsonUtil;
+import com.willbe.wordl.web.rest.util.PageRequestUtil;
+import com.willbe.wordl.web.rest.util.SearchAfterUtil;
 import io.github.jhipster.web.util.HeaderUtil;
+import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
@@ -34,6 +67,8 @@ public class UserThumbInfoResource {
 
     private static final String ENTITY_NAME = "userThumbInfo";
 
+    private static final int MAX_HISTORY_LIMIT = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -41,9 +76,46 @@ public class UserThumbInfoResource {
 
     private final UserThumbInfoSearchRepository userThumbInfoSearchRepository;
 
-    public UserThumbInfoResource(UserThumbInfoRepository userThumbInfoRepository, UserThumbInfoSearchRepository userThumbInfoSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final SearchAfterOperations searchAfterOperations;
+
+    private final SearchCacheService searchCacheService;
+
+    private final ThumbCounterService thumbCounterService;
+
+    private final ThumbedPicturesService thumbedPicturesService;
+
+    private final UserService userService;
+
+    private final UserThumbInfoBulkService userThumbInfoBulkService;
+
+    private final ReviewQueueService reviewQueueService;
+
+    private final ObjectWriter resultWriter;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    public UserThumbInfoResource(UserThumbInfoRepository userThumbInfoRepository, UserThumbInfoSearchRepository userThumbInfoSearchRepository,
+                                 SearchOutboxService searchOutboxService, SearchAfterOperations searchAfterOperations, SearchCacheService searchCacheService,
+                                 ThumbCounterService thumbCounterService, ThumbedPicturesService thumbedPicturesService, UserService userService,
+                                 UserThumbInfoBulkService userThumbInfoBulkService, ReviewQueueService reviewQueueService,
+                                 ObjectMapper objectMapper, EntityManager entityManager) {
         this.userThumbInfoRepository = userThumbInfoRepository;
         this.userThumbInfoSearchRepository = userThumbInfoSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.searchAfterOperations = searchAfterOperations;
+        this.searchCacheService = searchCacheService;
+        this.thumbCounterService = thumbCounterService;
+        this.thumbedPicturesService = thumbedPicturesService;
+        this.userService = userService;
+        this.userThumbInfoBulkService = userThumbInfoBulkService;
+        this.reviewQueueService = reviewQueueService;
+        this.resultWriter = objectMapper.writer();
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -60,12 +132,41 @@ public class UserThumbInfoResource {
             throw new BadRequestAlertException("A new userThumbInfo cannot already have an ID", ENTITY_NAME, "idexists");
         }
         UserThumbInfo result = userThumbInfoRepository.save(userThumbInfo);
-        userThumbInfoSearchRepository.save(result);
+        searchOutboxService.enqueue(UserThumbInfo.class, result.getId());
+        thumbedPicturesService.addAfterCommit(result);
+        reviewQueueService.recordReviews(Collections.singletonList(result));
         return ResponseEntity.created(new URI("/api/user-thumb-infos/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /user-thumb-infos/_bulk} : Create many userThumbInfos, one per line of newline-delimited JSON.
+     * <p>
+     * The lines are written in chunks while the body is read, so a line can be rejected while the others are created.
+     *
+     * @param request the request, with one userThumbInfo per line in its body.
+     * @param response the response, with status {@code 200 (OK)} and with the result of every line in its body, one per line.
+     * @throws IOException if the body cannot be read or the results cannot be written.
+     */
+    @PostMapping(value = "/user-thumb-infos/_bulk", consumes = NdjsonUtil.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void createUserThumbInfos(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to save UserThumbInfos in bulk");
+        response.setContentType(NdjsonUtil.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer results = response.getWriter();
+        userThumbInfoBulkService.createAll(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), result -> {
+            try {
+                results.write(resultWriter.writeValueAsString(result));
+                results.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        results.flush();
+    }
+
     /**
      * {@code PUT  /user-thumb-infos} : Updates an existing userThumbInfo.
      *
@@ -81,22 +182,49 @@ public class UserThumbInfoResource {
         if (userThumbInfo.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        Long previousClickerId = userThumbInfoRepository.findById(userThumbInfo.getId()).map(this::clickerId).orElse(null);
         UserThumbInfo result = userThumbInfoRepository.save(userThumbInfo);
-        userThumbInfoSearchRepository.save(result);
+        searchOutboxService.enqueue(UserThumbInfo.class, result.getId());
+        thumbedPicturesService.evictAfterCommit(previousClickerId, clickerId(result));
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, userThumbInfo.getId().toString()))
             .body(result);
     }
 
     /**
-     * {@code GET  /user-thumb-infos} : get all the userThumbInfos.
+     * {@code GET  /user-thumb-infos} : get all the userThumbInfos, or a page of them if a {@code page} or a {@code size} is requested.
      *
+     * @param pageable the pagination information.
+     * @param request the request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of userThumbInfos in body.
      */
     @GetMapping("/user-thumb-infos")
-    public List<UserThumbInfo> getAllUserThumbInfos() {
-        log.debug("REST request to get all UserThumbInfos");
-        return userThumbInfoRepository.findAll();
+    public ResponseEntity<List<UserThumbInfo>> getAllUserThumbInfos(Pageable pageable, HttpServletRequest request) {
+        if (!PageRequestUtil.isPageRequested(request)) {
+            log.debug("REST request to get all UserThumbInfos");
+            return ResponseEntity.ok(userThumbInfoRepository.findAll(pageable.getSort()));
+        }
+        log.debug("REST request to get a page of UserThumbInfos");
+        Page<UserThumbInfo> page = userThumbInfoRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /user-thumb-infos/_stream} : get all the userThumbInfos, one per line of newline-delimited JSON.
+     * <p>
+     * The userThumbInfos are written as they are read from the database, so that the memory used does not depend on their number.
+     *
+     * @param response the response, with status {@code 200 (OK)} and with the userThumbInfos in body, ordered by id.
+     * @throws IOException if the userThumbInfos cannot be written.
+     */
+    @GetMapping(value = "/user-thumb-infos/_stream", produces = NdjsonUtil.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAllUserThumbInfos(HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream all UserThumbInfos");
+        try (Stream<UserThumbInfo> userThumbInfos = userThumbInfoRepository.streamAllByOrderById()) {
+            NdjsonUtil.writeEntities(userThumbInfos, response, objectMapper, entityManager);
+        }
     }
 
     /**
@@ -112,6 +240,71 @@ public class UserThumbInfoResource {
         return ResponseUtil.wrapOrNotFound(userThumbInfo);
     }
 
+    /**
+     * {@code GET  /user-thumb-infos/thumbed?wordThumbInfoIds=:ids} : get which of some wordThumbInfos the current user thumbed.
+     *
+     * @param wordThumbInfoIds the ids of the wordThumbInfos to check.
+     * @return the ids of the wordThumbInfos thumbed by the current user.
+     */
+    @GetMapping("/user-thumb-infos/thumbed")
+    @Transactional(readOnly = true)
+    public List<Long> getThumbedWordThumbInfos(@RequestParam List<Long> wordThumbInfoIds) {
+        log.debug("REST request to get the thumbed WordThumbInfos among : {}", wordThumbInfoIds);
+        return userService.getUserWithAuthorities()
+            .map(user -> thumbedPicturesService.findThumbed(user.getId(), wordThumbInfoIds))
+            .orElse(Collections.emptyList());
+    }
+
+    /**
+     * {@code GET  /user-thumb-infos/mine?after=:after&limit=:limit} : get a page of the thumb history of the current user.
+     * <p>
+     * The history is paginated by a cursor rather than by an offset, so that reading any page costs the same.
+     *
+     * @param after the id of the last userThumbInfo of the previous page, if any.
+     * @param limit the maximum number of userThumbInfos to return, capped at {@value #MAX_HISTORY_LIMIT}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of userThumbInfos in body, most recent first,
+     * with the link to the next page in the {@code Link} header if there is one,
+     * or with status {@code 400 (Bad Request)} if the limit is not positive.
+     */
+    @GetMapping("/user-thumb-infos/mine")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<UserThumbHistoryDTO>> getMyUserThumbInfos(@RequestParam(required = false) Long after,
+                                                                         @RequestParam(defaultValue = "20") int limit) {
+        log.debug("REST request to get {} UserThumbInfos of the current user after : {}", limit, after);
+        if (limit < 1) {
+            throw new BadRequestAlertException("Invalid limit", ENTITY_NAME, "limitinvalid");
+        }
+        int size = Math.min(limit, MAX_HISTORY_LIMIT);
+        Optional<Long> clickerId = userService.getUserWithAuthorities().map(User::getId);
+        if (!clickerId.isPresent()) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+        // one more row tells whether there is a next page
+        List<UserThumbHistoryDTO> history = userThumbInfoRepository.findHistoryByClickerIdAndIdLessThan(clickerId.get(),
+            after == null ? Long.MAX_VALUE : after, PageRequest.of(0, size + 1));
+        if (history.size() <= size) {
+            return ResponseEntity.ok(history);
+        }
+        history = history.subList(0, size);
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+            .replaceQueryParam("after", history.get(size - 1).getId())
+            .replaceQueryParam("limit", size)
+            .toUriString();
+        return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(history);
+    }
+
+    /**
+     * {@code POST  /user-thumb-infos/:id/thumb} : Add a thumb to the "id" userThumbInfo.
+     *
+     * @param id the id of the userThumbInfo to thumb.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the current thumb count, or with status {@code 404 (Not Found)}.
+     */
+    @PostMapping("/user-thumb-infos/{id}/thumb")
+    public ResponseEntity<ThumbCountDTO> thumbUserThumbInfo(@PathVariable Long id) {
+        log.debug("REST request to thumb UserThumbInfo : {}", id);
+        return ResponseUtil.wrapOrNotFound(thumbCounterService.thumbUserThumbInfo(id));
+    }
+
     /**
      * {@code DELETE  /user-thumb-infos/:id} : delete the "id" userThumbInfo.
      *
@@ -121,23 +314,43 @@ public class UserThumbInfoResource {
     @DeleteMapping("/user-thumb-infos/{id}")
     public ResponseEntity<Void> deleteUserThumbInfo(@PathVariable Long id) {
         log.debug("REST request to delete UserThumbInfo : {}", id);
+        Long previousClickerId = userThumbInfoRepository.findById(id).map(this::clickerId).orElse(null);
         userThumbInfoRepository.deleteById(id);
-        userThumbInfoSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(UserThumbInfo.class, id);
+        thumbedPicturesService.evictAfterCommit(previousClickerId);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString())).build();
     }
 
     /**
      * {@code SEARCH  /_search/user-thumb-infos?query=:query} : search for the userThumbInfo corresponding
      * to the query.
+     * <p>
+     * With a {@code searchAfter} cursor, the pages are sorted by relevance then by id, and each one is searched after the
+     * last hit of the previous one, at the same cost at any depth: see {@link SearchAfterUtil}.
      *
      * @param query the query of the userThumbInfo search.
-     * @return the result of the search.
+     * @param searchAfter the cursor of the last hit of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the size of the page with a {@code searchAfter} cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of userThumbInfos in body.
      */
     @GetMapping("/_search/user-thumb-infos")
-    public List<UserThumbInfo> searchUserThumbInfos(@RequestParam String query) {
-        log.debug("REST request to search UserThumbInfos for query {}", query);
-        return StreamSupport
-            .stream(userThumbInfoSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<UserThumbInfo>> searchUserThumbInfos(@RequestParam String query, @RequestParam(required = false) String searchAfter,
+                                                                    Pageable pageable) {
+        log.debug("REST request to search for a page of UserThumbInfos for query {}", query);
+        if (searchAfter != null) {
+            SearchCursor after = SearchAfterUtil.parseCursor(searchAfter, ENTITY_NAME);
+            SearchAfterPage<UserThumbInfo> page = searchCacheService.searchAfter(UserThumbInfo.class, query, pageable.getPageSize(), searchAfter,
+                () -> searchAfterOperations.searchAfter(UserThumbInfo.class, queryStringQuery(query), pageable.getPageSize(), after));
+            HttpHeaders headers = SearchAfterUtil.generateSearchAfterHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        Page<UserThumbInfo> page = searchCacheService.search(UserThumbInfo.class, query, pageable,
+            () -> userThumbInfoSearchRepository.search(queryStringQuery(query), pageable));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private Long clickerId(UserThumbInfo userThumbInfo) {
+        return userThumbInfo.getClicker() == null ? null : userThumbInfo.getClicker().getId();
     }
 }
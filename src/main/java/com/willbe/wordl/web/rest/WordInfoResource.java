@@ -1,24 +1,63 @@
 package com.willbe.wordl.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.willbe.wordl.domain.WordInfo;
 import com.willbe.wordl.repository.WordInfoRepository;
 import com.willbe.wordl.repository.search.WordInfoSearchRepository;
+import com.willbe.wordl.repository.search.SearchAfterOperations;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+import com.willbe.wordl.service.SearchCacheService;
+import com.willbe.wordl.service.SearchOutboxService;
+import com.willbe.wordl.security.AuthoritiesConstants;
+import com.willbe.wordl.service.DictionaryImportService;
+import com.willbe.wordl.service.CategoryIndexService;
+import com.willbe.wordl.service.MorphemeService;
+import com.willbe.wordl.service.TopPicturesService;
+import com.willbe.wordl.service.TrendingService;
+import com.willbe.wordl.service.WordCompletionService;
+import com.willbe.wordl.service.WordDetailService;
+import com.willbe.wordl.service.WordSuggestionService;
+import com.willbe.wordl.service.dto.DictionaryImportDTO;
+import com.willbe.wordl.service.dto.CategoryMatchesDTO;
+import com.willbe.wordl.service.dto.TopPictureDTO;
+import com.willbe.wordl.service.dto.TrendingWordDTO;
+import com.willbe.wordl.service.dto.WordCompletionDTO;
+import com.willbe.wordl.service.dto.WordDetailDTO;
+import com.willbe.wordl.service.dto.WordMorphemesDTO;
+import com.willbe.wordl.service.dto.WordSuggestionDTO;
 import com.willbe.wordl.web.rest.errors.BadRequestAlertException;
+import com.willbe.wordl.web.rest.util.NdjsonUtil;
+import com.willbe.wordl.web.rest.util.PageRequestUtil;
+import com.willbe.wordl.web.rest.util.SearchAfterUtil;
 import io.github.jhipster.web.util.HeaderUtil;
+import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
@@ -34,6 +73,16 @@ public class WordInfoResource {
 
     private static final String ENTITY_NAME = "wordInfo";
 
+    private static final int MAX_COMPLETION_LIMIT = 50;
+
+    private static final int MAX_SUGGESTION_LIMIT = 50;
+
+    private static final int MAX_CATEGORY_MATCHES_LIMIT = 1000;
+
+    private static final int MAX_DETAIL_IDS = 100;
+
+    private static final int MAX_MORPHEME_IDS = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -41,9 +90,54 @@ public class WordInfoResource {
 
     private final WordInfoSearchRepository wordInfoSearchRepository;
 
-    public WordInfoResource(WordInfoRepository wordInfoRepository, WordInfoSearchRepository wordInfoSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final SearchAfterOperations searchAfterOperations;
+
+    private final SearchCacheService searchCacheService;
+
+    private final TopPicturesService topPicturesService;
+
+    private final TrendingService trendingService;
+
+    private final WordCompletionService wordCompletionService;
+
+    private final MorphemeService morphemeService;
+
+    private final CategoryIndexService categoryIndexService;
+
+    private final WordSuggestionService wordSuggestionService;
+
+    private final WordDetailService wordDetailService;
+
+    private final DictionaryImportService dictionaryImportService;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    public WordInfoResource(WordInfoRepository wordInfoRepository, WordInfoSearchRepository wordInfoSearchRepository,
+                            SearchOutboxService searchOutboxService, SearchAfterOperations searchAfterOperations, SearchCacheService searchCacheService,
+                            TopPicturesService topPicturesService, TrendingService trendingService,
+                            WordCompletionService wordCompletionService, MorphemeService morphemeService,
+                            CategoryIndexService categoryIndexService, WordSuggestionService wordSuggestionService,
+                            WordDetailService wordDetailService, DictionaryImportService dictionaryImportService,
+                            ObjectMapper objectMapper, EntityManager entityManager) {
         this.wordInfoRepository = wordInfoRepository;
         this.wordInfoSearchRepository = wordInfoSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.searchAfterOperations = searchAfterOperations;
+        this.searchCacheService = searchCacheService;
+        this.topPicturesService = topPicturesService;
+        this.trendingService = trendingService;
+        this.wordCompletionService = wordCompletionService;
+        this.morphemeService = morphemeService;
+        this.categoryIndexService = categoryIndexService;
+        this.wordSuggestionService = wordSuggestionService;
+        this.wordDetailService = wordDetailService;
+        this.dictionaryImportService = dictionaryImportService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -60,12 +154,38 @@ public class WordInfoResource {
             throw new BadRequestAlertException("A new wordInfo cannot already have an ID", ENTITY_NAME, "idexists");
         }
         WordInfo result = wordInfoRepository.save(wordInfo);
-        wordInfoSearchRepository.save(result);
+        searchOutboxService.enqueue(WordInfo.class, result.getId());
+        wordCompletionService.putAfterCommit(result);
+        categoryIndexService.putAfterCommit(result);
+        wordSuggestionService.putAfterCommit(result);
         return ResponseEntity.created(new URI("/api/word-infos/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /word-infos/_import} : Import the wordInfos of a CSV or TSV file, in the format of the fake data.
+     * <p>
+     * The words which already exist are skipped. The ids of the file are ignored. The rows of the chunks which the database
+     * rejects are counted as failed.
+     *
+     * @param request the request, with the file in its body, encoded in UTF-8.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of the import,
+     * or with status {@code 400 (Bad Request)} if the file does not have the expected columns.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/word-infos/_import", consumes = {"text/csv", "text/tab-separated-values"})
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<DictionaryImportDTO> importWordInfos(HttpServletRequest request) throws IOException {
+        log.debug("REST request to import WordInfos");
+        try {
+            return ResponseEntity.ok(dictionaryImportService.importWordInfos(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "columnmissing");
+        }
+    }
+
     /**
      * {@code PUT  /word-infos} : Updates an existing wordInfo.
      *
@@ -82,21 +202,49 @@ public class WordInfoResource {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
         WordInfo result = wordInfoRepository.save(wordInfo);
-        wordInfoSearchRepository.save(result);
+        searchOutboxService.enqueue(WordInfo.class, result.getId());
+        wordCompletionService.putAfterCommit(result);
+        categoryIndexService.putAfterCommit(result);
+        wordSuggestionService.putAfterCommit(result);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, wordInfo.getId().toString()))
             .body(result);
     }
 
     /**
-     * {@code GET  /word-infos} : get all the wordInfos.
+     * {@code GET  /word-infos} : get all the wordInfos, or a page of them if a {@code page} or a {@code size} is requested.
      *
+     * @param pageable the pagination information.
+     * @param request the request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wordInfos in body.
      */
     @GetMapping("/word-infos")
-    public List<WordInfo> getAllWordInfos() {
-        log.debug("REST request to get all WordInfos");
-        return wordInfoRepository.findAll();
+    public ResponseEntity<List<WordInfo>> getAllWordInfos(Pageable pageable, HttpServletRequest request) {
+        if (!PageRequestUtil.isPageRequested(request)) {
+            log.debug("REST request to get all WordInfos");
+            return ResponseEntity.ok(wordInfoRepository.findAll(pageable.getSort()));
+        }
+        log.debug("REST request to get a page of WordInfos");
+        Page<WordInfo> page = wordInfoRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /word-infos/_stream} : get all the wordInfos, one per line of newline-delimited JSON.
+     * <p>
+     * The wordInfos are written as they are read from the database, so that the memory used does not depend on their number.
+     *
+     * @param response the response, with status {@code 200 (OK)} and with the wordInfos in body, ordered by id.
+     * @throws IOException if the wordInfos cannot be written.
+     */
+    @GetMapping(value = "/word-infos/_stream", produces = NdjsonUtil.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAllWordInfos(HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream all WordInfos");
+        try (Stream<WordInfo> wordInfos = wordInfoRepository.streamAllByOrderById()) {
+            NdjsonUtil.writeEntities(wordInfos, response, objectMapper, entityManager);
+        }
     }
 
     /**
@@ -112,6 +260,162 @@ public class WordInfoResource {
         return ResponseUtil.wrapOrNotFound(wordInfo);
     }
 
+    /**
+     * {@code GET  /word-infos/by-word/:word} : get the wordInfo of the "word" word.
+     *
+     * @param word the word of the wordInfo to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the wordInfo, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/word-infos/by-word/{word}")
+    @Transactional(readOnly = true)
+    public ResponseEntity<WordInfo> getWordInfoByWord(@PathVariable String word) {
+        log.debug("REST request to get WordInfo by word : {}", word);
+        return ResponseUtil.wrapOrNotFound(wordInfoRepository.findOneByWord(word));
+    }
+
+    /**
+     * {@code GET  /word-infos/complete?prefix=:prefix&limit=:limit} : complete a prefix with the words of the wordInfos.
+     *
+     * @param prefix the prefix to complete, case insensitive.
+     * @param limit the maximum number of wordInfos to return, capped at {@value #MAX_COMPLETION_LIMIT}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wordInfos in body, most thumbed first.
+     */
+    @GetMapping("/word-infos/complete")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<WordCompletionDTO> completeWordInfos(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        log.debug("REST request to complete {} WordInfos : {}", limit, prefix);
+        return wordCompletionService.complete(prefix, Math.min(limit, MAX_COMPLETION_LIMIT));
+    }
+
+    /**
+     * {@code GET  /word-infos/suggest?q=:q&limit=:limit} : suggest the words of the wordInfos closest to a misspelled word.
+     *
+     * @param q the word to correct, case insensitive.
+     * @param limit the maximum number of wordInfos to return, capped at {@value #MAX_SUGGESTION_LIMIT}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wordInfos within
+     * {@value WordSuggestionService#MAX_DISTANCE} edits of the word in body, closest first.
+     */
+    @GetMapping("/word-infos/suggest")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<WordSuggestionDTO> suggestWordInfos(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        log.debug("REST request to suggest {} WordInfos : {}", limit, q);
+        return wordSuggestionService.suggest(q, Math.min(limit, MAX_SUGGESTION_LIMIT));
+    }
+
+    /**
+     * {@code GET  /word-infos/:id/morphemes} : get the "id" wordInfo split into its morphemes.
+     *
+     * @param id the id of the wordInfo to split.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the morphemes of the wordInfo, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/word-infos/{id}/morphemes")
+    @Transactional(readOnly = true)
+    public ResponseEntity<WordMorphemesDTO> getWordInfoMorphemes(@PathVariable Long id) {
+        log.debug("REST request to get the morphemes of WordInfo : {}", id);
+        return ResponseUtil.wrapOrNotFound(wordInfoRepository.findById(id).map(this::toMorphemes));
+    }
+
+    /**
+     * {@code GET  /word-infos/morphemes?ids=:ids} : get some wordInfos split into their morphemes.
+     *
+     * @param ids the ids of the wordInfos to split, at most {@value #MAX_MORPHEME_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the morphemes of the existing wordInfos in body,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @GetMapping("/word-infos/morphemes")
+    @Transactional(readOnly = true)
+    public List<WordMorphemesDTO> getAllWordInfoMorphemes(@RequestParam List<Long> ids) {
+        log.debug("REST request to get the morphemes of WordInfos : {}", ids);
+        if (ids.size() > MAX_MORPHEME_IDS) {
+            throw new BadRequestAlertException("At most " + MAX_MORPHEME_IDS + " wordInfos can be split at once", ENTITY_NAME, "toomanyids");
+        }
+        return wordInfoRepository.findAllById(ids).stream().map(this::toMorphemes).collect(Collectors.toList());
+    }
+
+    /**
+     * {@code GET  /word-infos/:id/detail} : get the card of the "id" wordInfo, with its pictures, categoryWords, morphemes
+     * and the userThumbInfos of the current user.
+     *
+     * @param id the id of the wordInfo.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the card of the wordInfo, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/word-infos/{id}/detail")
+    @Transactional(readOnly = true)
+    public ResponseEntity<WordDetailDTO> getWordInfoDetail(@PathVariable Long id) {
+        log.debug("REST request to get the detail of WordInfo : {}", id);
+        return ResponseUtil.wrapOrNotFound(wordDetailService.getDetail(id));
+    }
+
+    /**
+     * {@code GET  /word-infos/details?ids=:ids} : get the cards of some wordInfos.
+     *
+     * @param ids the ids of the wordInfos, at most {@value #MAX_DETAIL_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the cards of the existing wordInfos in body,
+     * in the order of their ids, or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @GetMapping("/word-infos/details")
+    @Transactional(readOnly = true)
+    public List<WordDetailDTO> getAllWordInfoDetails(@RequestParam List<Long> ids) {
+        log.debug("REST request to get the details of WordInfos : {}", ids);
+        if (ids.size() > MAX_DETAIL_IDS) {
+            throw new BadRequestAlertException("At most " + MAX_DETAIL_IDS + " wordInfos can be fetched at once", ENTITY_NAME, "toomanyids");
+        }
+        return wordDetailService.getDetails(ids);
+    }
+
+    /**
+     * {@code GET  /word-infos/by-categories?all=:all&any=:any&none=:none&limit=:limit} : find the wordInfos by their morphemes.
+     * <p>
+     * Each morpheme is given as {@code CATEGORY:morpheme}, such as {@code ROOT:struct}.
+     *
+     * @param all the morphemes the wordInfos must all contain.
+     * @param any the morphemes the wordInfos must contain at least one of, if any.
+     * @param none the morphemes the wordInfos must not contain.
+     * @param limit the maximum number of ids to return, capped at {@value #MAX_CATEGORY_MATCHES_LIMIT}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of matching wordInfos and their first ids,
+     * or with status {@code 400 (Bad Request)} if a morpheme is not a prefix, root, affix or suffix.
+     */
+    @GetMapping("/word-infos/by-categories")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CategoryMatchesDTO getWordInfosByCategories(@RequestParam(defaultValue = "") List<String> all,
+                                                       @RequestParam(defaultValue = "") List<String> any,
+                                                       @RequestParam(defaultValue = "") List<String> none,
+                                                       @RequestParam(defaultValue = "100") int limit) {
+        log.debug("REST request to get {} WordInfos with all of {}, any of {} and none of {}", limit, all, any, none);
+        return categoryIndexService.query(all, any, none, Math.min(limit, MAX_CATEGORY_MATCHES_LIMIT))
+            .orElseThrow(() -> new BadRequestAlertException("Invalid category, expected PREFIX, ROOT, AFFIX or SUFFIX:morpheme",
+                ENTITY_NAME, "categoryinvalid"));
+    }
+
+    /**
+     * {@code GET  /word-infos/:id/top-pictures?k=:k} : get the best-voted pictures of the "id" wordInfo.
+     *
+     * @param id the id of the wordInfo.
+     * @param k the maximum number of pictures to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pictures in body, best first.
+     */
+    @GetMapping("/word-infos/{id}/top-pictures")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TopPictureDTO> getTopPictures(@PathVariable Long id, @RequestParam(defaultValue = "10") int k) {
+        log.debug("REST request to get the top {} pictures of WordInfo : {}", k, id);
+        return topPicturesService.getTopPictures(id, k);
+    }
+
+    /**
+     * {@code GET  /word-infos/trending?window=:window&k=:k} : get the wordInfos with the most thumbs recently.
+     *
+     * @param window the period to count the thumbs over, {@code 1h} or {@code 1d}.
+     * @param k the maximum number of wordInfos to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wordInfos in body, most thumbed first,
+     * or with status {@code 400 (Bad Request)} if the window is not supported.
+     */
+    @GetMapping("/word-infos/trending")
+    public List<TrendingWordDTO> getTrendingWordInfos(@RequestParam(defaultValue = "1h") String window, @RequestParam(defaultValue = "10") int k) {
+        log.debug("REST request to get the top {} trending WordInfos over {}", k, window);
+        return trendingService.getTrending(window, k)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid window, expected one of " + trendingService.getWindows(), ENTITY_NAME, "windowinvalid"));
+    }
+
     /**
      * {@code DELETE  /word-infos/:id} : delete the "id" wordInfo.
      *
@@ -122,22 +426,43 @@ public class WordInfoResource {
     public ResponseEntity<Void> deleteWordInfo(@PathVariable Long id) {
         log.debug("REST request to delete WordInfo : {}", id);
         wordInfoRepository.deleteById(id);
-        wordInfoSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(WordInfo.class, id);
+        wordCompletionService.removeAfterCommit(id);
+        categoryIndexService.removeAfterCommit(id);
+        wordSuggestionService.removeAfterCommit(id);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString())).build();
     }
 
     /**
      * {@code SEARCH  /_search/word-infos?query=:query} : search for the wordInfo corresponding
      * to the query.
+     * <p>
+     * With a {@code searchAfter} cursor, the pages are sorted by relevance then by id, and each one is searched after the
+     * last hit of the previous one, at the same cost at any depth: see {@link SearchAfterUtil}.
      *
      * @param query the query of the wordInfo search.
-     * @return the result of the search.
+     * @param searchAfter the cursor of the last hit of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the size of the page with a {@code searchAfter} cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wordInfos in body.
      */
     @GetMapping("/_search/word-infos")
-    public List<WordInfo> searchWordInfos(@RequestParam String query) {
-        log.debug("REST request to search WordInfos for query {}", query);
-        return StreamSupport
-            .stream(wordInfoSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<WordInfo>> searchWordInfos(@RequestParam String query, @RequestParam(required = false) String searchAfter,
+                                                          Pageable pageable) {
+        log.debug("REST request to search for a page of WordInfos for query {}", query);
+        if (searchAfter != null) {
+            SearchCursor after = SearchAfterUtil.parseCursor(searchAfter, ENTITY_NAME);
+            SearchAfterPage<WordInfo> page = searchCacheService.searchAfter(WordInfo.class, query, pageable.getPageSize(), searchAfter,
+                () -> searchAfterOperations.searchAfter(WordInfo.class, queryStringQuery(query), pageable.getPageSize(), after));
+            HttpHeaders headers = SearchAfterUtil.generateSearchAfterHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        Page<WordInfo> page = searchCacheService.search(WordInfo.class, query, pageable,
+            () -> wordInfoSearchRepository.search(queryStringQuery(query), pageable));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private WordMorphemesDTO toMorphemes(WordInfo wordInfo) {
+        return new WordMorphemesDTO(wordInfo.getId(), wordInfo.getWord(), morphemeService.decompose(wordInfo.getWord()));
     }
 }
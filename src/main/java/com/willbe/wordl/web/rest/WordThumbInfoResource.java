@@ -1,24 +1,54 @@
 package com.willbe.wordl.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.willbe.wordl.domain.WordThumbInfo;
 import com.willbe.wordl.repository.WordThumbInfoRepository;
 import com.willbe.wordl.repository.search.WordThumbInfoSearchRepository;
+import com.willbe.wordl.repository.search.SearchAfterOperations;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+import com.willbe.wordl.service.SearchCacheService;
+import com.willbe.wordl.service.SearchOutboxService;
+import com.willbe.wordl.security.AuthoritiesConstants;
+import com.willbe.wordl.service.DictionaryImportService;
+import com.willbe.wordl.service.ThumbCounterService;
+import com.willbe.wordl.service.ThumbReconciliationService;
+import com.willbe.wordl.service.ThumbedPicturesService;
+import com.willbe.wordl.service.TopPicturesService;
+import com.willbe.wordl.service.dto.DictionaryImportDTO;
+import com.willbe.wordl.service.dto.ThumbCountDTO;
+import com.willbe.wordl.service.dto.ThumbReconciliationDTO;
 import com.willbe.wordl.web.rest.errors.BadRequestAlertException;
+import com.willbe.wordl.web.rest.util.NdjsonUtil;
+import com.willbe.wordl.web.rest.util.PageRequestUtil;
+import com.willbe.wordl.web.rest.util.SearchAfterUtil;
 import io.github.jhipster.web.util.HeaderUtil;
+import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
 
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 
@@ -41,9 +71,44 @@ public class WordThumbInfoResource {
 
     private final WordThumbInfoSearchRepository wordThumbInfoSearchRepository;
 
-    public WordThumbInfoResource(WordThumbInfoRepository wordThumbInfoRepository, WordThumbInfoSearchRepository wordThumbInfoSearchRepository) {
+    private final SearchOutboxService searchOutboxService;
+
+    private final SearchAfterOperations searchAfterOperations;
+
+    private final SearchCacheService searchCacheService;
+
+    private final ThumbCounterService thumbCounterService;
+
+    private final TopPicturesService topPicturesService;
+
+    private final ThumbedPicturesService thumbedPicturesService;
+
+    private final ThumbReconciliationService thumbReconciliationService;
+
+    private final DictionaryImportService dictionaryImportService;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    public WordThumbInfoResource(WordThumbInfoRepository wordThumbInfoRepository, WordThumbInfoSearchRepository wordThumbInfoSearchRepository,
+                                 SearchOutboxService searchOutboxService, SearchAfterOperations searchAfterOperations, SearchCacheService searchCacheService,
+                                 ThumbCounterService thumbCounterService, TopPicturesService topPicturesService,
+                                 ThumbedPicturesService thumbedPicturesService, ThumbReconciliationService thumbReconciliationService,
+                                 DictionaryImportService dictionaryImportService,
+                                 ObjectMapper objectMapper, EntityManager entityManager) {
         this.wordThumbInfoRepository = wordThumbInfoRepository;
         this.wordThumbInfoSearchRepository = wordThumbInfoSearchRepository;
+        this.searchOutboxService = searchOutboxService;
+        this.searchAfterOperations = searchAfterOperations;
+        this.searchCacheService = searchCacheService;
+        this.thumbCounterService = thumbCounterService;
+        this.topPicturesService = topPicturesService;
+        this.thumbedPicturesService = thumbedPicturesService;
+        this.thumbReconciliationService = thumbReconciliationService;
+        this.dictionaryImportService = dictionaryImportService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -60,12 +125,39 @@ public class WordThumbInfoResource {
             throw new BadRequestAlertException("A new wordThumbInfo cannot already have an ID", ENTITY_NAME, "idexists");
         }
         WordThumbInfo result = wordThumbInfoRepository.save(wordThumbInfo);
-        wordThumbInfoSearchRepository.save(result);
+        searchOutboxService.enqueue(WordThumbInfo.class, result.getId());
+        thumbCounterService.clearThumbLidCacheAfterCommit();
+        thumbedPicturesService.clearAfterCommit();
+        topPicturesService.reloadAfterCommit(wordInfoId(result));
         return ResponseEntity.created(new URI("/api/word-thumb-infos/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /word-thumb-infos/_import} : Import the wordThumbInfos of a CSV or TSV file, in the format of the fake data.
+     * <p>
+     * The optional {@code word_id} or {@code word} column holds the id or the word of the wordInfo of each wordThumbInfo,
+     * the rows of unknown wordInfos are skipped. The ids of the file are ignored. The rows of the chunks which the database
+     * rejects are counted as failed.
+     *
+     * @param request the request, with the file in its body, encoded in UTF-8.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of the import,
+     * or with status {@code 400 (Bad Request)} if the file does not have the expected columns.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/word-thumb-infos/_import", consumes = {"text/csv", "text/tab-separated-values"})
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<DictionaryImportDTO> importWordThumbInfos(HttpServletRequest request) throws IOException {
+        log.debug("REST request to import WordThumbInfos");
+        try {
+            return ResponseEntity.ok(dictionaryImportService.importWordThumbInfos(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "columnmissing");
+        }
+    }
+
     /**
      * {@code PUT  /word-thumb-infos} : Updates an existing wordThumbInfo.
      *
@@ -81,22 +173,51 @@ public class WordThumbInfoResource {
         if (wordThumbInfo.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        Long previousWordInfoId = wordThumbInfoRepository.findById(wordThumbInfo.getId()).map(this::wordInfoId).orElse(null);
         WordThumbInfo result = wordThumbInfoRepository.save(wordThumbInfo);
-        wordThumbInfoSearchRepository.save(result);
+        searchOutboxService.enqueue(WordThumbInfo.class, result.getId());
+        thumbCounterService.clearThumbLidCacheAfterCommit();
+        thumbedPicturesService.clearAfterCommit();
+        topPicturesService.reloadAfterCommit(previousWordInfoId, wordInfoId(result));
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, wordThumbInfo.getId().toString()))
             .body(result);
     }
 
     /**
-     * {@code GET  /word-thumb-infos} : get all the wordThumbInfos.
+     * {@code GET  /word-thumb-infos} : get all the wordThumbInfos, or a page of them if a {@code page} or a {@code size} is requested.
      *
+     * @param pageable the pagination information.
+     * @param request the request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wordThumbInfos in body.
      */
     @GetMapping("/word-thumb-infos")
-    public List<WordThumbInfo> getAllWordThumbInfos() {
-        log.debug("REST request to get all WordThumbInfos");
-        return wordThumbInfoRepository.findAll();
+    public ResponseEntity<List<WordThumbInfo>> getAllWordThumbInfos(Pageable pageable, HttpServletRequest request) {
+        if (!PageRequestUtil.isPageRequested(request)) {
+            log.debug("REST request to get all WordThumbInfos");
+            return ResponseEntity.ok(wordThumbInfoRepository.findAll(pageable.getSort()));
+        }
+        log.debug("REST request to get a page of WordThumbInfos");
+        Page<WordThumbInfo> page = wordThumbInfoRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /word-thumb-infos/_stream} : get all the wordThumbInfos, one per line of newline-delimited JSON.
+     * <p>
+     * The wordThumbInfos are written as they are read from the database, so that the memory used does not depend on their number.
+     *
+     * @param response the response, with status {@code 200 (OK)} and with the wordThumbInfos in body, ordered by id.
+     * @throws IOException if the wordThumbInfos cannot be written.
+     */
+    @GetMapping(value = "/word-thumb-infos/_stream", produces = NdjsonUtil.APPLICATION_NDJSON_VALUE)
+    @Transactional(readOnly = true)
+    public void streamAllWordThumbInfos(HttpServletResponse response) throws IOException {
+        log.debug("REST request to stream all WordThumbInfos");
+        try (Stream<WordThumbInfo> wordThumbInfos = wordThumbInfoRepository.streamAllByOrderById()) {
+            NdjsonUtil.writeEntities(wordThumbInfos, response, objectMapper, entityManager);
+        }
     }
 
     /**
@@ -112,6 +233,31 @@ public class WordThumbInfoResource {
         return ResponseUtil.wrapOrNotFound(wordThumbInfo);
     }
 
+    /**
+     * {@code POST  /word-thumb-infos/:id/thumb} : Add a thumb to the "id" wordThumbInfo.
+     *
+     * @param id the id of the wordThumbInfo to thumb.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the current thumb count, or with status {@code 404 (Not Found)}.
+     */
+    @PostMapping("/word-thumb-infos/{id}/thumb")
+    public ResponseEntity<ThumbCountDTO> thumbWordThumbInfo(@PathVariable Long id) {
+        log.debug("REST request to thumb WordThumbInfo : {}", id);
+        return ResponseUtil.wrapOrNotFound(thumbCounterService.thumbWordThumbInfo(id));
+    }
+
+    /**
+     * {@code POST  /word-thumb-infos/_reconcile} : Reconcile the thumbs of the wordThumbInfos with their userThumbInfos.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body what was reconciled.
+     */
+    @PostMapping("/word-thumb-infos/_reconcile")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<ThumbReconciliationDTO> reconcileWordThumbInfos() {
+        log.debug("REST request to reconcile the thumbs of the WordThumbInfos");
+        return ResponseEntity.ok(thumbReconciliationService.reconcile());
+    }
+
     /**
      * {@code DELETE  /word-thumb-infos/:id} : delete the "id" wordThumbInfo.
      *
@@ -121,23 +267,45 @@ public class WordThumbInfoResource {
     @DeleteMapping("/word-thumb-infos/{id}")
     public ResponseEntity<Void> deleteWordThumbInfo(@PathVariable Long id) {
         log.debug("REST request to delete WordThumbInfo : {}", id);
+        Long previousWordInfoId = wordThumbInfoRepository.findById(id).map(this::wordInfoId).orElse(null);
         wordThumbInfoRepository.deleteById(id);
-        wordThumbInfoSearchRepository.deleteById(id);
+        searchOutboxService.enqueue(WordThumbInfo.class, id);
+        thumbCounterService.clearThumbLidCacheAfterCommit();
+        thumbedPicturesService.clearAfterCommit();
+        topPicturesService.reloadAfterCommit(previousWordInfoId);
         return ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString())).build();
     }
 
     /**
      * {@code SEARCH  /_search/word-thumb-infos?query=:query} : search for the wordThumbInfo corresponding
      * to the query.
+     * <p>
+     * With a {@code searchAfter} cursor, the pages are sorted by relevance then by id, and each one is searched after the
+     * last hit of the previous one, at the same cost at any depth: see {@link SearchAfterUtil}.
      *
      * @param query the query of the wordThumbInfo search.
-     * @return the result of the search.
+     * @param searchAfter the cursor of the last hit of the previous page, empty for the first page.
+     * @param pageable the pagination information, only the size of the page with a {@code searchAfter} cursor.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wordThumbInfos in body.
      */
     @GetMapping("/_search/word-thumb-infos")
-    public List<WordThumbInfo> searchWordThumbInfos(@RequestParam String query) {
-        log.debug("REST request to search WordThumbInfos for query {}", query);
-        return StreamSupport
-            .stream(wordThumbInfoSearchRepository.search(queryStringQuery(query)).spliterator(), false)
-            .collect(Collectors.toList());
+    public ResponseEntity<List<WordThumbInfo>> searchWordThumbInfos(@RequestParam String query, @RequestParam(required = false) String searchAfter,
+                                                                    Pageable pageable) {
+        log.debug("REST request to search for a page of WordThumbInfos for query {}", query);
+        if (searchAfter != null) {
+            SearchCursor after = SearchAfterUtil.parseCursor(searchAfter, ENTITY_NAME);
+            SearchAfterPage<WordThumbInfo> page = searchCacheService.searchAfter(WordThumbInfo.class, query, pageable.getPageSize(), searchAfter,
+                () -> searchAfterOperations.searchAfter(WordThumbInfo.class, queryStringQuery(query), pageable.getPageSize(), after));
+            HttpHeaders headers = SearchAfterUtil.generateSearchAfterHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return ResponseEntity.ok().headers(headers).body(page.getContent());
+        }
+        Page<WordThumbInfo> page = searchCacheService.search(WordThumbInfo.class, query, pageable,
+            () -> wordThumbInfoSearchRepository.search(queryStringQuery(query), pageable));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private Long wordInfoId(WordThumbInfo wordThumbInfo) {
+        return wordThumbInfo.getWord() == null ? null : wordThumbInfo.getWord().getId();
     }
 }
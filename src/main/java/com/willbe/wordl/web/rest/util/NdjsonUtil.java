@@ -0,0 +1,59 @@
+package com.willbe.wordl.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import javax.persistence.EntityManager;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Utility class for writing newline-delimited JSON responses.
+ */
+public final class NdjsonUtil {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int CLEAR_INTERVAL = 500;
+
+    private NdjsonUtil() {
+    }
+
+    /**
+     * Write entities to the response as they are read, one JSON document per line.
+     * <p>
+     * The persistence context is cleared regularly, so that it does not grow with the number of rows, which must therefore
+     * be read in a read-only transaction.
+     *
+     * @param entities the entities to write, typically a Spring Data {@link Stream} read with a JDBC fetch size.
+     * @param response the response to write to.
+     * @param objectMapper the mapper of the entities.
+     * @param entityManager the entity manager which reads the entities.
+     * @throws IOException if the response cannot be written.
+     */
+    public static void writeEntities(Stream<?> entities, HttpServletResponse response, ObjectMapper objectMapper,
+                                     EntityManager entityManager) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // the response is flushed when its buffer is full, not after every line
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // the documents are separated by the new lines only, not by the default space between root values
+            generator.setRootValueSeparator(null);
+            Iterator<?> iterator = entities.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
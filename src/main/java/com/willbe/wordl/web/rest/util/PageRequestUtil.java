@@ -0,0 +1,27 @@
+package com.willbe.wordl.web.rest.util;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Utility class for the list endpoints which are only paged on demand.
+ * <p>
+ * These endpoints returned all the entities before they were paged, so they still do unless a {@code page} or a
+ * {@code size} parameter asks for a page.
+ */
+public final class PageRequestUtil {
+
+    private static final String PAGE_PARAMETER = "page";
+
+    private static final String SIZE_PARAMETER = "size";
+
+    private PageRequestUtil() {
+    }
+
+    /**
+     * @param request the request of a list endpoint.
+     * @return {@code true} if the request asks for a page rather than for all the entities.
+     */
+    public static boolean isPageRequested(HttpServletRequest request) {
+        return request.getParameter(PAGE_PARAMETER) != null || request.getParameter(SIZE_PARAMETER) != null;
+    }
+}
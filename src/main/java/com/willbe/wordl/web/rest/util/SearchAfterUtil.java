@@ -0,0 +1,62 @@
+package com.willbe.wordl.web.rest.util;
+
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+import com.willbe.wordl.web.rest.errors.BadRequestAlertException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for the deep paging of the search endpoints with a {@code searchAfter} cursor.
+ * <p>
+ * The first page is requested with an empty {@code searchAfter} parameter, and each next page with the cursor of the
+ * {@code X-Search-After} header of the previous one, until a page has no such header.
+ */
+public final class SearchAfterUtil {
+
+    public static final String SEARCH_AFTER_HEADER = "X-Search-After";
+
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private SearchAfterUtil() {
+    }
+
+    /**
+     * Parse the {@code searchAfter} parameter of a search endpoint.
+     *
+     * @param searchAfter the parameter, empty for the first page.
+     * @param entityName the name of the searched entity, for the error alert.
+     * @return the cursor, {@code null} for the first page.
+     * @throws BadRequestAlertException if the cursor is not valid.
+     */
+    public static SearchCursor parseCursor(String searchAfter, String entityName) {
+        if (searchAfter.isEmpty()) {
+            return null;
+        }
+        try {
+            return SearchCursor.decode(searchAfter);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid search cursor", entityName, "invalidcursor");
+        }
+    }
+
+    /**
+     * Generate the headers of a page searched after a cursor: {@code X-Total-Count}, and {@code X-Search-After} with a
+     * {@code Link} to the next page, unless the page is the last one.
+     *
+     * @param uriBuilder the builder of the URI of the current request.
+     * @param page the page.
+     * @return the headers.
+     */
+    public static HttpHeaders generateSearchAfterHttpHeaders(UriComponentsBuilder uriBuilder, SearchAfterPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(TOTAL_COUNT_HEADER, Long.toString(page.getTotalHits()));
+        if (page.getNext() != null) {
+            String next = page.getNext().encode();
+            headers.add(SEARCH_AFTER_HEADER, next);
+            headers.add(HttpHeaders.LINK, "<" + uriBuilder.replaceQueryParam("searchAfter", next).toUriString() + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,74 @@
+package com.willbe.wordl.web.websocket;
+
+import com.willbe.wordl.service.dto.ThumbCountDTO;
+import com.willbe.wordl.service.event.WordThumbEvent;
+import com.willbe.wordl.web.websocket.dto.WordThumbCountsDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes the new thumb counts of the pictures of each word to {@code /topic/thumbs/{wordInfoId}}.
+ * <p>
+ * The thumbs are coalesced per word: a word gets at most one message every {@code application.thumb.push-interval-ms}
+ * milliseconds, holding the latest count of each of its pictures thumbed since the previous message.
+ */
+@Controller
+public class ThumbCountService {
+
+    public static final String THUMBS_TOPIC = "/topic/thumbs/";
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbCountService.class);
+
+    private final ConcurrentMap<Long, Map<Long, Long>> pendingCounts = new ConcurrentHashMap<>();
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    public ThumbCountService(SimpMessageSendingOperations messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @EventListener
+    public void onWordThumb(WordThumbEvent event) {
+        if (event.getWordInfoId() == null) {
+            return;
+        }
+        // the pictures of a word are only changed under the lock of its entry, which the sending takes away atomically
+        pendingCounts.compute(event.getWordInfoId(), (wordInfoId, counts) -> {
+            Map<Long, Long> updated = counts == null ? new HashMap<>() : counts;
+            updated.merge(event.getWordThumbInfoId(), event.getThumbNum(), Math::max);
+            return updated;
+        });
+    }
+
+    /**
+     * Send one message per word thumbed since the previous sending.
+     * <p>
+     * This is scheduled to get fired every {@code application.thumb.push-interval-ms} milliseconds.
+     */
+    @Scheduled(fixedDelayString = "${application.thumb.push-interval-ms:1000}", initialDelayString = "${application.thumb.push-interval-ms:1000}")
+    public void sendThumbCounts() {
+        for (Long wordInfoId : pendingCounts.keySet()) {
+            Map<Long, Long> counts = pendingCounts.remove(wordInfoId);
+            if (counts == null) {
+                continue;
+            }
+            List<ThumbCountDTO> wordThumbInfos = counts.entrySet().stream()
+                .map(entry -> new ThumbCountDTO(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+            log.debug("Sending the thumb counts of {} pictures of WordInfo : {}", wordThumbInfos.size(), wordInfoId);
+            messagingTemplate.convertAndSend(THUMBS_TOPIC + wordInfoId, new WordThumbCountsDTO(wordInfoId, wordThumbInfos));
+        }
+    }
+}
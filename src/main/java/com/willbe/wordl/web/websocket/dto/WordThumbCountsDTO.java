@@ -0,0 +1,48 @@
+package com.willbe.wordl.web.websocket.dto;
+
+import com.willbe.wordl.service.dto.ThumbCountDTO;
+
+import java.util.List;
+
+/**
+ * DTO for pushing the new thumb counts of the pictures of a word.
+ */
+public class WordThumbCountsDTO {
+
+    private Long wordInfoId;
+
+    private List<ThumbCountDTO> wordThumbInfos;
+
+    public WordThumbCountsDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public WordThumbCountsDTO(Long wordInfoId, List<ThumbCountDTO> wordThumbInfos) {
+        this.wordInfoId = wordInfoId;
+        this.wordThumbInfos = wordThumbInfos;
+    }
+
+    public Long getWordInfoId() {
+        return wordInfoId;
+    }
+
+    public void setWordInfoId(Long wordInfoId) {
+        this.wordInfoId = wordInfoId;
+    }
+
+    public List<ThumbCountDTO> getWordThumbInfos() {
+        return wordThumbInfos;
+    }
+
+    public void setWordThumbInfos(List<ThumbCountDTO> wordThumbInfos) {
+        this.wordThumbInfos = wordThumbInfos;
+    }
+
+    @Override
+    public String toString() {
+        return "WordThumbCountsDTO{" +
+            "wordInfoId=" + wordInfoId +
+            ", wordThumbInfos=" + wordThumbInfos +
+            "}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.willbe.wordl.repository;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.WordThumbInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Integration tests for {@link WordThumbShardRepository}.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+@Transactional
+public class WordThumbShardRepositoryIT {
+
+    @Autowired
+    private WordThumbInfoRepository wordThumbInfoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    private WordThumbShardRepository wordThumbShardRepository;
+
+    private WordThumbInfo wordThumbInfo;
+
+    @BeforeEach
+    public void setup() {
+        wordThumbShardRepository = new WordThumbShardRepository(jdbcTemplate, namedParameterJdbcTemplate);
+        wordThumbInfo = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(1));
+    }
+
+    @Test
+    public void addThumbsToShards() {
+        wordThumbShardRepository.addThumbs(Collections.singletonMap(wordThumbInfo.getId(), 3L), 4);
+        wordThumbShardRepository.addThumbs(Collections.singletonMap(wordThumbInfo.getId(), 2L), 4);
+
+        assertThat(wordThumbShardRepository.totalThumbNum(wordThumbInfo.getId())).isEqualTo(6L);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from word_thumb_shard where word_thumb_info_id = ?",
+            Integer.class, wordThumbInfo.getId())).isBetween(1, 2);
+    }
+
+    @Test
+    public void addThumbsToDeletedWordThumbInfo() {
+        wordThumbShardRepository.addThumbs(Collections.singletonMap(Long.MAX_VALUE, 3L), 4);
+
+        assertThat(wordThumbShardRepository.totalThumbNum(Long.MAX_VALUE)).isZero();
+    }
+
+    @Test
+    public void readTotalsInOneQuery() {
+        WordThumbInfo other = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo());
+        wordThumbShardRepository.addThumbs(Collections.singletonMap(wordThumbInfo.getId(), 3L), 4);
+        wordThumbShardRepository.addThumbs(Collections.singletonMap(other.getId(), 2L), 4);
+
+        assertThat(wordThumbShardRepository.totalThumbNums(Arrays.asList(wordThumbInfo.getId(), other.getId(), Long.MAX_VALUE)))
+            .containsOnly(entry(wordThumbInfo.getId(), 4L), entry(other.getId(), 2L));
+        assertThat(wordThumbShardRepository.totalThumbNums(Collections.emptyList())).isEmpty();
+    }
+
+    @Test
+    public void compactShards() {
+        wordThumbShardRepository.addThumbs(Collections.singletonMap(wordThumbInfo.getId(), 5L), 4);
+        assertThat(wordThumbShardRepository.totalThumbNum(wordThumbInfo.getId())).isEqualTo(6L);
+
+        assertThat(wordThumbShardRepository.compact()).containsExactly(wordThumbInfo.getId());
+        em.clear();
+
+        assertThat(wordThumbInfoRepository.findById(wordThumbInfo.getId()).get().getThumbNum()).isEqualTo(6);
+        assertThat(wordThumbShardRepository.totalThumbNum(wordThumbInfo.getId())).isEqualTo(6L);
+        assertThat(jdbcTemplate.queryForObject("select coalesce(sum(thumb_num), 0) from word_thumb_shard where word_thumb_info_id = ?",
+            Long.class, wordThumbInfo.getId())).isZero();
+        assertThat(wordThumbShardRepository.compact()).isEmpty();
+    }
+}
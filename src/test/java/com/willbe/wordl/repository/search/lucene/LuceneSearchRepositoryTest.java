@@ -0,0 +1,171 @@
+package com.willbe.wordl.repository.search.lucene;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.willbe.wordl.config.ElasticsearchConfiguration;
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.search.InvalidSearchException;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+
+/**
+ * Unit tests for {@link LuceneSearchRepository} and {@link LuceneIndex}.
+ */
+public class LuceneSearchRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private final Analyzer analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+
+    private final EntityMapper entityMapper = new ElasticsearchConfiguration(new ObjectMapper().registerModule(new JavaTimeModule()))
+        .getEntityMapper();
+
+    private LuceneIndex index;
+
+    private LuceneSearchRepository<WordThumbInfo> repository;
+
+    @BeforeEach
+    public void open() throws IOException {
+        index = new LuceneIndex("wordthumbinfo", directory, analyzer, 3600000);
+        repository = new LuceneSearchRepository<>(index, WordThumbInfo.class, WordThumbInfo::getId, analyzer, entityMapper);
+    }
+
+    @AfterEach
+    public void close() throws IOException {
+        index.close();
+    }
+
+    @Test
+    public void searchesLikeTheQueryStringQueries() {
+        repository.saveAll(Arrays.asList(wordThumbInfo(1L, "Apple", "http://pictures/red-apple.png"),
+            wordThumbInfo(2L, "Banana", "http://pictures/banana.png"),
+            wordThumbInfo(3L, "Apple pie", "http://pictures/pie.png")));
+
+        assertThat(repository.search(queryStringQuery("apple"))).extracting(WordThumbInfo::getId).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(repository.search(queryStringQuery("word.word:banana"))).extracting(WordThumbInfo::getId).containsExactly(2L);
+        assertThat(repository.search(queryStringQuery("ban*"))).extracting(WordThumbInfo::getId).containsExactly(2L);
+        assertThat(repository.search(queryStringQuery("\"apple pie\""))).extracting(WordThumbInfo::getId).containsExactly(3L);
+        assertThat(repository.search(queryStringQuery("apple AND NOT pie"))).extracting(WordThumbInfo::getId).containsExactly(1L);
+        assertThat(repository.search(queryStringQuery("id:2"))).extracting(WordThumbInfo::getPicUrl)
+            .containsExactly("http://pictures/banana.png");
+    }
+
+    @Test
+    public void replacesAndDeletesTheDocuments() {
+        repository.save(wordThumbInfo(1L, "Apple", "http://pictures/apple.png"));
+        repository.save(wordThumbInfo(1L, "Cherry", "http://pictures/cherry.png"));
+        repository.save(wordThumbInfo(2L, "Banana", "http://pictures/banana.png"));
+
+        assertThat(repository.search(queryStringQuery("apple"))).isEmpty();
+        assertThat(repository.search(queryStringQuery("cherry"))).extracting(WordThumbInfo::getId).containsExactly(1L);
+        assertThat(repository.count()).isEqualTo(2);
+
+        repository.deleteById(1L);
+
+        assertThat(repository.findById(1L)).isEmpty();
+        assertThat(repository.findAll()).extracting(WordThumbInfo::getId).containsExactly(2L);
+    }
+
+    @Test
+    public void pagesTheHitsInAStableOrder() {
+        for (long id = 1; id <= 5; id++) {
+            repository.indexWithoutRefresh(wordThumbInfo(id, "Apple", "http://pictures/apple-" + id + ".png"));
+        }
+        repository.refresh();
+
+        Page<WordThumbInfo> page = repository.search(queryStringQuery("apple"), PageRequest.of(1, 2));
+        Page<WordThumbInfo> descending = repository.search(matchAllQuery(), PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(WordThumbInfo::getId).containsExactly(3L, 4L);
+        assertThat(descending.getContent()).extracting(WordThumbInfo::getId).containsExactly(5L, 4L);
+    }
+
+    @Test
+    public void searchesThePagesAfterTheLastHit() {
+        for (long id = 1; id <= 5; id++) {
+            repository.indexWithoutRefresh(wordThumbInfo(id, id % 2 == 0 ? "Apple" : "Apple pie", "http://pictures/" + id + ".png"));
+        }
+        repository.refresh();
+
+        SearchAfterPage<WordThumbInfo> first = repository.searchAfter(queryStringQuery("apple"), 2, null);
+        SearchAfterPage<WordThumbInfo> second = repository.searchAfter(queryStringQuery("apple"), 2, SearchCursor.decode(first.getNext().encode()));
+        SearchAfterPage<WordThumbInfo> last = repository.searchAfter(queryStringQuery("apple"), 2, second.getNext());
+
+        // the shorter fields are more relevant, then the ids break the ties
+        assertThat(first.getContent()).extracting(WordThumbInfo::getId).containsExactly(2L, 4L);
+        assertThat(second.getContent()).extracting(WordThumbInfo::getId).containsExactly(1L, 3L);
+        assertThat(last.getContent()).extracting(WordThumbInfo::getId).containsExactly(5L);
+        assertThat(last.getTotalHits()).isEqualTo(5);
+        assertThat(last.getNext()).isNull();
+    }
+
+    @Test
+    public void keepsTheDocumentsWhenReopened() throws IOException {
+        repository.save(wordThumbInfo(1L, "Apple", "http://pictures/apple.png"));
+        index.close();
+
+        open();
+
+        assertThat(repository.findById(1L)).map(WordThumbInfo::getPicUrl).contains("http://pictures/apple.png");
+    }
+
+    @Test
+    public void rejectsInvalidQueries() {
+        assertThatThrownBy(() -> repository.search(queryStringQuery("apple AND (")))
+            .isInstanceOf(InvalidSearchException.class);
+    }
+
+    @Test
+    public void rejectsTheUnsupportedSearches() {
+        assertThatThrownBy(() -> repository.search(queryStringQuery("apple"), PageRequest.of(0, 2, Sort.by("picUrl"))))
+            .isInstanceOf(InvalidSearchException.class)
+            .hasFieldOrPropertyWithValue("entityName", "wordThumbInfo");
+        assertThatThrownBy(() -> repository.search(termQuery("picUrl", "apple")))
+            .isInstanceOf(InvalidSearchException.class);
+    }
+
+    @Test
+    public void rejectsThePagesBeyondTheResultWindow() {
+        repository.save(wordThumbInfo(1L, "Apple", "http://pictures/apple.png"));
+
+        assertThat(repository.search(queryStringQuery("apple"), PageRequest.of(499, 20)).getContent()).isEmpty();
+        assertThatThrownBy(() -> repository.search(queryStringQuery("apple"), PageRequest.of(500, 20)))
+            .isInstanceOf(InvalidSearchException.class);
+        // the offset of this page overflows an int
+        assertThatThrownBy(() -> repository.search(queryStringQuery("apple"), PageRequest.of(Integer.MAX_VALUE / 2, 20)))
+            .isInstanceOf(InvalidSearchException.class);
+    }
+
+    private static WordThumbInfo wordThumbInfo(Long id, String word, String picUrl) {
+        WordInfo wordInfo = new WordInfo().word(word);
+        wordInfo.setId(id + 100);
+        WordThumbInfo wordThumbInfo = new WordThumbInfo().picUrl(picUrl).word(wordInfo);
+        wordThumbInfo.setId(id);
+        return wordThumbInfo;
+    }
+}
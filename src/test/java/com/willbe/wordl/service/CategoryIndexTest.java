@@ -0,0 +1,90 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.CategoryMatchesDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CategoryIndex}.
+ */
+public class CategoryIndexTest {
+
+    private static final List<String> NONE = Collections.emptyList();
+
+    private CategoryIndex index;
+
+    @BeforeEach
+    public void init() {
+        index = new CategoryIndex();
+        index.put(10L, "Restruction", Arrays.asList("PREFIX:re", "ROOT:struct", "SUFFIX:ion"));
+        index.put(20L, "instruction", Arrays.asList("PREFIX:in", "ROOT:struct", "SUFFIX:ion"));
+        index.put(30L, "structure", Arrays.asList("ROOT:struct", "SUFFIX:ure"));
+        index.put(40L, "redict", Arrays.asList("PREFIX:re", "ROOT:dict"));
+    }
+
+    @Test
+    public void findsTheWordsWithAllTheMorphemes() {
+        assertThat(index.query(Arrays.asList("ROOT:struct", "SUFFIX:ion"), NONE, NONE, 10).getWordInfoIds()).containsExactly(10L, 20L);
+        assertThat(index.query(Arrays.asList("ROOT:struct", "SUFFIX:able"), NONE, NONE, 10).getWordInfoIds()).isEmpty();
+    }
+
+    @Test
+    public void findsTheWordsWithAnyOfTheMorphemes() {
+        assertThat(index.query(NONE, Arrays.asList("SUFFIX:ure", "ROOT:dict"), NONE, 10).getWordInfoIds()).containsExactly(30L, 40L);
+        assertThat(index.query(Collections.singletonList("ROOT:struct"), Arrays.asList("PREFIX:re", "PREFIX:in"), NONE, 10)
+            .getWordInfoIds()).containsExactly(10L, 20L);
+    }
+
+    @Test
+    public void excludesTheWordsWithNoneOfTheMorphemes() {
+        assertThat(index.query(Collections.singletonList("ROOT:struct"), NONE, Collections.singletonList("PREFIX:re"), 10)
+            .getWordInfoIds()).containsExactly(20L, 30L);
+        assertThat(index.query(NONE, NONE, Collections.singletonList("SUFFIX:ion"), 10).getWordInfoIds()).containsExactly(30L, 40L);
+    }
+
+    @Test
+    public void countsAllTheWordsButReturnsTheFirstOnes() {
+        CategoryMatchesDTO matches = index.query(Collections.singletonList("ROOT:struct"), NONE, NONE, 2);
+
+        assertThat(matches.getTotal()).isEqualTo(3);
+        assertThat(matches.getWordInfoIds()).containsExactly(10L, 20L);
+    }
+
+    @Test
+    public void replacesAndRemovesTheMorphemesOfAWord() {
+        index.put(10L, "dict", Collections.singletonList("ROOT:dict"));
+        index.remove(40L);
+
+        assertThat(index.query(Collections.singletonList("ROOT:dict"), NONE, NONE, 10).getWordInfoIds()).containsExactly(10L);
+        assertThat(index.query(Collections.singletonList("PREFIX:re"), NONE, NONE, 10).getWordInfoIds()).isEmpty();
+        assertThat(index.query(NONE, NONE, NONE, 10).getWordInfoIds()).containsExactly(10L, 20L, 30L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void findsTheWordsContainingMorphemes() {
+        index.remove(30L);
+
+        assertThat(index.wordsContaining(Arrays.asList("restr", "dict"))).containsOnlyKeys(10L, 40L).containsEntry(10L, "restruction");
+        assertThat(index.wordsContaining(Collections.singletonList("ure"))).isEmpty();
+    }
+
+    @Test
+    public void handlesDenseMorphemes() {
+        for (long id = 100; id < 400; id++) {
+            index.put(id, "struct", id % 3 == 0 ? Arrays.asList("ROOT:struct", "SUFFIX:ion") : Collections.singletonList("ROOT:struct"));
+        }
+        index.remove(102L);
+
+        assertThat(index.query(Collections.singletonList("ROOT:struct"), NONE, NONE, 1000).getTotal()).isEqualTo(302);
+        assertThat(index.query(Arrays.asList("ROOT:struct", "SUFFIX:ion"), NONE, NONE, 1000).getTotal()).isEqualTo(101);
+        assertThat(index.query(Collections.singletonList("ROOT:struct"), NONE, Collections.singletonList("SUFFIX:ion"), 1000)
+            .getWordInfoIds()).hasSize(201).contains(30L, 101L).doesNotContain(10L, 102L, 105L);
+    }
+}
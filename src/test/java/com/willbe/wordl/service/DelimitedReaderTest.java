@@ -0,0 +1,45 @@
+package com.willbe.wordl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link DelimitedReader}.
+ */
+public class DelimitedReaderTest {
+
+    @Test
+    public void readsTheFakeDataFormat() throws IOException {
+        DelimitedReader reader = new DelimitedReader(new StringReader("id;word\n1;5th generation architect\n2;payment Fish\n"));
+
+        assertThat(reader.getHeader()).containsExactly("id", "word");
+        assertThat(reader.next()).containsExactly("1", "5th generation architect");
+        assertThat(reader.next()).containsExactly("2", "payment Fish");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    public void detectsTabsAndReadsEmptyFieldsAsNull() throws IOException {
+        DelimitedReader reader = new DelimitedReader(new StringReader("\uFEFFid\tthumb_num\tpic_url\r\n1\t\tcat.png\r\n\r\n  \n2\t3"));
+
+        assertThat(reader.getHeader()).containsExactly("id", "thumb_num", "pic_url");
+        assertThat(reader.next()).containsExactly("1", null, "cat.png");
+        assertThat(reader.next()).containsExactly("2", "3", null);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    public void readsQuotedFields() throws IOException {
+        DelimitedReader reader = new DelimitedReader(new StringReader("id,word,thumb_lid\n" +
+            "1,\"one, two\",\"say \"\"hi\"\"\"\n" +
+            "2,\"multi\nline\",\"\"\n"));
+
+        assertThat(reader.next()).containsExactly("1", "one, two", "say \"hi\"");
+        assertThat(reader.next()).containsExactly("2", "multi\nline", "");
+        assertThat(reader.next()).isNull();
+    }
+}
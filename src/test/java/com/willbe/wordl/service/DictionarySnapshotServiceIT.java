@@ -0,0 +1,63 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.config.ApplicationProperties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link DictionarySnapshotService}.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+public class DictionarySnapshotServiceIT {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TopPicturesService topPicturesService;
+
+    @Test
+    public void buildASnapshotAtStartupWhenThereIsNone() {
+        DictionarySnapshotService dictionarySnapshotService = newDictionarySnapshotService();
+        assertThat(dictionarySnapshotService.getSnapshot()).isEmpty();
+
+        dictionarySnapshotService.loadLatest();
+
+        assertThat(dictionarySnapshotService.getSnapshot()).hasValueSatisfying(snapshot ->
+            assertThat(Files.exists(snapshot.getPath())).isTrue());
+    }
+
+    @Test
+    public void serveTheSnapshotOfThePreviousRunAtStartup() throws Exception {
+        long version = newDictionarySnapshotService().build();
+
+        DictionarySnapshotService dictionarySnapshotService = newDictionarySnapshotService();
+        dictionarySnapshotService.loadLatest();
+
+        assertThat(dictionarySnapshotService.getSnapshot()).hasValueSatisfying(snapshot ->
+            assertThat(snapshot.getVersion()).isEqualTo(version));
+    }
+
+    private DictionarySnapshotService newDictionarySnapshotService() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSnapshot().setDirectory(directory.toString());
+        return new DictionarySnapshotService(jdbcTemplate, transactionManager, topPicturesService, applicationProperties);
+    }
+}
@@ -0,0 +1,106 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.DictionarySnapshot.Picture;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link DictionarySnapshot}.
+ */
+public class DictionarySnapshotTest {
+
+    @Test
+    public void readsTheSnapshotItWrites() throws IOException {
+        DictionarySnapshot content = new DictionarySnapshot();
+        content.putWord(1051L, "cat");
+        content.putWord(1052L, null);
+        content.putWord(2000L, "catalogue");
+        content.putCategoryWord(7L, "ROOT", "cat");
+        content.putCategoryWord(8L, null, "cat");
+        content.putPictures(1051L, Arrays.asList(new Picture(3L, "cat.png"), new Picture(4L, null)));
+
+        DictionarySnapshot read = new DictionarySnapshot();
+        assertThat(read.readChanges(new ByteArrayInputStream(write(content, null, 0, 42)), 0)).isEqualTo(42);
+
+        assertThat(read).isEqualTo(content);
+        assertThat(read.getWords()).containsEntry(1052L, null);
+        assertThat(read.getCategoryWords().get(8L)).containsExactly(null, "cat");
+    }
+
+    @Test
+    public void appliesTheDeltaBetweenTwoVersions() throws IOException {
+        DictionarySnapshot from = new DictionarySnapshot();
+        from.putWord(1L, "cat");
+        from.putWord(2L, "dog");
+        from.putCategoryWord(7L, "ROOT", "cat");
+        from.putPictures(1L, Arrays.asList(new Picture(3L, "cat.png")));
+        from.putPictures(2L, Arrays.asList(new Picture(5L, "dog.png")));
+        DictionarySnapshot to = new DictionarySnapshot();
+        to.putWord(1L, "Cat");
+        to.putWord(9L, "bird");
+        to.putCategoryWord(7L, "ROOT", "cat");
+        to.putPictures(1L, Arrays.asList(new Picture(3L, "cat.png"), new Picture(5L, "dog.png")));
+
+        byte[] snapshot = write(from, null, 0, 1);
+        byte[] delta = write(to, from, 1, 2);
+        DictionarySnapshot read = new DictionarySnapshot();
+        read.readChanges(new ByteArrayInputStream(snapshot), 0);
+        assertThat(read.readChanges(new ByteArrayInputStream(delta), 1)).isEqualTo(2);
+
+        assertThat(read).isEqualTo(to);
+    }
+
+    @Test
+    public void rejectsADeltaFromAnotherVersion() throws IOException {
+        DictionarySnapshot content = new DictionarySnapshot();
+        content.putWord(1L, "cat");
+        byte[] delta = write(content, new DictionarySnapshot(), 5, 6);
+
+        assertThatThrownBy(() -> new DictionarySnapshot().readChanges(new ByteArrayInputStream(delta), 4)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void derivesTheVersionFromTheContent() {
+        DictionarySnapshot content = new DictionarySnapshot();
+        content.putWord(1L, "cat");
+        content.putPictures(1L, Arrays.asList(new Picture(3L, "cat.png")));
+        DictionarySnapshot same = new DictionarySnapshot();
+        same.putPictures(1L, Arrays.asList(new Picture(3L, "cat.png")));
+        same.putWord(1L, "cat");
+        DictionarySnapshot other = new DictionarySnapshot();
+        other.putWord(1L, "Cat");
+        other.putPictures(1L, Arrays.asList(new Picture(3L, "cat.png")));
+
+        assertThat(content.version()).isPositive().isEqualTo(same.version()).isNotEqualTo(other.version());
+    }
+
+    @Test
+    public void writesVariableLengthIntegers() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        long[] values = {0, 127, 128, 300, Integer.MAX_VALUE, Long.MAX_VALUE};
+        for (long value : values) {
+            DictionarySnapshot.writeVarLong(out, value);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (long value : values) {
+            assertThat(DictionarySnapshot.readVarLong(in)).isEqualTo(value);
+        }
+        assertThat(bytes.size()).isEqualTo(1 + 1 + 2 + 2 + 5 + 9);
+    }
+
+    private static byte[] write(DictionarySnapshot content, DictionarySnapshot from, long fromVersion, long toVersion) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.writeChanges(out, from, fromVersion, toVersion);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,58 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.enumeration.Category;
+import com.willbe.wordl.service.dto.MorphemeDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for {@link MorphemeAutomaton}.
+ */
+public class MorphemeAutomatonTest {
+
+    private MorphemeAutomaton automaton;
+
+    @BeforeEach
+    public void init() {
+        Map<Category, List<String>> morphemes = new EnumMap<>(Category.class);
+        morphemes.put(Category.PREFIX, Arrays.asList("un", "re", "in"));
+        morphemes.put(Category.ROOT, Arrays.asList("break", "struct", "dict"));
+        morphemes.put(Category.SUFFIX, Arrays.asList("able", "ion", "s"));
+        morphemes.put(Category.SITUATION, Collections.singletonList("unbreak"));
+        automaton = new MorphemeAutomaton(morphemes);
+    }
+
+    @Test
+    public void splitsAWordIntoPrefixRootAndSuffix() {
+        assertThat(automaton.decompose("Unbreakable")).extracting(MorphemeDTO::getText, MorphemeDTO::getCategory, MorphemeDTO::getStart)
+            .containsExactly(tuple("Un", Category.PREFIX, 0), tuple("break", Category.ROOT, 2), tuple("able", Category.SUFFIX, 7));
+        assertThat(automaton.decompose("reconstructions")).extracting(MorphemeDTO::getText, MorphemeDTO::getCategory)
+            .containsExactly(tuple("re", Category.PREFIX), tuple("con", null), tuple("struct", Category.ROOT),
+                tuple("ion", Category.SUFFIX), tuple("s", Category.SUFFIX));
+    }
+
+    @Test
+    public void keepsTheOrderOfTheCategories() {
+        // "in" is only a prefix, so it cannot follow the root
+        assertThat(automaton.decompose("dictin")).extracting(MorphemeDTO::getText, MorphemeDTO::getCategory)
+            .containsExactly(tuple("dict", Category.ROOT), tuple("in", null));
+    }
+
+    @Test
+    public void returnsTheWholeWordWithoutMorphemes() {
+        assertThat(automaton.decompose("xyz")).extracting(MorphemeDTO::getText, MorphemeDTO::getCategory)
+            .containsExactly(tuple("xyz", null));
+        assertThat(automaton.decompose("")).isEmpty();
+        assertThat(automaton.decompose(null)).isEmpty();
+        assertThat(automaton.size()).isEqualTo(9);
+    }
+}
@@ -0,0 +1,78 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.CategoryWord;
+import com.willbe.wordl.service.dto.MorphemeDTO;
+import com.willbe.wordl.service.event.MorphemesCompiledEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link MorphemeService}.
+ */
+public class MorphemeServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private MorphemeService morphemeService;
+
+    @BeforeEach
+    public void init() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        applicationEventPublisher = mock(ApplicationEventPublisher.class);
+        morphemeService = new MorphemeService(jdbcTemplate, mock(PlatformTransactionManager.class), applicationEventPublisher);
+    }
+
+    @Test
+    public void compilesTheWrittenCategoryWords() {
+        morphemeService.putAfterCommit(categoryWord(1L, "PREFIX", "un"));
+        morphemeService.putAfterCommit(categoryWord(2L, "ROOT", "Break"));
+
+        assertThat(morphemeService.decompose("unbreak")).extracting(MorphemeDTO::getText).containsExactly("un", "break");
+        assertThat(changedMorphemes()).containsExactly("break");
+
+        morphemeService.putAfterCommit(categoryWord(2L, "ROOT", "brea"));
+        assertThat(changedMorphemes()).containsExactlyInAnyOrder("break", "brea");
+
+        morphemeService.removeAfterCommit(1L);
+        assertThat(morphemeService.decompose("unbreak")).extracting(MorphemeDTO::getText).containsExactly("un", "brea", "k");
+        assertThat(changedMorphemes()).containsExactly("un");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void compilesOnlyTheChangedMorphemes() {
+        morphemeService.putAfterCommit(categoryWord(1L, "ROOT", "break"));
+        morphemeService.putAfterCommit(categoryWord(2L, "ROOT", "BREAK"));
+        morphemeService.putAfterCommit(categoryWord(3L, "SITUATION", "home"));
+        morphemeService.removeAfterCommit(1L);
+        morphemeService.removeAfterCommit(4L);
+
+        // only the first categoryWord added a morpheme
+        verify(applicationEventPublisher, times(1)).publishEvent(any(MorphemesCompiledEvent.class));
+        assertThat(morphemeService.decompose("break")).extracting(MorphemeDTO::getText).containsExactly("break");
+    }
+
+    private Set<String> changedMorphemes() {
+        ArgumentCaptor<MorphemesCompiledEvent> event = ArgumentCaptor.forClass(MorphemesCompiledEvent.class);
+        verify(applicationEventPublisher, atLeastOnce()).publishEvent(event.capture());
+        return event.getValue().getChangedMorphemes();
+    }
+
+    private static CategoryWord categoryWord(Long id, String category, String word) {
+        CategoryWord categoryWord = new CategoryWord().category(category).word(word);
+        categoryWord.setId(id);
+        return categoryWord;
+    }
+}
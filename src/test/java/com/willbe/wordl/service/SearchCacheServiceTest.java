@@ -0,0 +1,126 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.domain.Feedback;
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.repository.search.SearchAfterPage;
+import com.willbe.wordl.repository.search.SearchCursor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SearchCacheService}.
+ */
+public class SearchCacheServiceTest {
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    private MeterRegistry meterRegistry;
+
+    private SearchCacheService searchCacheService;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchCacheService = new SearchCacheService(new ConcurrentMapCacheManager(), meterRegistry);
+    }
+
+    @Test
+    public void searchesAPageOnlyOnce() {
+        Page<WordInfo> page = search("word:apple", PageRequest.of(0, 20));
+
+        assertThat(search("word:apple", PageRequest.of(0, 20))).isSameAs(page);
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    public void normalizesTheQueries() {
+        search("word:apple AND lang:en", PageRequest.of(0, 20));
+        search("  word:apple \t AND  lang:en ", PageRequest.of(0, 20));
+        assertThat(searches).hasValue(1);
+
+        search("word:apple and lang:en", PageRequest.of(0, 20));
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    public void searchesEachPage() {
+        search("word:apple", PageRequest.of(0, 20));
+        search("word:apple", PageRequest.of(1, 20));
+        search("word:apple", PageRequest.of(0, 10));
+        search("word:apple", PageRequest.of(0, 20, Sort.by("id")));
+        assertThat(searches).hasValue(4);
+
+        searchAfter("word:apple", "");
+        searchAfter("word:apple", new SearchCursor(1.5f, 42L).encode());
+        searchAfter("word:apple", "");
+        assertThat(searches).hasValue(6);
+    }
+
+    @Test
+    public void searchesAgainAfterAWriteToTheIndex() {
+        search("word:apple", PageRequest.of(0, 20));
+        searchAfter("word:apple", "");
+
+        searchCacheService.invalidate(WordInfo.class);
+        search("word:apple", PageRequest.of(0, 20));
+        searchAfter("word:apple", "");
+        assertThat(searches).hasValue(4);
+
+        searchCacheService.invalidate("wordinfo");
+        search("word:apple", PageRequest.of(0, 20));
+        assertThat(searches).hasValue(5);
+    }
+
+    @Test
+    public void keepsThePagesOfTheOtherIndices() {
+        search("word:apple", PageRequest.of(0, 20));
+
+        searchCacheService.invalidate(Feedback.class);
+        searchCacheService.invalidate("unknown");
+        search("word:apple", PageRequest.of(0, 20));
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    public void measuresTheHitRatioAndTheLatencySaved() {
+        assertThat(meterRegistry.get("search.cache.hit.ratio").tag("index", "wordinfo").gauge().value()).isNaN();
+
+        search("word:apple", PageRequest.of(0, 20));
+        search("word:apple", PageRequest.of(0, 20));
+        search("word:apple", PageRequest.of(0, 20));
+        search("word:pear", PageRequest.of(0, 20));
+
+        assertThat(meterRegistry.get("search.cache.gets").tags("index", "wordinfo", "result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("search.cache.gets").tags("index", "wordinfo", "result", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("search.cache.hit.ratio").tag("index", "wordinfo").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("search.cache.latency.saved").tag("index", "wordinfo").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("search.cache.hit.ratio").tag("index", "feedback").gauge().value()).isNaN();
+    }
+
+    private Page<WordInfo> search(String query, PageRequest pageable) {
+        return searchCacheService.search(WordInfo.class, query, pageable, () -> {
+            searches.incrementAndGet();
+            return new PageImpl<>(Collections.singletonList(new WordInfo()), pageable, 1);
+        });
+    }
+
+    private SearchAfterPage<WordInfo> searchAfter(String query, String searchAfter) {
+        return searchCacheService.searchAfter(WordInfo.class, query, 20, searchAfter, () -> {
+            searches.incrementAndGet();
+            return new SearchAfterPage<>(Collections.singletonList(new WordInfo()), 1, null);
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.Feedback;
+import com.willbe.wordl.repository.FeedbackRepository;
+import com.willbe.wordl.repository.search.FeedbackSearchRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+
+import static com.willbe.wordl.web.rest.TestUtil.iterableContaining;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration tests for {@link SearchOutboxService}.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+@Transactional
+public class SearchOutboxServiceIT {
+
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    /**
+     * This repository is mocked in the com.willbe.wordl.repository.search test package.
+     *
+     * @see com.willbe.wordl.repository.search.FeedbackSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private FeedbackSearchRepository mockFeedbackSearchRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void drainPendingRows() {
+        searchOutboxService.drain();
+        clearInvocations(mockFeedbackSearchRepository);
+    }
+
+    @Test
+    public void drainIndexesTheLatestStateOnce() {
+        Feedback updated = feedbackRepository.saveAndFlush(new Feedback().content("first"));
+        Feedback other = feedbackRepository.saveAndFlush(new Feedback().content("other"));
+        searchOutboxService.enqueue(Feedback.class, updated.getId());
+        updated.setContent("second");
+        feedbackRepository.saveAndFlush(updated);
+        searchOutboxService.enqueueAll(Feedback.class, Arrays.asList(updated.getId(), other.getId()));
+
+        assertThat(searchOutboxService.drain()).isEqualTo(3);
+
+        verify(mockFeedbackSearchRepository, times(1)).saveAll(iterableContaining(updated));
+        verify(mockFeedbackSearchRepository, times(1)).saveAll(iterableContaining(other));
+        assertThat(updated.getContent()).isEqualTo("second");
+        assertThat(searchOutboxService.drain()).isZero();
+    }
+
+    @Test
+    public void drainRemovesDeletedDocuments() {
+        Feedback feedback = feedbackRepository.saveAndFlush(new Feedback().content("deleted"));
+        feedbackRepository.delete(feedback);
+        feedbackRepository.flush();
+        searchOutboxService.enqueue(Feedback.class, feedback.getId());
+
+        assertThat(searchOutboxService.drain()).isEqualTo(1);
+
+        verify(mockFeedbackSearchRepository, times(1)).deleteById(feedback.getId());
+        verify(mockFeedbackSearchRepository, never()).saveAll(anyIterable());
+        assertThat(meterRegistry.get("search.outbox.deleted").counter().count()).isPositive();
+    }
+
+    @Test
+    public void drainRetriesFailedDocumentsLater() {
+        Feedback feedback = feedbackRepository.saveAndFlush(new Feedback().content("failed"));
+        searchOutboxService.enqueue(Feedback.class, feedback.getId());
+        doThrow(new ElasticsearchException("Elasticsearch is down")).when(mockFeedbackSearchRepository).saveAll(anyIterable());
+
+        assertThat(searchOutboxService.drain()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.outbox.pending").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.outbox.lag").timeGauge().value()).isNotNegative();
+
+        // the row waits for its retry delay before being drained again
+        reset(mockFeedbackSearchRepository);
+        assertThat(searchOutboxService.drain()).isZero();
+        verify(mockFeedbackSearchRepository, never()).saveAll(anyIterable());
+        assertThat(meterRegistry.get("search.outbox.pending").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void drainHoldsBackTheRowsOfAnIndexBeingRebuilt() {
+        Feedback feedback = feedbackRepository.saveAndFlush(new Feedback().content("held"));
+        searchOutboxService.hold("feedback");
+        searchOutboxService.enqueue(Feedback.class, feedback.getId());
+
+        assertThat(searchOutboxService.drain()).isZero();
+
+        searchOutboxService.release("feedback");
+        assertThat(searchOutboxService.drain()).isEqualTo(1);
+        verify(mockFeedbackSearchRepository, times(1)).saveAll(iterableContaining(feedback));
+    }
+}
@@ -0,0 +1,88 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.Feedback;
+import com.willbe.wordl.repository.FeedbackRepository;
+import com.willbe.wordl.service.dto.ReindexProgressDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.elasticsearch.index.query.QueryBuilders.idsQuery;
+
+/**
+ * Integration tests for {@link SearchReindexService}, against the embedded Elasticsearch node.
+ * <p>
+ * Not transactional: the pages are read in their own transactions, which only see committed rows.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+public class SearchReindexServiceIT {
+
+    @Autowired
+    private SearchReindexService searchReindexService;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
+    private final List<Feedback> feedbacks = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        feedbackRepository.deleteAll(feedbacks);
+    }
+
+    @Test
+    public void reindexReplacesTheIndexBehindTheAlias() {
+        for (int i = 0; i < 5; i++) {
+            feedbacks.add(feedbackRepository.saveAndFlush(new Feedback().content("reindexed " + i)));
+        }
+        // the index created before the alias has the name of the alias
+        if (!elasticsearchOperations.indexExists("feedback")) {
+            elasticsearchOperations.createIndex(Feedback.class);
+        }
+
+        ReindexProgressDTO first = searchReindexService.reindex(Collections.singleton("feedback")).get(0);
+
+        assertThat(first.getStatus()).isEqualTo(ReindexProgressDTO.Status.COMPLETED);
+        assertThat(first.getTargetIndex()).startsWith("feedback-");
+        assertThat(first.getIndexed()).isEqualTo(first.getTotal()).isGreaterThanOrEqualTo(feedbacks.size());
+        assertThat(first.getFailed()).isZero();
+        assertThat(countFeedbacks()).isEqualTo(feedbacks.size());
+        assertThat(searchReindexService.getProgress()).extracting(ReindexProgressDTO::getIndexName).containsExactly("feedback");
+
+        ReindexProgressDTO second = searchReindexService.reindex(Collections.singleton("feedback")).get(0);
+
+        assertThat(second.getStatus()).isEqualTo(ReindexProgressDTO.Status.COMPLETED);
+        assertThat(elasticsearchOperations.indexExists(second.getTargetIndex())).isTrue();
+        assertThat(elasticsearchOperations.indexExists(first.getTargetIndex())).isFalse();
+        assertThat(countFeedbacks()).isEqualTo(feedbacks.size());
+    }
+
+    @Test
+    public void reindexRejectsUnknownIndices() {
+        assertThatThrownBy(() -> searchReindexService.reindex(Collections.singleton("unknown")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(searchReindexService.getIndexNames())
+            .containsExactlyInAnyOrder("wordinfo", "categoryword", "wordthumbinfo", "userthumbinfo", "feedback", "user");
+    }
+
+    private long countFeedbacks() {
+        return elasticsearchOperations.count(new NativeSearchQueryBuilder()
+            .withIndices("feedback")
+            .withQuery(idsQuery().addIds(feedbacks.stream().map(feedback -> feedback.getId().toString()).toArray(String[]::new)))
+            .build());
+    }
+}
@@ -0,0 +1,62 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.WordSuggestionDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SymSpellIndex}.
+ */
+public class SymSpellIndexTest {
+
+    @Test
+    public void suggestsTheClosestWordsFirst() {
+        SymSpellIndex index = new SymSpellIndex(2, 7);
+        index.put(1L, "Receive");
+        index.put(2L, "relieve");
+        index.put(3L, "deceive");
+        index.put(4L, "zebra");
+
+        assertThat(index.suggest("recieve", 10)).extracting(WordSuggestionDTO::getId).containsExactly(1L, 2L, 3L);
+        assertThat(index.suggest("recieve", 10)).extracting(WordSuggestionDTO::getDistance).containsExactly(1, 1, 2);
+        assertThat(index.suggest("RECEIVE", 1)).extracting(WordSuggestionDTO::getDistance).containsExactly(0);
+        assertThat(index.suggest("zbera", 10)).extracting(WordSuggestionDTO::getWord).containsExactly("zebra");
+        assertThat(index.suggest("xylophone", 10)).isEmpty();
+    }
+
+    @Test
+    public void findsLongWordsByTheirPrefix() {
+        SymSpellIndex index = new SymSpellIndex(2, 7);
+        index.put(1L, "accommodation");
+
+        assertThat(index.suggest("acomodation", 10)).extracting(WordSuggestionDTO::getDistance).containsExactly(2);
+        assertThat(index.suggest("accommodatoin", 10)).extracting(WordSuggestionDTO::getDistance).containsExactly(1);
+    }
+
+    @Test
+    public void updatesAndRemovesWords() {
+        SymSpellIndex index = new SymSpellIndex(2, 7);
+        index.put(1L, "cat");
+        index.put(2L, "Cat");
+        index.put(1L, "dog");
+
+        assertThat(index.suggest("cat", 10)).extracting(WordSuggestionDTO::getId).containsExactly(2L);
+        assertThat(index.suggest("dgo", 10)).extracting(WordSuggestionDTO::getId).containsExactly(1L);
+
+        index.remove(2L);
+        index.remove(1L);
+
+        assertThat(index.suggest("cat", 10)).isEmpty();
+        assertThat(index.suggest("dog", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    public void computesTheOptimalStringAlignmentDistance() {
+        assertThat(SymSpellIndex.distance("recieve", "receive", 2)).isEqualTo(1);
+        assertThat(SymSpellIndex.distance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(SymSpellIndex.distance("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(SymSpellIndex.distance("", "ab", 2)).isEqualTo(2);
+    }
+}
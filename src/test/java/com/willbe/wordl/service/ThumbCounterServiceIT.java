@@ -0,0 +1,168 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.config.ApplicationProperties;
+import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.UserThumbInfoRepository;
+import com.willbe.wordl.repository.WordThumbInfoRepository;
+import com.willbe.wordl.repository.search.WordThumbInfoSearchRepository;
+import com.willbe.wordl.service.dto.ThumbRebuildDTO;
+import com.willbe.wordl.service.journal.ThumbJournal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.willbe.wordl.web.rest.TestUtil.iterableContaining;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Integration tests for {@link ThumbCounterService}.
+ * <p>
+ * Not transactional: the rebuilt rows are indexed again by the drain of the search outbox, which only sees committed rows.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+public class ThumbCounterServiceIT {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private ThumbCounterService thumbCounterService;
+
+    @Autowired
+    private WordThumbInfoRepository wordThumbInfoRepository;
+
+    @Autowired
+    private UserThumbInfoRepository userThumbInfoRepository;
+
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * This repository is mocked in the com.willbe.wordl.repository.search test package.
+     *
+     * @see com.willbe.wordl.repository.search.WordThumbInfoSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private WordThumbInfoSearchRepository mockWordThumbInfoSearchRepository;
+
+    private final List<WordThumbInfo> wordThumbInfos = new ArrayList<>();
+
+    private final List<UserThumbInfo> userThumbInfos = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        userThumbInfoRepository.deleteAll(userThumbInfos);
+        wordThumbInfoRepository.deleteAll(wordThumbInfos);
+    }
+
+    @Test
+    public void rebuildTheCountsFromTheJournal() throws Exception {
+        WordThumbInfo thumbed = saveWordThumbInfo(10);
+        WordThumbInfo notInTheJournal = saveWordThumbInfo(5);
+        UserThumbInfo userThumbInfo = userThumbInfoRepository.saveAndFlush(new UserThumbInfo().thumbNum(1));
+        userThumbInfos.add(userThumbInfo);
+
+        ThumbJournal thumbJournal = openJournal();
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, thumbed.getId());
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, thumbed.getId());
+        long flushed = thumbJournal.nextGeneration();
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, thumbed.getId());
+        append(thumbJournal, ThumbJournal.Target.USER_THUMB_INFO, userThumbInfo.getId());
+        append(thumbJournal, ThumbJournal.Target.USER_THUMB_INFO, userThumbInfo.getId());
+        long last = thumbJournal.nextGeneration();
+        thumbJournal.close();
+
+        ThumbRebuildDTO result = thumbCounterService.rebuild(Collections.singletonList(directory));
+
+        assertThat(result.getJournals()).isEqualTo(1);
+        assertThat(result.getRecords()).isEqualTo(5);
+        assertThat(result.getCorruptRecords()).isZero();
+        assertThat(result.getWordThumbInfos()).isEqualTo(2);
+        assertThat(result.getUserThumbInfos()).isEqualTo(1);
+        assertThat(thumbNum("word_thumb_info", thumbed.getId())).isEqualTo(3);
+        assertThat(thumbNum("word_thumb_info", notInTheJournal.getId())).isZero();
+        assertThat(thumbNum("user_thumb_info", userThumbInfo.getId())).isEqualTo(2);
+        // the replayed thumbs are not recovered again by the instance of the journal
+        assertThat(jdbcTemplate.queryForObject("select generation from thumb_journal_checkpoint where journal_id = ?",
+            Long.class, ThumbJournal.readId(directory))).isEqualTo(last).isGreaterThan(flushed);
+
+        searchOutboxService.drain();
+        verify(mockWordThumbInfoSearchRepository, atLeastOnce()).saveAll(iterableContaining(thumbed));
+        verify(mockWordThumbInfoSearchRepository, atLeastOnce()).saveAll(iterableContaining(notInTheJournal));
+
+        // the counts are rebuilt, not added to
+        thumbCounterService.rebuild(Collections.singletonList(directory));
+        assertThat(thumbNum("word_thumb_info", thumbed.getId())).isEqualTo(3);
+    }
+
+    @Test
+    public void clearTheThumbLidCacheOnceCommitted() {
+        Cache cache = cacheManager.getCache(WordThumbInfoRepository.WORD_THUMB_INFO_IDS_BY_THUMB_LID_CACHE);
+        cache.put("AAAAAAAAAA", Collections.singletonList(1L));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            thumbCounterService.clearThumbLidCacheAfterCommit();
+            // still cached until the commit, when the written wordThumbInfos can be read
+            assertThat(cache.get("AAAAAAAAAA")).isNotNull();
+            return null;
+        });
+
+        assertThat(cache.get("AAAAAAAAAA")).isNull();
+    }
+
+    private ThumbJournal openJournal() throws Exception {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getJournal().setEnabled(true);
+        applicationProperties.getJournal().setDirectory(directory.toString());
+        applicationProperties.getJournal().setSegmentSize(64);
+        applicationProperties.getJournal().setRetainedSegments(-1);
+        ThumbJournal thumbJournal = new ThumbJournal(applicationProperties);
+        thumbJournal.open();
+        return thumbJournal;
+    }
+
+    private static void append(ThumbJournal thumbJournal, ThumbJournal.Target target, long id) {
+        long generation = thumbJournal.enter();
+        try {
+            thumbJournal.append(target, id, generation);
+        } finally {
+            thumbJournal.exit(generation);
+        }
+    }
+
+    private WordThumbInfo saveWordThumbInfo(int thumbNum) {
+        WordThumbInfo wordThumbInfo = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(thumbNum));
+        wordThumbInfos.add(wordThumbInfo);
+        return wordThumbInfo;
+    }
+
+    private Integer thumbNum(String table, Long id) {
+        return jdbcTemplate.queryForObject("select thumb_num from " + table + " where id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,108 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.UserThumbInfoRepository;
+import com.willbe.wordl.repository.WordThumbInfoRepository;
+import com.willbe.wordl.repository.search.WordThumbInfoSearchRepository;
+import com.willbe.wordl.service.dto.ThumbReconciliationDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.willbe.wordl.web.rest.TestUtil.iterableContaining;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Integration tests for {@link ThumbReconciliationService}.
+ * <p>
+ * Not transactional: the pages are reconciled on other threads, which only see committed rows.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+public class ThumbReconciliationServiceIT {
+
+    @Autowired
+    private ThumbReconciliationService thumbReconciliationService;
+
+    @Autowired
+    private WordThumbInfoRepository wordThumbInfoRepository;
+
+    @Autowired
+    private UserThumbInfoRepository userThumbInfoRepository;
+
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
+    /**
+     * This repository is mocked in the com.willbe.wordl.repository.search test package.
+     *
+     * @see com.willbe.wordl.repository.search.WordThumbInfoSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private WordThumbInfoSearchRepository mockWordThumbInfoSearchRepository;
+
+    private final List<WordThumbInfo> wordThumbInfos = new ArrayList<>();
+
+    private final List<UserThumbInfo> userThumbInfos = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        userThumbInfoRepository.deleteAll(userThumbInfos);
+        wordThumbInfoRepository.deleteAll(wordThumbInfos);
+    }
+
+    @Test
+    public void reconcileWordThumbInfos() {
+        WordThumbInfo drifted = saveWordThumbInfo("RA", 5);
+        WordThumbInfo reconciled = saveWordThumbInfo("RB", 3);
+        WordThumbInfo withoutUsers = saveWordThumbInfo("RC", 7);
+        WordThumbInfo sameThumbLid = saveWordThumbInfo("RA", 9);
+        WordThumbInfo directlyThumbed = saveWordThumbInfo("RD", 4);
+        saveUserThumbInfo("RA", 2);
+        saveUserThumbInfo("RA", 4);
+        saveUserThumbInfo("RB", 3);
+        saveUserThumbInfo("RD", 1);
+
+        ThumbReconciliationDTO result = thumbReconciliationService.reconcile();
+
+        assertThat(result.getCheckedWordThumbInfos()).isEqualTo(3);
+        assertThat(result.getCorrectedWordThumbInfos()).isEqualTo(1);
+        assertThat(result.getDrift()).isEqualTo(1);
+        assertThat(thumbNum(drifted)).isEqualTo(6);
+        assertThat(thumbNum(reconciled)).isEqualTo(3);
+        assertThat(thumbNum(withoutUsers)).isEqualTo(7);
+        assertThat(thumbNum(sameThumbLid)).isEqualTo(9);
+        // the thumbs added to the wordThumbInfo itself are kept
+        assertThat(thumbNum(directlyThumbed)).isEqualTo(4);
+
+        // only the corrected wordThumbInfo is indexed again
+        searchOutboxService.drain();
+        verify(mockWordThumbInfoSearchRepository, times(1)).saveAll(iterableContaining(drifted));
+        verify(mockWordThumbInfoSearchRepository, never()).saveAll(iterableContaining(reconciled));
+
+        assertThat(thumbReconciliationService.reconcile().getCorrectedWordThumbInfos()).isZero();
+    }
+
+    private WordThumbInfo saveWordThumbInfo(String thumbLid, int thumbNum) {
+        WordThumbInfo wordThumbInfo = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbLid(thumbLid).thumbNum(thumbNum));
+        wordThumbInfos.add(wordThumbInfo);
+        return wordThumbInfo;
+    }
+
+    private void saveUserThumbInfo(String thumbLid, int thumbNum) {
+        userThumbInfos.add(userThumbInfoRepository.saveAndFlush(new UserThumbInfo().thumbLid(thumbLid).thumbNum(thumbNum)));
+    }
+
+    private Integer thumbNum(WordThumbInfo wordThumbInfo) {
+        return wordThumbInfoRepository.findById(wordThumbInfo.getId()).get().getThumbNum();
+    }
+}
@@ -0,0 +1,44 @@
+package com.willbe.wordl.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ThumbedPictures}.
+ */
+public class ThumbedPicturesTest {
+
+    @Test
+    public void containsTheLoadedPictures() {
+        ThumbedPictures thumbedPictures = ThumbedPictures.of(new long[]{42, 7, 1000, 7});
+
+        assertThat(thumbedPictures.size()).isEqualTo(3);
+        assertThat(thumbedPictures.contains(7)).isTrue();
+        assertThat(thumbedPictures.contains(1000)).isTrue();
+        assertThat(thumbedPictures.contains(8)).isFalse();
+    }
+
+    @Test
+    public void retainsTheThumbedCandidatesInOrder() {
+        ThumbedPictures thumbedPictures = ThumbedPictures.of(new long[]{1, 2, 3});
+
+        assertThat(thumbedPictures.retain(Arrays.asList(3L, 4L, null, 1L))).containsExactly(3L, 1L);
+        assertThat(ThumbedPictures.EMPTY.retain(Arrays.asList(1L, 2L))).isEmpty();
+    }
+
+    @Test
+    public void addsPictures() {
+        ThumbedPictures thumbedPictures = ThumbedPictures.of(new long[]{5, 1});
+
+        ThumbedPictures updated = thumbedPictures.with(Arrays.asList(3L, 5L));
+
+        assertThat(updated.size()).isEqualTo(3);
+        assertThat(updated.contains(3)).isTrue();
+        assertThat(thumbedPictures.contains(3)).isFalse();
+        assertThat(updated.with(Collections.singletonList(1L))).isSameAs(updated);
+    }
+}
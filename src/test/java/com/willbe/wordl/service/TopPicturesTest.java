@@ -0,0 +1,69 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.TopPictureDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link TopPictures}.
+ */
+public class TopPicturesTest {
+
+    private TopPictures topPictures;
+
+    @BeforeEach
+    public void init() {
+        topPictures = new TopPictures(3);
+    }
+
+    @Test
+    public void keepsTheBestPicturesFirst() {
+        topPictures.offer(new TopPictureDTO(1L, "a", 5));
+        topPictures.offer(new TopPictureDTO(2L, "b", 7));
+        topPictures.offer(new TopPictureDTO(3L, "c", 1));
+        topPictures.offer(new TopPictureDTO(4L, "d", 6));
+
+        assertThat(topPictures.get(10)).extracting(TopPictureDTO::getId).containsExactly(2L, 4L, 1L);
+        assertThat(topPictures.get(2)).extracting(TopPictureDTO::getId).containsExactly(2L, 4L);
+    }
+
+    @Test
+    public void movesAPictureUpWhenItGetsThumbs() {
+        topPictures.offer(new TopPictureDTO(1L, "a", 5));
+        topPictures.offer(new TopPictureDTO(2L, "b", 4));
+        topPictures.offer(new TopPictureDTO(2L, "b", 6));
+
+        assertThat(topPictures.get(10)).extracting(TopPictureDTO::getId).containsExactly(2L, 1L);
+        assertThat(topPictures.get(10)).extracting(TopPictureDTO::getThumbNum).containsExactly(6L, 5L);
+    }
+
+    @Test
+    public void ignoresAnOutdatedThumbCount() {
+        topPictures.offer(new TopPictureDTO(1L, "a", 5));
+        topPictures.offer(new TopPictureDTO(1L, "a", 4));
+
+        assertThat(topPictures.get(10)).extracting(TopPictureDTO::getThumbNum).containsExactly(5L);
+    }
+
+    @Test
+    public void replacesAllThePictures() {
+        topPictures.offer(new TopPictureDTO(1L, "a", 5));
+        topPictures.replaceAll(Arrays.asList(
+            new TopPictureDTO(2L, "b", 1), new TopPictureDTO(3L, "c", 3),
+            new TopPictureDTO(4L, "d", 2), new TopPictureDTO(5L, "e", 0)));
+
+        assertThat(topPictures.get(10)).extracting(TopPictureDTO::getId).containsExactly(3L, 4L, 2L);
+    }
+
+    @Test
+    public void returnsNothingForANonPositiveSize() {
+        topPictures.offer(new TopPictureDTO(1L, "a", 5));
+
+        assertThat(topPictures.get(0)).isEmpty();
+        assertThat(topPictures.get(-1)).isEmpty();
+    }
+}
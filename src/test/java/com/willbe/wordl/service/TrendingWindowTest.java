@@ -0,0 +1,102 @@
+package com.willbe.wordl.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit tests for {@link TrendingWindow}.
+ */
+public class TrendingWindowTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private static final long BUCKET = HOUR / 12;
+
+    private TrendingWindow trendingWindow;
+
+    @BeforeEach
+    public void init() {
+        trendingWindow = new TrendingWindow(HOUR, 12, 256, 4, 3);
+    }
+
+    @Test
+    public void ranksTheMostThumbedFirst() {
+        thumb(1L, 2, 0);
+        thumb(2L, 5, 0);
+        thumb(3L, 1, BUCKET);
+
+        assertThat(trendingWindow.top(10, 2 * BUCKET)).containsExactly(entry(2L, 5L), entry(1L, 2L), entry(3L, 1L));
+        assertThat(trendingWindow.top(1, 2 * BUCKET)).containsExactly(entry(2L, 5L));
+    }
+
+    @Test
+    public void forgetsTheThumbsOlderThanTheWindow() {
+        thumb(1L, 4, 0);
+        thumb(2L, 2, 6 * BUCKET);
+
+        assertThat(trendingWindow.top(10, HOUR + BUCKET / 2)).containsExactly(entry(2L, 2L));
+        assertThat(trendingWindow.top(10, 2 * HOUR)).isEmpty();
+    }
+
+    @Test
+    public void reusesTheBucketsOfAnOlderWindow() {
+        thumb(1L, 4, 0);
+        thumb(1L, 1, HOUR);
+
+        assertThat(trendingWindow.top(10, HOUR)).containsExactly(entry(1L, 1L));
+    }
+
+    @Test
+    public void keepsABoundedNumberOfCandidates() {
+        thumb(1L, 5, 0);
+        thumb(2L, 4, 0);
+        thumb(3L, 3, 0);
+        thumb(4L, 1, 0);
+        thumb(5L, 6, 0);
+
+        assertThat(trendingWindow.top(10, 0)).containsExactly(entry(5L, 6L), entry(1L, 5L), entry(2L, 4L));
+    }
+
+    @Test
+    public void trimsTheCandidatesAsTheyAreAdded() {
+        thumb(1L, 10, 0);
+        for (long wordInfoId = 100; wordInfoId < 200; wordInfoId++) {
+            thumb(wordInfoId, 1, 0);
+        }
+
+        assertThat(trendingWindow.top(1, 0)).containsExactly(entry(1L, 10L));
+    }
+
+    @Test
+    public void countsConcurrentThumbs() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> thumb(1L, 1000, BUCKET)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(trendingWindow.top(1, BUCKET)).containsExactly(entry(1L, 4000L));
+    }
+
+    private void thumb(Long wordInfoId, int times, long nowMillis) {
+        for (int i = 0; i < times; i++) {
+            trendingWindow.add(wordInfoId, nowMillis);
+        }
+    }
+}
@@ -71,6 +71,9 @@ public class UserServiceIT {
     @Autowired
     private UserSearchRepository mockUserSearchRepository;
 
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
@@ -199,8 +202,9 @@ public class UserServiceIT {
         users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(now.minus(3, ChronoUnit.DAYS));
         assertThat(users).isEmpty();
 
-        // Verify Elasticsearch mock
-        verify(mockUserSearchRepository, times(1)).delete(user);
+        // Verify Elasticsearch mock, once the search outbox is drained
+        searchOutboxService.drain();
+        verify(mockUserSearchRepository, times(1)).deleteById(user.getId());
     }
 
     @Test
@@ -218,8 +222,9 @@ public class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
 
-        // Verify Elasticsearch mock
-        verify(mockUserSearchRepository, never()).delete(user);
+        // Verify Elasticsearch mock, once the search outbox is drained
+        searchOutboxService.drain();
+        verify(mockUserSearchRepository, never()).deleteById(user.getId());
     }
 
     private void generateUserToken(User user, String tokenSeries, LocalDate localDate) {
@@ -0,0 +1,129 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.WordInfoRepository;
+import com.willbe.wordl.repository.WordThumbInfoRepository;
+import com.willbe.wordl.service.dto.TopPictureDTO;
+import com.willbe.wordl.service.dto.WordDetailDTO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link WordDetailService}.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+@WithMockUser
+@Transactional
+public class WordDetailServiceIT {
+
+    /**
+     * The number of statements prepared by the test thread.
+     */
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+    private static volatile Thread countedThread;
+
+    @Autowired
+    private WordDetailService wordDetailService;
+
+    @Autowired
+    private WordInfoRepository wordInfoRepository;
+
+    @Autowired
+    private WordThumbInfoRepository wordThumbInfoRepository;
+
+    @Test
+    public void readsTheCardsWithAFixedNumberOfStatements() {
+        WordInfo onePicture = wordInfoRepository.saveAndFlush(new WordInfo().word("apple"));
+        wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(1).word(onePicture));
+        WordInfo fivePictures = wordInfoRepository.saveAndFlush(new WordInfo().word("pear"));
+        for (int i = 1; i <= 5; i++) {
+            wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(i).word(fivePictures));
+        }
+
+        WordDetailDTO oneDetail = countStatements(() -> wordDetailService.getDetail(onePicture.getId()).get());
+        int oneStatements = STATEMENTS.get();
+        WordDetailDTO fiveDetail = countStatements(() -> wordDetailService.getDetail(fivePictures.getId()).get());
+
+        assertThat(oneDetail.getPictures()).extracting(TopPictureDTO::getThumbNum).containsExactly(1L);
+        assertThat(fiveDetail.getPictures()).extracting(TopPictureDTO::getThumbNum).containsExactly(5L, 4L, 3L, 2L, 1L);
+        assertThat(STATEMENTS).hasValue(oneStatements);
+    }
+
+    private static <T> T countStatements(Supplier<T> supplier) {
+        STATEMENTS.set(0);
+        countedThread = Thread.currentThread();
+        try {
+            return supplier.get();
+        } finally {
+            countedThread = null;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCountingPostProcessor() {
+            return new BeanPostProcessor() {
+
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? new StatementCountingDataSource((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    private static class StatementCountingDataSource extends DelegatingDataSource {
+
+        private StatementCountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countStatements(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countStatements(super.getConnection(username, password));
+        }
+
+        private static Connection countStatements(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (Thread.currentThread() == countedThread &&
+                        (method.getName().startsWith("prepare") || method.getName().equals("createStatement"))) {
+                        STATEMENTS.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.CategoryWord;
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.repository.CategoryWordRepository;
+import com.willbe.wordl.service.dto.WordCompletionDTO;
+import com.willbe.wordl.service.dto.WordSuggestionDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the {@link WordInfoIndex}es.
+ * <p>
+ * Not transactional: the wordInfos are indexed right away, as if their transaction was committed.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+public class WordInfoIndexIT {
+
+    private static final long CREATED_ID = Long.MAX_VALUE - 1;
+
+    private static final long DELETED_ID = Long.MAX_VALUE - 2;
+
+    @Autowired
+    private WordInfoIndexLoader wordInfoIndexLoader;
+
+    @Autowired
+    private List<WordInfoIndex> indices;
+
+    @Autowired
+    private WordSuggestionService wordSuggestionService;
+
+    @Autowired
+    private WordCompletionService wordCompletionService;
+
+    @Autowired
+    private CategoryIndexService categoryIndexService;
+
+    @Autowired
+    private CategoryWordRepository categoryWordRepository;
+
+    @Autowired
+    private MorphemeService morphemeService;
+
+    private List<CategoryWord> categoryWords = Collections.emptyList();
+
+    @AfterEach
+    public void cleanup() {
+        categoryWordRepository.deleteAll(categoryWords);
+        wordInfoIndexLoader.loadAll();
+    }
+
+    @Test
+    public void keepTheWordInfosWrittenWhileLoading() {
+        categoryWords = categoryWordRepository.saveAll(Arrays.asList(
+            new CategoryWord().category("PREFIX").word("un"),
+            new CategoryWord().category("ROOT").word("break"),
+            new CategoryWord().category("SUFFIX").word("able")));
+        morphemeService.rebuild();
+
+        indices.forEach(WordInfoIndex::startLoading);
+        // written once the words are read, so that the created one is missing from them and the deleted one is not
+        WordInfo created = new WordInfo().word("breakable");
+        created.setId(CREATED_ID);
+        wordSuggestionService.putAfterCommit(created);
+        wordCompletionService.putAfterCommit(created);
+        categoryIndexService.putAfterCommit(created);
+        wordSuggestionService.removeAfterCommit(DELETED_ID);
+        wordCompletionService.removeAfterCommit(DELETED_ID);
+        categoryIndexService.removeAfterCommit(DELETED_ID);
+        indices.forEach(index -> index.loadAll(new long[]{DELETED_ID}, new String[]{"unbreakable"}));
+
+        assertThat(wordSuggestionService.suggest("breakable", 10)).extracting(WordSuggestionDTO::getId)
+            .contains(CREATED_ID).doesNotContain(DELETED_ID);
+        assertThat(wordSuggestionService.suggest("unbreakable", 10)).extracting(WordSuggestionDTO::getId)
+            .doesNotContain(DELETED_ID);
+        assertThat(wordCompletionService.complete("breakab", 10)).extracting(WordCompletionDTO::getId)
+            .containsExactly(CREATED_ID);
+        assertThat(wordCompletionService.complete("unbreakab", 10)).isEmpty();
+        assertThat(categoryIndexService.query(Collections.singletonList("ROOT:break"), Collections.emptyList(),
+            Collections.emptyList(), 10).get().getWordInfoIds()).containsExactly(CREATED_ID);
+    }
+}
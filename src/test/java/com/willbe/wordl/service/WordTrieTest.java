@@ -0,0 +1,66 @@
+package com.willbe.wordl.service;
+
+import com.willbe.wordl.service.dto.WordCompletionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link WordTrie}.
+ */
+public class WordTrieTest {
+
+    private WordTrie trie;
+
+    @BeforeEach
+    public void init() {
+        trie = new WordTrie();
+        trie.put(1L, "car");
+        trie.put(2L, "cart");
+        trie.put(3L, "Carbon");
+        trie.put(4L, "cat");
+        trie.put(5L, "dog");
+    }
+
+    @Test
+    public void completesInAlphabeticalOrderWithoutThumbs() {
+        assertThat(trie.complete("CA", 10)).extracting(WordCompletionDTO::getWord).containsExactly("car", "Carbon", "cart", "cat");
+        assertThat(trie.complete("car", 2)).extracting(WordCompletionDTO::getId).containsExactly(1L, 3L);
+        assertThat(trie.complete("cow", 10)).isEmpty();
+        assertThat(trie.complete("", 10)).hasSize(5);
+    }
+
+    @Test
+    public void completesTheMostThumbedWordsFirst() {
+        trie.addThumbs(2L, 3);
+        trie.addThumbs(4L, 5);
+        trie.addThumbs(1L, 3);
+        trie.addThumbs(5L, 100);
+
+        assertThat(trie.complete("ca", 3)).extracting(WordCompletionDTO::getId).containsExactly(4L, 1L, 2L);
+        assertThat(trie.complete("ca", 3)).extracting(WordCompletionDTO::getThumbs).containsExactly(5L, 3L, 3L);
+    }
+
+    @Test
+    public void renamesAWordKeepingItsThumbs() {
+        trie.addThumbs(4L, 5);
+        trie.put(4L, "cow");
+
+        assertThat(trie.complete("cat", 10)).isEmpty();
+        assertThat(trie.complete("c", 1)).extracting(WordCompletionDTO::getWord).containsExactly("cow");
+        assertThat(trie.complete("c", 1)).extracting(WordCompletionDTO::getThumbs).containsExactly(5L);
+    }
+
+    @Test
+    public void removesAWord() {
+        trie.addThumbs(2L, 5);
+        trie.remove(2L);
+        trie.put(3L, null);
+        trie.addThumbs(2L, 5);
+
+        assertThat(trie.complete("car", 10)).extracting(WordCompletionDTO::getId).containsExactly(1L);
+        assertThat(trie.complete("c", 10)).extracting(WordCompletionDTO::getThumbs).containsOnly(0L);
+        assertThat(trie.size()).isEqualTo(3);
+    }
+}
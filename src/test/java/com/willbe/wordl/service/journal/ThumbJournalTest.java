@@ -0,0 +1,166 @@
+package com.willbe.wordl.service.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Unit tests for {@link ThumbJournal} and {@link ThumbJournalReplayer}.
+ */
+public class ThumbJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void replaysTheAppendedThumbs() throws Exception {
+        ThumbJournal thumbJournal = open(10, 0);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 1L);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 1L);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 2L);
+        append(thumbJournal, ThumbJournal.Target.USER_THUMB_INFO, 1L);
+        thumbJournal.close();
+
+        ThumbJournalReplayer.ThumbCounts counts = replayAll();
+
+        assertThat(counts.get(ThumbJournal.Target.WORD_THUMB_INFO)).containsOnly(entry(1L, 2L), entry(2L, 1L));
+        assertThat(counts.get(ThumbJournal.Target.USER_THUMB_INFO)).containsOnly(entry(1L, 1L));
+        assertThat(counts.getRecords()).isEqualTo(4);
+    }
+
+    @Test
+    public void rollsToNewSegments() throws Exception {
+        ThumbJournal thumbJournal = open(2, 0);
+        for (int i = 0; i < 5; i++) {
+            append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 7L);
+        }
+        thumbJournal.close();
+
+        assertThat(ThumbJournalReplayer.listSegments(directory)).hasSize(3);
+        assertThat(replayAll().get(ThumbJournal.Target.WORD_THUMB_INFO)).containsOnly(entry(7L, 5L));
+    }
+
+    @Test
+    public void appendsToANewSegmentWhenReopened() throws Exception {
+        ThumbJournal thumbJournal = open(10, 0);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 3L);
+        String id = thumbJournal.getId();
+        thumbJournal.close();
+        thumbJournal = open(10, 0);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 3L);
+        thumbJournal.close();
+
+        assertThat(thumbJournal.getId()).isEqualTo(id);
+        assertThat(ThumbJournalReplayer.listSegments(directory)).hasSize(2);
+        assertThat(replayAll().get(ThumbJournal.Target.WORD_THUMB_INFO)).containsOnly(entry(3L, 2L));
+    }
+
+    @Test
+    public void skipsTheCorruptRecordsAndKeepsScanning() throws Exception {
+        ThumbJournal thumbJournal = open(10, 0);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 4L);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 5L);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 6L);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 7L);
+        thumbJournal.close();
+        try (RandomAccessFile segment = new RandomAccessFile(ThumbJournalReplayer.listSegments(directory).get(0).toFile(), "rw")) {
+            // flip a byte of the id of the first record
+            segment.seek(15);
+            segment.write(segment.read() ^ 0xFF);
+            // and zero the second record, as if its slot was reserved but never written
+            segment.seek(ThumbJournal.RECORD_SIZE);
+            segment.write(new byte[ThumbJournal.RECORD_SIZE]);
+        }
+
+        ThumbJournalReplayer.ThumbCounts counts = replayAll();
+
+        assertThat(counts.get(ThumbJournal.Target.WORD_THUMB_INFO)).containsOnly(entry(6L, 1L), entry(7L, 1L));
+        assertThat(counts.getCorruptRecords()).isEqualTo(1);
+    }
+
+    @Test
+    public void replaysTheGenerationsBetweenTwoBounds() throws Exception {
+        ThumbJournal thumbJournal = open(10, 0);
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 6L);
+        long flushed = thumbJournal.nextGeneration();
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 8L);
+        long last = thumbJournal.nextGeneration();
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 9L);
+        thumbJournal.close();
+
+        assertThat(ThumbJournalReplayer.replay(directory, flushed, last + 1).get(ThumbJournal.Target.WORD_THUMB_INFO))
+            .containsOnly(entry(8L, 1L));
+    }
+
+    @Test
+    public void deletesTheSegmentsOfTheFlushedGenerations() throws Exception {
+        ThumbJournal thumbJournal = open(2, 1);
+        for (int i = 0; i < 6; i++) {
+            append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 7L);
+        }
+        long flushed = thumbJournal.nextGeneration();
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 7L);
+        assertThat(ThumbJournalReplayer.listSegments(directory)).hasSize(4);
+
+        thumbJournal.checkpoint(flushed);
+        thumbJournal.close();
+
+        // the first segment is deleted, the second one is retained, and the last two hold unflushed thumbs
+        assertThat(ThumbJournalReplayer.listSegments(directory)).hasSize(3);
+        assertThat(ThumbJournalReplayer.replay(directory, flushed, Long.MAX_VALUE).get(ThumbJournal.Target.WORD_THUMB_INFO))
+            .containsOnly(entry(7L, 1L));
+    }
+
+    @Test
+    public void retainsAllTheSegmentsToRebuildTheCounts() throws Exception {
+        ThumbJournal thumbJournal = open(2, -1);
+        for (int i = 0; i < 6; i++) {
+            append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 7L);
+        }
+        long flushed = thumbJournal.nextGeneration();
+
+        thumbJournal.checkpoint(flushed);
+        thumbJournal.close();
+
+        // the first two segments are flushed, and kept
+        assertThat(ThumbJournalReplayer.listSegments(directory)).hasSize(3);
+        ThumbJournalReplayer.ThumbCounts counts = replayAll();
+        assertThat(counts.get(ThumbJournal.Target.WORD_THUMB_INFO)).containsOnly(entry(7L, 6L));
+        assertThat(counts.getLastGeneration()).isEqualTo(flushed);
+    }
+
+    @Test
+    public void doesNothingWhenDisabled() throws Exception {
+        ThumbJournal thumbJournal = new ThumbJournal(false, directory.resolve("disabled"), 10 * ThumbJournal.RECORD_SIZE, 0);
+        thumbJournal.open();
+        append(thumbJournal, ThumbJournal.Target.WORD_THUMB_INFO, 6L);
+        thumbJournal.force();
+        thumbJournal.close();
+
+        assertThat(ThumbJournalReplayer.listSegments(directory.resolve("disabled"))).isEmpty();
+    }
+
+    private ThumbJournal open(int segmentRecords, int retainedSegments) throws Exception {
+        ThumbJournal thumbJournal = new ThumbJournal(true, directory, (long) segmentRecords * ThumbJournal.RECORD_SIZE, retainedSegments);
+        thumbJournal.open();
+        return thumbJournal;
+    }
+
+    private static void append(ThumbJournal thumbJournal, ThumbJournal.Target target, long id) {
+        long generation = thumbJournal.enter();
+        try {
+            thumbJournal.append(target, id, generation);
+        } finally {
+            thumbJournal.exit(generation);
+        }
+    }
+
+    private ThumbJournalReplayer.ThumbCounts replayAll() throws Exception {
+        return ThumbJournalReplayer.replay(directory, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+}
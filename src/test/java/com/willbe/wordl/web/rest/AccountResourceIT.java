@@ -5,12 +5,17 @@ import com.willbe.wordl.config.Constants;
 import com.willbe.wordl.domain.Authority;
 import com.willbe.wordl.domain.PersistentToken;
 import com.willbe.wordl.domain.User;
+import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.domain.WordInfo;
 import com.willbe.wordl.repository.AuthorityRepository;
 import com.willbe.wordl.repository.PersistentTokenRepository;
 import com.willbe.wordl.repository.UserRepository;
+import com.willbe.wordl.repository.WordInfoRepository;
 import com.willbe.wordl.security.AuthoritiesConstants;
+import com.willbe.wordl.service.ReviewQueueService;
 import com.willbe.wordl.service.UserService;
 import com.willbe.wordl.service.dto.PasswordChangeDTO;
+import com.willbe.wordl.service.dto.ReviewItemDTO;
 import com.willbe.wordl.service.dto.UserDTO;
 import com.willbe.wordl.web.rest.vm.KeyAndPasswordVM;
 import com.willbe.wordl.web.rest.vm.ManagedUserVM;
@@ -33,6 +38,7 @@ import java.time.LocalDate;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.Matchers.hasItem;
 import static com.willbe.wordl.web.rest.AccountResourceIT.TEST_USER_LOGIN;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -63,6 +69,12 @@ public class AccountResourceIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private WordInfoRepository wordInfoRepository;
+
+    @Autowired
+    private ReviewQueueService reviewQueueService;
+
     @Autowired
     private MockMvc restAccountMockMvc;
 
@@ -862,4 +874,74 @@ public class AccountResourceIT {
                 .with(csrf()))
             .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    @Transactional
+    @WithMockUser("review-queue")
+    public void testGetReviewQueue() throws Exception {
+        User user = new User();
+        user.setPassword(RandomStringUtils.random(60));
+        user.setLogin("review-queue");
+        user.setEmail("review-queue@example.com");
+        userRepository.saveAndFlush(user);
+        WordInfo alpha = wordInfoRepository.saveAndFlush(new WordInfo().word("review-alpha"));
+        WordInfo beta = wordInfoRepository.saveAndFlush(new WordInfo().word("review-beta"));
+        wordInfoRepository.saveAndFlush(new WordInfo().word("review-gamma"));
+
+        LocalDate today = LocalDate.now();
+        // alpha is reviewed on time twice, beta once, and gamma is not due before tomorrow
+        reviewQueueService.recordReviews(Collections.singletonList(new UserThumbInfo().word("review-alpha").clicker(user)), today.minusDays(10));
+        reviewQueueService.recordReviews(Collections.singletonList(new UserThumbInfo().word("review-alpha").clicker(user)), today.minusDays(9));
+        reviewQueueService.recordReviews(Arrays.asList(new UserThumbInfo().word("review-beta").clicker(user),
+            new UserThumbInfo().word("unknown").clicker(user)), today.minusDays(1));
+        reviewQueueService.recordReviews(Collections.singletonList(new UserThumbInfo().word("review-gamma").clicker(user)), today);
+
+        restAccountMockMvc.perform(get("/api/account/review-queue"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].wordInfoId").value(alpha.getId().intValue()))
+            .andExpect(jsonPath("$.[0].word").value("review-alpha"))
+            .andExpect(jsonPath("$.[0].dueDate").value(today.minusDays(3).toString()))
+            .andExpect(jsonPath("$.[0].intervalDays").value(6))
+            .andExpect(jsonPath("$.[0].repetitions").value(2))
+            .andExpect(jsonPath("$.[1].wordInfoId").value(beta.getId().intValue()))
+            .andExpect(jsonPath("$.[1].dueDate").value(today.toString()));
+
+        restAccountMockMvc.perform(get("/api/account/review-queue").param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1));
+        restAccountMockMvc.perform(get("/api/account/review-queue").param("limit", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testRollOverReviews() {
+        // the roll-over writes in its own transactions, so the data is committed then deleted
+        User user = new User();
+        user.setPassword(RandomStringUtils.random(60));
+        user.setLogin("roll-over-reviews");
+        user.setEmail("roll-over-reviews@example.com");
+        userRepository.saveAndFlush(user);
+        WordInfo missed = wordInfoRepository.saveAndFlush(new WordInfo().word("roll-over-missed"));
+        WordInfo due = wordInfoRepository.saveAndFlush(new WordInfo().word("roll-over-due"));
+        try {
+            LocalDate today = LocalDate.now();
+            reviewQueueService.recordReviews(Collections.singletonList(new UserThumbInfo().word("roll-over-missed").clicker(user)), today.minusDays(3));
+            reviewQueueService.recordReviews(Collections.singletonList(new UserThumbInfo().word("roll-over-due").clicker(user)), today.minusDays(1));
+
+            assertThat(reviewQueueService.rollOver(today)).isGreaterThanOrEqualTo(1);
+            // a word lapses once
+            assertThat(reviewQueueService.rollOver(today.plusDays(1))).isGreaterThanOrEqualTo(1);
+
+            assertThat(reviewQueueService.findDue(user.getId(), today.plusDays(1), 10))
+                .extracting(ReviewItemDTO::getWordInfoId, ReviewItemDTO::getDueDate, ReviewItemDTO::getRepetitions)
+                .containsExactly(
+                    tuple(missed.getId(), today, 0),
+                    tuple(due.getId(), today.plusDays(1), 0));
+        } finally {
+            userRepository.delete(user);
+            wordInfoRepository.deleteAll(Arrays.asList(missed, due));
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.willbe.wordl.WordlearnbackendApp;
 import com.willbe.wordl.domain.CategoryWord;
 import com.willbe.wordl.repository.CategoryWordRepository;
 import com.willbe.wordl.repository.search.CategoryWordSearchRepository;
+import com.willbe.wordl.service.SearchOutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +12,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,8 +23,10 @@ import javax.persistence.EntityManager;
 import java.util.Collections;
 import java.util.List;
 
+import static com.willbe.wordl.web.rest.TestUtil.iterableContaining;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -54,6 +59,9 @@ public class CategoryWordResourceIT {
     @Autowired
     private CategoryWordSearchRepository mockCategoryWordSearchRepository;
 
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
     @Autowired
     private EntityManager em;
 
@@ -111,7 +119,8 @@ public class CategoryWordResourceIT {
         assertThat(testCategoryWord.getWord()).isEqualTo(DEFAULT_WORD);
 
         // Validate the CategoryWord in Elasticsearch
-        verify(mockCategoryWordSearchRepository, times(1)).save(testCategoryWord);
+        searchOutboxService.drain();
+        verify(mockCategoryWordSearchRepository, times(1)).saveAll(iterableContaining(testCategoryWord));
     }
 
     @Test
@@ -133,7 +142,8 @@ public class CategoryWordResourceIT {
         assertThat(categoryWordList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the CategoryWord in Elasticsearch
-        verify(mockCategoryWordSearchRepository, times(0)).save(categoryWord);
+        searchOutboxService.drain();
+        verify(mockCategoryWordSearchRepository, times(0)).saveAll(iterableContaining(categoryWord));
     }
 
 
@@ -147,9 +157,29 @@ public class CategoryWordResourceIT {
         restCategoryWordMockMvc.perform(get("/api/category-words?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(categoryWord.getId().intValue())))
             .andExpect(jsonPath("$.[*].category").value(hasItem(DEFAULT_CATEGORY)))
             .andExpect(jsonPath("$.[*].word").value(hasItem(DEFAULT_WORD)));
+
+        // Get a page of the categoryWordList
+        restCategoryWordMockMvc.perform(get("/api/category-words?page=0&size=1&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(categoryWordRepository.count())))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    public void streamAllCategoryWords() throws Exception {
+        // Initialize the database
+        categoryWordRepository.saveAndFlush(categoryWord);
+
+        // Stream all the categoryWordList
+        restCategoryWordMockMvc.perform(get("/api/category-words/_stream"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("{\"id\":" + categoryWord.getId() + ",")));
     }
 
     @Test
@@ -204,7 +234,8 @@ public class CategoryWordResourceIT {
         assertThat(testCategoryWord.getWord()).isEqualTo(UPDATED_WORD);
 
         // Validate the CategoryWord in Elasticsearch
-        verify(mockCategoryWordSearchRepository, times(1)).save(testCategoryWord);
+        searchOutboxService.drain();
+        verify(mockCategoryWordSearchRepository, times(1)).saveAll(iterableContaining(testCategoryWord));
     }
 
     @Test
@@ -225,7 +256,8 @@ public class CategoryWordResourceIT {
         assertThat(categoryWordList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the CategoryWord in Elasticsearch
-        verify(mockCategoryWordSearchRepository, times(0)).save(categoryWord);
+        searchOutboxService.drain();
+        verify(mockCategoryWordSearchRepository, times(0)).saveAll(iterableContaining(categoryWord));
     }
 
     @Test
@@ -246,6 +278,7 @@ public class CategoryWordResourceIT {
         assertThat(categoryWordList).hasSize(databaseSizeBeforeDelete - 1);
 
         // Validate the CategoryWord in Elasticsearch
+        searchOutboxService.drain();
         verify(mockCategoryWordSearchRepository, times(1)).deleteById(categoryWord.getId());
     }
 
@@ -254,8 +287,8 @@ public class CategoryWordResourceIT {
     public void searchCategoryWord() throws Exception {
         // Initialize the database
         categoryWordRepository.saveAndFlush(categoryWord);
-        when(mockCategoryWordSearchRepository.search(queryStringQuery("id:" + categoryWord.getId())))
-            .thenReturn(Collections.singletonList(categoryWord));
+        when(mockCategoryWordSearchRepository.search(queryStringQuery("id:" + categoryWord.getId()), PageRequest.of(0, 20)))
+            .thenReturn(new PageImpl<>(Collections.singletonList(categoryWord), PageRequest.of(0, 1), 1));
         // Search the categoryWord
         restCategoryWordMockMvc.perform(get("/api/_search/category-words?query=id:" + categoryWord.getId()))
             .andExpect(status().isOk())
@@ -0,0 +1,78 @@
+package com.willbe.wordl.web.rest;
+
+import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.repository.WordInfoRepository;
+import com.willbe.wordl.service.DictionarySnapshotService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link DictionarySnapshotResource} REST controller.
+ */
+@SpringBootTest(classes = WordlearnbackendApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+public class DictionarySnapshotResourceIT {
+
+    @Autowired
+    private WordInfoRepository wordInfoRepository;
+
+    @Autowired
+    private DictionarySnapshotService dictionarySnapshotService;
+
+    @Autowired
+    private MockMvc restDictionarySnapshotMockMvc;
+
+    @Test
+    public void getDictionarySnapshotAndDelta() throws Exception {
+        // the snapshots are built from the committed wordInfos, which are deleted afterwards
+        WordInfo first = wordInfoRepository.saveAndFlush(new WordInfo().word("snapshot-first"));
+        WordInfo second = null;
+        try {
+            long version = dictionarySnapshotService.build();
+            String etag = "\"" + version + "\"";
+
+            byte[] snapshot = restDictionarySnapshotMockMvc.perform(get("/api/dictionary-snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn().getResponse().getContentAsByteArray();
+            // gzip magic number
+            assertThat(snapshot[0]).isEqualTo((byte) 0x1f);
+            assertThat(snapshot[1]).isEqualTo((byte) 0x8b);
+
+            restDictionarySnapshotMockMvc.perform(get("/api/dictionary-snapshot").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+            assertThat(dictionarySnapshotService.build()).isEqualTo(version);
+
+            second = wordInfoRepository.saveAndFlush(new WordInfo().word("snapshot-second"));
+            long nextVersion = dictionarySnapshotService.build();
+            assertThat(nextVersion).isNotEqualTo(version);
+
+            restDictionarySnapshotMockMvc.perform(get("/api/dictionary-snapshot/delta").param("from", String.valueOf(version)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + nextVersion + "\""));
+            restDictionarySnapshotMockMvc.perform(get("/api/dictionary-snapshot/delta").param("from", String.valueOf(nextVersion)))
+                .andExpect(status().isNotModified());
+            restDictionarySnapshotMockMvc.perform(get("/api/dictionary-snapshot/delta").param("from", "1"))
+                .andExpect(status().isNotFound());
+        } finally {
+            wordInfoRepository.delete(first);
+            if (second != null) {
+                wordInfoRepository.delete(second);
+            }
+        }
+    }
+}
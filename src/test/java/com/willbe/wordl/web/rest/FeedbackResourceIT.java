@@ -5,6 +5,8 @@ import com.willbe.wordl.domain.Feedback;
 import com.willbe.wordl.domain.enumeration.FeedbackType;
 import com.willbe.wordl.repository.FeedbackRepository;
 import com.willbe.wordl.repository.search.FeedbackSearchRepository;
+import com.willbe.wordl.service.SearchOutboxService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,17 +14,26 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import static com.willbe.wordl.web.rest.TestUtil.iterableContaining;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -57,6 +68,15 @@ public class FeedbackResourceIT {
     @Autowired
     private FeedbackSearchRepository mockFeedbackSearchRepository;
 
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
+    /**
+     * The searches with a searchAfter cursor are sent to the embedded Elasticsearch node, not to the mocked repository.
+     */
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
     @Autowired
     private EntityManager em;
 
@@ -117,7 +137,8 @@ public class FeedbackResourceIT {
         assertThat(testFeedback.getPhone()).isEqualTo(DEFAULT_PHONE);
 
         // Validate the Feedback in Elasticsearch
-        verify(mockFeedbackSearchRepository, times(1)).save(testFeedback);
+        searchOutboxService.drain();
+        verify(mockFeedbackSearchRepository, times(1)).saveAll(iterableContaining(testFeedback));
     }
 
     @Test
@@ -139,7 +160,8 @@ public class FeedbackResourceIT {
         assertThat(feedbackList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the Feedback in Elasticsearch
-        verify(mockFeedbackSearchRepository, times(0)).save(feedback);
+        searchOutboxService.drain();
+        verify(mockFeedbackSearchRepository, times(0)).saveAll(iterableContaining(feedback));
     }
 
 
@@ -153,10 +175,30 @@ public class FeedbackResourceIT {
         restFeedbackMockMvc.perform(get("/api/feedbacks?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(feedback.getId().intValue())))
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE.toString())))
             .andExpect(jsonPath("$.[*].content").value(hasItem(DEFAULT_CONTENT)))
             .andExpect(jsonPath("$.[*].phone").value(hasItem(DEFAULT_PHONE)));
+
+        // Get a page of the feedbackList
+        restFeedbackMockMvc.perform(get("/api/feedbacks?page=0&size=1&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(feedbackRepository.count())))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    public void streamAllFeedbacks() throws Exception {
+        // Initialize the database
+        feedbackRepository.saveAndFlush(feedback);
+
+        // Stream all the feedbackList
+        restFeedbackMockMvc.perform(get("/api/feedbacks/_stream"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("{\"id\":" + feedback.getId() + ",")));
     }
 
     @Test
@@ -214,7 +256,8 @@ public class FeedbackResourceIT {
         assertThat(testFeedback.getPhone()).isEqualTo(UPDATED_PHONE);
 
         // Validate the Feedback in Elasticsearch
-        verify(mockFeedbackSearchRepository, times(1)).save(testFeedback);
+        searchOutboxService.drain();
+        verify(mockFeedbackSearchRepository, times(1)).saveAll(iterableContaining(testFeedback));
     }
 
     @Test
@@ -235,7 +278,8 @@ public class FeedbackResourceIT {
         assertThat(feedbackList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Feedback in Elasticsearch
-        verify(mockFeedbackSearchRepository, times(0)).save(feedback);
+        searchOutboxService.drain();
+        verify(mockFeedbackSearchRepository, times(0)).saveAll(iterableContaining(feedback));
     }
 
     @Test
@@ -256,6 +300,7 @@ public class FeedbackResourceIT {
         assertThat(feedbackList).hasSize(databaseSizeBeforeDelete - 1);
 
         // Validate the Feedback in Elasticsearch
+        searchOutboxService.drain();
         verify(mockFeedbackSearchRepository, times(1)).deleteById(feedback.getId());
     }
 
@@ -264,8 +309,8 @@ public class FeedbackResourceIT {
     public void searchFeedback() throws Exception {
         // Initialize the database
         feedbackRepository.saveAndFlush(feedback);
-        when(mockFeedbackSearchRepository.search(queryStringQuery("id:" + feedback.getId())))
-            .thenReturn(Collections.singletonList(feedback));
+        when(mockFeedbackSearchRepository.search(queryStringQuery("id:" + feedback.getId()), PageRequest.of(0, 20)))
+            .thenReturn(new PageImpl<>(Collections.singletonList(feedback), PageRequest.of(0, 1), 1));
         // Search the feedback
         restFeedbackMockMvc.perform(get("/api/_search/feedbacks?query=id:" + feedback.getId()))
             .andExpect(status().isOk())
@@ -275,4 +320,43 @@ public class FeedbackResourceIT {
             .andExpect(jsonPath("$.[*].content").value(hasItem(DEFAULT_CONTENT)))
             .andExpect(jsonPath("$.[*].phone").value(hasItem(DEFAULT_PHONE)));
     }
+
+    @Test
+    public void searchFeedbacksAfterTheLastHit() throws Exception {
+        String token = "deeppaging" + System.currentTimeMillis();
+        List<IndexQuery> indexQueries = new ArrayList<>();
+        for (long id = 900001; id <= 900005; id++) {
+            Feedback indexed = createEntity(em).content(token);
+            indexed.setId(id);
+            indexQueries.add(new IndexQueryBuilder().withId(indexed.getId().toString()).withObject(indexed).build());
+        }
+        elasticsearchOperations.bulkIndex(indexQueries);
+        elasticsearchOperations.refresh(Feedback.class);
+        try {
+            List<Integer> ids = new ArrayList<>();
+            List<Integer> pageSizes = new ArrayList<>();
+            String searchAfter = "";
+            while (searchAfter != null) {
+                MvcResult result = restFeedbackMockMvc.perform(get("/api/_search/feedbacks?query=content:" + token + "&size=2&searchAfter=" + searchAfter))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Total-Count", "5"))
+                    .andReturn();
+                List<Integer> pageIds = JsonPath.read(result.getResponse().getContentAsString(), "$.[*].id");
+                ids.addAll(pageIds);
+                pageSizes.add(pageIds.size());
+                searchAfter = result.getResponse().getHeader("X-Search-After");
+            }
+
+            assertThat(pageSizes).containsExactly(2, 2, 1);
+            assertThat(ids).containsExactlyInAnyOrder(900001, 900002, 900003, 900004, 900005);
+        } finally {
+            indexQueries.forEach(indexQuery -> elasticsearchOperations.delete(Feedback.class, indexQuery.getId()));
+        }
+    }
+
+    @Test
+    public void searchFeedbacksAfterAnInvalidCursor() throws Exception {
+        restFeedbackMockMvc.perform(get("/api/_search/feedbacks?query=content:any&searchAfter=not:base64"))
+            .andExpect(status().isBadRequest());
+    }
 }
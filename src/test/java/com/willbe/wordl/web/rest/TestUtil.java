@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
@@ -22,6 +23,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
 
 /**
  * Utility class for testing REST controllers.
@@ -106,6 +108,15 @@ public final class TestUtil {
         return new ZonedDateTimeMatcher(date);
     }
 
+    /**
+     * Creates a Mockito argument matcher that matches when the examined iterable contains the reference element.
+     *
+     * @param element the reference element.
+     */
+    public static <T> Iterable<T> iterableContaining(T element) {
+        return argThat(iterable -> iterable != null && StreamSupport.stream(iterable.spliterator(), false).anyMatch(element::equals));
+    }
+
     /**
      * Verifies the equals/hashcode contract on the domain object.
      */
@@ -1,9 +1,17 @@
 package com.willbe.wordl.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.User;
 import com.willbe.wordl.domain.UserThumbInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.UserRepository;
 import com.willbe.wordl.repository.UserThumbInfoRepository;
+import com.willbe.wordl.repository.WordThumbInfoRepository;
 import com.willbe.wordl.repository.search.UserThumbInfoSearchRepository;
+import com.willbe.wordl.service.SearchOutboxService;
+import com.willbe.wordl.service.ThumbCounterService;
+import com.willbe.wordl.service.ThumbedPicturesService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,17 +19,25 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+import static com.willbe.wordl.web.rest.TestUtil.iterableContaining;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -63,6 +79,21 @@ public class UserThumbInfoResourceIT {
     @Autowired
     private UserThumbInfoSearchRepository mockUserThumbInfoSearchRepository;
 
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
+    @Autowired
+    private WordThumbInfoRepository wordThumbInfoRepository;
+
+    @Autowired
+    private ThumbCounterService thumbCounterService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private EntityManager em;
 
@@ -129,7 +160,79 @@ public class UserThumbInfoResourceIT {
         assertThat(testUserThumbInfo.getThumbLid()).isEqualTo(DEFAULT_THUMB_LID);
 
         // Validate the UserThumbInfo in Elasticsearch
-        verify(mockUserThumbInfoSearchRepository, times(1)).save(testUserThumbInfo);
+        searchOutboxService.drain();
+        verify(mockUserThumbInfoSearchRepository, times(1)).saveAll(iterableContaining(testUserThumbInfo));
+    }
+
+    @Test
+    public void createUserThumbInfosInBulk() throws Exception {
+        String body = "{\"word\":\"" + DEFAULT_WORD + "\",\"thumbLid\":\"" + DEFAULT_THUMB_LID + "\"}\n" +
+            "\n" +
+            "{not json\n" +
+            "{\"id\":1,\"thumbLid\":\"" + UPDATED_THUMB_LID + "\"}\n" +
+            "{\"thumbLid\":\"" + DEFAULT_THUMB_LID + "\"}\n" +
+            "{\"thumbLid\":\"" + UPDATED_THUMB_LID + "\"}\n" +
+            "{\"thumbLid\":\"" + UPDATED_THUMB_LID + "\"}";
+
+        // Create the userThumbInfos
+        String results = restUserThumbInfoMockMvc.perform(post("/api/user-thumb-infos/_bulk").with(csrf())
+            .contentType("application/x-ndjson")
+            .content(body))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString();
+
+        // the chunks are committed by the bulk request, so the created userThumbInfos are deleted at the end
+        List<Map<String, Object>> lines = new ObjectMapper().readerFor(Map.class).<Map<String, Object>>readValues(results).readAll();
+        List<Long> createdIds = lines.stream()
+            .filter(line -> line.get("id") != null)
+            .map(line -> ((Number) line.get("id")).longValue())
+            .collect(Collectors.toList());
+        try {
+            // Validate the result of every non-blank line
+            assertThat(lines).extracting(line -> line.get("line")).containsExactly(1, 3, 4, 5, 6, 7);
+            assertThat(lines).extracting(line -> line.get("status")).containsExactly(201, 400, 400, 409, 201, 409);
+            assertThat(lines.get(0).get("id")).isNotNull();
+            assertThat(lines.get(1).get("id")).isNull();
+
+            // Validate the UserThumbInfos in the database
+            List<UserThumbInfo> userThumbInfoList = userThumbInfoRepository.findAllById(createdIds);
+            assertThat(userThumbInfoList).extracting(UserThumbInfo::getThumbLid).containsExactlyInAnyOrder(DEFAULT_THUMB_LID, UPDATED_THUMB_LID);
+
+            // Validate the UserThumbInfos are indexed once the search outbox is drained
+            searchOutboxService.drain();
+            userThumbInfoList.forEach(userThumbInfo -> verify(mockUserThumbInfoSearchRepository).saveAll(iterableContaining(userThumbInfo)));
+        } finally {
+            userThumbInfoRepository.deleteAll(userThumbInfoRepository.findAllById(createdIds));
+            searchOutboxService.drain();
+        }
+    }
+
+    @Test
+    public void createUserThumbInfosInBulkOfAClicker() throws Exception {
+        User user = userRepository.findOneByLogin("user").get();
+        User admin = userRepository.findOneByLogin("admin").get();
+        List<Long> ids = new ArrayList<>();
+        ids.add(userThumbInfoRepository.saveAndFlush(createEntity(em).thumbLid(DEFAULT_THUMB_LID).clicker(user)).getId());
+        ids.add(userThumbInfoRepository.saveAndFlush(createEntity(em).thumbLid(UPDATED_THUMB_LID).clicker(admin)).getId());
+        String body = "{\"thumbLid\":\"" + DEFAULT_THUMB_LID + "\",\"clicker\":{\"id\":" + user.getId() + "}}\n" +
+            "{\"thumbLid\":\"" + UPDATED_THUMB_LID + "\",\"clicker\":{\"id\":" + user.getId() + "}}";
+        try {
+            // Only the userThumbInfo of the same clicker is a conflict
+            String results = restUserThumbInfoMockMvc.perform(post("/api/user-thumb-infos/_bulk").with(csrf())
+                .contentType("application/x-ndjson")
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+            List<Map<String, Object>> lines = new ObjectMapper().readerFor(Map.class).<Map<String, Object>>readValues(results).readAll();
+            lines.stream().filter(line -> line.get("id") != null).forEach(line -> ids.add(((Number) line.get("id")).longValue()));
+            assertThat(lines).extracting(line -> line.get("status")).containsExactly(409, 201);
+        } finally {
+            userThumbInfoRepository.deleteAll(userThumbInfoRepository.findAllById(ids));
+            searchOutboxService.drain();
+            cacheManager.getCache(ThumbedPicturesService.THUMBED_PICTURES_CACHE).clear();
+        }
     }
 
     @Test
@@ -151,7 +254,8 @@ public class UserThumbInfoResourceIT {
         assertThat(userThumbInfoList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the UserThumbInfo in Elasticsearch
-        verify(mockUserThumbInfoSearchRepository, times(0)).save(userThumbInfo);
+        searchOutboxService.drain();
+        verify(mockUserThumbInfoSearchRepository, times(0)).saveAll(iterableContaining(userThumbInfo));
     }
 
 
@@ -165,12 +269,32 @@ public class UserThumbInfoResourceIT {
         restUserThumbInfoMockMvc.perform(get("/api/user-thumb-infos?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(userThumbInfo.getId().intValue())))
             .andExpect(jsonPath("$.[*].word").value(hasItem(DEFAULT_WORD)))
             .andExpect(jsonPath("$.[*].selfNum").value(hasItem(DEFAULT_SELF_NUM)))
             .andExpect(jsonPath("$.[*].thumbNum").value(hasItem(DEFAULT_THUMB_NUM)))
             .andExpect(jsonPath("$.[*].picUrl").value(hasItem(DEFAULT_PIC_URL)))
             .andExpect(jsonPath("$.[*].thumbLid").value(hasItem(DEFAULT_THUMB_LID)));
+
+        // Get a page of the userThumbInfoList
+        restUserThumbInfoMockMvc.perform(get("/api/user-thumb-infos?page=0&size=1&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(userThumbInfoRepository.count())))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    public void streamAllUserThumbInfos() throws Exception {
+        // Initialize the database
+        userThumbInfoRepository.saveAndFlush(userThumbInfo);
+
+        // Stream all the userThumbInfoList
+        restUserThumbInfoMockMvc.perform(get("/api/user-thumb-infos/_stream"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("{\"id\":" + userThumbInfo.getId() + ",")));
     }
 
     @Test
@@ -234,7 +358,8 @@ public class UserThumbInfoResourceIT {
         assertThat(testUserThumbInfo.getThumbLid()).isEqualTo(UPDATED_THUMB_LID);
 
         // Validate the UserThumbInfo in Elasticsearch
-        verify(mockUserThumbInfoSearchRepository, times(1)).save(testUserThumbInfo);
+        searchOutboxService.drain();
+        verify(mockUserThumbInfoSearchRepository, times(1)).saveAll(iterableContaining(testUserThumbInfo));
     }
 
     @Test
@@ -255,7 +380,98 @@ public class UserThumbInfoResourceIT {
         assertThat(userThumbInfoList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the UserThumbInfo in Elasticsearch
-        verify(mockUserThumbInfoSearchRepository, times(0)).save(userThumbInfo);
+        searchOutboxService.drain();
+        verify(mockUserThumbInfoSearchRepository, times(0)).saveAll(iterableContaining(userThumbInfo));
+    }
+
+    @Test
+    @Transactional
+    public void thumbUserThumbInfo() throws Exception {
+        // Initialize the database
+        userThumbInfoRepository.saveAndFlush(userThumbInfo);
+        WordThumbInfo wordThumbInfo = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(0).thumbLid(DEFAULT_THUMB_LID));
+        cacheManager.getCache(WordThumbInfoRepository.WORD_THUMB_INFO_IDS_BY_THUMB_LID_CACHE).clear();
+
+        // Thumb the userThumbInfo
+        restUserThumbInfoMockMvc.perform(post("/api/user-thumb-infos/{id}/thumb", userThumbInfo.getId()).with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(userThumbInfo.getId().intValue()))
+            .andExpect(jsonPath("$.thumbNum").value(DEFAULT_THUMB_NUM + 1));
+
+        // Write the pending thumbs to the database
+        thumbCounterService.flush();
+        em.clear();
+
+        // Validate the thumb was counted for the user and for the picture
+        assertThat(userThumbInfoRepository.findById(userThumbInfo.getId()).get().getThumbNum()).isEqualTo(DEFAULT_THUMB_NUM + 1);
+        assertThat(wordThumbInfoRepository.findById(wordThumbInfo.getId()).get().getThumbNum()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    public void thumbNonExistingUserThumbInfo() throws Exception {
+        restUserThumbInfoMockMvc.perform(post("/api/user-thumb-infos/{id}/thumb", Long.MAX_VALUE).with(csrf()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getThumbedWordThumbInfos() throws Exception {
+        // Initialize the database
+        User user = userRepository.findOneByLogin("user").get();
+        userThumbInfoRepository.saveAndFlush(userThumbInfo.clicker(user));
+        WordThumbInfo thumbed = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbLid(DEFAULT_THUMB_LID));
+        WordThumbInfo notThumbed = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbLid(UPDATED_THUMB_LID));
+        cacheManager.getCache(ThumbedPicturesService.THUMBED_PICTURES_CACHE).clear();
+
+        // Get the thumbed wordThumbInfos
+        restUserThumbInfoMockMvc.perform(get("/api/user-thumb-infos/thumbed")
+            .param("wordThumbInfoIds", notThumbed.getId().toString(), thumbed.getId().toString(), String.valueOf(Long.MAX_VALUE)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0]").value(thumbed.getId().intValue()));
+
+        // The rolled back rows must not stay in the cache
+        cacheManager.getCache(ThumbedPicturesService.THUMBED_PICTURES_CACHE).clear();
+    }
+
+    @Test
+    @Transactional
+    public void getMyUserThumbInfos() throws Exception {
+        // Initialize the database
+        User user = userRepository.findOneByLogin("user").get();
+        UserThumbInfo first = userThumbInfoRepository.saveAndFlush(createEntity(em).clicker(user));
+        UserThumbInfo second = userThumbInfoRepository.saveAndFlush(createEntity(em).clicker(user));
+        UserThumbInfo third = userThumbInfoRepository.saveAndFlush(createEntity(em).clicker(user));
+        userThumbInfoRepository.saveAndFlush(createEntity(em));
+
+        // Get the first page of the history
+        restUserThumbInfoMockMvc.perform(get("/api/user-thumb-infos/mine").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("Link", containsString("after=" + second.getId())))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(third.getId().intValue()))
+            .andExpect(jsonPath("$.[0].word").value(DEFAULT_WORD))
+            .andExpect(jsonPath("$.[0].thumbLid").value(DEFAULT_THUMB_LID))
+            .andExpect(jsonPath("$.[1].id").value(second.getId().intValue()));
+
+        // Get the last page of the history
+        restUserThumbInfoMockMvc.perform(get("/api/user-thumb-infos/mine")
+            .param("after", second.getId().toString()).param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Link"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getMyUserThumbInfosWithInvalidLimit() throws Exception {
+        restUserThumbInfoMockMvc.perform(get("/api/user-thumb-infos/mine").param("limit", "0"))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -276,6 +492,7 @@ public class UserThumbInfoResourceIT {
         assertThat(userThumbInfoList).hasSize(databaseSizeBeforeDelete - 1);
 
         // Validate the UserThumbInfo in Elasticsearch
+        searchOutboxService.drain();
         verify(mockUserThumbInfoSearchRepository, times(1)).deleteById(userThumbInfo.getId());
     }
 
@@ -284,8 +501,8 @@ public class UserThumbInfoResourceIT {
     public void searchUserThumbInfo() throws Exception {
         // Initialize the database
         userThumbInfoRepository.saveAndFlush(userThumbInfo);
-        when(mockUserThumbInfoSearchRepository.search(queryStringQuery("id:" + userThumbInfo.getId())))
-            .thenReturn(Collections.singletonList(userThumbInfo));
+        when(mockUserThumbInfoSearchRepository.search(queryStringQuery("id:" + userThumbInfo.getId()), PageRequest.of(0, 20)))
+            .thenReturn(new PageImpl<>(Collections.singletonList(userThumbInfo), PageRequest.of(0, 1), 1));
         // Search the userThumbInfo
         restUserThumbInfoMockMvc.perform(get("/api/_search/user-thumb-infos?query=id:" + userThumbInfo.getId()))
             .andExpect(status().isOk())
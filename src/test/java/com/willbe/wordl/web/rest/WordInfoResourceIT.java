@@ -1,9 +1,23 @@
 package com.willbe.wordl.web.rest;
 
 import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.CategoryWord;
+import com.willbe.wordl.domain.User;
+import com.willbe.wordl.domain.UserThumbInfo;
 import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.CategoryWordRepository;
+import com.willbe.wordl.repository.UserRepository;
+import com.willbe.wordl.repository.UserThumbInfoRepository;
 import com.willbe.wordl.repository.WordInfoRepository;
+import com.willbe.wordl.repository.WordThumbInfoRepository;
 import com.willbe.wordl.repository.search.WordInfoSearchRepository;
+import com.willbe.wordl.service.SearchOutboxService;
+import com.willbe.wordl.security.AuthoritiesConstants;
+import com.willbe.wordl.service.MorphemeService;
+import com.willbe.wordl.service.WordInfoIndexLoader;
+import com.willbe.wordl.service.ThumbCounterService;
+import com.willbe.wordl.service.event.WordThumbEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,17 +25,25 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.LongStream;
 
+import static com.willbe.wordl.web.rest.TestUtil.iterableContaining;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -51,6 +73,33 @@ public class WordInfoResourceIT {
     @Autowired
     private WordInfoSearchRepository mockWordInfoSearchRepository;
 
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
+    @Autowired
+    private WordThumbInfoRepository wordThumbInfoRepository;
+
+    @Autowired
+    private ThumbCounterService thumbCounterService;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private CategoryWordRepository categoryWordRepository;
+
+    @Autowired
+    private MorphemeService morphemeService;
+
+    @Autowired
+    private WordInfoIndexLoader wordInfoIndexLoader;
+
+    @Autowired
+    private UserThumbInfoRepository userThumbInfoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -105,7 +154,8 @@ public class WordInfoResourceIT {
         assertThat(testWordInfo.getWord()).isEqualTo(DEFAULT_WORD);
 
         // Validate the WordInfo in Elasticsearch
-        verify(mockWordInfoSearchRepository, times(1)).save(testWordInfo);
+        searchOutboxService.drain();
+        verify(mockWordInfoSearchRepository, times(1)).saveAll(iterableContaining(testWordInfo));
     }
 
     @Test
@@ -127,7 +177,8 @@ public class WordInfoResourceIT {
         assertThat(wordInfoList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the WordInfo in Elasticsearch
-        verify(mockWordInfoSearchRepository, times(0)).save(wordInfo);
+        searchOutboxService.drain();
+        verify(mockWordInfoSearchRepository, times(0)).saveAll(iterableContaining(wordInfo));
     }
 
 
@@ -141,8 +192,30 @@ public class WordInfoResourceIT {
         restWordInfoMockMvc.perform(get("/api/word-infos?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(wordInfo.getId().intValue())))
             .andExpect(jsonPath("$.[*].word").value(hasItem(DEFAULT_WORD)));
+
+        // Get a page of the wordInfoList
+        restWordInfoMockMvc.perform(get("/api/word-infos?page=0&size=1&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(wordInfoRepository.count())))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    public void streamAllWordInfos() throws Exception {
+        // Initialize the database
+        wordInfoRepository.saveAndFlush(wordInfo);
+        WordInfo other = wordInfoRepository.saveAndFlush(new WordInfo().word(UPDATED_WORD));
+
+        // Stream all the wordInfoList
+        restWordInfoMockMvc.perform(get("/api/word-infos/_stream"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("{\"id\":" + wordInfo.getId() + ",")))
+            .andExpect(content().string(containsString("\n{\"id\":" + other.getId() + ",")));
     }
 
     @Test
@@ -159,6 +232,31 @@ public class WordInfoResourceIT {
             .andExpect(jsonPath("$.word").value(DEFAULT_WORD));
     }
 
+    @Test
+    @Transactional
+    public void getWordInfoByWord() throws Exception {
+        // Initialize the database
+        wordInfoRepository.saveAndFlush(wordInfo);
+
+        // Get the wordInfo
+        restWordInfoMockMvc.perform(get("/api/word-infos/by-word/{word}", DEFAULT_WORD))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(wordInfo.getId().intValue()))
+            .andExpect(jsonPath("$.word").value(DEFAULT_WORD));
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingWordInfoByWord() throws Exception {
+        // Initialize the database
+        wordInfoRepository.saveAndFlush(wordInfo);
+
+        // Get the wordInfo
+        restWordInfoMockMvc.perform(get("/api/word-infos/by-word/{word}", UPDATED_WORD))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     public void getNonExistingWordInfo() throws Exception {
@@ -194,7 +292,8 @@ public class WordInfoResourceIT {
         assertThat(testWordInfo.getWord()).isEqualTo(UPDATED_WORD);
 
         // Validate the WordInfo in Elasticsearch
-        verify(mockWordInfoSearchRepository, times(1)).save(testWordInfo);
+        searchOutboxService.drain();
+        verify(mockWordInfoSearchRepository, times(1)).saveAll(iterableContaining(testWordInfo));
     }
 
     @Test
@@ -215,7 +314,348 @@ public class WordInfoResourceIT {
         assertThat(wordInfoList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the WordInfo in Elasticsearch
-        verify(mockWordInfoSearchRepository, times(0)).save(wordInfo);
+        searchOutboxService.drain();
+        verify(mockWordInfoSearchRepository, times(0)).saveAll(iterableContaining(wordInfo));
+    }
+
+    @Test
+    public void completeWordInfos() throws Exception {
+        // Create the wordInfos through the API, which commits them
+        Long automaton = createCommittedWordInfo("Automaton");
+        Long autocomplete = createCommittedWordInfo("autocomplete");
+        Long zebra = createCommittedWordInfo("zebra");
+
+        // Thumb a wordInfo
+        applicationEventPublisher.publishEvent(new WordThumbEvent(null, automaton, null, 1));
+
+        // Complete a prefix
+        restWordInfoMockMvc.perform(get("/api/word-infos/complete").param("prefix", "AUTO"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(automaton.intValue()))
+            .andExpect(jsonPath("$.[0].word").value("Automaton"))
+            .andExpect(jsonPath("$.[0].thumbs").value(1))
+            .andExpect(jsonPath("$.[1].id").value(autocomplete.intValue()))
+            .andExpect(jsonPath("$.[1].thumbs").value(0));
+
+        // Delete the wordInfos through the API
+        for (Long id : new Long[] {automaton, autocomplete, zebra}) {
+            restWordInfoMockMvc.perform(delete("/api/word-infos/{id}", id).with(csrf()))
+                .andExpect(status().isNoContent());
+        }
+        restWordInfoMockMvc.perform(get("/api/word-infos/complete").param("prefix", "auto"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void suggestWordInfos() throws Exception {
+        // Create the wordInfos through the API, which commits them
+        Long receive = createCommittedWordInfo("Receive");
+        Long relieve = createCommittedWordInfo("relieve");
+        Long zebra = createCommittedWordInfo("zebra");
+
+        // Correct a misspelled word
+        restWordInfoMockMvc.perform(get("/api/word-infos/suggest").param("q", "recieve"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(receive.intValue()))
+            .andExpect(jsonPath("$.[0].word").value("Receive"))
+            .andExpect(jsonPath("$.[0].distance").value(1))
+            .andExpect(jsonPath("$.[1].id").value(relieve.intValue()))
+            .andExpect(jsonPath("$.[1].distance").value(1));
+
+        // Delete the wordInfos through the API
+        for (Long id : new Long[] {receive, relieve, zebra}) {
+            restWordInfoMockMvc.perform(delete("/api/word-infos/{id}", id).with(csrf()))
+                .andExpect(status().isNoContent());
+        }
+        restWordInfoMockMvc.perform(get("/api/word-infos/suggest").param("q", "recieve"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importWordInfos() throws Exception {
+        // Create a wordInfo through the API, which commits it
+        Long existing = createCommittedWordInfo("importc");
+
+        // Import the wordInfos, which commits them
+        restWordInfoMockMvc.perform(post("/api/word-infos/_import").with(csrf())
+            .contentType("text/csv")
+            .content("id;word\n1;importa\n2;importb\n3;importa\n4;\n5;importc\n"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.read").value(5))
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.skipped").value(3))
+            .andExpect(jsonPath("$.failed").value(0));
+
+        // Validate the WordInfos in the database, with ids which do not collide with those given by Hibernate
+        Long importa = wordInfoRepository.findOneByWord("importa").get().getId();
+        Long importb = wordInfoRepository.findOneByWord("importb").get().getId();
+        Long importd = createCommittedWordInfo("importd");
+        assertThat(Arrays.asList(existing, importa, importb, importd)).doesNotHaveDuplicates();
+
+        // Validate the WordInfos are indexed by the drain of the search outbox, and can be completed
+        searchOutboxService.drain();
+        verify(mockWordInfoSearchRepository, atLeastOnce()).saveAll(iterableContaining(wordInfoRepository.findById(importa).get()));
+        verify(mockWordInfoSearchRepository, atLeastOnce()).saveAll(iterableContaining(wordInfoRepository.findById(importb).get()));
+        restWordInfoMockMvc.perform(get("/api/word-infos/complete").param("prefix", "import"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4));
+
+        // Delete the wordInfos through the API
+        for (Long id : new Long[] {existing, importa, importb, importd}) {
+            restWordInfoMockMvc.perform(delete("/api/word-infos/{id}", id).with(csrf()))
+                .andExpect(status().isNoContent());
+        }
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importWordInfosWithAFailedChunk() throws Exception {
+        String tooLong = String.join("", Collections.nCopies(300, "x"));
+
+        // Import the wordInfos, the first chunk of which is rejected by the database
+        restWordInfoMockMvc.perform(post("/api/word-infos/_import").with(csrf())
+            .contentType("text/csv")
+            .content("id;word\n1;importe\n2;" + tooLong + "\n3;importf\n4;\n"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.read").value(4))
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.skipped").value(1))
+            .andExpect(jsonPath("$.failed").value(2));
+
+        assertThat(wordInfoRepository.findOneByWord("importe")).isEmpty();
+        Long importf = wordInfoRepository.findOneByWord("importf").get().getId();
+
+        // Delete the wordInfo through the API
+        restWordInfoMockMvc.perform(delete("/api/word-infos/{id}", importf).with(csrf()))
+            .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importWordInfosWithoutWordColumn() throws Exception {
+        restWordInfoMockMvc.perform(post("/api/word-infos/_import").with(csrf())
+            .contentType("text/csv")
+            .content("id;name\n1;import\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void importWordInfosAsUser() throws Exception {
+        restWordInfoMockMvc.perform(post("/api/word-infos/_import").with(csrf())
+            .contentType("text/csv")
+            .content("id;word\n1;import\n"))
+            .andExpect(status().isForbidden());
+    }
+
+    private Long createCommittedWordInfo(String word) throws Exception {
+        String location = restWordInfoMockMvc.perform(post("/api/word-infos").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(new WordInfo().word(word))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getHeader("Location");
+        return Long.valueOf(location.substring(location.lastIndexOf('/') + 1));
+    }
+
+    @Test
+    @Transactional
+    public void getWordInfoMorphemes() throws Exception {
+        // Initialize the database
+        wordInfoRepository.saveAndFlush(wordInfo.word("Unbreakable"));
+        List<CategoryWord> categoryWords = categoryWordRepository.saveAll(Arrays.asList(
+            new CategoryWord().category("PREFIX").word("un"),
+            new CategoryWord().category("ROOT").word("break"),
+            new CategoryWord().category("SUFFIX").word("able")));
+        categoryWordRepository.flush();
+        morphemeService.rebuild();
+
+        // Get the morphemes
+        restWordInfoMockMvc.perform(get("/api/word-infos/{id}/morphemes", wordInfo.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(wordInfo.getId().intValue()))
+            .andExpect(jsonPath("$.morphemes.[*].text").value(contains("Un", "break", "able")))
+            .andExpect(jsonPath("$.morphemes.[*].category").value(contains("PREFIX", "ROOT", "SUFFIX")))
+            .andExpect(jsonPath("$.morphemes.[*].start").value(contains(0, 2, 7)));
+
+        // Get the morphemes of several wordInfos
+        restWordInfoMockMvc.perform(get("/api/word-infos/morphemes")
+            .param("ids", wordInfo.getId().toString(), String.valueOf(Long.MAX_VALUE)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(wordInfo.getId().intValue()))
+            .andExpect(jsonPath("$.[0].morphemes.length()").value(3));
+
+        // The rolled back categoryWords must not stay in the automaton
+        categoryWordRepository.deleteAll(categoryWords);
+        categoryWordRepository.flush();
+        morphemeService.rebuild();
+    }
+
+    @Test
+    @Transactional
+    public void getTooManyWordInfoMorphemes() throws Exception {
+        String[] ids = LongStream.rangeClosed(1, 101).mapToObj(String::valueOf).toArray(String[]::new);
+
+        restWordInfoMockMvc.perform(get("/api/word-infos/morphemes").param("ids", ids))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getWordInfosByCategories() throws Exception {
+        // Initialize the database
+        wordInfoRepository.saveAndFlush(wordInfo.word("Unbreakable"));
+        List<CategoryWord> categoryWords = categoryWordRepository.saveAll(Arrays.asList(
+            new CategoryWord().category("PREFIX").word("un"),
+            new CategoryWord().category("ROOT").word("break"),
+            new CategoryWord().category("SUFFIX").word("able")));
+        categoryWordRepository.flush();
+        wordInfoIndexLoader.loadAll();
+
+        // Find the wordInfos
+        restWordInfoMockMvc.perform(get("/api/word-infos/by-categories")
+            .param("all", "ROOT:break", "suffix:ABLE").param("any", "PREFIX:un", "PREFIX:re").param("none", "ROOT:dict"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.total").value(1))
+            .andExpect(jsonPath("$.wordInfoIds").value(contains(wordInfo.getId().intValue())));
+        restWordInfoMockMvc.perform(get("/api/word-infos/by-categories")
+            .param("all", "ROOT:break").param("none", "PREFIX:un"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(0));
+
+        // The rolled back wordInfo and categoryWords must not stay in the indices
+        wordInfoRepository.delete(wordInfo);
+        categoryWordRepository.deleteAll(categoryWords);
+        categoryWordRepository.flush();
+        wordInfoIndexLoader.loadAll();
+    }
+
+    @Test
+    @Transactional
+    public void getWordInfosByInvalidCategory() throws Exception {
+        restWordInfoMockMvc.perform(get("/api/word-infos/by-categories").param("all", "SITUATION:home"))
+            .andExpect(status().isBadRequest());
+        restWordInfoMockMvc.perform(get("/api/word-infos/by-categories").param("none", "break"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingWordInfoMorphemes() throws Exception {
+        restWordInfoMockMvc.perform(get("/api/word-infos/{id}/morphemes", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getWordInfoDetail() throws Exception {
+        // Initialize the database
+        wordInfoRepository.saveAndFlush(wordInfo);
+        WordThumbInfo popular = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(10).picUrl("popular").word(wordInfo));
+        WordThumbInfo unpopular = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(1).picUrl("unpopular").word(wordInfo));
+        CategoryWord categoryWord = categoryWordRepository.saveAndFlush(new CategoryWord().category("SITUATION").word(DEFAULT_WORD));
+        User user = userRepository.findOneByLogin("user").get();
+        UserThumbInfo mine = userThumbInfoRepository.saveAndFlush(new UserThumbInfo().word(DEFAULT_WORD).thumbNum(1).clicker(user));
+        userThumbInfoRepository.saveAndFlush(new UserThumbInfo().word(DEFAULT_WORD).thumbNum(1));
+
+        // Get the detail
+        restWordInfoMockMvc.perform(get("/api/word-infos/{id}/detail", wordInfo.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(wordInfo.getId().intValue()))
+            .andExpect(jsonPath("$.word").value(DEFAULT_WORD))
+            .andExpect(jsonPath("$.pictures.[*].id").value(contains(popular.getId().intValue(), unpopular.getId().intValue())))
+            .andExpect(jsonPath("$.pictures.[0].thumbNum").value(10))
+            .andExpect(jsonPath("$.categoryWords.[*].id").value(contains(categoryWord.getId().intValue())))
+            .andExpect(jsonPath("$.morphemes.[*].text").value(contains(DEFAULT_WORD)))
+            .andExpect(jsonPath("$.userThumbInfos.[*].id").value(contains(mine.getId().intValue())));
+
+        // Get the details of several wordInfos
+        restWordInfoMockMvc.perform(get("/api/word-infos/details")
+            .param("ids", wordInfo.getId().toString(), String.valueOf(Long.MAX_VALUE)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(wordInfo.getId().intValue()))
+            .andExpect(jsonPath("$.[0].pictures.length()").value(2));
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingWordInfoDetail() throws Exception {
+        restWordInfoMockMvc.perform(get("/api/word-infos/{id}/detail", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getTopPictures() throws Exception {
+        // Initialize the database
+        wordInfoRepository.saveAndFlush(wordInfo);
+        WordThumbInfo popular = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(10).picUrl("popular").word(wordInfo));
+        WordThumbInfo rising = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(9).picUrl("rising").word(wordInfo));
+        WordThumbInfo ignored = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().thumbNum(1).picUrl("ignored").word(wordInfo));
+
+        // Thumb the pictures
+        thumbCounterService.thumbWordThumbInfo(popular.getId());
+        thumbCounterService.thumbWordThumbInfo(ignored.getId());
+        thumbCounterService.thumbWordThumbInfo(rising.getId());
+        thumbCounterService.thumbWordThumbInfo(rising.getId());
+        thumbCounterService.thumbWordThumbInfo(rising.getId());
+
+        // Get the best pictures
+        restWordInfoMockMvc.perform(get("/api/word-infos/{id}/top-pictures?k=2", wordInfo.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(rising.getId().intValue()))
+            .andExpect(jsonPath("$.[0].picUrl").value("rising"))
+            .andExpect(jsonPath("$.[0].thumbNum").value(12))
+            .andExpect(jsonPath("$.[1].id").value(popular.getId().intValue()))
+            .andExpect(jsonPath("$.[1].thumbNum").value(11));
+    }
+
+    @Test
+    @Transactional
+    public void getTopPicturesOfWordInfoWithoutThumbs() throws Exception {
+        restWordInfoMockMvc.perform(get("/api/word-infos/{id}/top-pictures", Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @Transactional
+    public void getTrendingWordInfos() throws Exception {
+        // Initialize the database
+        wordInfoRepository.saveAndFlush(wordInfo);
+        WordThumbInfo wordThumbInfo = wordThumbInfoRepository.saveAndFlush(new WordThumbInfo().picUrl("trending").word(wordInfo));
+
+        // Thumb the wordInfo
+        thumbCounterService.thumbWordThumbInfo(wordThumbInfo.getId());
+        thumbCounterService.thumbWordThumbInfo(wordThumbInfo.getId());
+        thumbCounterService.thumbWordThumbInfo(wordThumbInfo.getId());
+
+        // Get the trending wordInfos
+        restWordInfoMockMvc.perform(get("/api/word-infos/trending?window=1h&k=100"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[?(@.id == " + wordInfo.getId() + ")].word").value(hasItem(DEFAULT_WORD)))
+            .andExpect(jsonPath("$.[?(@.id == " + wordInfo.getId() + ")].thumbs").value(hasItem(3)));
+    }
+
+    @Test
+    @Transactional
+    public void getTrendingWordInfosOfInvalidWindow() throws Exception {
+        restWordInfoMockMvc.perform(get("/api/word-infos/trending?window=1y"))
+            .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -236,6 +676,7 @@ public class WordInfoResourceIT {
         assertThat(wordInfoList).hasSize(databaseSizeBeforeDelete - 1);
 
         // Validate the WordInfo in Elasticsearch
+        searchOutboxService.drain();
         verify(mockWordInfoSearchRepository, times(1)).deleteById(wordInfo.getId());
     }
 
@@ -244,8 +685,8 @@ public class WordInfoResourceIT {
     public void searchWordInfo() throws Exception {
         // Initialize the database
         wordInfoRepository.saveAndFlush(wordInfo);
-        when(mockWordInfoSearchRepository.search(queryStringQuery("id:" + wordInfo.getId())))
-            .thenReturn(Collections.singletonList(wordInfo));
+        when(mockWordInfoSearchRepository.search(queryStringQuery("id:" + wordInfo.getId()), PageRequest.of(0, 20)))
+            .thenReturn(new PageImpl<>(Collections.singletonList(wordInfo), PageRequest.of(0, 1), 1));
         // Search the wordInfo
         restWordInfoMockMvc.perform(get("/api/_search/word-infos?query=id:" + wordInfo.getId()))
             .andExpect(status().isOk())
@@ -1,9 +1,16 @@
 package com.willbe.wordl.web.rest;
 
 import com.willbe.wordl.WordlearnbackendApp;
+import com.willbe.wordl.domain.WordInfo;
 import com.willbe.wordl.domain.WordThumbInfo;
+import com.willbe.wordl.repository.WordInfoRepository;
 import com.willbe.wordl.repository.WordThumbInfoRepository;
 import com.willbe.wordl.repository.search.WordThumbInfoSearchRepository;
+import com.willbe.wordl.service.SearchOutboxService;
+import com.willbe.wordl.security.AuthoritiesConstants;
+import com.willbe.wordl.service.ThumbCounterService;
+import com.willbe.wordl.service.TopPicturesService;
+import com.willbe.wordl.service.dto.TopPictureDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +18,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,9 +28,12 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.EntityManager;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import static com.willbe.wordl.web.rest.TestUtil.iterableContaining;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -57,6 +69,18 @@ public class WordThumbInfoResourceIT {
     @Autowired
     private WordThumbInfoSearchRepository mockWordThumbInfoSearchRepository;
 
+    @Autowired
+    private SearchOutboxService searchOutboxService;
+
+    @Autowired
+    private ThumbCounterService thumbCounterService;
+
+    @Autowired
+    private WordInfoRepository wordInfoRepository;
+
+    @Autowired
+    private TopPicturesService topPicturesService;
+
     @Autowired
     private EntityManager em;
 
@@ -117,7 +141,8 @@ public class WordThumbInfoResourceIT {
         assertThat(testWordThumbInfo.getThumbLid()).isEqualTo(DEFAULT_THUMB_LID);
 
         // Validate the WordThumbInfo in Elasticsearch
-        verify(mockWordThumbInfoSearchRepository, times(1)).save(testWordThumbInfo);
+        searchOutboxService.drain();
+        verify(mockWordThumbInfoSearchRepository, times(1)).saveAll(iterableContaining(testWordThumbInfo));
     }
 
     @Test
@@ -139,7 +164,8 @@ public class WordThumbInfoResourceIT {
         assertThat(wordThumbInfoList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the WordThumbInfo in Elasticsearch
-        verify(mockWordThumbInfoSearchRepository, times(0)).save(wordThumbInfo);
+        searchOutboxService.drain();
+        verify(mockWordThumbInfoSearchRepository, times(0)).saveAll(iterableContaining(wordThumbInfo));
     }
 
 
@@ -153,10 +179,30 @@ public class WordThumbInfoResourceIT {
         restWordThumbInfoMockMvc.perform(get("/api/word-thumb-infos?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(wordThumbInfo.getId().intValue())))
             .andExpect(jsonPath("$.[*].thumbNum").value(hasItem(DEFAULT_THUMB_NUM)))
             .andExpect(jsonPath("$.[*].picUrl").value(hasItem(DEFAULT_PIC_URL)))
             .andExpect(jsonPath("$.[*].thumbLid").value(hasItem(DEFAULT_THUMB_LID)));
+
+        // Get a page of the wordThumbInfoList
+        restWordThumbInfoMockMvc.perform(get("/api/word-thumb-infos?page=0&size=1&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(wordThumbInfoRepository.count())))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    public void streamAllWordThumbInfos() throws Exception {
+        // Initialize the database
+        wordThumbInfoRepository.saveAndFlush(wordThumbInfo);
+
+        // Stream all the wordThumbInfoList
+        restWordThumbInfoMockMvc.perform(get("/api/word-thumb-infos/_stream"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string(containsString("{\"id\":" + wordThumbInfo.getId() + ",")));
     }
 
     @Test
@@ -214,7 +260,8 @@ public class WordThumbInfoResourceIT {
         assertThat(testWordThumbInfo.getThumbLid()).isEqualTo(UPDATED_THUMB_LID);
 
         // Validate the WordThumbInfo in Elasticsearch
-        verify(mockWordThumbInfoSearchRepository, times(1)).save(testWordThumbInfo);
+        searchOutboxService.drain();
+        verify(mockWordThumbInfoSearchRepository, times(1)).saveAll(iterableContaining(testWordThumbInfo));
     }
 
     @Test
@@ -235,7 +282,139 @@ public class WordThumbInfoResourceIT {
         assertThat(wordThumbInfoList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the WordThumbInfo in Elasticsearch
-        verify(mockWordThumbInfoSearchRepository, times(0)).save(wordThumbInfo);
+        searchOutboxService.drain();
+        verify(mockWordThumbInfoSearchRepository, times(0)).saveAll(iterableContaining(wordThumbInfo));
+    }
+
+    @Test
+    @Transactional
+    public void thumbWordThumbInfo() throws Exception {
+        // Initialize the database
+        wordThumbInfoRepository.saveAndFlush(wordThumbInfo);
+
+        // Thumb the wordThumbInfo twice
+        restWordThumbInfoMockMvc.perform(post("/api/word-thumb-infos/{id}/thumb", wordThumbInfo.getId()).with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(wordThumbInfo.getId().intValue()))
+            .andExpect(jsonPath("$.thumbNum").value(DEFAULT_THUMB_NUM + 1));
+        restWordThumbInfoMockMvc.perform(post("/api/word-thumb-infos/{id}/thumb", wordThumbInfo.getId()).with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.thumbNum").value(DEFAULT_THUMB_NUM + 2));
+        assertThat(thumbCounterService.getPendingWordThumbs(wordThumbInfo.getId())).isEqualTo(2);
+
+        // Write the pending thumbs to the database
+        thumbCounterService.flush();
+        em.clear();
+
+        // Validate the WordThumbInfo in the database
+        WordThumbInfo testWordThumbInfo = wordThumbInfoRepository.findById(wordThumbInfo.getId()).get();
+        assertThat(testWordThumbInfo.getThumbNum()).isEqualTo(DEFAULT_THUMB_NUM + 2);
+        assertThat(thumbCounterService.getPendingWordThumbs(wordThumbInfo.getId())).isZero();
+
+        // Validate the WordThumbInfo in Elasticsearch
+        searchOutboxService.drain();
+        verify(mockWordThumbInfoSearchRepository, times(1)).saveAll(iterableContaining(testWordThumbInfo));
+    }
+
+    @Test
+    @Transactional
+    public void thumbNonExistingWordThumbInfo() throws Exception {
+        restWordThumbInfoMockMvc.perform(post("/api/word-thumb-infos/{id}/thumb", Long.MAX_VALUE).with(csrf()))
+            .andExpect(status().isNotFound());
+
+        assertThat(thumbCounterService.getPendingWordThumbs(Long.MAX_VALUE)).isZero();
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void reconcileWordThumbInfos() throws Exception {
+        restWordThumbInfoMockMvc.perform(post("/api/word-thumb-infos/_reconcile").with(csrf()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.checkedWordThumbInfos").isNumber())
+            .andExpect(jsonPath("$.correctedWordThumbInfos").isNumber())
+            .andExpect(jsonPath("$.drift").isNumber());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importWordThumbInfos() throws Exception {
+        // Initialize the database, outside of a transaction so that the import sees it
+        WordInfo wordInfo = wordInfoRepository.saveAndFlush(new WordInfo().word("importedthumbs"));
+        try {
+            // Import the wordThumbInfos, which commits them
+            restWordThumbInfoMockMvc.perform(post("/api/word-thumb-infos/_import").with(csrf())
+                .contentType("text/tab-separated-values")
+                .content("id\tthumb_num\tpic_url\tthumb_lid\tword\tword_id\n" +
+                    "1\t5\timported-a\tlid\timportedthumbs\t\n" +
+                    "2\tmany\timported-b\tlid\timportedthumbs\t\n" +
+                    "3\t7\timported-c\tlid\tunknownword\t\n" +
+                    "4\t\timported-d\t\t\t\n" +
+                    "5\t9\timported-e\t\t\t" + wordInfo.getId() + "\n" +
+                    "6\t3\timported-f\t\t\t" + Long.MAX_VALUE + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.read").value(6))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.skipped").value(3))
+                .andExpect(jsonPath("$.failed").value(0));
+
+            // Validate the WordThumbInfos in the database
+            List<WordThumbInfo> imported = findImported();
+            assertThat(imported).extracting(WordThumbInfo::getPicUrl).containsExactlyInAnyOrder("imported-a", "imported-d", "imported-e");
+            assertThat(imported).filteredOn(wordThumbInfo -> wordThumbInfo.getWord() != null)
+                .hasSize(2)
+                .allMatch(wordThumbInfo -> wordThumbInfo.getWord().getId().equals(wordInfo.getId()));
+
+            // Validate the WordThumbInfos are indexed by the drain of the search outbox, and are among the best-voted pictures
+            searchOutboxService.drain();
+            imported.forEach(wordThumbInfo -> verify(mockWordThumbInfoSearchRepository, atLeastOnce()).saveAll(iterableContaining(wordThumbInfo)));
+            assertThat(topPicturesService.getTopPictures(wordInfo.getId(), 10)).extracting(TopPictureDTO::getPicUrl)
+                .containsExactly("imported-e", "imported-a");
+        } finally {
+            // Delete the imported entities
+            wordThumbInfoRepository.deleteAll(findImported());
+            wordInfoRepository.delete(wordInfo);
+            topPicturesService.reload(wordInfo.getId());
+        }
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importWordThumbInfosOfTheFakeData() throws Exception {
+        try {
+            restWordThumbInfoMockMvc.perform(post("/api/word-thumb-infos/_import").with(csrf())
+                .contentType("text/csv")
+                .content("id;thumb_num;pic_url;thumb_lid\n1;2;imported-fake;lid\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+            assertThat(findImported()).extracting(WordThumbInfo::getPicUrl).containsExactly("imported-fake");
+        } finally {
+            wordThumbInfoRepository.deleteAll(findImported());
+        }
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    public void importWordThumbInfosWithoutColumns() throws Exception {
+        restWordThumbInfoMockMvc.perform(post("/api/word-thumb-infos/_import").with(csrf())
+            .contentType("text/csv")
+            .content("id;name\n1;imported\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private List<WordThumbInfo> findImported() {
+        return wordThumbInfoRepository.findAll().stream()
+            .filter(wordThumbInfo -> wordThumbInfo.getPicUrl() != null && wordThumbInfo.getPicUrl().startsWith("imported-"))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void reconcileWordThumbInfosAsUser() throws Exception {
+        restWordThumbInfoMockMvc.perform(post("/api/word-thumb-infos/_reconcile").with(csrf()))
+            .andExpect(status().isForbidden());
     }
 
     @Test
@@ -256,6 +435,7 @@ public class WordThumbInfoResourceIT {
         assertThat(wordThumbInfoList).hasSize(databaseSizeBeforeDelete - 1);
 
         // Validate the WordThumbInfo in Elasticsearch
+        searchOutboxService.drain();
         verify(mockWordThumbInfoSearchRepository, times(1)).deleteById(wordThumbInfo.getId());
     }
 
@@ -264,8 +444,8 @@ public class WordThumbInfoResourceIT {
     public void searchWordThumbInfo() throws Exception {
         // Initialize the database
         wordThumbInfoRepository.saveAndFlush(wordThumbInfo);
-        when(mockWordThumbInfoSearchRepository.search(queryStringQuery("id:" + wordThumbInfo.getId())))
-            .thenReturn(Collections.singletonList(wordThumbInfo));
+        when(mockWordThumbInfoSearchRepository.search(queryStringQuery("id:" + wordThumbInfo.getId()), PageRequest.of(0, 20)))
+            .thenReturn(new PageImpl<>(Collections.singletonList(wordThumbInfo), PageRequest.of(0, 1), 1));
         // Search the wordThumbInfo
         restWordThumbInfoMockMvc.perform(get("/api/_search/word-thumb-infos?query=id:" + wordThumbInfo.getId()))
             .andExpect(status().isOk())
@@ -35,6 +35,16 @@ public class ExceptionTranslatorIT {
             .andExpect(jsonPath("$.message").value(ErrorConstants.ERR_CONCURRENCY_FAILURE));
     }
 
+    @Test
+    public void testInvalidSearch() throws Exception {
+        mockMvc.perform(get("/api/exception-translator-test/invalid-search").with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+            .andExpect(jsonPath("$.message").value("error.invalidsearch"))
+            .andExpect(jsonPath("$.entityName").value("wordInfo"))
+            .andExpect(jsonPath("$.title").value("test invalid search"));
+    }
+
     @Test
     public void testMethodArgumentNotValid() throws Exception {
          mockMvc.perform(post("/api/exception-translator-test/method-argument").content("{}").contentType(MediaType.APPLICATION_JSON).with(csrf()))
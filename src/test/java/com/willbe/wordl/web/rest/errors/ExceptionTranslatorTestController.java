@@ -1,5 +1,7 @@
 package com.willbe.wordl.web.rest.errors;
 
+import com.willbe.wordl.domain.WordInfo;
+import com.willbe.wordl.repository.search.InvalidSearchException;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
@@ -18,6 +20,11 @@ public class ExceptionTranslatorTestController {
         throw new ConcurrencyFailureException("test concurrency failure");
     }
 
+    @GetMapping("/invalid-search")
+    public void invalidSearch() {
+        throw new InvalidSearchException(WordInfo.class, "test invalid search");
+    }
+
     @PostMapping("/method-argument")
     public void methodArgument(@Valid @RequestBody TestDTO testDTO) {
     }
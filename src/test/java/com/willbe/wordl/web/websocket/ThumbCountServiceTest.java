@@ -0,0 +1,71 @@
+package com.willbe.wordl.web.websocket;
+
+import com.willbe.wordl.service.dto.ThumbCountDTO;
+import com.willbe.wordl.service.event.WordThumbEvent;
+import com.willbe.wordl.web.websocket.dto.WordThumbCountsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ThumbCountService}.
+ */
+public class ThumbCountServiceTest {
+
+    private SimpMessageSendingOperations messagingTemplate;
+
+    private ThumbCountService thumbCountService;
+
+    @BeforeEach
+    public void init() {
+        messagingTemplate = mock(SimpMessageSendingOperations.class);
+        thumbCountService = new ThumbCountService(messagingTemplate);
+    }
+
+    @Test
+    public void sendsOneMessagePerWord() {
+        thumbCountService.onWordThumb(new WordThumbEvent(1L, 10L, "a", 1));
+        thumbCountService.onWordThumb(new WordThumbEvent(1L, 10L, "a", 3));
+        thumbCountService.onWordThumb(new WordThumbEvent(1L, 10L, "a", 2));
+        thumbCountService.onWordThumb(new WordThumbEvent(2L, 10L, "b", 5));
+        thumbCountService.onWordThumb(new WordThumbEvent(3L, 20L, "c", 1));
+
+        thumbCountService.sendThumbCounts();
+
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/thumbs/10"), message.capture());
+        verify(messagingTemplate).convertAndSend(eq("/topic/thumbs/20"), any(Object.class));
+        WordThumbCountsDTO counts = (WordThumbCountsDTO) message.getValue();
+        assertThat(counts.getWordInfoId()).isEqualTo(10L);
+        assertThat(counts.getWordThumbInfos()).extracting(ThumbCountDTO::getId, ThumbCountDTO::getThumbNum)
+            .containsExactlyInAnyOrder(tuple(1L, 3L), tuple(2L, 5L));
+    }
+
+    @Test
+    public void sendsNothingWithoutNewThumbs() {
+        thumbCountService.onWordThumb(new WordThumbEvent(1L, 10L, "a", 1));
+        thumbCountService.sendThumbCounts();
+        reset(messagingTemplate);
+
+        thumbCountService.sendThumbCounts();
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    public void ignoresThePicturesWithoutWord() {
+        thumbCountService.onWordThumb(new WordThumbEvent(1L, null, "a", 1));
+
+        thumbCountService.sendThumbCounts();
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+}